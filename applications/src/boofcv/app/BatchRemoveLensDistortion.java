@@ -19,27 +19,29 @@
 package boofcv.app;
 
 import boofcv.alg.distort.AdjustmentType;
-import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.LensDistortionOps;
-import boofcv.core.image.border.BorderType;
+import boofcv.alg.distort.RemapTableRender;
 import boofcv.io.calibration.CalibrationIO;
+import boofcv.io.distort.DistortMapIO;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.io.image.UtilImageIO;
 import boofcv.misc.BoofMiscOps;
 import boofcv.struct.calib.CameraPinhole;
 import boofcv.struct.calib.CameraPinholeRadial;
+import boofcv.struct.distort.RemapTable;
 import boofcv.struct.image.GrayF32;
-import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Removes lens distortion from all the images in a directory
+ * Removes lens distortion from all the images in a directory.  The look up table used to remove distortion
+ * is saved next to the intrinsic file and loaded on the next run, instead of being computed again.
  *
  * @author Peter Abeles
  */
@@ -113,8 +115,8 @@ public class BatchRemoveLensDistortion {
 		Planar<GrayF32> distoredImg = new Planar<>(GrayF32.class,param.width,param.height,3);
 		Planar<GrayF32> undistoredImg = new Planar<>(GrayF32.class,param.width,param.height,3);
 
-		ImageDistort distort = LensDistortionOps.changeCameraModel(adjustmentType, BorderType.ZERO, param,
-				new CameraPinhole(param), paramAdj, (ImageType) distoredImg.getImageType());
+		RemapTableRender<Planar<GrayF32>> distort = new RemapTableRender<>(
+				loadRemapTable(new File(pathIntrinsic), param, adjustmentType, paramAdj));
 		CalibrationIO.save(paramAdj,new File(outputDir,"intrinsicUndistorted.yaml").getAbsolutePath());
 
 		BufferedImage out = new BufferedImage(param.width,param.height,BufferedImage.TYPE_INT_RGB);
@@ -148,4 +150,43 @@ public class BatchRemoveLensDistortion {
 			UtilImageIO.saveImage(out,new File(outputDir,nameOut).getAbsolutePath());
 		}
 	}
+
+	/**
+	 * Loads the table for removing lens distortion if it has already been saved next to the intrinsic file and
+	 * is up to date.  Otherwise the table is computed and saved.
+	 *
+	 * @param fileIntrinsic File the intrinsic parameters were loaded from
+	 * @param param Intrinsic parameters
+	 * @param adjustmentType How the undistorted image is adjusted
+	 * @param paramAdj (Output) Intrinsic parameters of the undistorted image
+	 * @return The table
+	 */
+	private static RemapTable loadRemapTable( File fileIntrinsic , CameraPinholeRadial param ,
+											  AdjustmentType adjustmentType , CameraPinholeRadial paramAdj ) {
+		CameraPinhole desired = new CameraPinhole(param);
+		File fileTable = DistortMapIO.remapFileFor(fileIntrinsic, adjustmentType.name().toLowerCase());
+
+		if( fileTable.exists() && fileTable.lastModified() >= fileIntrinsic.lastModified() ) {
+			try {
+				RemapTable table = DistortMapIO.loadRemapTable(fileTable);
+				if( table.width == param.width && table.height == param.height ) {
+					// only the adjusted parameters are needed, which is much cheaper than computing the table
+					LensDistortionOps.transformChangeModel_F32(adjustmentType, param, desired, true, paramAdj);
+					System.out.println("loaded remap table "+fileTable.getPath());
+					return table;
+				}
+			} catch( IOException e ) {
+				System.err.println("Failed to load remap table. "+e.getMessage());
+			}
+		}
+
+		RemapTable table = LensDistortionOps.changeCameraModelTable(adjustmentType, param, desired, paramAdj);
+		try {
+			DistortMapIO.save(table, fileTable);
+			System.out.println("saved remap table "+fileTable.getPath());
+		} catch( IOException e ) {
+			System.err.println("Failed to save remap table. "+e.getMessage());
+		}
+		return table;
+	}
 }
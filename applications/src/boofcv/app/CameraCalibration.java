@@ -23,14 +23,18 @@ import boofcv.abst.fiducial.calib.ConfigCircleAsymmetricGrid;
 import boofcv.abst.fiducial.calib.ConfigCircleRegularGrid;
 import boofcv.abst.fiducial.calib.ConfigSquareGrid;
 import boofcv.abst.geo.calibration.CalibrateMonoPlanar;
+import boofcv.abst.geo.calibration.ConcurrentCalibrationDetector;
 import boofcv.abst.geo.calibration.DetectorFiducialCalibration;
 import boofcv.app.calib.AssistedCalibration;
 import boofcv.app.calib.AssistedCalibrationGui;
 import boofcv.app.calib.ComputeGeometryScore;
+import boofcv.concurrency.InstanceFactory;
 import boofcv.factory.fiducial.FactoryFiducialCalibration;
 import boofcv.gui.calibration.MonoPlanarPanel;
 import boofcv.gui.image.ShowImages;
 import boofcv.io.calibration.CalibrationIO;
+import boofcv.io.calibration.CalibrationImageFiles;
+import boofcv.io.calibration.CalibrationObservationFileCache;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.io.image.UtilImageIO;
 import boofcv.io.webcamcapture.UtilWebcamCapture;
@@ -41,6 +45,7 @@ import com.github.sarxos.webcam.Webcam;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -58,6 +63,14 @@ public class CameraCalibration extends BaseStandardInputApp {
 	protected String inputDirectory;
 	protected String outputFileName = "intrinsic.yaml";
 	protected DetectorFiducialCalibration detector;
+	// creates a new detector for each thread
+	protected InstanceFactory<DetectorFiducialCalibration> detectorFactory;
+	// uniquely describes the detector's configuration.  Used as part of the cache key
+	protected String detectorDescription;
+	// number of threads used to detect targets in images.  If <= 0 then all available threads are used
+	protected int numThreads = 0;
+	// directory that detected calibration targets are cached in
+	protected String cacheDirectory;
 	protected boolean zeroSkew = true;
 	protected int numRadial = 2;
 	protected boolean tangential = false;
@@ -75,6 +88,10 @@ public class CameraCalibration extends BaseStandardInputApp {
 		System.out.println("  --Directory=<path>                 Directory containing calibration images");
 		System.out.println("  --Visualize=<true/false>           Should it visualize the results?");
 		System.out.println("                                     DEFAULT: true");
+		System.out.println("  --Threads=<int>                    Number of threads used to detect calibration targets");
+		System.out.println("                                     DEFAULT: number of processors");
+		System.out.println("  --Cache=<path>                     Directory detected targets are cached in.  Images");
+		System.out.println("                                     in the cache are skipped when run again.");
 		System.out.println();
 		System.out.println("Input: Webcam Options:  ");
 		System.out.println();
@@ -134,6 +151,10 @@ public class CameraCalibration extends BaseStandardInputApp {
 						inputType = InputType.IMAGE;
 					} else if( flagName.compareToIgnoreCase("Visualize") == 0 ) {
 						visualize = Boolean.parseBoolean(parameters);
+					} else if( flagName.compareToIgnoreCase("Threads") == 0 ) {
+						numThreads = Integer.parseInt(parameters);
+					} else if( flagName.compareToIgnoreCase("Cache") == 0 ) {
+						cacheDirectory = parameters;
 					} else if( flagName.compareToIgnoreCase("ZeroSkew") == 0 ) {
 						zeroSkew = Boolean.parseBoolean(parameters);
 					} else if( flagName.compareToIgnoreCase("NumRadial") == 0 ) {
@@ -191,9 +212,14 @@ public class CameraCalibration extends BaseStandardInputApp {
 
 		System.out.println("chessboard: "+numRows+" x "+numColumns);
 
-		ConfigChessboard config = new ConfigChessboard(numRows, numColumns, 1);
+		final ConfigChessboard config = new ConfigChessboard(numRows, numColumns, 1);
 
-		detector = FactoryFiducialCalibration.chessboard(config);
+		setDetector("chessboard "+numRows+" "+numColumns, new InstanceFactory<DetectorFiducialCalibration>() {
+			@Override
+			public DetectorFiducialCalibration newInstance() {
+				return FactoryFiducialCalibration.chessboard(config);
+			}
+		});
 	}
 
 	protected void parseSquareGrid( int index , String []args ) {
@@ -232,9 +258,15 @@ public class CameraCalibration extends BaseStandardInputApp {
 
 		System.out.println("squaregrid: "+numRows+" x "+numColumns+" square/space = "+(square/space));
 
-		ConfigSquareGrid config = new ConfigSquareGrid(numRows, numColumns, square,space);
+		final ConfigSquareGrid config = new ConfigSquareGrid(numRows, numColumns, square,space);
 
-		detector = FactoryFiducialCalibration.squareGrid(config);
+		setDetector("squaregrid "+numRows+" "+numColumns+" "+square+" "+space,
+				new InstanceFactory<DetectorFiducialCalibration>() {
+			@Override
+			public DetectorFiducialCalibration newInstance() {
+				return FactoryFiducialCalibration.squareGrid(config);
+			}
+		});
 	}
 
 	protected void parseCircle( int index , String []args , boolean asymmetric) {
@@ -272,17 +304,35 @@ public class CameraCalibration extends BaseStandardInputApp {
 
 		if( asymmetric ) {
 			System.out.println("circle asymmetric: "+numRows+" x "+numColumns+" diameter = "+diameter+" center distance = "+centerDistance);
-			ConfigCircleAsymmetricGrid config = new ConfigCircleAsymmetricGrid(numRows, numColumns, diameter, centerDistance);
+			final ConfigCircleAsymmetricGrid config = new ConfigCircleAsymmetricGrid(numRows, numColumns, diameter, centerDistance);
 
-			detector = FactoryFiducialCalibration.circleAsymmGrid(config);
+			setDetector("circle_asym "+numRows+" "+numColumns+" "+diameter+" "+centerDistance,
+					new InstanceFactory<DetectorFiducialCalibration>() {
+				@Override
+				public DetectorFiducialCalibration newInstance() {
+					return FactoryFiducialCalibration.circleAsymmGrid(config);
+				}
+			});
 		} else {
 			System.out.println("circle regular: "+numRows+" x "+numColumns+" diameter = "+diameter+" center distance = "+centerDistance);
-			ConfigCircleRegularGrid config = new ConfigCircleRegularGrid(numRows, numColumns, diameter, centerDistance);
+			final ConfigCircleRegularGrid config = new ConfigCircleRegularGrid(numRows, numColumns, diameter, centerDistance);
 
-			detector = FactoryFiducialCalibration.circleRegularGrid(config);
+			setDetector("circle_reg "+numRows+" "+numColumns+" "+diameter+" "+centerDistance,
+					new InstanceFactory<DetectorFiducialCalibration>() {
+				@Override
+				public DetectorFiducialCalibration newInstance() {
+					return FactoryFiducialCalibration.circleRegularGrid(config);
+				}
+			});
 		}
 	}
 
+	private void setDetector( String description , InstanceFactory<DetectorFiducialCalibration> factory ) {
+		detectorDescription = description;
+		detectorFactory = factory;
+		detector = factory.newInstance();
+	}
+
 	public void process() {
 		if( detector == null ) {
 			printHelp();
@@ -314,6 +364,7 @@ public class CameraCalibration extends BaseStandardInputApp {
 		final CalibrateMonoPlanar calibrationAlg = new CalibrateMonoPlanar(detector);
 
 		calibrationAlg.configure( zeroSkew, numRadial, tangential);
+		calibrationAlg.getZhang99().setConcurrent(numThreads != 1);
 
 		File directory = new File(inputDirectory);
 		if( !directory.exists() ) {
@@ -332,18 +383,36 @@ public class CameraCalibration extends BaseStandardInputApp {
 			System.exit(0);
 		}
 
-		boolean first = true;
+		List<File> imageFiles = new ArrayList<>();
 		for( File f : files ){
 			if( f.isDirectory() || f.isHidden())
 				continue;
+			imageFiles.add(f);
+		}
 
-			BufferedImage buffered = UtilImageIO.loadImage(f.getPath());
-			if( buffered == null )
-				continue;
+		// detect calibration targets in all the images using multiple threads
+		ConcurrentCalibrationDetector concurrentDetector =
+				new ConcurrentCalibrationDetector(detectorFactory, numThreads);
+		if( cacheDirectory != null )
+			concurrentDetector.setCache(new CalibrationObservationFileCache(new File(cacheDirectory)));
+
+		List<ConcurrentCalibrationDetector.Results> results =
+				concurrentDetector.process(new CalibrationImageFiles(imageFiles, detectorDescription));
 
-			GrayF32 image = ConvertBufferedImage.convertFrom(buffered,(GrayF32)null);
+		if( cacheDirectory != null )
+			System.out.println("Loaded "+concurrentDetector.getTotalCached()+" of "+imageFiles.size()+" from cache");
+
+		boolean first = true;
+		for (int i = 0; i < imageFiles.size(); i++) {
+			File f = imageFiles.get(i);
+			ConcurrentCalibrationDetector.Results r = results.get(i);
+			if( r.width == 0 )
+				continue;
 
 			if( gui != null ) {
+				BufferedImage buffered = UtilImageIO.loadImage(f.getPath());
+				if( buffered == null )
+					continue;
 				gui.addImage(f.getName(),buffered);
 				if( first ) {
 					first = false;
@@ -351,7 +420,9 @@ public class CameraCalibration extends BaseStandardInputApp {
 				}
 			}
 
-			if( !calibrationAlg.addImage(image) )
+			if( r.detected )
+				calibrationAlg.addObservation(r.observation, r.width, r.height);
+			else
 				System.err.println("Failed to detect target in "+f.getName());
 		}
 
@@ -122,12 +122,7 @@ public class CalibrateMonoPlanar {
 	 */
 	public boolean addImage( GrayF32 image ) {
 
-		if( widthImg == 0 ) {
-			widthImg = image.width;
-			heightImg = image.height;
-		} else if( widthImg != image.width || heightImg != image.height ) {
-			throw new IllegalArgumentException("All images must have the same shape");
-		}
+		checkImageShape(image.width, image.height);
 
 		if( !detector.process(image) )
 			return false;
@@ -137,6 +132,46 @@ public class CalibrateMonoPlanar {
 		}
 	}
 
+	/**
+	 * Adds a view of the calibration target which has already been detected, e.g. by
+	 * {@link ConcurrentCalibrationDetector} or loaded from a cache.
+	 *
+	 * @param observation Detected calibration points
+	 * @param width Width of the image the target was observed in
+	 * @param height Height of the image the target was observed in
+	 */
+	public void addObservation( CalibrationObservation observation , int width , int height ) {
+		checkImageShape(width, height);
+		observations.add(observation);
+	}
+
+	/**
+	 * Adds all the successful detections
+	 *
+	 * @param results Output from {@link ConcurrentCalibrationDetector}
+	 * @return Number of views which were added
+	 */
+	public int addDetections( List<ConcurrentCalibrationDetector.Results> results ) {
+		int total = 0;
+		for (int i = 0; i < results.size(); i++) {
+			ConcurrentCalibrationDetector.Results r = results.get(i);
+			if( r.detected ) {
+				addObservation(r.observation, r.width, r.height);
+				total++;
+			}
+		}
+		return total;
+	}
+
+	private void checkImageShape( int width , int height ) {
+		if( widthImg == 0 ) {
+			widthImg = width;
+			heightImg = height;
+		} else if( widthImg != width || heightImg != height ) {
+			throw new IllegalArgumentException("All images must have the same shape");
+		}
+	}
+
 	/**
 	 * Removes the most recently added image
 	 */
@@ -248,6 +283,14 @@ public class CalibrateMonoPlanar {
 		return errors;
 	}
 
+	/**
+	 * Provides access to the calibration algorithm so that it can be further configured.  Only valid
+	 * after {@link #configure} has been called.
+	 */
+	public CalibrationPlanarGridZhang99 getZhang99() {
+		return zhang99;
+	}
+
 	public Zhang99ParamAll getZhangParam() {
 		return foundZhang;
 	}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+/**
+ * Storage for previously detected calibration targets.  Allows detection to be skipped when the same image
+ * is processed again, e.g. when calibrating with different model options.  Implementations must be thread safe.
+ *
+ * @see ConcurrentCalibrationDetector
+ *
+ * @author Peter Abeles
+ */
+public interface CalibrationObservationCache {
+	/**
+	 * Looks up the results for the specified key
+	 *
+	 * @param key Unique identifier for the image and detector
+	 * @param results (Output) Storage for the results
+	 * @return true if the key was found and false if not
+	 */
+	boolean load( String key , ConcurrentCalibrationDetector.Results results );
+
+	/**
+	 * Saves the results for the specified key.  Results for images where nothing was detected should be
+	 * saved too.
+	 *
+	 * @param key Unique identifier for the image and detector
+	 * @param results The results
+	 */
+	void save( String key , ConcurrentCalibrationDetector.Results results );
+}
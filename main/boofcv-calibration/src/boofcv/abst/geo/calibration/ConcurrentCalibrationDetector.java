@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.image.GrayF32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Detects calibration targets in a set of images using multiple threads.  Each thread has its own detector
+ * and loads images one at a time, so memory usage is proportional to the number of threads and not the number of
+ * images.  Images are assigned to threads as they become free since detection time can vary a lot between images.
+ * </p>
+ *
+ * <p>
+ * Optionally a {@link CalibrationObservationCache} can be specified.  If the results for an image are in
+ * the cache then the image is never loaded and detection is skipped.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrentCalibrationDetector {
+
+	// one detector for each thread
+	private List<DetectorFiducialCalibration> detectors = new ArrayList<>();
+
+	// (Optional) storage for previously computed results
+	private CalibrationObservationCache cache;
+
+	// number of images which were found in the cache in the last call to process
+	private int totalCached;
+
+	public boolean verbose = false;
+
+	/**
+	 * Creates the detector
+	 *
+	 * @param factory Used to create a detector for each thread
+	 * @param numThreads Number of threads which will be used. If &le; 0 then {@link BoofConcurrency#getMaxThreads()}.
+	 */
+	public ConcurrentCalibrationDetector(InstanceFactory<DetectorFiducialCalibration> factory , int numThreads ) {
+		if( numThreads <= 0 )
+			numThreads = BoofConcurrency.getMaxThreads();
+
+		for (int i = 0; i < numThreads; i++) {
+			detectors.add(factory.newInstance());
+		}
+	}
+
+	/**
+	 * Detects calibration targets in all the images.
+	 *
+	 * @param images Source of images
+	 * @return Results for each image in the same order as the images.
+	 */
+	public List<Results> process( final ImageSource images ) {
+		final int N = images.size();
+		final Results[] results = new Results[N];
+		final AtomicInteger next = new AtomicInteger(0);
+		final AtomicInteger cached = new AtomicInteger(0);
+
+		BoofConcurrency.loopBlocks(0, detectors.size(), detectors,
+				new IntRangeObjectConsumer<DetectorFiducialCalibration>() {
+			@Override
+			public void accept(DetectorFiducialCalibration detector, int minInclusive, int maxExclusive) {
+				int index;
+				while( (index = next.getAndIncrement()) < N ) {
+					Results r = new Results();
+					String key = images.getKey(index);
+
+					if( key != null && cache != null && cache.load(key, r) ) {
+						cached.incrementAndGet();
+					} else {
+						detect(detector, images.load(index), r);
+						if( key != null && cache != null )
+							cache.save(key, r);
+					}
+					results[index] = r;
+
+					if( verbose ) System.out.println("image "+index+" detected = "+r.detected);
+				}
+			}
+		});
+
+		totalCached = cached.get();
+
+		List<Results> out = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			out.add(results[i]);
+		}
+		return out;
+	}
+
+	private static void detect( DetectorFiducialCalibration detector , GrayF32 image , Results results ) {
+		results.reset();
+		if( image == null )
+			return;
+
+		results.width = image.width;
+		results.height = image.height;
+
+		if( detector.process(image) ) {
+			results.detected = true;
+			results.observation = detector.getDetectedPoints();
+		}
+	}
+
+	public CalibrationObservationCache getCache() {
+		return cache;
+	}
+
+	public void setCache(CalibrationObservationCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the number of images which were found in the cache during the last call to {@link #process}
+	 */
+	public int getTotalCached() {
+		return totalCached;
+	}
+
+	/**
+	 * Returns the number of threads being used
+	 */
+	public int getNumThreads() {
+		return detectors.size();
+	}
+
+	/**
+	 * Provides images to the detector.  Functions will be called from multiple threads at once.
+	 */
+	public interface ImageSource {
+		/**
+		 * Total number of images
+		 */
+		int size();
+
+		/**
+		 * Loads the specified image.
+		 *
+		 * @return The image or null if it could not be loaded
+		 */
+		GrayF32 load( int index );
+
+		/**
+		 * Returns a key which uniquely identifies the image's contents and the detector.  Used with the cache.
+		 *
+		 * @return The key or null if it should not be cached
+		 */
+		String getKey( int index );
+	}
+
+	/**
+	 * Results of detecting a calibration target in a single image
+	 */
+	public static class Results {
+		/**
+		 * true if the target was detected
+		 */
+		public boolean detected;
+		/**
+		 * Shape of the input image.  0 if the image could not be loaded.
+		 */
+		public int width,height;
+		/**
+		 * Observed calibration points.  null if nothing was detected
+		 */
+		public CalibrationObservation observation;
+
+		public void reset() {
+			detected = false;
+			width = height = 0;
+			observation = null;
+		}
+	}
+}
@@ -74,6 +74,12 @@ public class CalibrationPlanarGridZhang99 {
 	// where calibration points are layout on the target.
 	private List<Point2D_F64> layout;
 
+	// should the residuals and Jacobian be computed using multiple threads
+	private boolean concurrent = false;
+
+	// if true the default optimizer will take advantage of the Jacobian's block structure
+	private boolean sparse = false;
+
 	/**
 	 * Configures calibration process.
 	 *
@@ -187,10 +193,14 @@ public class CalibrationPlanarGridZhang99 {
 								   UnconstrainedLeastSquares optimizer )
 	{
 		if( optimizer == null ) {
-//			optimizer = FactoryOptimization.leastSquaresTrustRegion(1,
-//					RegionStepType.DOG_LEG_FTF,true);
-			optimizer = FactoryOptimization.leastSquaresLM(1e-3,true);
-//			optimizer = FactoryOptimization.leastSquareLevenberg(1e-3);
+			if( sparse ) {
+				optimizer = new Zhang99OptimizationSchur(1e-3);
+			} else {
+//				optimizer = FactoryOptimization.leastSquaresTrustRegion(1,
+//						RegionStepType.DOG_LEG_FTF,true);
+				optimizer = FactoryOptimization.leastSquaresLM(1e-3, true);
+//				optimizer = FactoryOptimization.leastSquareLevenberg(1e-3);
+			}
 		}
 
 		double model[] = new double[ initial.numParameters() ];
@@ -203,6 +213,9 @@ public class CalibrationPlanarGridZhang99 {
 				initial.assumeZeroSkew,initial.radial.length,initial.includeTangential,
 				observations,grid);
 
+		func.setConcurrent(concurrent);
+		jacobian.setConcurrent(concurrent);
+
 		optimizer.setFunction(func,jacobian);
 		optimizer.initialize(model,1e-10,1e-25*observations.size());
 
@@ -289,6 +302,31 @@ public class CalibrationPlanarGridZhang99 {
 		this.optimizer = optimizer;
 	}
 
+	/**
+	 * If true then the residuals and Jacobian are computed using multiple threads.  See
+	 * {@link boofcv.concurrency.BoofConcurrency}
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true and no optimizer has been specified then {@link Zhang99OptimizationSchur} is used. It stores the
+	 * Jacobian in block form and solves for the camera parameters using the Schur complement. Much less memory
+	 * is required when there are a large number of views.
+	 */
+	public void setSparse(boolean sparse) {
+		this.sparse = sparse;
+	}
+
+	public boolean isSparse() {
+		return sparse;
+	}
+
 	public Zhang99ParamAll getOptimized() {
 		return optimized;
 	}
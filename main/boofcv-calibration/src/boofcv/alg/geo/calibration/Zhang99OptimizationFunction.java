@@ -18,6 +18,8 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import georegression.geometry.ConvertRotation3D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
@@ -29,7 +31,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * <p>
  * Function for performing non-linear optimization on the Zhang99 calibration parameters.
+ * </p>
+ *
+ * <p>
+ * The residuals for each view only depend on the view's pose and the shared camera parameters, so they can
+ * be computed independently.  If concurrent is turned on then views are split up between threads and each thread
+ * has its own storage for intermediate results.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -42,15 +52,18 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 	// optimization parameters
 	private Zhang99ParamAll param;
 
-	// variables for storing intermediate results
-	private Se3_F64 se = new Se3_F64();
-
-	private Point3D_F64 cameraPt = new Point3D_F64();
-	private Point2D_F64 normPt = new Point2D_F64();
-
 	// observations
 	private List<CalibrationObservation> observations;
 
+	// index of the first residual for each view
+	private int[] viewOffset;
+
+	// Computes the residuals for views.  One for each thread
+	private List<ViewResiduals> workers = new ArrayList<>();
+
+	// should residuals be computed using multiple threads
+	private boolean concurrent = false;
+
 	/**
 	 * Configurations the optimization function.
 	 *
@@ -74,6 +87,15 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 
 		N = param.numParameters();
 		M = CalibrationPlanarGridZhang99.totalPoints(observations)*2;
+
+		viewOffset = new int[observations.size()];
+		int index = 0;
+		for (int i = 0; i < observations.size(); i++) {
+			viewOffset[i] = index;
+			index += observations.get(i).size()*2;
+		}
+
+		workers.add(new ViewResiduals());
 	}
 
 	@Override
@@ -93,17 +115,56 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 		process(param,output);
 	}
 
-	public void process( Zhang99ParamAll param , double []residuals ) {
-		int index = 0;
-		for( int indexView = 0; indexView < param.views.length; indexView++ ) {
+	public void process( final Zhang99ParamAll param , final double []residuals ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, param.views.length, workers, new IntRangeObjectConsumer<ViewResiduals>() {
+				@Override
+				public void accept(ViewResiduals worker, int minInclusive, int maxExclusive) {
+					for (int indexView = minInclusive; indexView < maxExclusive; indexView++) {
+						worker.process(param, indexView, residuals);
+					}
+				}
+			});
+		} else {
+			ViewResiduals worker = workers.get(0);
+			for( int indexView = 0; indexView < param.views.length; indexView++ ) {
+				worker.process(param, indexView, residuals);
+			}
+		}
+	}
+
+	/**
+	 * Specifies if the residuals should be computed using multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		int numThreads = concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		while( workers.size() < numThreads )
+			workers.add(new ViewResiduals());
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Computes the residuals for a single view.  Contains storage for intermediate results.
+	 */
+	private class ViewResiduals {
+		Se3_F64 se = new Se3_F64();
+
+		Point3D_F64 cameraPt = new Point3D_F64();
+		Point2D_F64 normPt = new Point2D_F64();
 
+		public void process( Zhang99ParamAll param , int indexView , double []residuals ) {
 			Zhang99ParamAll.View v = param.views[indexView];
 
 			ConvertRotation3D_F64.rodriguesToMatrix(v.rotation,se.getR());
-			se.T = v.T;
+			se.T.set(v.T);
 
 			CalibrationObservation viewSet = observations.get(indexView);
 
+			int index = viewOffset[indexView];
 			for( int i = 0; i < viewSet.size(); i++ ) {
 
 				int gridIndex = viewSet.get(i).index;
@@ -19,6 +19,8 @@
 package boofcv.alg.geo.calibration;
 
 import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import georegression.geometry.ConvertRotation3D_F64;
 import georegression.geometry.GeometryMath_F64;
 import georegression.struct.point.Point2D_F64;
@@ -44,43 +46,39 @@ import java.util.List;
  * Jacobian.
  * </p>
  *
+ * <p>
+ * Each view's pose only influences the view's own observations. This allows the Jacobian to be computed one view
+ * at a time, optionally using multiple threads, and to be stored in a compact block form with
+ * {@link #processBlocks}.  A view's block only contains columns for the camera parameters and the view's pose.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 
-	// used to compute the Jacobian from Rodrigues coordinates
-	RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
-
-	// local variable which stores the predicted location of the feature in the camera frame
-	Rodrigues_F64 rodrigues = new Rodrigues_F64();
-
 	// number of functions and parameters being optimized
 	private int numParam, numFuncs;
 
+	// number of camera parameters
+	private int numCameraParam;
+
 	// description of the calibration grid
 	private List<Point3D_F64> grid = new ArrayList<>();
 
 	// List of observation sets.  Required so that it knows the total number of observations in each set
 	private List<CalibrationObservation> observationSets;
 
-	// variables for storing intermediate results
-	private Se3_F64 se = new Se3_F64();
-
-	// location of point in camera frame
-	private Point3D_F64 cameraPt = new Point3D_F64();
-	// observed point location in undistorted normalized image coordinates
-	private Point2D_F64 normPt = new Point2D_F64();
-	// observed point location in distorted normalized image coordinates
-	private Point2D_F64 dnormPt = new Point2D_F64();
+	// index of the first point in each view
+	private int[] viewPointOffset;
 
 	// stores the optimization parameters
 	private Zhang99ParamCamera param;
 
-	// output index for x and y
-	int indexJacX;
-	int indexJacY;
+	// Computes the Jacobian for views. One for each thread
+	private List<ViewJacobian> workers = new ArrayList<>();
 
-	Point3D_F64 Xdot = new Point3D_F64();
+	// should it be computed using multiple threads
+	private boolean concurrent = false;
 
 	/**
 	 * Configurations the optimization function.
@@ -99,10 +97,20 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 			this.grid.add( new Point3D_F64(p.x,p.y,0) );
 		}
 
-		numParam = param.numParameters()+(3+3)*observationSets.size();
+		numCameraParam = param.numParameters();
+		numParam = numCameraParam+(3+3)*observationSets.size();
 
 		numFuncs = CalibrationPlanarGridZhang99.totalPoints(observationSets)*2;
 		param.zeroNotUsed();
+
+		viewPointOffset = new int[observationSets.size()];
+		int total = 0;
+		for (int i = 0; i < observationSets.size(); i++) {
+			viewPointOffset[i] = total;
+			total += observationSets.get(i).size();
+		}
+
+		workers.add(new ViewJacobian());
 	}
 
 	@Override
@@ -116,20 +124,134 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 	}
 
 	@Override
-	public void process(double[] input, double[] output) {
-		int index = param.setFromParam(input);
+	public void process(final double[] input, final double[] output) {
+		param.setFromParam(input);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, observationSets.size(), workers, new IntRangeObjectConsumer<ViewJacobian>() {
+				@Override
+				public void accept(ViewJacobian worker, int minInclusive, int maxExclusive) {
+					for (int indexView = minInclusive; indexView < maxExclusive; indexView++) {
+						worker.process(input, indexView, output, 2*viewPointOffset[indexView]*numParam,
+								numParam, numCameraParam+indexView*6);
+					}
+				}
+			});
+		} else {
+			ViewJacobian worker = workers.get(0);
+			for( int indexView = 0; indexView < observationSets.size(); indexView++ ) {
+				worker.process(input, indexView, output, 2*viewPointOffset[indexView]*numParam,
+						numParam, numCameraParam+indexView*6);
+			}
+		}
+	}
+
+	/**
+	 * Computes the Jacobian in block form.  The block for each view has 2*(number of observations) rows and
+	 * (number of camera parameters + 6) columns.  The first columns are for camera parameters and the last
+	 * six are for the view's pose, in the same order as the parameter vector.  All other elements in the
+	 * full Jacobian are zero.
+	 *
+	 * @param input Parameter vector
+	 * @param blocks (Output) Storage for each view's block. Reshaped. Must have one element for each view.
+	 */
+	public void processBlocks( final double[] input , final List<DMatrixRMaj> blocks ) {
+		if( blocks.size() != observationSets.size() )
+			throw new IllegalArgumentException("Must be one block for each view");
+
+		param.setFromParam(input);
+
+		final int blockCols = numCameraParam+6;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, observationSets.size(), workers, new IntRangeObjectConsumer<ViewJacobian>() {
+				@Override
+				public void accept(ViewJacobian worker, int minInclusive, int maxExclusive) {
+					for (int indexView = minInclusive; indexView < maxExclusive; indexView++) {
+						DMatrixRMaj block = blocks.get(indexView);
+						block.reshape(2*observationSets.get(indexView).size(), blockCols);
+						worker.process(input, indexView, block.data, 0, blockCols, numCameraParam);
+					}
+				}
+			});
+		} else {
+			ViewJacobian worker = workers.get(0);
+			for( int indexView = 0; indexView < observationSets.size(); indexView++ ) {
+				DMatrixRMaj block = blocks.get(indexView);
+				block.reshape(2*observationSets.get(indexView).size(), blockCols);
+				worker.process(input, indexView, block.data, 0, blockCols, numCameraParam);
+			}
+		}
+	}
+
+	/**
+	 * Specifies if the Jacobian should be computed using multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		int numThreads = concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		while( workers.size() < numThreads )
+			workers.add(new ViewJacobian());
+	}
 
-		int indexPoint = 0;
-		for( int indexView = 0; indexView < observationSets.size(); indexView++ ) {
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Number of camera parameters, i.e. parameters which are shared by all views
+	 */
+	public int getNumCameraParam() {
+		return numCameraParam;
+	}
+
+	/**
+	 * Computes the Jacobian for a single view and contains storage for intermediate results
+	 */
+	private class ViewJacobian {
+		// used to compute the Jacobian from Rodrigues coordinates
+		RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+
+		// local variable which stores the predicted location of the feature in the camera frame
+		Rodrigues_F64 rodrigues = new Rodrigues_F64();
+
+		// variables for storing intermediate results
+		Se3_F64 se = new Se3_F64();
+
+		// location of point in camera frame
+		Point3D_F64 cameraPt = new Point3D_F64();
+		// observed point location in undistorted normalized image coordinates
+		Point2D_F64 normPt = new Point2D_F64();
+		// observed point location in distorted normalized image coordinates
+		Point2D_F64 dnormPt = new Point2D_F64();
+
+		// output index for x and y
+		int indexJacX;
+		int indexJacY;
+
+		Point3D_F64 Xdot = new Point3D_F64();
+
+		/**
+		 * Computes the gradient for every observation in the view
+		 *
+		 * @param input Parameter vector
+		 * @param indexView Which view is being processed
+		 * @param output Output array for the Jacobian
+		 * @param indexRow0 Index of the first element in the view's first row
+		 * @param rowLength Number of elements in a row
+		 * @param poseColumn The column the pose's first parameter is written to
+		 */
+		public void process( double[] input , int indexView ,
+							 double[] output , int indexRow0 , int rowLength , int poseColumn ) {
 			CalibrationObservation set = observationSets.get(indexView);
 
 			// extract rotation and translation parameters
+			int index = numCameraParam + indexView*6;
 			double rodX = input[index++];
 			double rodY = input[index++];
 			double rodZ = input[index++];
 			double tranX = input[index++];
 			double tranY = input[index++];
-			double tranZ = input[index++];
+			double tranZ = input[index];
 
 			rodrigues.setParamVector(rodX,rodY,rodZ);
 			rodJacobian.process(rodX,rodY,rodZ);
@@ -137,12 +259,11 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 			ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, se.getR());
 			se.T.set(tranX, tranY, tranZ);
 
-			for( int i = 0; i < set.size(); i++ , indexPoint++ ) {
+			for( int i = 0; i < set.size(); i++ ) {
 				int gridIndex = set.points.get(i).index;
 
-				// index = (function index)*numParam
-				indexJacX = (2*indexPoint     )*numParam;
-				indexJacY = (2*indexPoint + 1 )*numParam;
+				indexJacX = indexRow0 + (2*i    )*rowLength;
+				indexJacY = indexRow0 + (2*i + 1)*rowLength;
 
 				// Put the point in the camera's reference frame
 				SePointOps_F64.transform(se, grid.get(gridIndex), cameraPt);
@@ -158,8 +279,8 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 				calibrationGradient(dnormPt,output);
 				distortGradient(normPt,output);
 
-				indexJacX += indexView*6;
-				indexJacY += indexView*6;
+				indexJacX = indexRow0 + (2*i    )*rowLength + poseColumn;
+				indexJacY = indexRow0 + (2*i + 1)*rowLength + poseColumn;
 
 				rodriguesGradient(rodJacobian.Rx,grid.get(gridIndex),cameraPt, normPt,output);
 				rodriguesGradient(rodJacobian.Ry,grid.get(gridIndex),cameraPt, normPt,output);
@@ -168,181 +289,181 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 				translateGradient(cameraPt, normPt,output);
 			}
 		}
-	}
-
-	/**
-	 * Gradient for calibration matrix
-	 */
-	private void calibrationGradient( Point2D_F64 distNorm , double[] output ) {
-		output[indexJacX++] = distNorm.x;
-		output[indexJacX++] = 0;
-		if( !param.assumeZeroSkew )
-			output[indexJacX++] = distNorm.y;
-		output[indexJacX++] = 1;
-		output[indexJacX++] = 0;
-
-		output[indexJacY++] = 0;
-		output[indexJacY++] = distNorm.y;
-		if( !param.assumeZeroSkew )
-			output[indexJacY++] = 0;
-		output[indexJacY++] = 0;
-		output[indexJacY++] = 1;
-	}
-
-	/**
-	 * Gradient for radial and tangential distortion
-	 *
-	 * @param norm undistorted normalized image coordinate
-	 */
-	private void distortGradient( Point2D_F64 norm , double[] output ) {
 
-		double r2 = norm.x*norm.x + norm.y*norm.y;
-		double r2i = r2;
-		for( int i = 0; i < param.radial.length; i++ ) {
-			double xdot = norm.x*r2i;
-			double ydot = norm.y*r2i;
+		/**
+		 * Gradient for calibration matrix
+		 */
+		private void calibrationGradient( Point2D_F64 distNorm , double[] output ) {
+			output[indexJacX++] = distNorm.x;
+			output[indexJacX++] = 0;
+			if( !param.assumeZeroSkew )
+				output[indexJacX++] = distNorm.y;
+			output[indexJacX++] = 1;
+			output[indexJacX++] = 0;
 
-			output[indexJacX++] = param.a*xdot + param.c*ydot;
-			output[indexJacY++] = param.b*ydot;
-			r2i *= r2;
+			output[indexJacY++] = 0;
+			output[indexJacY++] = distNorm.y;
+			if( !param.assumeZeroSkew )
+				output[indexJacY++] = 0;
+			output[indexJacY++] = 0;
+			output[indexJacY++] = 1;
 		}
 
-		if( param.includeTangential ) {
-			double xy2 = 2.0*norm.x*norm.y;
-			double r2yy = r2 + 2*norm.y*norm.y;
-			double r2xx = r2 + 2*norm.x*norm.x;
+		/**
+		 * Gradient for radial and tangential distortion
+		 *
+		 * @param norm undistorted normalized image coordinate
+		 */
+		private void distortGradient( Point2D_F64 norm , double[] output ) {
+
+			double r2 = norm.x*norm.x + norm.y*norm.y;
+			double r2i = r2;
+			for( int i = 0; i < param.radial.length; i++ ) {
+				double xdot = norm.x*r2i;
+				double ydot = norm.y*r2i;
+
+				output[indexJacX++] = param.a*xdot + param.c*ydot;
+				output[indexJacY++] = param.b*ydot;
+				r2i *= r2;
+			}
 
-			output[indexJacX++] = param.a*xy2 + param.c*r2yy;
-			output[indexJacY++] = param.b*r2yy;
+			if( param.includeTangential ) {
+				double xy2 = 2.0*norm.x*norm.y;
+				double r2yy = r2 + 2*norm.y*norm.y;
+				double r2xx = r2 + 2*norm.x*norm.x;
 
-			output[indexJacX++] = param.a*r2xx + param.c*xy2;
-			output[indexJacY++] = param.b*xy2;
-		}
-	}
+				output[indexJacX++] = param.a*xy2 + param.c*r2yy;
+				output[indexJacY++] = param.b*r2yy;
 
-	/**
-	 * Adds to the Jacobian matrix using the derivative from a Rodrigues parameter.
-	 *
-	 * deriv [x,y] = [distort deriv] - [dist]*dot(z)/(z^2)*(R*X+T) + [dist]*(1/z)*dot(R)*X
-	 *
-	 * where R is rotation matrix, T is translation, z = z-coordinate of point in camera frame
-	 *
-	 * @param Rdot Jacobian for Rodrigues
-	 * @param X Location of point in world coordinates
-	 */
-	private void rodriguesGradient( DMatrixRMaj Rdot ,
-									Point3D_F64 X ,
-									Point3D_F64 cameraPt ,
-									Point2D_F64 normPt ,
-									double[] output ) {
-		// create short hand for normalized image coordinate
-		final double x = normPt.x;
-		final double y = normPt.y;
-
-		final double r2 = x*x + y*y;
-		double r2i = r2;
-		double rdev = 1;
-
-		double sum = 0;
-		double sumdot = 0;
-
-		for( int i = 0; i < param.radial.length; i++ ) {
-			sum += param.radial[i]*r2i;
-			sumdot += param.radial[i]*2*(i+1)*rdev;
-
-			r2i *= r2;
-			rdev *= r2;
+				output[indexJacX++] = param.a*r2xx + param.c*xy2;
+				output[indexJacY++] = param.b*xy2;
+			}
 		}
 
-		GeometryMath_F64.mult(Rdot,X,Xdot);
-
-		// part of radial distortion derivative
-		double r_dot = (x*Xdot.x + y*Xdot.y)/cameraPt.z - r2*Xdot.z/cameraPt.z;
+		/**
+		 * Adds to the Jacobian matrix using the derivative from a Rodrigues parameter.
+		 *
+		 * deriv [x,y] = [distort deriv] - [dist]*dot(z)/(z^2)*(R*X+T) + [dist]*(1/z)*dot(R)*X
+		 *
+		 * where R is rotation matrix, T is translation, z = z-coordinate of point in camera frame
+		 *
+		 * @param Rdot Jacobian for Rodrigues
+		 * @param X Location of point in world coordinates
+		 */
+		private void rodriguesGradient( DMatrixRMaj Rdot ,
+										Point3D_F64 X ,
+										Point3D_F64 cameraPt ,
+										Point2D_F64 normPt ,
+										double[] output ) {
+			// create short hand for normalized image coordinate
+			final double x = normPt.x;
+			final double y = normPt.y;
+
+			final double r2 = x*x + y*y;
+			double r2i = r2;
+			double rdev = 1;
+
+			double sum = 0;
+			double sumdot = 0;
+
+			for( int i = 0; i < param.radial.length; i++ ) {
+				sum += param.radial[i]*r2i;
+				sumdot += param.radial[i]*2*(i+1)*rdev;
+
+				r2i *= r2;
+				rdev *= r2;
+			}
 
-		// derivative of normPt
-		double n_dot_x = (-x*Xdot.z+Xdot.x)/cameraPt.z;
-		double n_dot_y = (-y*Xdot.z+Xdot.y)/cameraPt.z;
-//		double n_dot_z = 0;
+			GeometryMath_F64.mult(Rdot,X,Xdot);
 
-		// total partial derivative
-		double xdot = sumdot*r_dot*x + (1 + sum)*n_dot_x;
-		double ydot = sumdot*r_dot*y + (1 + sum)*n_dot_y;
-//		double zdot = 0;
+			// part of radial distortion derivative
+			double r_dot = (x*Xdot.x + y*Xdot.y)/cameraPt.z - r2*Xdot.z/cameraPt.z;
 
-		if( param.includeTangential ) {
-			xdot += 2*param.t1*(n_dot_x*y + x*n_dot_y) + 6*param.t2*x*n_dot_x + 2*param.t2*y*n_dot_y;
-			ydot += 2*param.t1*x*n_dot_x + 6*param.t1*y*n_dot_y + 2*param.t2*(n_dot_x*y + x*n_dot_y);
-		}
+			// derivative of normPt
+			double n_dot_x = (-x*Xdot.z+Xdot.x)/cameraPt.z;
+			double n_dot_y = (-y*Xdot.z+Xdot.y)/cameraPt.z;
+	//		double n_dot_z = 0;
 
-		output[indexJacX++] = param.a*xdot + param.c*ydot;
-		output[indexJacY++] = param.b*ydot;
-	}
+			// total partial derivative
+			double xdot = sumdot*r_dot*x + (1 + sum)*n_dot_x;
+			double ydot = sumdot*r_dot*y + (1 + sum)*n_dot_y;
+	//		double zdot = 0;
 
-	/**
-	 * Gradient for translational motion component
-	 *
-	 * deriv [x,y] = [distort deriv] - [dist]*dot(z)*T/(z^2) + [dist]*dot(T)/z
-	 *
-	 * where T is translation, z = z-coordinate of point in camera frame
-	 */
-	private void translateGradient( Point3D_F64 cameraPt ,
-									Point2D_F64 normPt ,
-									double[] output ) {
-
-		// create short hand for normalized image coordinate
-		final double x = normPt.x;
-		final double y = normPt.y;
-
-		final double r2 = x*x + y*y;
-		double r2i = r2;
-		double rdev = 1;
+			if( param.includeTangential ) {
+				xdot += 2*param.t1*(n_dot_x*y + x*n_dot_y) + 6*param.t2*x*n_dot_x + 2*param.t2*y*n_dot_y;
+				ydot += 2*param.t1*x*n_dot_x + 6*param.t1*y*n_dot_y + 2*param.t2*(n_dot_x*y + x*n_dot_y);
+			}
 
-		double sum = 0;
-		double sumdot = 0;
+			output[indexJacX++] = param.a*xdot + param.c*ydot;
+			output[indexJacY++] = param.b*ydot;
+		}
 
-		for( int i = 0; i < param.radial.length; i++ ) {
-			sum += param.radial[i]*r2i;
-			sumdot += param.radial[i]*(i+1)*rdev;
+		/**
+		 * Gradient for translational motion component
+		 *
+		 * deriv [x,y] = [distort deriv] - [dist]*dot(z)*T/(z^2) + [dist]*dot(T)/z
+		 *
+		 * where T is translation, z = z-coordinate of point in camera frame
+		 */
+		private void translateGradient( Point3D_F64 cameraPt ,
+										Point2D_F64 normPt ,
+										double[] output ) {
+
+			// create short hand for normalized image coordinate
+			final double x = normPt.x;
+			final double y = normPt.y;
+
+			final double r2 = x*x + y*y;
+			double r2i = r2;
+			double rdev = 1;
+
+			double sum = 0;
+			double sumdot = 0;
+
+			for( int i = 0; i < param.radial.length; i++ ) {
+				sum += param.radial[i]*r2i;
+				sumdot += param.radial[i]*(i+1)*rdev;
+
+				r2i *= r2;
+				rdev *= r2;
+			}
+			// Partial T.x
+			double xdot = sumdot*2*x*x/cameraPt.z + (1+sum)/cameraPt.z;
+			double ydot = sumdot*2*x*y/cameraPt.z;
+			// double zdot = 0
+			if( param.includeTangential ) {
+				xdot += (2*param.t1*y + param.t2*6*x)/cameraPt.z;
+				ydot += (2*param.t1*x + 2*y*param.t2)/cameraPt.z;
+			}
 
-			r2i *= r2;
-			rdev *= r2;
-		}
-		// Partial T.x
-		double xdot = sumdot*2*x*x/cameraPt.z + (1+sum)/cameraPt.z;
-		double ydot = sumdot*2*x*y/cameraPt.z;
-		// double zdot = 0
-		if( param.includeTangential ) {
-			xdot += (2*param.t1*y + param.t2*6*x)/cameraPt.z;
-			ydot += (2*param.t1*x + 2*y*param.t2)/cameraPt.z;
-		}
+			output[indexJacX++] = param.a*xdot + param.c*ydot;
+			output[indexJacY++] = param.b*ydot;
 
-		output[indexJacX++] = param.a*xdot + param.c*ydot;
-		output[indexJacY++] = param.b*ydot;
+			// Partial T.y
+			xdot = sumdot*2*y*x/cameraPt.z;
+			ydot = sumdot*2*y*y/cameraPt.z + (1 + sum)/cameraPt.z;
+			if( param.includeTangential ) {
+				xdot += (2*param.t1*x + param.t2*2*y)/cameraPt.z;
+				ydot += (6*param.t1*y + 2*x*param.t2)/cameraPt.z;
+			}
 
-		// Partial T.y
-		xdot = sumdot*2*y*x/cameraPt.z;
-		ydot = sumdot*2*y*y/cameraPt.z + (1 + sum)/cameraPt.z;
-		if( param.includeTangential ) {
-			xdot += (2*param.t1*x + param.t2*2*y)/cameraPt.z;
-			ydot += (6*param.t1*y + 2*x*param.t2)/cameraPt.z;
-		}
+			output[indexJacX++] = param.a*xdot + param.c*ydot;
+			output[indexJacY++] = param.b*ydot;
 
-		output[indexJacX++] = param.a*xdot + param.c*ydot;
-		output[indexJacY++] = param.b*ydot;
+			// Partial T.z
+			xdot = -sumdot*2*r2*x/cameraPt.z;
+			ydot = -sumdot*2*r2*y/cameraPt.z;
 
-		// Partial T.z
-		xdot = -sumdot*2*r2*x/cameraPt.z;
-		ydot = -sumdot*2*r2*y/cameraPt.z;
+			xdot += -(1 + sum)*x/cameraPt.z;
+			ydot += -(1 + sum)*y/cameraPt.z;
 
-		xdot += -(1 + sum)*x/cameraPt.z;
-		ydot += -(1 + sum)*y/cameraPt.z;
+			if( param.includeTangential ) {
+				xdot += -(4*param.t1*x*y + 6*param.t2*x*x + 2*param.t2*y*y)/cameraPt.z;
+				ydot += -(2*param.t1*x*x + 6*param.t1*y*y + 4*x*y*param.t2)/cameraPt.z;
+			}
 
-		if( param.includeTangential ) {
-			xdot += -(4*param.t1*x*y + 6*param.t2*x*x + 2*param.t2*y*y)/cameraPt.z;
-			ydot += -(2*param.t1*x*x + 6*param.t1*y*y + 4*x*y*param.t2)/cameraPt.z;
+			output[indexJacX++] = param.a*xdot + param.c*ydot;
+			output[indexJacY++] = param.b*ydot;
 		}
-
-		output[indexJacX++] = param.a*xdot + param.c*ydot;
-		output[indexJacY++] = param.b*ydot;
 	}
 }
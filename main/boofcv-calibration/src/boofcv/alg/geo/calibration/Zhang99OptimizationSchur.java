@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import org.ddogleg.optimization.UnconstrainedLeastSquares;
+import org.ddogleg.optimization.functions.FunctionNtoM;
+import org.ddogleg.optimization.functions.FunctionNtoMxN;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Levenberg-Marquardt optimization for Zhang99 which takes advantage of the Jacobian's block structure.  Each
+ * view's pose only influences that view's observations, so the normal equations have the following form
+ * </p>
+ * <pre>
+ * [ U   W ] [ dc ]   [ gc ]
+ * [ W'  V ] [ dp ] = [ gp ]
+ * </pre>
+ * <p>
+ * where U contains the camera parameters, V is block diagonal with a 6x6 block for each view's pose, and W couples
+ * the two.  The pose parameters are eliminated using the Schur complement, which leaves a small linear system that's
+ * the size of the camera parameters.  The poses are then found by back substitution one view at a time.
+ * </p>
+ *
+ * <p>
+ * The Jacobian is only stored as one dense block per view, see {@link Zhang99OptimizationJacobian#processBlocks}, so
+ * memory is proportional to the number of observations instead of observations times views. If the Jacobian
+ * is concurrent then the per-view computations are also done using multiple threads.
+ * </p>
+ *
+ * <p>
+ * The function value is 0.5 times the sum of squared residuals.  Converges when the relative change in the function
+ * value is less than ftol or the largest element in the gradient is less than gtol.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Zhang99OptimizationSchur implements UnconstrainedLeastSquares {
+
+	// initial value of the dampening parameter
+	private double initialDampParam;
+	// current dampening parameter
+	private double lambda;
+
+	// functions being optimized
+	private FunctionNtoM function;
+	private Zhang99OptimizationJacobian jacobian;
+
+	// number of camera parameters
+	private int numCamera;
+	// number of views
+	private int numViews;
+
+	// convergence tolerances
+	private double ftol, gtol;
+
+	// current parameters and candidate parameters
+	private double[] x = new double[0];
+	private double[] xCandidate = new double[0];
+
+	// residuals for current and candidate parameters
+	private double[] residuals = new double[0];
+	private double[] residualsCandidate = new double[0];
+
+	// function value at current and candidate parameters
+	private double fx, fxCandidate;
+
+	// Jacobian for each view
+	private List<DMatrixRMaj> blocks = new ArrayList<>();
+	// the normal equations for each view
+	private List<ViewSystem> views = new ArrayList<>();
+	// index of the first residual in each view
+	private int[] residualOffset = new int[0];
+
+	// workspace for each thread
+	private List<Workspace> workspaces = new ArrayList<>();
+
+	// Camera portion of the normal equations.  Summed across all views
+	private DMatrixRMaj U = new DMatrixRMaj(1,1);
+	private DMatrixRMaj gc = new DMatrixRMaj(1,1);
+
+	// reduced camera system and its solution
+	private DMatrixRMaj S = new DMatrixRMaj(1,1);
+	private DMatrixRMaj b = new DMatrixRMaj(1,1);
+	private DMatrixRMaj deltaC = new DMatrixRMaj(1,1);
+	private LinearSolver<DMatrixRMaj> solverS = LinearSolverFactory_DDRM.chol(10);
+
+	// should the Jacobian be recomputed at the start of the next iteration
+	private boolean computeJacobian;
+	private boolean updated;
+	private boolean converged;
+	private String warning;
+
+	/**
+	 * Configures the optimizer
+	 *
+	 * @param initialDampParam Initial value of the dampening parameter.  Try 1e-3
+	 */
+	public Zhang99OptimizationSchur(double initialDampParam) {
+		this.initialDampParam = initialDampParam;
+	}
+
+	public Zhang99OptimizationSchur() {
+		this(1e-3);
+	}
+
+	/**
+	 * Specifies the functions being optimized.  The Jacobian must be {@link Zhang99OptimizationJacobian}.
+	 */
+	@Override
+	public void setFunction(FunctionNtoM function, FunctionNtoMxN jacobian) {
+		if( !(jacobian instanceof Zhang99OptimizationJacobian) )
+			throw new IllegalArgumentException("Jacobian must be an instance of Zhang99OptimizationJacobian");
+
+		this.function = function;
+		this.jacobian = (Zhang99OptimizationJacobian)jacobian;
+
+		if( function.getNumOfInputsN() != jacobian.getNumOfInputsN() ||
+				function.getNumOfOutputsM() != jacobian.getNumOfOutputsM() )
+			throw new IllegalArgumentException("Function and Jacobian have incompatible shapes");
+
+		numCamera = this.jacobian.getNumCameraParam();
+		numViews = (function.getNumOfInputsN()-numCamera)/6;
+
+		int N = function.getNumOfInputsN();
+		int M = function.getNumOfOutputsM();
+		x = new double[N];
+		xCandidate = new double[N];
+		residuals = new double[M];
+		residualsCandidate = new double[M];
+
+		blocks.clear();
+		views.clear();
+		for (int i = 0; i < numViews; i++) {
+			blocks.add( new DMatrixRMaj(1,1));
+			views.add( new ViewSystem());
+		}
+
+		U.reshape(numCamera,numCamera);
+		gc.reshape(numCamera,1);
+		S.reshape(numCamera,numCamera);
+		b.reshape(numCamera,1);
+		deltaC.reshape(numCamera,1);
+	}
+
+	@Override
+	public void initialize(double[] initial, double ftol, double gtol) {
+		this.ftol = ftol;
+		this.gtol = gtol;
+
+		System.arraycopy(initial,0,x,0,x.length);
+
+		lambda = initialDampParam;
+		computeJacobian = true;
+		updated = false;
+		converged = false;
+		warning = null;
+
+		function.process(x,residuals);
+		fx = computeCost(residuals);
+
+		// Jacobian blocks have one row for each residual in a view.  Find where each view's residuals start
+		jacobian.processBlocks(x,blocks);
+		residualOffset = new int[numViews];
+		int offset = 0;
+		for (int i = 0; i < numViews; i++) {
+			residualOffset[i] = offset;
+			offset += blocks.get(i).numRows;
+		}
+		if( offset != residuals.length )
+			throw new IllegalArgumentException("Jacobian blocks don't match the number of residuals");
+
+		int numThreads = jacobian.isConcurrent() ? BoofConcurrency.getMaxThreads() : 1;
+		while( workspaces.size() < numThreads )
+			workspaces.add( new Workspace());
+	}
+
+	@Override
+	public double[] getParameters() {
+		return x;
+	}
+
+	@Override
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	@Override
+	public boolean iterate() {
+		updated = false;
+		if( converged )
+			return true;
+
+		if( computeJacobian ) {
+			computeJacobian = false;
+			computeNormalEquations();
+
+			if( gradientNorm() <= gtol ) {
+				converged = true;
+				return true;
+			}
+		}
+
+		if( !computeStep() ) {
+			// the damped system wasn't positive definite.  Increase dampening and try again
+			return increaseDampening();
+		}
+
+		function.process(xCandidate,residualsCandidate);
+		fxCandidate = computeCost(residualsCandidate);
+
+		if( fxCandidate < fx ) {
+			boolean small = fx - fxCandidate <= ftol*fx;
+
+			double[] tmp = x; x = xCandidate; xCandidate = tmp;
+			tmp = residuals; residuals = residualsCandidate; residualsCandidate = tmp;
+			fx = fxCandidate;
+
+			lambda = Math.max(lambda/10.0,1e-20);
+			computeJacobian = true;
+			updated = true;
+
+			if( small )
+				converged = true;
+			return converged;
+		} else {
+			return increaseDampening();
+		}
+	}
+
+	private boolean increaseDampening() {
+		lambda *= 10;
+		if( lambda > 1e30 ) {
+			warning = "Dampening parameter is too large";
+			converged = true;
+		}
+		return converged;
+	}
+
+	/**
+	 * Computes the Jacobian and each view's normal equations, then sums up the camera portion.
+	 */
+	private void computeNormalEquations() {
+		jacobian.processBlocks(x, blocks);
+
+		runViews(new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					views.get(i).computeNormal(work,blocks.get(i),residualOffset[i]);
+				}
+			}
+		});
+
+		// summed in a fixed order so that the results are the same with and without threads
+		U.zero();
+		gc.zero();
+		for (int i = 0; i < numViews; i++) {
+			ViewSystem v = views.get(i);
+			addEquals(U, v.A, numCamera);
+			for (int j = 0; j < numCamera; j++) {
+				gc.data[j] += v.g.data[j];
+			}
+		}
+	}
+
+	/**
+	 * Adds the top left square of size N from B into A
+	 */
+	private static void addEquals( DMatrixRMaj A , DMatrixRMaj B , int N ) {
+		for (int row = 0; row < N; row++) {
+			int indexA = row*A.numCols;
+			int indexB = row*B.numCols;
+			for (int col = 0; col < N; col++) {
+				A.data[indexA++] += B.data[indexB++];
+			}
+		}
+	}
+
+	/**
+	 * Infinity norm of the gradient
+	 */
+	private double gradientNorm() {
+		double max = 0;
+		for (int i = 0; i < numCamera; i++) {
+			max = Math.max(max,Math.abs(gc.data[i]));
+		}
+		for (int i = 0; i < numViews; i++) {
+			DMatrixRMaj g = views.get(i).g;
+			for (int j = numCamera; j < g.numRows; j++) {
+				max = Math.max(max,Math.abs(g.data[j]));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the damped step and the candidate parameters.
+	 *
+	 * @return true if successful or false if a linear system couldn't be solved
+	 */
+	private boolean computeStep() {
+		// eliminate the pose for each view
+		final boolean[] failed = new boolean[numViews];
+		runViews(new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					failed[i] = !views.get(i).eliminate(work, lambda);
+				}
+			}
+		});
+		for (int i = 0; i < numViews; i++) {
+			if( failed[i] )
+				return false;
+		}
+
+		// construct and solve the reduced camera system
+		S.set(U);
+		for (int i = 0; i < numCamera; i++) {
+			S.data[i*numCamera+i] += lambda*dampScale(U.data[i*numCamera+i]);
+		}
+		for (int i = 0; i < numCamera; i++) {
+			b.data[i] = -gc.data[i];
+		}
+		for (int i = 0; i < numViews; i++) {
+			ViewSystem v = views.get(i);
+			CommonOps_DDRM.subtractEquals(S, v.reducedS);
+			CommonOps_DDRM.addEquals(b, v.reducedB);
+		}
+
+		if( !solverS.setA(S) )
+			return false;
+		solverS.solve(b, deltaC);
+
+		for (int i = 0; i < numCamera; i++) {
+			xCandidate[i] = x[i] + deltaC.data[i];
+		}
+
+		// back substitute to find the change in each pose
+		runViews(new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					views.get(i).backSubstitute(deltaC, x, xCandidate, numCamera + i*6);
+				}
+			}
+		});
+
+		return true;
+	}
+
+	/**
+	 * Processes all the views, using threads if the Jacobian is concurrent
+	 */
+	private void runViews( IntRangeObjectConsumer<Workspace> consumer ) {
+		if( workspaces.size() > 1 )
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, consumer);
+		else
+			consumer.accept(workspaces.get(0), 0, numViews);
+	}
+
+	/**
+	 * Scale of the dampening applied to a diagonal element.  Prevents a zero from causing a singular matrix
+	 */
+	private static double dampScale( double diagonal ) {
+		return Math.max(diagonal, 1e-12);
+	}
+
+	private static double computeCost( double[] residuals ) {
+		double total = 0;
+		for (int i = 0; i < residuals.length; i++) {
+			total += residuals[i]*residuals[i];
+		}
+		return total/2.0;
+	}
+
+	@Override
+	public boolean isUpdated() {
+		return updated;
+	}
+
+	@Override
+	public boolean isConverged() {
+		return converged;
+	}
+
+	@Override
+	public String getWarning() {
+		return warning;
+	}
+
+	/**
+	 * The current value of the dampening parameter
+	 */
+	public double getDampParam() {
+		return lambda;
+	}
+
+	/**
+	 * Normal equations for a single view and the results of eliminating its pose
+	 */
+	private class ViewSystem {
+		// J'*J and J'*r.  Camera parameters first and then the pose
+		DMatrixRMaj A = new DMatrixRMaj(1,1);
+		DMatrixRMaj g = new DMatrixRMaj(1,1);
+
+		// W = upper right corner of A, numCamera x 6
+		DMatrixRMaj W = new DMatrixRMaj(1,1);
+		// inverse of the damped pose block
+		DMatrixRMaj Vinv = new DMatrixRMaj(6,6);
+		// W*inv(V)
+		DMatrixRMaj WVinv = new DMatrixRMaj(1,1);
+		// W*inv(V)*W' and W*inv(V)*gp
+		DMatrixRMaj reducedS = new DMatrixRMaj(1,1);
+		DMatrixRMaj reducedB = new DMatrixRMaj(1,1);
+
+		// storage for intermediate results
+		DMatrixRMaj work = new DMatrixRMaj(6,1);
+		DMatrixRMaj gp = new DMatrixRMaj(6,1);
+
+		public void computeNormal( Workspace ws , DMatrixRMaj J , int offset ) {
+			ws.r.reshape(J.numRows,1);
+			System.arraycopy(residuals,offset,ws.r.data,0,J.numRows);
+
+			A.reshape(J.numCols,J.numCols);
+			g.reshape(J.numCols,1);
+			CommonOps_DDRM.multTransA(J,J,A);
+			CommonOps_DDRM.multTransA(J,ws.r,g);
+
+			W.reshape(numCamera,6);
+			CommonOps_DDRM.extract(A,0,numCamera,numCamera,numCamera+6,W,0,0);
+		}
+
+		public boolean eliminate( Workspace ws , double lambda ) {
+			CommonOps_DDRM.extract(A,numCamera,numCamera+6,numCamera,numCamera+6,ws.V,0,0);
+			for (int i = 0; i < 6; i++) {
+				ws.V.data[i*6+i] += lambda*dampScale(ws.V.data[i*6+i]);
+			}
+			if( !ws.solverV.setA(ws.V) )
+				return false;
+			CommonOps_DDRM.setIdentity(ws.I);
+			ws.solverV.solve(ws.I,Vinv);
+
+			WVinv.reshape(numCamera,6);
+			reducedS.reshape(numCamera,numCamera);
+			reducedB.reshape(numCamera,1);
+			CommonOps_DDRM.mult(W,Vinv,WVinv);
+			CommonOps_DDRM.multTransB(WVinv,W,reducedS);
+
+			for (int i = 0; i < 6; i++) {
+				gp.data[i] = g.data[numCamera+i];
+			}
+			CommonOps_DDRM.mult(WVinv,gp,reducedB);
+			return true;
+		}
+
+		/**
+		 * dp = inv(V)*(-gp - W'*dc)
+		 */
+		public void backSubstitute( DMatrixRMaj deltaC , double[] x , double[] xCandidate , int index ) {
+			for (int i = 0; i < 6; i++) {
+				double sum = -gp.data[i];
+				for (int j = 0; j < numCamera; j++) {
+					sum -= W.data[j*6+i]*deltaC.data[j];
+				}
+				work.data[i] = sum;
+			}
+			for (int i = 0; i < 6; i++) {
+				double sum = 0;
+				for (int j = 0; j < 6; j++) {
+					sum += Vinv.data[i*6+j]*work.data[j];
+				}
+				xCandidate[index+i] = x[index+i] + sum;
+			}
+		}
+	}
+
+	/**
+	 * Storage which can't be shared between threads
+	 */
+	private static class Workspace {
+		DMatrixRMaj r = new DMatrixRMaj(1,1);
+		DMatrixRMaj V = new DMatrixRMaj(6,6);
+		DMatrixRMaj I = new DMatrixRMaj(6,6);
+		LinearSolver<DMatrixRMaj> solverV = LinearSolverFactory_DDRM.chol(6);
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.struct.image.GrayF32;
+import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConcurrentCalibrationDetector {
+
+	int numImages = 23;
+
+	/**
+	 * Every image should be processed once and the results returned in the same order as the input
+	 */
+	@Test
+	public void process() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+		try {
+			ConcurrentCalibrationDetector alg = new ConcurrentCalibrationDetector(new Factory(), 3);
+			assertEquals(3, alg.getNumThreads());
+
+			Source source = new Source();
+			List<ConcurrentCalibrationDetector.Results> results = alg.process(source);
+
+			assertEquals(numImages, source.totalLoaded.get());
+			checkResults(results);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	/**
+	 * When the results are cached images should not be loaded a second time
+	 */
+	@Test
+	public void cache() {
+		ConcurrentCalibrationDetector alg = new ConcurrentCalibrationDetector(new Factory(), 2);
+		MemoryCache cache = new MemoryCache();
+		alg.setCache(cache);
+
+		Source source = new Source();
+		checkResults(alg.process(source));
+		assertEquals(numImages, source.totalLoaded.get());
+		assertEquals(0, alg.getTotalCached());
+		assertEquals(numImages, cache.map.size());
+
+		source = new Source();
+		checkResults(alg.process(source));
+		assertEquals(0, source.totalLoaded.get());
+		assertEquals(numImages, alg.getTotalCached());
+	}
+
+	private void checkResults(List<ConcurrentCalibrationDetector.Results> results) {
+		assertEquals(numImages, results.size());
+		for (int i = 0; i < numImages; i++) {
+			ConcurrentCalibrationDetector.Results r = results.get(i);
+			assertEquals(10+i, r.width);
+			assertEquals(5, r.height);
+			if( i % 3 == 0 ) {
+				assertFalse(r.detected);
+				assertNull(r.observation);
+			} else {
+				assertTrue(r.detected);
+				assertEquals(1, r.observation.size());
+				assertEquals(i, r.observation.get(0).x, 1e-8);
+			}
+		}
+	}
+
+	private class Source implements ConcurrentCalibrationDetector.ImageSource {
+		AtomicInteger totalLoaded = new AtomicInteger();
+
+		@Override
+		public int size() {
+			return numImages;
+		}
+
+		@Override
+		public GrayF32 load(int index) {
+			totalLoaded.incrementAndGet();
+			GrayF32 image = new GrayF32(10+index, 5);
+			image.set(0, 0, index);
+			return image;
+		}
+
+		@Override
+		public String getKey(int index) {
+			return "image" + index;
+		}
+	}
+
+	private static class Factory implements InstanceFactory<DetectorFiducialCalibration> {
+		@Override
+		public DetectorFiducialCalibration newInstance() {
+			return new DetectorFiducialCalibration() {
+				int value;
+
+				@Override
+				public boolean process(GrayF32 input) {
+					value = (int)input.get(0,0);
+					return value % 3 != 0;
+				}
+
+				@Override
+				public CalibrationObservation getDetectedPoints() {
+					CalibrationObservation obs = new CalibrationObservation();
+					obs.add(new Point2D_F64(value, 2), 0);
+					return obs;
+				}
+
+				@Override
+				public List<Point2D_F64> getLayout() {
+					return new ArrayList<>();
+				}
+			};
+		}
+	}
+
+	private static class MemoryCache implements CalibrationObservationCache {
+		final Map<String, ConcurrentCalibrationDetector.Results> map = new HashMap<>();
+
+		@Override
+		public synchronized boolean load(String key, ConcurrentCalibrationDetector.Results results) {
+			ConcurrentCalibrationDetector.Results r = map.get(key);
+			if( r == null )
+				return false;
+			results.detected = r.detected;
+			results.width = r.width;
+			results.height = r.height;
+			results.observation = r.observation == null ? null : r.observation.copy();
+			return true;
+		}
+
+		@Override
+		public synchronized void save(String key, ConcurrentCalibrationDetector.Results results) {
+			map.put(key, results);
+		}
+	}
+}
@@ -18,6 +18,7 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.concurrency.BoofConcurrency;
 import georegression.misc.test.GeometryUnitTest;
 import georegression.struct.point.Point2D_F64;
 import org.junit.Test;
@@ -135,6 +136,47 @@ public class TestCalibrationPlanarGridZhang99 {
 		checkEquals(expected, found, initial);
 	}
 
+	/**
+	 * Compare the block sparse optimizer against the dense one using noisy inputs
+	 */
+	@Test
+	public void optimizedParam_sparse() {
+		optimizedParam_sparse(false);
+		optimizedParam_sparse(true);
+	}
+
+	private void optimizedParam_sparse( boolean concurrent ) {
+		List<Point2D_F64> grid = GenericCalibrationGrid.standardLayout();
+		Zhang99ParamAll initial = GenericCalibrationGrid.createStandardParam(true,2,true,5,rand);
+		Zhang99ParamAll expected = initial.copy();
+
+		List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(initial,grid);
+
+		initial.a += rand.nextDouble()*0.01*Math.abs(initial.a);
+		initial.b += rand.nextDouble()*0.01*Math.abs(initial.b);
+		initial.x0 += rand.nextDouble()*0.01*Math.abs(initial.x0);
+		initial.y0 += rand.nextDouble()*0.01*Math.abs(initial.y0);
+		for( int i = 0; i < expected.radial.length; i++ ) {
+			initial.radial[i] = rand.nextGaussian()*expected.radial[i]*0.1;
+		}
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			CalibrationPlanarGridZhang99 alg = new CalibrationPlanarGridZhang99(grid,true,2,true);
+			alg.setSparse(true);
+			alg.setConcurrent(concurrent);
+
+			Zhang99ParamAll found = new Zhang99ParamAll(true,2,true,5);
+			assertTrue(alg.optimizedParam(observations, grid, initial, found,null));
+
+			checkEquals(expected, found, initial);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	@Test
 	public void applyDistortion() {
 		Point2D_F64 n = new Point2D_F64(0.05,-0.1);
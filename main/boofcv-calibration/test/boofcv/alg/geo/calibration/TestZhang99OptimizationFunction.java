@@ -18,6 +18,7 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.concurrency.BoofConcurrency;
 import georegression.geometry.ConvertRotation3D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
@@ -70,6 +71,51 @@ public class TestZhang99OptimizationFunction {
 		}
 	}
 	
+	/**
+	 * Residuals computed using multiple threads should be identical
+	 */
+	@Test
+	public void concurrent() {
+		Zhang99ParamAll param = GenericCalibrationGrid.createStandardParam(false, 2, true, 5, rand);
+
+		double array[] = new double[ param.numParameters() ];
+		param.convertToParam(array);
+
+		List<Point2D_F64> gridPts = GenericCalibrationGrid.standardLayout();
+
+		List<CalibrationObservation> observations = new ArrayList<>();
+
+		for( int i = 0; i < param.views.length; i++ ) {
+			CalibrationObservation o = estimate(param,param.views[i],gridPts);
+			// add noise so that the residuals aren't zero
+			for (int j = 0; j < o.size(); j++) {
+				o.get(j).x += rand.nextGaussian();
+				o.get(j).y += rand.nextGaussian();
+			}
+			observations.add(o);
+		}
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			Zhang99OptimizationFunction alg =
+					new Zhang99OptimizationFunction( new Zhang99ParamAll(false,2,true,5),gridPts,observations );
+
+			double expected[] = new double[ alg.getNumOfOutputsM()];
+			double found[] = new double[ alg.getNumOfOutputsM()];
+
+			alg.process(array,expected);
+			alg.setConcurrent(true);
+			alg.process(array,found);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i],found[i],0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	protected static CalibrationObservation estimate( Zhang99ParamAll param ,
 													  Zhang99ParamAll.View v ,
 													  List<Point2D_F64> grid ) {
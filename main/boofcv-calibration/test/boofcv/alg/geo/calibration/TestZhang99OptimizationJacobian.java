@@ -19,8 +19,10 @@
 package boofcv.alg.geo.calibration;
 
 import boofcv.abst.fiducial.calib.CalibrationDetectorSquareGrid;
+import boofcv.concurrency.BoofConcurrency;
 import georegression.struct.point.Point2D_F64;
 import org.ddogleg.optimization.DerivativeChecker;
+import org.ejml.data.DMatrixRMaj;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -28,6 +30,7 @@ import java.util.List;
 import java.util.Random;
 
 import static boofcv.alg.geo.calibration.TestZhang99OptimizationFunction.estimate;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -60,6 +63,116 @@ public class TestZhang99OptimizationJacobian {
 		compareToNumerical(true, true);
 	}
 
+	/**
+	 * The Jacobian computed using threads should be identical to the single threaded one
+	 */
+	@Test
+	public void concurrent() {
+		partial = true;
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			Zhang99OptimizationJacobian alg = createJacobian(false, true);
+
+			double dataParam[] = new double[ alg.getNumOfInputsN() ];
+			for (int i = 0; i < dataParam.length; i++) {
+				dataParam[i] = rand.nextGaussian()*0.1;
+			}
+			// keep the target in front of the camera
+			for (int i = alg.getNumCameraParam(); i < dataParam.length; i += 6 ) {
+				dataParam[i+5] = 1 + rand.nextDouble();
+			}
+
+			double expected[] = new double[ alg.getNumOfInputsN()*alg.getNumOfOutputsM()];
+			double found[] = new double[ expected.length ];
+			alg.process(dataParam,expected);
+			alg.setConcurrent(true);
+			alg.process(dataParam,found);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i],found[i],0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * Compare each view's block against the corresponding elements in the full Jacobian
+	 */
+	@Test
+	public void processBlocks() {
+		partial = true;
+		processBlocks(false,false);
+		processBlocks(true,true);
+	}
+
+	private void processBlocks(boolean assumeZeroSkew, boolean includeTangential ) {
+		Zhang99OptimizationJacobian alg = createJacobian(assumeZeroSkew, includeTangential);
+
+		int N = alg.getNumOfInputsN();
+		int M = alg.getNumOfOutputsM();
+		int numCamera = alg.getNumCameraParam();
+		int numViews = (N-numCamera)/6;
+
+		double dataParam[] = new double[ N ];
+		for (int i = 0; i < N; i++) {
+			dataParam[i] = rand.nextGaussian()*0.1;
+		}
+		for (int i = numCamera; i < N; i += 6 ) {
+			dataParam[i+5] = 1 + rand.nextDouble();
+		}
+
+		DMatrixRMaj full = new DMatrixRMaj(M,N);
+		alg.process(dataParam,full.data);
+
+		List<DMatrixRMaj> blocks = new ArrayList<>();
+		for (int i = 0; i < numViews; i++) {
+			blocks.add( new DMatrixRMaj(1,1));
+		}
+		alg.processBlocks(dataParam,blocks);
+
+		int row0 = 0;
+		for (int view = 0; view < numViews; view++) {
+			DMatrixRMaj B = blocks.get(view);
+			assertEquals(numCamera+6,B.numCols);
+			for (int row = 0; row < B.numRows; row++) {
+				for (int col = 0; col < numCamera; col++) {
+					assertEquals(full.get(row0+row,col),B.get(row,col),0);
+				}
+				for (int col = 0; col < 6; col++) {
+					assertEquals(full.get(row0+row,numCamera+view*6+col),B.get(row,numCamera+col),0);
+				}
+			}
+			row0 += B.numRows;
+		}
+		assertEquals(M,row0);
+	}
+
+	private Zhang99OptimizationJacobian createJacobian(boolean assumeZeroSkew, boolean includeTangential) {
+		Zhang99ParamAll param = GenericCalibrationGrid.createStandardParam(assumeZeroSkew, 2,includeTangential, 3, rand);
+
+		List<Point2D_F64> gridPts = CalibrationDetectorSquareGrid.createLayout(3, 2, 30, 30);
+
+		List<CalibrationObservation> observations = new ArrayList<>();
+
+		for( int i = 0; i < param.views.length; i++ ) {
+			observations.add( estimate(param,param.views[i],gridPts));
+		}
+
+		if( partial ) {
+			for (int i = 0; i < observations.size(); i++) {
+				CalibrationObservation c = observations.get(i);
+				for (int j = 0; j < 5; j++) {
+					c.points.remove(3*i);
+				}
+			}
+		}
+
+		return new Zhang99OptimizationJacobian(
+				assumeZeroSkew,param.radial.length,param.includeTangential,observations,gridPts);
+	}
+
 	private void compareToNumerical(boolean assumeZeroSkew, boolean includeTangential ) {
 		Zhang99ParamAll param = GenericCalibrationGrid.createStandardParam(assumeZeroSkew, 2,includeTangential, 3, rand);
 
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.interpolate.InterpolateRectangle;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.GrayF32;
+
+import java.util.Random;
+
+/**
+ * Compares the cost of tracking a single feature using the generic and specialized KLT trackers.  The
+ * features are displaced from their true location so that several iterations are required.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkKltTracker {
+	static int imgWidth = 640;
+	static int imgHeight = 480;
+	static long TEST_TIME = 1000;
+	static int radius = 3;
+
+	GrayF32 image = new GrayF32(imgWidth,imgHeight);
+	GrayF32 derivX = new GrayF32(imgWidth,imgHeight);
+	GrayF32 derivY = new GrayF32(imgWidth,imgHeight);
+
+	KltConfig config = new KltConfig();
+
+	KltFeature[] templates;
+	float[] startX,startY;
+
+	public BenchmarkKltTracker() {
+		Random rand = new Random(234);
+		GrayF32 noise = new GrayF32(imgWidth,imgHeight);
+		ImageMiscOps.fillUniform(noise, rand, 0, 255);
+		BlurImageOps.gaussian(noise, image, -1, 2, null);
+		GradientSobel.process(image, derivX, derivY, new ImageBorder1D_F32(BorderIndex1D_Extend.class));
+
+		// create features on a grid inside the image
+		KltTracker<GrayF32,GrayF32> tracker = createGeneric();
+		tracker.setImage(image,derivX,derivY);
+
+		int N = 0;
+		for (int y = 20; y < imgHeight-20; y += 10) {
+			for (int x = 20; x < imgWidth-20; x += 10) {
+				N++;
+			}
+		}
+		templates = new KltFeature[N];
+		startX = new float[N];
+		startY = new float[N];
+		N = 0;
+		for (int y = 20; y < imgHeight-20; y += 10) {
+			for (int x = 20; x < imgWidth-20; x += 10) {
+				KltFeature f = new KltFeature(radius);
+				f.setPosition(x,y);
+				tracker.setDescription(f);
+				templates[N] = f;
+				startX[N] = x + rand.nextFloat()*2-1;
+				startY[N] = y + rand.nextFloat()*2-1;
+				N++;
+			}
+		}
+	}
+
+	private KltTracker<GrayF32,GrayF32> createGeneric() {
+		InterpolateRectangle<GrayF32> interpInput = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		InterpolateRectangle<GrayF32> interpDeriv = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		return new KltTracker<>(interpInput, interpDeriv, config);
+	}
+
+	private KltTracker<GrayF32,GrayF32> createSpecialized() {
+		InterpolateRectangle<GrayF32> interpInput = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		InterpolateRectangle<GrayF32> interpDeriv = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		return new KltTracker_F32<>(interpInput, interpDeriv, config);
+	}
+
+	public class Track extends PerformerBase {
+		KltTracker<GrayF32,GrayF32> tracker;
+
+		public Track(KltTracker<GrayF32, GrayF32> tracker) {
+			this.tracker = tracker;
+			tracker.setImage(image,derivX,derivY);
+		}
+
+		@Override
+		public void process() {
+			for (int i = 0; i < templates.length; i++) {
+				KltFeature f = templates[i];
+				f.setPosition(startX[i],startY[i]);
+				tracker.track(f);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return tracker.getClass().getSimpleName();
+		}
+	}
+
+	public void evaluate() {
+		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
+		System.out.println("Features "+templates.length+" radius "+radius);
+		System.out.println();
+
+		Track[] performers = new Track[]{new Track(createGeneric()),new Track(createSpecialized()),
+				new Track(createGeneric()),new Track(createSpecialized())};
+		// the first pass is to warm up the JIT
+		for( Track p : performers ) {
+			double opsPerSec = ProfileOperation.profileOpsPerSec(p, TEST_TIME, true);
+			double nanoPerFeature = 1e9/(opsPerSec*templates.length);
+			System.out.printf("%-20s %8.1f ns per feature\n",p.getName(),nanoPerFeature);
+		}
+	}
+
+	public static void main( String args[] ) {
+		BenchmarkKltTracker benchmark = new BenchmarkKltTracker();
+
+		benchmark.evaluate();
+	}
+}
@@ -58,7 +58,7 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
 		out.print("import boofcv.struct.image."+imageName+";\n" +
 				"import boofcv.struct.image.ImageType;\n" +
-				"import boofcv.alg.segmentation.fh04.FhEdgeWeights;\n" +
+				"import boofcv.alg.segmentation.fh04.FhEdgeWeightsRows;\n" +
 				"import boofcv.struct.image.Planar;\n" +
 				"import org.ddogleg.struct.FastQueue;\n" +
 				"\n" +
@@ -74,7 +74,7 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 				" *\n" +
 				" * @author Peter Abeles\n" +
 				" */\n" +
-				"public class "+className+" implements FhEdgeWeights<Planar<"+imageName+">> {\n\n");
+				"public class "+className+" extends FhEdgeWeightsRows<Planar<"+imageName+">> {\n\n");
 	}
 
 	private void printConstructor( AutoTypeImage imageType ) {
@@ -96,6 +96,7 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 		String bitwise = imageType.getBitWise();
 
 		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		String edgesPerRow = rule == ConnectRule.FOUR ? "w*2" : "(w-1)*4";
 
 		String weightString = rule == ConnectRule.EIGHT ? ",weight3=0,weight4=0" : "";
 
@@ -108,9 +109,21 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 				"\t\tint h = input.height-1;\n" +
 				"\n" +
 				"\t\t// First consider the inner pixels\n" +
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
+				"\t\tcomputeInner(input,edges,"+edgesPerRow+");\n" +
+				"\n" +
+				"\t\t// Handle border pixels\n");
+		printBorder(rule);
+
+		out.print("\t@Override\n" +
+				"\tprotected void processInner( int y0 , int y1 ) {\n" +
+				"\t\tfinal Planar<"+imageName+"> input = this.input;\n" +
+				"\t\tfinal Edge[] edges = this.edges.data;\n" +
+				"\t\tint w = input.width-1;\n" +
+				"\n" +
+				"\t\tfor( int y = y0; y < y1; y++ ) {\n" +
 				"\t\t\tint indexSrc = input.startIndex + y*input.stride + "+startX+";\n" +
 				"\t\t\tint indexDst =                  + y*input.width  + "+startX+";\n" +
+				"\t\t\tint indexEdge = edgesStart + y*edgesPerRow;\n" +
 				"\n" +
 				"\t\t\tfor( int x = "+startX+"; x < w; x++ , indexSrc++ , indexDst++ ) {\n" +
 				"\n" +
@@ -139,8 +152,8 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 		out.print(
 				"\t\t\t\t}\n" +
 				"\n" +
-				"\t\t\t\tEdge e1 = edges.grow();\n" +
-				"\t\t\t\tEdge e2 = edges.grow();\n" +
+				"\t\t\t\tEdge e1 = edges[indexEdge++];\n" +
+				"\t\t\t\tEdge e2 = edges[indexEdge++];\n" +
 				"\n" +
 				"\t\t\t\te1.sortValue = (float)Math.sqrt(weight1);\n" +
 				"\t\t\t\te1.indexA = indexDst;\n" +
@@ -152,8 +165,8 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 				"\n");
 		if( rule == ConnectRule.EIGHT ) {
 			out.print(
-				"\t\t\t\tEdge e3 = edges.grow();\n" +
-				"\t\t\t\tEdge e4 = edges.grow();\n" +
+				"\t\t\t\tEdge e3 = edges[indexEdge++];\n" +
+				"\t\t\t\tEdge e4 = edges[indexEdge++];\n" +
 				"\n" +
 				"\t\t\t\te3.sortValue = (float)Math.sqrt(weight3);\n" +
 				"\t\t\t\te3.indexA = indexDst;\n" +
@@ -163,12 +176,12 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 				"\t\t\t\te4.indexA = indexDst;\n" +
 				"\t\t\t\te4.indexB = indexDst-1+input.width;\n");
 		}
-		out.print(
-				"\t\t\t}\n" +
+		out.print("\t\t\t}\n" +
 				"\t\t}\n" +
-				"\n" +
-				"\t\t// Handle border pixels\n");
+				"\t}\n\n");
+	}
 
+	private void printBorder( ConnectRule rule ) {
 		if( rule == ConnectRule.EIGHT ) {
 			out.print(
 				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
@@ -57,7 +57,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 		int N = rule == ConnectRule.EIGHT ? 8 : 4;
 
 		out.print("import boofcv.struct.image."+imageName+";\n" +
-				"import boofcv.alg.segmentation.fh04.FhEdgeWeights;\n" +
+				"import boofcv.alg.segmentation.fh04.FhEdgeWeightsRows;\n" +
 				"import boofcv.struct.image.ImageType;\n" +
 				"import org.ddogleg.struct.FastQueue;\n" +
 				"\n" +
@@ -73,7 +73,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 				" *\n" +
 				" * @author Peter Abeles\n" +
 				" */\n" +
-				"public class "+className+" implements FhEdgeWeights<"+imageName+"> {\n\n");
+				"public class "+className+" extends FhEdgeWeightsRows<"+imageName+"> {\n\n");
 	}
 
 	private void printProcess( AutoTypeImage imageType , ConnectRule rule ) {
@@ -83,6 +83,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 		String bitwise = imageType.getBitWise();
 
 		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		String edgesPerRow = rule == ConnectRule.FOUR ? "w*2" : "(w-1)*4";
 
 		out.print("\t@Override\n" +
 				"\tpublic void process("+imageName+" input,\n" +
@@ -92,17 +93,29 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 				"\t\tint h = input.height-1;\n" +
 				"\n" +
 				"\t\t// First consider the inner pixels\n" +
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
+				"\t\tcomputeInner(input,edges,"+edgesPerRow+");\n" +
+				"\n" +
+				"\t\t// Handle border pixels\n");
+		printBorder(rule);
+
+		out.print("\t@Override\n" +
+				"\tprotected void processInner( int y0 , int y1 ) {\n" +
+				"\t\tfinal "+imageName+" input = this.input;\n" +
+				"\t\tfinal Edge[] edges = this.edges.data;\n" +
+				"\t\tint w = input.width-1;\n" +
+				"\n" +
+				"\t\tfor( int y = y0; y < y1; y++ ) {\n" +
 				"\t\t\tint indexSrc = input.startIndex + y*input.stride + "+startX+";\n" +
 				"\t\t\tint indexDst =                  + y*input.width  + "+startX+";\n" +
+				"\t\t\tint indexEdge = edgesStart + y*edgesPerRow;\n" +
 				"\n" +
 				"\t\t\tfor( int x = "+startX+"; x < w; x++ , indexSrc++ , indexDst++ ) {\n" +
 				"\t\t\t\t"+sumType+" color0 = input.data[indexSrc]"+bitwise+";              // (x,y)\n" +
 				"\t\t\t\t"+sumType+" color1 = input.data[indexSrc+1]"+bitwise+";            // (x+1,y)\n" +
 				"\t\t\t\t"+sumType+" color2 = input.data[indexSrc+input.stride]"+bitwise+"; // (x,y+1)\n" +
 				"\n" +
-				"\t\t\t\tEdge e1 = edges.grow();\n" +
-				"\t\t\t\tEdge e2 = edges.grow();\n" +
+				"\t\t\t\tEdge e1 = edges[indexEdge++];\n" +
+				"\t\t\t\tEdge e2 = edges[indexEdge++];\n" +
 				"\n" +
 				"\t\t\t\te1.sortValue = Math.abs(color1-color0);\n" +
 				"\t\t\t\te1.indexA = indexDst;\n" +
@@ -117,8 +130,8 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 				"\t\t\t\t"+sumType+" color3 = input.data[indexSrc+1+input.stride]"+bitwise+"; // (x+1,y+1)\n" +
 				"\t\t\t\t"+sumType+" color4 = input.data[indexSrc-1+input.stride]"+bitwise+"; // (x-1,y+1)\n" +
 				"\n" +
-				"\t\t\t\tEdge e3 = edges.grow();\n" +
-				"\t\t\t\tEdge e4 = edges.grow();\n" +
+				"\t\t\t\tEdge e3 = edges[indexEdge++];\n" +
+				"\t\t\t\tEdge e4 = edges[indexEdge++];\n" +
 				"\n" +
 				"\t\t\t\te3.sortValue = Math.abs(color3-color0);\n" +
 				"\t\t\t\te3.indexA = indexDst;\n" +
@@ -130,9 +143,11 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 		}
 
 		out.print("\t\t\t}\n" +
-				"\t\t}\n"+
-				"\t\t// Handle border pixels\n");
+				"\t\t}\n" +
+				"\t}\n\n");
+	}
 
+	private void printBorder( ConnectRule rule ) {
 		if( rule == ConnectRule.EIGHT ) {
 			out.print(
 					"\t\tfor( int y = 0; y < h; y++ ) {\n" +
@@ -153,8 +168,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 					"\t\t\tcheckAround(x,h,input,edges);\n" +
 					"\t\t}\n");
 		}
-
-		out.print("\t}\n");
+		out.print("\t}\n\n");
 	}
 
 	private void printCheckAround( AutoTypeImage imageType , ConnectRule rule ) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Background model in which each pixel is modeled as a mixture of Gaussian distributions, which allows it to
+ * learn backgrounds with multiple appearances, e.g. swaying trees or flickering lights.  Each Gaussian has a weight,
+ * an isotropic variance which is shared by all bands, and a mean for each band.  The mixtures are updated
+ * online as described in [1] and [2].  Gaussians are sorted by weight and Gaussians whose weight decays to
+ * zero are removed.  A pixel is background if it matches a Gaussian with a weight &ge; significantWeight.
+ * </p>
+ *
+ * <p>
+ * Internally the model is stored in a single interleaved float image, one band for each parameter of each Gaussian,
+ * so updates don't create any new objects.
+ * </p>
+ *
+ * <p>Tuning Parameters:</p>
+ * <ul>
+ * <li><b>learnRate:</b>  Specifies how fast it will adapt. 0 to 1, inclusive.  0 = static  1.0 = instant.
+ * Try 0.01</li>
+ * <li><b>threshold:</b>  Pixel's with a Mahalanobis distance &le; threshold match a Gaussian. Consult
+ * a Chi-Squared table for theoretical values.  1-band try 10.  3-bands try 20. </li>
+ * <li><b>decay:</b> Reduces the weight of every Gaussian by learnRate*decay each frame, which removes Gaussians
+ * that are rarely seen.  Try 0.001</li>
+ * <li><b>significantWeight:</b> Gaussians with at least this weight are considered to be part of the background.
+ * Try 0.2</li>
+ * <li><b>initial variance</b> The variance assigned to a Gaussian when it's created.</li>
+ * </ul>
+ *
+ * <p>
+ * [1] Stauffer, Chris, and W. Eric L. Grimson. "Adaptive background mixture models for real-time tracking."
+ * CVPR 1999.<br>
+ * [2] Zivkovic, Zoran. "Improved adaptive Gaussian mixture model for background subtraction." ICPR 2004.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface BackgroundAlgorithmGmm {
+
+	/**
+	 * Returns the initial variance assigned to a new Gaussian
+	 * @return initial variance
+	 */
+	float getInitialVariance();
+
+	/**
+	 * Sets the initial variance assigned to a new Gaussian
+	 * @param initialVariance initial variance
+	 */
+	void setInitialVariance(float initialVariance);
+
+	/**
+	 * Returns the learning rate.
+	 * @return 0 (slow) to 1 (fast)
+	 */
+	float getLearnRate();
+
+	/**
+	 * Specifies the learning rate
+	 * @param learnRate 0 (slow) to 1 (fast)
+	 */
+	void setLearnRate(float learnRate);
+
+	float getThreshold();
+
+	void setThreshold(float threshold);
+
+	float getDecay();
+
+	void setDecay(float decay);
+
+	float getSignificantWeight();
+
+	void setSignificantWeight(float significantWeight);
+
+	float getMinimumDifference();
+
+	void setMinimumDifference(float minimumDifference);
+
+	/**
+	 * Maximum number of Gaussians in each pixel's mixture
+	 */
+	int getMaxGaussians();
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Common code for updating and classifying pixels using a Gaussian mixture model.  See
+ * {@link BackgroundAlgorithmGmm} for a description of the algorithm.
+ * </p>
+ *
+ * <p>
+ * Each pixel's mixture is stored in a continuous block of {@link #modelStride} floats.  Inside the block
+ * Gaussians are stored one after another and each Gaussian is described by {@link #gaussianStride} floats;
+ * weight, variance, and then the mean of each band.  Gaussians are sorted by weight, largest first, and unused
+ * Gaussians have a weight of zero and are at the end.  If the first Gaussian has a weight of zero then the pixel
+ * has never been observed.
+ * </p>
+ *
+ * <p>
+ * All functions only read and write the pixel's mixture, so different pixels can be processed by different
+ * threads at the same time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundGmmCommon {
+
+	/**
+	 * Specifies how fast it will adapt. 0 to 1, inclusive.  0 = static  1.0 = instant.
+	 */
+	public float learnRate;
+
+	/**
+	 * An observation matches a Gaussian if its Mahalanobis distance is &le; this threshold
+	 */
+	public float threshold;
+
+	/**
+	 * Each update the weight of all Gaussians is reduced by learnRate*decay
+	 */
+	public float decay = 0.001f;
+
+	/**
+	 * Gaussians with a weight &ge; this value are part of the background
+	 */
+	public float significantWeight = 0.2f;
+
+	/**
+	 * Variance assigned to a new Gaussian
+	 */
+	public float initialVariance = 100;
+
+	/**
+	 * Minimum difference between the mean of a significant Gaussian and the observed pixel value for the pixel
+	 * to be considered moving.  The difference is the sum of absolute differences across all bands, which is
+	 * compared against minimumDifference*numBands.
+	 */
+	public float minimumDifference = 0;
+
+	/**
+	 * Value assigned to pixels which have not been observed yet
+	 */
+	public byte unknownValue = 0;
+
+	/**
+	 * Maximum number of Gaussians in a mixture
+	 */
+	public final int maxGaussians;
+
+	/**
+	 * Number of bands in the input image
+	 */
+	public final int numBands;
+
+	/**
+	 * Number of floats used to describe a single Gaussian
+	 */
+	public final int gaussianStride;
+
+	/**
+	 * Number of floats used to describe a pixel's mixture
+	 */
+	public final int modelStride;
+
+	/**
+	 * @param learnRate Specifies how quickly the background is updated.  0 = static  1.0 = instant.
+	 * @param threshold Mahalanobis distance threshold for matching a Gaussian
+	 * @param maxGaussians Maximum number of Gaussians in a mixture
+	 * @param numBands Number of bands in the input image
+	 */
+	public BackgroundGmmCommon(float learnRate, float threshold, int maxGaussians, int numBands ) {
+		if( maxGaussians < 1 )
+			throw new IllegalArgumentException("Must have at least one Gaussian");
+		this.learnRate = learnRate;
+		this.threshold = threshold;
+		this.maxGaussians = maxGaussians;
+		this.numBands = numBands;
+		this.gaussianStride = 2 + numBands;
+		this.modelStride = maxGaussians*gaussianStride;
+	}
+
+	/**
+	 * Updates the pixel's mixture using the observed pixel value.  The pixel is classified using the mixture
+	 * prior to the update.
+	 *
+	 * @param pixelValue Observed value of each band in the pixel
+	 * @param data Array containing the mixture
+	 * @param index Index of the first element in the pixel's mixture
+	 * @return 0 = background, 1 = foreground/moving, or the unknown value if never observed
+	 */
+	public int updateMixture( float[] pixelValue , float[] data , int index ) {
+		int match = findMatch(pixelValue, data, index);
+		int result = classify(pixelValue, data, index, match);
+
+		final int end = index + modelStride;
+		float minusLearn = 1.0f - learnRate;
+		float decayLearn = learnRate*decay;
+
+		// decay the weight of all the Gaussians and find the end of the used Gaussians
+		int endUsed = index;
+		while( endUsed < end && data[endUsed] > 0 ) {
+			data[endUsed] = minusLearn*data[endUsed] - decayLearn;
+			endUsed += gaussianStride;
+		}
+
+		if( match >= 0 ) {
+			// move the matched Gaussian towards the observation
+			float weight = data[match] += learnRate;
+			float rho = weight > learnRate ? learnRate/weight : 1.0f;
+
+			float distanceSq = 0;
+			for (int band = 0; band < numBands; band++) {
+				int indexMean = match + 2 + band;
+				float diff = pixelValue[band] - data[indexMean];
+				distanceSq += diff*diff;
+				data[indexMean] += rho*diff;
+			}
+			float variance = data[match+1];
+			data[match+1] = variance + rho*(distanceSq/numBands - variance);
+		} else {
+			// create a new Gaussian, replacing the least significant one if there's no space
+			int indexNew;
+			if( endUsed < end ) {
+				indexNew = endUsed;
+				endUsed += gaussianStride;
+			} else {
+				indexNew = end - gaussianStride;
+			}
+			data[indexNew] = learnRate;
+			data[indexNew+1] = initialVariance;
+			for (int band = 0; band < numBands; band++) {
+				data[indexNew+2+band] = pixelValue[band];
+			}
+		}
+
+		// remove Gaussians which have decayed away
+		int endValid = index;
+		float totalWeight = 0;
+		for (int i = index; i < endUsed; i += gaussianStride) {
+			if( data[i] <= 0 )
+				continue;
+			if( i != endValid )
+				System.arraycopy(data, i, data, endValid, gaussianStride);
+			totalWeight += data[endValid];
+			endValid += gaussianStride;
+		}
+		for (int i = endValid; i < endUsed; i += gaussianStride) {
+			data[i] = 0;
+		}
+
+		if( totalWeight > 0 ) {
+			for (int i = index; i < endValid; i += gaussianStride) {
+				data[i] /= totalWeight;
+			}
+		}
+
+		sortByWeight(data, index, endValid);
+
+		return result;
+	}
+
+	/**
+	 * Classifies the observed pixel value using the pixel's mixture without modifying it
+	 *
+	 * @param pixelValue Observed value of each band in the pixel
+	 * @param data Array containing the mixture
+	 * @param index Index of the first element in the pixel's mixture
+	 * @return 0 = background, 1 = foreground/moving, or the unknown value if never observed
+	 */
+	public int segment( float[] pixelValue , float[] data , int index ) {
+		return classify(pixelValue, data, index, findMatch(pixelValue, data, index));
+	}
+
+	/**
+	 * Returns the index of the Gaussian with the largest weight that the observation matches, or -1 if none.
+	 */
+	int findMatch( float[] pixelValue , float[] data , int index ) {
+		final int end = index + modelStride;
+		for (int i = index; i < end && data[i] > 0; i += gaussianStride) {
+			float distanceSq = 0;
+			for (int band = 0; band < numBands; band++) {
+				float diff = pixelValue[band] - data[i+2+band];
+				distanceSq += diff*diff;
+			}
+			if( distanceSq <= threshold*data[i+1] )
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Classifies the observation given the matching Gaussian
+	 */
+	int classify( float[] pixelValue , float[] data , int index , int match ) {
+		if( data[index] <= 0 )
+			return unknownValue & 0xFF;
+
+		if( match >= 0 && data[match] >= significantWeight )
+			return 0;
+
+		if( minimumDifference > 0 ) {
+			// it's only moving if it's far enough away from all the background Gaussians
+			float adjustedMinimumDifference = minimumDifference*numBands;
+			final int end = index + modelStride;
+			for (int i = index; i < end && data[i] >= significantWeight; i += gaussianStride) {
+				float sumAbsDiff = 0;
+				for (int band = 0; band < numBands; band++) {
+					sumAbsDiff += Math.abs(pixelValue[band] - data[i+2+band]);
+				}
+				if( sumAbsDiff < adjustedMinimumDifference )
+					return 0;
+			}
+		}
+
+		return 1;
+	}
+
+	/**
+	 * Insertion sort of the Gaussians, largest weight first.  Typically only one Gaussian is out of order.
+	 */
+	void sortByWeight( float[] data , int index , int end ) {
+		for (int i = index + gaussianStride; i < end; i += gaussianStride) {
+			for (int j = i; j > index && data[j] > data[j-gaussianStride]; j -= gaussianStride) {
+				for (int k = 0; k < gaussianStride; k++) {
+					float tmp = data[j+k];
+					data[j+k] = data[j-gaussianStride+k];
+					data[j-gaussianStride+k] = tmp;
+				}
+			}
+		}
+	}
+}
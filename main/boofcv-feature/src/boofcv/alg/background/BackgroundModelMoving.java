@@ -173,4 +173,18 @@ public abstract class BackgroundModelMoving<T extends ImageBase<T>,MotionModel e
 	}
 
 	protected abstract void _segment( MotionModel currentToWorld , T frame , GrayU8 segmented );
+
+	/**
+	 * Segments the current frame and then updates the background with it.  The output is the same as calling
+	 * {@link #segment} followed by {@link #updateBackground(InvertibleTransform, ImageBase)}, i.e. the frame is
+	 * segmented using the background prior to the update.
+	 *
+	 * @param homeToCurrent Transform from home image to the current image
+	 * @param frame The current image in the sequence
+	 * @param segmented Segmented image. 0 = background, 1 = foreground/moving
+	 */
+	public void updateBackground( MotionModel homeToCurrent , T frame , GrayU8 segmented ) {
+		segment(homeToCurrent, frame, segmented);
+		updateBackground(homeToCurrent, frame);
+	}
 }
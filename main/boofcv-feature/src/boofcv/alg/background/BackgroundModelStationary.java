@@ -47,4 +47,17 @@ public abstract class BackgroundModelStationary<T extends ImageBase<T>> extends
 	 * @param segmented Segmented image. 0 = background, 1 = foreground/moving
 	 */
 	public abstract void segment( T frame , GrayU8 segmented );
+
+	/**
+	 * Segments the current frame and then updates the background with it.  The output is the same as calling
+	 * {@link #segment} followed by {@link #updateBackground(ImageBase)}, i.e. the frame is segmented using the
+	 * background prior to the update.  Implementations can override this to do both in a single pass.
+	 *
+	 * @param frame current image
+	 * @param segmented Segmented image. 0 = background, 1 = foreground/moving
+	 */
+	public void updateBackground( T frame , GrayU8 segmented ) {
+		segment(frame, segmented);
+		updateBackground(frame);
+	}
 }
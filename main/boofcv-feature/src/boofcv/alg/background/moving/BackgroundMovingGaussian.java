@@ -20,6 +20,7 @@ package boofcv.alg.background.moving;
 
 import boofcv.alg.background.BackgroundAlgorithmGaussian;
 import boofcv.alg.background.BackgroundModelMoving;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.distort.Point2Transform2Model_F32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -55,6 +56,11 @@ public abstract class BackgroundMovingGaussian<T extends ImageBase<T>, Motion ex
 
 	protected float minimumDifference = 0;
 
+	/**
+	 * If true then rows are split into blocks which are processed by different threads.
+	 */
+	protected boolean concurrent = false;
+
 	/**
 	 * See class documentation for parameters definitions.
 	 * @param learnRate Specifies how quickly the background is updated Try 0.05
@@ -112,4 +118,25 @@ public abstract class BackgroundMovingGaussian<T extends ImageBase<T>, Motion ex
 	public void setMinimumDifference(float minimumDifference) {
 		this.minimumDifference = minimumDifference;
 	}
+
+	/**
+	 * If true then rows will be processed using multiple threads.  The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.  The output is identical to the single threaded output.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Returns the number of blocks the rows should be split into.  If not concurrent then it's always one.
+	 */
+	protected int numberOfBlocks( int rows ) {
+		if( !concurrent )
+			return 1;
+		return BoofConcurrency.computeNumberOfBlocks(rows, BoofConcurrency.MIN_BLOCK_ROWS, BoofConcurrency.getMaxThreads());
+	}
 }
@@ -21,13 +21,20 @@ package boofcv.alg.background.moving;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.distort.Point2Transform2_F32;
 import boofcv.struct.image.*;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementation of {@link BackgroundMovingGaussian} for {@link Planar}.
@@ -52,6 +59,12 @@ public class BackgroundMovingGaussian_PL<T extends ImageGray<T>, Motion extends
 	// background is composed of bands*2 channels.  even = mean, odd = variance
 	Planar<GrayF32> background;
 
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
+
+	// storage for each thread when processed concurrently
+	private List<Worker> workers = new ArrayList<>();
+
 	/**
 	 * Configurations background removal.
 	 *
@@ -78,6 +91,7 @@ public class BackgroundMovingGaussian_PL<T extends ImageGray<T>, Motion extends
 		this.interpolationBG = FactoryInterpolation.createPixelMB(
 				0, 255, interpType, BorderType.EXTENDED, background.getImageType());
 		this.interpolationBG.setImage(background);
+		this.interpType = interpType;
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
 
 		pixelBG = new float[2*numBands];
@@ -108,10 +122,28 @@ public class BackgroundMovingGaussian_PL<T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, Planar<T> frame) {
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final Planar<T> frame) {
 		transform.setModel(worldToCurrent);
-		interpolateInput.setImage(frame);
 
+		int numBlocks = numberOfBlocks(y1-y0);
+		if( numBlocks <= 1 ) {
+			interpolateInput.setImage(frame);
+			updateRows(x0, y0, x1, y1, frame, transform, interpolateInput, pixelInput, work);
+		} else {
+			BoofConcurrency.loopBlocks(y0, y1, workers(numBlocks), new IntRangeObjectConsumer<Worker>() {
+				@Override
+				public void accept(Worker w, int minInclusive, int maxExclusive) {
+					w.interpolateInput.setImage(frame);
+					updateRows(x0, minInclusive, x1, maxExclusive, frame,
+							w.transform, w.interpolateInput, w.pixelInput, w.work);
+				}
+			});
+		}
+	}
+
+	private void updateRows(int x0, int y0, int x1, int y1, Planar<T> frame,
+							Point2Transform2_F32 transform, InterpolatePixelMB<Planar<T>> interpolateInput,
+							float[] pixelInput, Point2D_F32 work ) {
 		float minusLearn = 1.0f - learnRate;
 
 		final int numBands = background.getNumBands()/2;
@@ -147,14 +179,32 @@ public class BackgroundMovingGaussian_PL<T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, Planar<T> frame, GrayU8 segmented) {
+	protected void _segment(Motion currentToWorld, final Planar<T> frame, final GrayU8 segmented) {
 		transform.setModel(currentToWorld);
 		inputWrapper.wrap(frame);
 
+		int numBlocks = numberOfBlocks(frame.height);
+		if( numBlocks <= 1 ) {
+			segmentRows(0, frame.height, frame, segmented, transform, interpolationBG, pixelBG, pixelInput, work);
+		} else {
+			BoofConcurrency.loopBlocks(0, frame.height, workers(numBlocks), new IntRangeObjectConsumer<Worker>() {
+				@Override
+				public void accept(Worker w, int minInclusive, int maxExclusive) {
+					w.interpolationBG.setImage(background);
+					segmentRows(minInclusive, maxExclusive, frame, segmented,
+							w.transform, w.interpolationBG, w.pixelBG, w.pixelInput, w.work);
+				}
+			});
+		}
+	}
+
+	private void segmentRows(int y0, int y1, Planar<T> frame, GrayU8 segmented,
+							 Point2Transform2_F32 transform, InterpolatePixelMB<Planar<GrayF32>> interpolationBG,
+							 float[] pixelBG, float[] pixelInput, Point2D_F32 work ) {
 		final int numBands = background.getNumBands()/2;
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -204,4 +254,32 @@ public class BackgroundMovingGaussian_PL<T extends ImageGray<T>, Motion extends
 			}
 		}
 	}
+
+	/**
+	 * Returns workers for each block with the transform set to the current model
+	 */
+	private List<Worker> workers( int numBlocks ) {
+		while( workers.size() < numBlocks ) {
+			workers.add(new Worker());
+		}
+		List<Worker> list = workers.subList(0, numBlocks);
+		for (int i = 0; i < list.size(); i++) {
+			list.get(i).transform.setModel(transform.getModel());
+		}
+		return list;
+	}
+
+	/**
+	 * Everything with state which is needed to process a block of rows in its own thread
+	 */
+	private class Worker {
+		Point2Transform2Model_F32<Motion> transform = BackgroundMovingGaussian_PL.this.transform.copyWithModel();
+		InterpolatePixelMB<Planar<T>> interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
+				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
+		float[] pixelBG = new float[BackgroundMovingGaussian_PL.this.pixelBG.length];
+		float[] pixelInput = new float[BackgroundMovingGaussian_PL.this.pixelInput.length];
+		InterpolatePixelMB<Planar<GrayF32>> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, background.getImageType());
+		Point2D_F32 work = new Point2D_F32();
+	}
 }
@@ -22,13 +22,20 @@ import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.FactoryGImageGray;
 import boofcv.core.image.GImageGray;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.distort.Point2Transform2_F32;
 import boofcv.struct.image.*;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementation of {@link BackgroundMovingGaussian} for {@link ImageGray}.
@@ -52,6 +59,12 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	// background is composed of two channels.  0 = mean, 1 = variance
 	Planar<GrayF32> background = new Planar<>(GrayF32.class,1,1,2);
 
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
+
+	// storage for each thread when processed concurrently
+	private List<Worker> workers = new ArrayList<>();
+
 	/**
 	 * Configurations background removal.
 	 *
@@ -73,6 +86,7 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 		this.interpolationBG = FactoryInterpolation.createPixelMB(
 				0, 255, interpType, BorderType.EXTENDED, ImageType.pl(2, GrayF32.class));
 		this.interpolationBG.setImage(background);
+		this.interpType = interpType;
 		inputWrapper = FactoryGImageGray.create(imageType);
 	}
 
@@ -96,10 +110,26 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
 		transform.setModel(worldToCurrent);
-		interpolateInput.setImage(frame);
 
+		int numBlocks = numberOfBlocks(y1-y0);
+		if( numBlocks <= 1 ) {
+			interpolateInput.setImage(frame);
+			updateRows(x0, y0, x1, y1, frame, transform, interpolateInput, work);
+		} else {
+			BoofConcurrency.loopBlocks(y0, y1, workers(numBlocks), new IntRangeObjectConsumer<Worker>() {
+				@Override
+				public void accept(Worker w, int minInclusive, int maxExclusive) {
+					w.interpolateInput.setImage(frame);
+					updateRows(x0, minInclusive, x1, maxExclusive, frame, w.transform, w.interpolateInput, w.work);
+				}
+			});
+		}
+	}
+
+	private void updateRows(int x0, int y0, int x1, int y1, T frame,
+							Point2Transform2_F32 transform, InterpolatePixelS<T> interpolateInput, Point2D_F32 work ) {
 		float minusLearn = 1.0f - learnRate;
 
 		GrayF32 backgroundMean = background.getBand(0);
@@ -129,11 +159,29 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		transform.setModel(currentToWorld);
 		inputWrapper.wrap(frame);
 
-		for (int y = 0; y < frame.height; y++) {
+		int numBlocks = numberOfBlocks(frame.height);
+		if( numBlocks <= 1 ) {
+			segmentRows(0, frame.height, frame, segmented, transform, interpolationBG, pixelBG, work);
+		} else {
+			BoofConcurrency.loopBlocks(0, frame.height, workers(numBlocks), new IntRangeObjectConsumer<Worker>() {
+				@Override
+				public void accept(Worker w, int minInclusive, int maxExclusive) {
+					w.interpolationBG.setImage(background);
+					segmentRows(minInclusive, maxExclusive, frame, segmented,
+							w.transform, w.interpolationBG, w.pixelBG, w.work);
+				}
+			});
+		}
+	}
+
+	private void segmentRows(int y0, int y1, T frame, GrayU8 segmented,
+							 Point2Transform2_F32 transform, InterpolatePixelMB<Planar<GrayF32>> interpolationBG,
+							 float[] pixelBG, Point2D_F32 work ) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -169,4 +217,31 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 			}
 		}
 	}
+
+	/**
+	 * Returns workers for each block with the transform set to the current model
+	 */
+	private List<Worker> workers( int numBlocks ) {
+		while( workers.size() < numBlocks ) {
+			workers.add(new Worker());
+		}
+		List<Worker> list = workers.subList(0, numBlocks);
+		for (int i = 0; i < list.size(); i++) {
+			list.get(i).transform.setModel(transform.getModel());
+		}
+		return list;
+	}
+
+	/**
+	 * Everything with state which is needed to process a block of rows in its own thread
+	 */
+	private class Worker {
+		Point2Transform2Model_F32<Motion> transform = BackgroundMovingGaussian_SB.this.transform.copyWithModel();
+		InterpolatePixelS<T> interpolateInput =
+				FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
+		InterpolatePixelMB<Planar<GrayF32>> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, ImageType.pl(2, GrayF32.class));
+		float[] pixelBG = new float[2];
+		Point2D_F32 work = new Point2D_F32();
+	}
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.moving;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelMoving;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedF32;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Implementation of {@link BackgroundAlgorithmGmm} for moving images.  The input image is sampled using
+ * bilinear interpolation when the model is updated.  Mixtures can't be interpolated, so when segmenting
+ * the nearest mixture is used.
+ * </p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelMoving
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundMovingGmm<T extends ImageBase<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundModelMoving<T,Motion> implements BackgroundAlgorithmGmm
+{
+	// updates and classifies each pixel's mixture
+	protected BackgroundGmmCommon common;
+
+	// mixture for each pixel in the background. See BackgroundGmmCommon for the format
+	protected InterleavedF32 model;
+
+	/**
+	 * If true then rows are split into blocks which are processed by different threads.
+	 */
+	protected boolean concurrent = false;
+
+	// storage for each block of rows.  If not concurrent only the first one is used
+	private List<Worker> workers = new ArrayList<>();
+
+	/**
+	 * See class documentation for parameters definitions.
+	 * @param learnRate Specifies how quickly the background is updated Try 0.01
+	 * @param threshold Threshold for matching a Gaussian.  &ge; 0.  Try 10
+	 * @param maxGaussians Maximum number of Gaussians in each mixture.  Try 3
+	 * @param transform Used to convert pixel coordinates
+	 * @param imageType Type of input image
+	 */
+	public BackgroundMovingGmm(float learnRate, float threshold, int maxGaussians,
+							   Point2Transform2Model_F32<Motion> transform, ImageType<T> imageType) {
+		super(transform, imageType);
+
+		if( threshold < 0 )
+			throw new IllegalArgumentException("Threshold must be more than 0");
+
+		common = new BackgroundGmmCommon(learnRate, threshold, maxGaussians, imageType.getNumBands());
+		model = new InterleavedF32(0,0,common.modelStride);
+	}
+
+	@Override
+	public void initialize(int backgroundWidth, int backgroundHeight, Motion homeToWorld) {
+		model.reshape(backgroundWidth,backgroundHeight);
+		ImageMiscOps.fill(model, 0);
+
+		this.homeToWorld.set(homeToWorld);
+		this.homeToWorld.invert(worldToHome);
+
+		this.backgroundWidth = backgroundWidth;
+		this.backgroundHeight = backgroundHeight;
+	}
+
+	@Override
+	public void reset() {
+		ImageMiscOps.fill(model, 0);
+	}
+
+	@Override
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
+		List<Worker> workers = workers(y1-y0, worldToCurrent);
+		BoofConcurrency.loopBlocks(y0, y1, workers, new IntRangeObjectConsumer<Worker>() {
+			@Override
+			public void accept(Worker w, int minInclusive, int maxExclusive) {
+				w.updateRows(x0, minInclusive, x1, maxExclusive, frame);
+			}
+		});
+	}
+
+	@Override
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
+		List<Worker> workers = workers(frame.height, currentToWorld);
+		BoofConcurrency.loopBlocks(0, frame.height, workers, new IntRangeObjectConsumer<Worker>() {
+			@Override
+			public void accept(Worker w, int minInclusive, int maxExclusive) {
+				w.segmentRows(minInclusive, maxExclusive, frame, segmented);
+			}
+		});
+	}
+
+	/**
+	 * Returns a worker for each block of rows with its transform set to the motion model
+	 */
+	private List<Worker> workers( int rows , Motion motion ) {
+		int numBlocks = 1;
+		if( concurrent )
+			numBlocks = Math.max(1, BoofConcurrency.computeNumberOfBlocks(
+					rows, BoofConcurrency.MIN_BLOCK_ROWS, BoofConcurrency.getMaxThreads()));
+
+		while( workers.size() < numBlocks ) {
+			workers.add(createWorker());
+		}
+		List<Worker> list = workers.subList(0, numBlocks);
+		for (int i = 0; i < list.size(); i++) {
+			list.get(i).transform.setModel(motion);
+		}
+		return list;
+	}
+
+	/**
+	 * Creates the storage needed to process a block of rows in its own thread
+	 */
+	protected abstract Worker createWorker();
+
+	/**
+	 * Everything with state which is needed to process a block of rows
+	 */
+	protected abstract class Worker {
+		protected Point2Transform2Model_F32<Motion> transform = BackgroundMovingGmm.this.transform.copyWithModel();
+		protected Point2D_F32 work = new Point2D_F32();
+		protected float[] inputPixel = new float[common.numBands];
+
+		/**
+		 * Updates the model inside the rectangle using the frame.  The transform is from world to current.
+		 */
+		protected abstract void updateRows( int x0 , int y0 , int x1 , int y1 , T frame );
+
+		/**
+		 * Segments the rows in the frame.  The transform is from current to world.
+		 */
+		protected abstract void segmentRows( int y0 , int y1 , T frame , GrayU8 segmented );
+	}
+
+	@Override
+	public void setUnknownValue(int unknownValue) {
+		super.setUnknownValue(unknownValue);
+		common.unknownValue = (byte)unknownValue;
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.initialVariance;
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.initialVariance = initialVariance;
+	}
+
+	@Override
+	public float getLearnRate() {
+		return common.learnRate;
+	}
+
+	@Override
+	public void setLearnRate(float learnRate) {
+		common.learnRate = learnRate;
+	}
+
+	@Override
+	public float getThreshold() {
+		return common.threshold;
+	}
+
+	@Override
+	public void setThreshold(float threshold) {
+		common.threshold = threshold;
+	}
+
+	@Override
+	public float getDecay() {
+		return common.decay;
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.decay = decay;
+	}
+
+	@Override
+	public float getSignificantWeight() {
+		return common.significantWeight;
+	}
+
+	@Override
+	public void setSignificantWeight(float significantWeight) {
+		common.significantWeight = significantWeight;
+	}
+
+	@Override
+	public float getMinimumDifference() {
+		return common.minimumDifference;
+	}
+
+	@Override
+	public void setMinimumDifference(float minimumDifference) {
+		common.minimumDifference = minimumDifference;
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.maxGaussians;
+	}
+
+	/**
+	 * If true then rows will be processed using multiple threads.  The number of threads is specified by
+	 * {@link BoofConcurrency}.  The output is identical to the single threaded output.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
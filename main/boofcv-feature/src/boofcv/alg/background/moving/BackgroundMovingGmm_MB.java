@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.moving;
+
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.core.image.FactoryGImageMultiBand;
+import boofcv.core.image.GImageMultiBand;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.*;
+import georegression.struct.InvertibleTransform;
+
+/**
+ * Implementation of {@link BackgroundMovingGmm} for {@link Planar} and {@link ImageInterleaved} images.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundMovingGmm_MB<T extends ImageMultiBand<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundMovingGmm<T,Motion>
+{
+	/**
+	 * Configurations background removal.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated.  0 = static  1.0 = instant.  Try 0.01
+	 * @param threshold Threshold for matching a Gaussian.  Consult a chi-square table for reasonably values.
+	 *                  10 to 16 for 1 to 3 bands.
+	 * @param maxGaussians Maximum number of Gaussians in each mixture.  Try 3
+	 * @param transform Used to apply motion model
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundMovingGmm_MB(float learnRate, float threshold, int maxGaussians,
+								  Point2Transform2Model_F32<Motion> transform, ImageType<T> imageType)
+	{
+		super(learnRate, threshold, maxGaussians, transform, imageType);
+	}
+
+	@Override
+	protected Worker createWorker() {
+		return new WorkerMB();
+	}
+
+	private class WorkerMB extends Worker {
+		// interpolates the input image
+		InterpolatePixelMB<T> interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
+				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
+		// wrappers which provide abstraction across image types
+		GImageMultiBand inputWrapper = FactoryGImageMultiBand.create(imageType);
+
+		@Override
+		protected void updateRows(int x0, int y0, int x1, int y1, T frame) {
+			interpolateInput.setImage(frame);
+			final float[] data = model.data;
+
+			for (int y = y0; y < y1; y++) {
+				int indexModel = model.startIndex + y*model.stride + x0*model.numBands;
+				for (int x = x0; x < x1; x++, indexModel += model.numBands ) {
+					transform.compute(x,y,work);
+
+					if( work.x >= 0 && work.x < frame.width && work.y >= 0 && work.y < frame.height) {
+						interpolateInput.get(work.x,work.y,inputPixel);
+						common.updateMixture(inputPixel, data, indexModel);
+					}
+				}
+			}
+		}
+
+		@Override
+		protected void segmentRows(int y0, int y1, T frame, GrayU8 segmented) {
+			inputWrapper.wrap(frame);
+			final float[] data = model.data;
+			// planar images are indexed by pixel and interleaved images by element
+			final int pixelStride = frame instanceof ImageInterleaved ? inputPixel.length : 1;
+
+			for (int y = y0; y < y1; y++) {
+				int indexFrame = frame.startIndex + y*frame.stride;
+				int indexSegmented = segmented.startIndex + y*segmented.stride;
+
+				for (int x = 0; x < frame.width; x++, indexFrame += pixelStride , indexSegmented++ ) {
+					transform.compute(x,y,work);
+
+					if( work.x >= 0 && work.x < model.width && work.y >= 0 && work.y < model.height) {
+						inputWrapper.getF(indexFrame, inputPixel);
+						int indexModel = model.getIndex((int)work.x, (int)work.y);
+						segmented.data[indexSegmented] = (byte)common.segment(inputPixel, data, indexModel);
+					} else {
+						// there is no background here.  Just mark it as not moving to avoid false positives
+						segmented.data[indexSegmented] = unknownValue;
+					}
+				}
+			}
+		}
+	}
+}
@@ -53,6 +53,11 @@ public abstract class BackgroundStationaryGaussian<T extends ImageBase<T>>
 
 	protected float minimumDifference = 0;
 
+	/**
+	 * If true then rows are split into blocks which are processed by different threads.
+	 */
+	protected boolean concurrent = false;
+
 	/**
 	 * See class documentation for parameters definitions.
 	 * @param learnRate Specifies how quickly the background is updated Try 0.05
@@ -108,4 +113,16 @@ public abstract class BackgroundStationaryGaussian<T extends ImageBase<T>>
 	public void setMinimumDifference(float minimumDifference) {
 		this.minimumDifference = minimumDifference;
 	}
+
+	/**
+	 * If true then rows will be processed using multiple threads.  The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.  The output is identical to the single threaded output.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
 }
@@ -20,6 +20,8 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.struct.image.GrayU8;
@@ -78,7 +80,7 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	public void updateBackground( final T frame) {
 		inputWrapper.wrap(frame);
 
 		if( background.width == 1 ) {
@@ -99,86 +101,135 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 			InputSanityCheck.checkSameShape(background, frame);
 		}
 
-		int numBands = background.getNumBands()/2;
-		float minusLearn = 1.0f - learnRate;
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int end = indexInput + frame.width*numBands;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
-
-				for (int band = 0; band < numBands; band++) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, null, minInclusive, maxExclusive, true, new float[inputPixel.length]);
+				}
+			});
+		} else {
+			processRows(frame, null, 0, frame.height, true, inputPixel);
+		}
+	}
 
-					float inputValue = inputPixel[band];
-					float meanBG = background.data[indexBG];
-					float varianceBG = background.data[indexBG+1];
+	@Override
+	public void segment( final T frame, final GrayU8 segmented) {
+		if( background.width == 1 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		InputSanityCheck.checkSameShape(background,frame,segmented);
+		inputWrapper.wrap(frame);
 
-					float diff = meanBG-inputValue;
-					background.data[indexBG++] = minusLearn*meanBG + learnRate*inputValue;
-					background.data[indexBG++] = minusLearn*varianceBG + learnRate*diff*diff;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, false, new float[inputPixel.length]);
 				}
-
-				indexInput += frame.numBands;
-			}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, false, inputPixel);
 		}
 	}
 
+	/**
+	 * Segments and updates the background in a single pass through the image.
+	 */
 	@Override
-	public void segment( T frame, GrayU8 segmented) {
+	public void updateBackground( final T frame , final GrayU8 segmented ) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented, unknownValue);
+			updateBackground(frame);
 			return;
 		}
+		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
-		final int numBands = background.getNumBands()/2;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, true, new float[inputPixel.length]);
+				}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, true, inputPixel);
+		}
+	}
 
+	/**
+	 * Segments and/or updates the background inside the specified rows.  Segmentation is done using
+	 * the background before it's updated.
+	 *
+	 * @param segmented If not null then the frame is segmented
+	 * @param update If true then the background will be updated
+	 * @param inputPixel Storage for the input pixel's value
+	 */
+	private void processRows( T frame , GrayU8 segmented , int y0 , int y1 , boolean update ,
+							  float[] inputPixel ) {
+		final int numBands = background.getNumBands()/2;
+		float minusLearn = 1.0f - learnRate;
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
+			int indexBG = background.startIndex + y*background.stride;
 			int indexInput = frame.startIndex + y*frame.stride;
-			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			int indexSegmented = segmented == null ? 0 : segmented.startIndex + y*segmented.stride;
 
 			int end = indexInput + frame.width*frame.numBands;
 			while( indexInput < end ) {
 				inputWrapper.getF(indexInput, inputPixel);
 
-				float mahalanobis = 0;
-				for (int band = 0; band < numBands; band++) {
-
-					int indexBG_band = indexBG + band*2;
+				if( segmented != null ) {
+					float mahalanobis = 0;
+					for (int band = 0; band < numBands; band++) {
+						int indexBG_band = indexBG + band*2;
 
-					float meanBG = background.data[indexBG_band];
-					float varBG  = background.data[indexBG_band+1];
+						float meanBG = background.data[indexBG_band];
+						float varBG  = background.data[indexBG_band+1];
 
-					float diff = meanBG - inputPixel[band];
-					mahalanobis += diff * diff / varBG;
-				}
+						float diff = meanBG - inputPixel[band];
+						mahalanobis += diff * diff / varBG;
+					}
 
-				if (mahalanobis <= threshold) {
-					segmented.data[indexSegmented] = 0;
-				} else {
-					if( minimumDifference == 0) {
-						segmented.data[indexSegmented] = 1;
+					if (mahalanobis <= threshold) {
+						segmented.data[indexSegmented] = 0;
 					} else {
-						float sumAbsDiff = 0;
-						for (int band = 0; band < numBands; band++) {
-							int indexBG_band = indexBG + band*2;
-							sumAbsDiff += Math.abs(background.data[indexBG_band] - inputPixel[band]);
-						}
-						if (sumAbsDiff >= adjustedMinimumDifference)
+						if( minimumDifference == 0) {
 							segmented.data[indexSegmented] = 1;
-						else
-							segmented.data[indexSegmented] = 0;
+						} else {
+							float sumAbsDiff = 0;
+							for (int band = 0; band < numBands; band++) {
+								int indexBG_band = indexBG + band*2;
+								sumAbsDiff += Math.abs(background.data[indexBG_band] - inputPixel[band]);
+							}
+							if (sumAbsDiff >= adjustedMinimumDifference)
+								segmented.data[indexSegmented] = 1;
+							else
+								segmented.data[indexSegmented] = 0;
+						}
+					}
+					indexSegmented++;
+				}
+
+				if( update ) {
+					for (int band = 0; band < numBands; band++) {
+						int indexBG_band = indexBG + band*2;
+
+						float inputValue = inputPixel[band];
+						float meanBG = background.data[indexBG_band];
+						float varianceBG = background.data[indexBG_band+1];
+
+						float diff = meanBG-inputValue;
+						background.data[indexBG_band]   = minusLearn*meanBG + learnRate*inputValue;
+						background.data[indexBG_band+1] = minusLearn*varianceBG + learnRate*diff*diff;
 					}
 				}
 
-				indexInput     += frame.numBands;
-				indexSegmented += 1;
-				indexBG        += background.numBands;
+				indexInput += frame.numBands;
+				indexBG    += background.numBands;
 			}
 		}
 	}
@@ -21,6 +21,8 @@ package boofcv.alg.background.stationary;
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageMultiBand;
@@ -75,7 +77,7 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void updateBackground( Planar<T> frame) {
+	public void updateBackground( final Planar<T> frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			// initialize the mean to the current image and the initial variance is whatever it is set to
@@ -90,90 +92,133 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 
 		inputWrapper.wrap(frame);
 
-		int numBands = background.getNumBands()/2;
-		float minusLearn = 1.0f - learnRate;
-
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
-
-				for (int band = 0; band < numBands; band++) {
-					GrayF32 backgroundMean = background.getBand(band*2);
-					GrayF32 backgroundVar = background.getBand(band*2+1);
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, null, minInclusive, maxExclusive, true, new float[inputPixel.length]);
+				}
+			});
+		} else {
+			processRows(frame, null, 0, frame.height, true, inputPixel);
+		}
+	}
 
-					float inputValue = inputPixel[band];
-					float meanBG = backgroundMean.data[indexBG];
-					float varianceBG = backgroundVar.data[indexBG];
+	@Override
+	public void segment(final Planar<T> frame, final GrayU8 segmented) {
+		if( background.width == 1 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		InputSanityCheck.checkSameShape(background,frame,segmented);
+		inputWrapper.wrap(frame);
 
-					float diff = meanBG-inputValue;
-					backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
-					backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, false, new float[inputPixel.length]);
 				}
-
-				indexInput++;
-				indexBG++;
-			}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, false, inputPixel);
 		}
 	}
 
+	/**
+	 * Segments and updates the background in a single pass through the image.
+	 */
 	@Override
-	public void segment(Planar<T> frame, GrayU8 segmented) {
+	public void updateBackground( final Planar<T> frame , final GrayU8 segmented ) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented, unknownValue);
+			updateBackground(frame);
 			return;
 		}
+		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
-		final int numBands = background.getNumBands()/2;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, true, new float[inputPixel.length]);
+				}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, true, inputPixel);
+		}
+	}
 
+	/**
+	 * Segments and/or updates the background inside the specified rows.  Segmentation is done using
+	 * the background before it's updated.
+	 *
+	 * @param segmented If not null then the frame is segmented
+	 * @param update If true then the background will be updated
+	 * @param inputPixel Storage for the input pixel's value
+	 */
+	private void processRows( Planar<T> frame , GrayU8 segmented , int y0 , int y1 , boolean update ,
+							  float[] inputPixel ) {
+		final int numBands = background.getNumBands()/2;
+		float minusLearn = 1.0f - learnRate;
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
+			int indexBG = y*background.width;
 			int indexInput = frame.startIndex + y*frame.stride;
-			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			int indexSegmented = segmented == null ? 0 : segmented.startIndex + y*segmented.stride;
 
 			int end = indexInput + frame.width;
 			while( indexInput < end ) {
 				inputWrapper.getF(indexInput, inputPixel);
 
-				float mahalanobis = 0;
-				for (int band = 0; band < numBands; band++) {
+				if( segmented != null ) {
+					float mahalanobis = 0;
+					for (int band = 0; band < numBands; band++) {
+						float meanBG = background.getBand(band*2).data[indexBG];
+						float varBG = background.getBand(band*2+1).data[indexBG];
 
-					GrayF32 backgroundMean = background.getBand(band*2);
-					GrayF32 backgroundVar = background.getBand(band*2+1);
-
-					float meanBG = backgroundMean.data[indexBG];
-					float varBG = backgroundVar.data[indexBG];
-
-					float diff = meanBG - inputPixel[band];
-					mahalanobis += diff * diff / varBG;
-				}
+						float diff = meanBG - inputPixel[band];
+						mahalanobis += diff * diff / varBG;
+					}
 
-				if (mahalanobis <= threshold) {
-					segmented.data[indexSegmented] = 0;
-				} else {
-					if( minimumDifference == 0) {
-						segmented.data[indexSegmented] = 1;
+					if (mahalanobis <= threshold) {
+						segmented.data[indexSegmented] = 0;
 					} else {
-						float sumAbsDiff = 0;
-						for (int band = 0; band < numBands; band++) {
-							GrayF32 backgroundMean = background.getBand(band*2);
-							sumAbsDiff += Math.abs(backgroundMean.data[indexBG] - inputPixel[band]);
-						}
-						if (sumAbsDiff >= adjustedMinimumDifference)
+						if( minimumDifference == 0) {
 							segmented.data[indexSegmented] = 1;
-						else
-							segmented.data[indexSegmented] = 0;
+						} else {
+							float sumAbsDiff = 0;
+							for (int band = 0; band < numBands; band++) {
+								GrayF32 backgroundMean = background.getBand(band*2);
+								sumAbsDiff += Math.abs(backgroundMean.data[indexBG] - inputPixel[band]);
+							}
+							if (sumAbsDiff >= adjustedMinimumDifference)
+								segmented.data[indexSegmented] = 1;
+							else
+								segmented.data[indexSegmented] = 0;
+						}
+					}
+					indexSegmented++;
+				}
+
+				if( update ) {
+					for (int band = 0; band < numBands; band++) {
+						GrayF32 backgroundMean = background.getBand(band*2);
+						GrayF32 backgroundVar = background.getBand(band*2+1);
+
+						float inputValue = inputPixel[band];
+						float meanBG = backgroundMean.data[indexBG];
+						float varianceBG = backgroundVar.data[indexBG];
+
+						float diff = meanBG-inputValue;
+						backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+						backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
 					}
 				}
 
 				indexInput++;
-				indexSegmented++;
 				indexBG++;
 			}
 		}
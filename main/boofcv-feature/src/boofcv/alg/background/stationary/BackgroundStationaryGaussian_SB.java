@@ -22,6 +22,8 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.alg.background.moving.BackgroundMovingGaussian;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.core.image.FactoryGImageGray;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageGray;
@@ -61,7 +63,7 @@ public class BackgroundStationaryGaussian_SB<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	public void updateBackground( final T frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			GConvertImage.convert(frame, background.getBand(0));
@@ -73,69 +75,110 @@ public class BackgroundStationaryGaussian_SB<T extends ImageGray<T>>
 
 		inputWrapper.wrap(frame);
 
-		float minusLearn = 1.0f - learnRate;
-
-		GrayF32 backgroundMean = background.getBand(0);
-		GrayF32 backgroundVar = background.getBand(1);
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				float inputValue = inputWrapper.getF(indexInput);
-				float meanBG = backgroundMean.data[indexBG];
-				float varianceBG = backgroundVar.data[indexBG];
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, null, minInclusive, maxExclusive, true);
+				}
+			});
+		} else {
+			processRows(frame, null, 0, frame.height, true);
+		}
+	}
 
-				float diff = meanBG-inputValue;
-				backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
-				backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
+	@Override
+	public void segment( final T frame, final GrayU8 segmented) {
+		if( background.width == 1 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		InputSanityCheck.checkSameShape(background,frame,segmented);
+		inputWrapper.wrap(frame);
 
-				indexBG++;
-				indexInput++;
-			}
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, false);
+				}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, false);
 		}
 	}
 
+	/**
+	 * Segments and updates the background in a single pass through the image.
+	 */
 	@Override
-	public void segment( T frame, GrayU8 segmented) {
+	public void updateBackground( final T frame , final GrayU8 segmented ) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented, unknownValue);
+			updateBackground(frame);
 			return;
 		}
 		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, true);
+				}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, true);
+		}
+	}
+
+	/**
+	 * Segments and/or updates the background inside the specified rows.  Segmentation is done using
+	 * the background before it's updated.
+	 *
+	 * @param segmented If not null then the frame is segmented
+	 * @param update If true then the background will be updated
+	 */
+	private void processRows( T frame , GrayU8 segmented , int y0 , int y1 , boolean update ) {
+		float minusLearn = 1.0f - learnRate;
+
 		GrayF32 backgroundMean = background.getBand(0);
 		GrayF32 backgroundVar = background.getBand(1);
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
+			int indexBG = backgroundMean.startIndex + y*backgroundMean.stride;
 			int indexInput = frame.startIndex + y*frame.stride;
-			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			int indexSegmented = segmented == null ? 0 : segmented.startIndex + y*segmented.stride;
 
 			int end = indexInput + frame.width;
 			while( indexInput < end ) {
-				float pixelFrame = inputWrapper.getF(indexInput);
-
+				float inputValue = inputWrapper.getF(indexInput);
 				float meanBG = backgroundMean.data[indexBG];
-				float varBG = backgroundVar.data[indexBG];
+				float varianceBG = backgroundVar.data[indexBG];
+
+				float diff = meanBG-inputValue;
 
-				float diff = meanBG - pixelFrame;
-				float chisq = diff*diff/varBG;
+				if( segmented != null ) {
+					float chisq = diff*diff/varianceBG;
 
-				if (chisq <= threshold) {
-					segmented.data[indexSegmented] = 0;
-				} else {
-					if( diff >= minimumDifference || -diff >= minimumDifference )
-						segmented.data[indexSegmented] = 1;
-					else
+					if (chisq <= threshold) {
 						segmented.data[indexSegmented] = 0;
+					} else {
+						if( diff >= minimumDifference || -diff >= minimumDifference )
+							segmented.data[indexSegmented] = 1;
+						else
+							segmented.data[indexSegmented] = 0;
+					}
+					indexSegmented++;
+				}
+
+				if( update ) {
+					backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+					backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
 				}
 
 				indexInput++;
-				indexSegmented++;
 				indexBG++;
 			}
 		}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedF32;
+
+/**
+ * <p>Implementation of {@link BackgroundAlgorithmGmm} for stationary images.</p>
+ *
+ * <p>
+ * Segmenting and updating the model at the same time with {@link #updateBackground(ImageBase, GrayU8)} only
+ * requires a single pass through the image and is faster than calling the two functions separately.
+ * </p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelStationary
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundStationaryGmm<T extends ImageBase<T>>
+		extends BackgroundModelStationary<T> implements BackgroundAlgorithmGmm
+{
+	// updates and classifies each pixel's mixture
+	protected BackgroundGmmCommon common;
+
+	// mixture for each pixel. See BackgroundGmmCommon for the format
+	protected InterleavedF32 model;
+
+	// storage for the value of the input pixel
+	protected float[] inputPixel;
+
+	/**
+	 * If true then rows are split into blocks which are processed by different threads.
+	 */
+	protected boolean concurrent = false;
+
+	/**
+	 * See class documentation for parameters definitions.
+	 * @param learnRate Specifies how quickly the background is updated Try 0.01
+	 * @param threshold Threshold for matching a Gaussian.  &ge; 0.  Try 10
+	 * @param maxGaussians Maximum number of Gaussians in each mixture.  Try 3
+	 * @param imageType Type of input image
+	 */
+	public BackgroundStationaryGmm(float learnRate, float threshold, int maxGaussians, ImageType<T> imageType) {
+		super(imageType);
+
+		if( threshold < 0 )
+			throw new IllegalArgumentException("Threshold must be more than 0");
+
+		common = new BackgroundGmmCommon(learnRate, threshold, maxGaussians, imageType.getNumBands());
+		model = new InterleavedF32(0,0,common.modelStride);
+		inputPixel = new float[imageType.getNumBands()];
+	}
+
+	@Override
+	public void reset() {
+		model.reshape(0,0);
+	}
+
+	@Override
+	public void updateBackground( T frame ) {
+		process(frame, null, true);
+	}
+
+	@Override
+	public void segment( T frame , GrayU8 segmented ) {
+		if( model.width == 0 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		process(frame, segmented, false);
+	}
+
+	/**
+	 * Segments and updates the background in a single pass through the image.
+	 */
+	@Override
+	public void updateBackground( T frame , GrayU8 segmented ) {
+		process(frame, segmented, true);
+	}
+
+	private void process( final T frame , final GrayU8 segmented , final boolean update ) {
+		if( model.width == 0 ) {
+			model.reshape(frame.width, frame.height);
+			ImageMiscOps.fill(model, 0);
+		} else {
+			InputSanityCheck.checkSameShape(model, frame);
+		}
+		if( segmented != null )
+			InputSanityCheck.checkSameShape(frame, segmented);
+
+		wrapInput(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, BoofConcurrency.MIN_BLOCK_ROWS, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(frame, segmented, minInclusive, maxExclusive, update, new float[inputPixel.length]);
+				}
+			});
+		} else {
+			processRows(frame, segmented, 0, frame.height, update, inputPixel);
+		}
+	}
+
+	/**
+	 * Specifies the input image which is being processed
+	 */
+	protected abstract void wrapInput( T frame );
+
+	/**
+	 * Segments and/or updates the model inside the specified rows.  Segmentation is done using
+	 * the model before it's updated.
+	 *
+	 * @param segmented If not null then the frame is segmented
+	 * @param update If true then the model will be updated
+	 * @param inputPixel Storage for the input pixel's value
+	 */
+	protected abstract void processRows( T frame , GrayU8 segmented , int y0 , int y1 , boolean update ,
+										 float[] inputPixel );
+
+	@Override
+	public void setUnknownValue(int unknownValue) {
+		super.setUnknownValue(unknownValue);
+		common.unknownValue = (byte)unknownValue;
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.initialVariance;
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.initialVariance = initialVariance;
+	}
+
+	@Override
+	public float getLearnRate() {
+		return common.learnRate;
+	}
+
+	@Override
+	public void setLearnRate(float learnRate) {
+		common.learnRate = learnRate;
+	}
+
+	@Override
+	public float getThreshold() {
+		return common.threshold;
+	}
+
+	@Override
+	public void setThreshold(float threshold) {
+		common.threshold = threshold;
+	}
+
+	@Override
+	public float getDecay() {
+		return common.decay;
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.decay = decay;
+	}
+
+	@Override
+	public float getSignificantWeight() {
+		return common.significantWeight;
+	}
+
+	@Override
+	public void setSignificantWeight(float significantWeight) {
+		common.significantWeight = significantWeight;
+	}
+
+	@Override
+	public float getMinimumDifference() {
+		return common.minimumDifference;
+	}
+
+	@Override
+	public void setMinimumDifference(float minimumDifference) {
+		common.minimumDifference = minimumDifference;
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.maxGaussians;
+	}
+
+	/**
+	 * If true then rows will be processed using multiple threads.  The number of threads is specified by
+	 * {@link BoofConcurrency}.  The output is identical to the single threaded output.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
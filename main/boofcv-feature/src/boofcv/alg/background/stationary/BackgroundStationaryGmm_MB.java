@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.stationary;
+
+import boofcv.core.image.FactoryGImageMultiBand;
+import boofcv.core.image.GImageMultiBand;
+import boofcv.struct.image.*;
+
+/**
+ * Implementation of {@link BackgroundStationaryGmm} for {@link Planar} and {@link ImageInterleaved} images.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundStationaryGmm_MB<T extends ImageMultiBand<T>> extends BackgroundStationaryGmm<T> {
+
+	// wrappers which provide abstraction across image types
+	protected GImageMultiBand inputWrapper;
+
+	/**
+	 * Configurations background removal.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated.  0 = static  1.0 = instant.  Try 0.01
+	 * @param threshold Threshold for matching a Gaussian.  Consult a chi-square table for reasonably values.
+	 *                  10 to 16 for 1 to 3 bands.
+	 * @param maxGaussians Maximum number of Gaussians in each mixture.  Try 3
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundStationaryGmm_MB(float learnRate, float threshold, int maxGaussians, ImageType<T> imageType) {
+		super(learnRate, threshold, maxGaussians, imageType);
+
+		inputWrapper = FactoryGImageMultiBand.create(imageType);
+	}
+
+	@Override
+	protected void wrapInput(T frame) {
+		inputWrapper.wrap(frame);
+	}
+
+	@Override
+	protected void processRows(T frame, GrayU8 segmented, int y0, int y1, boolean update, float[] inputPixel) {
+		final float[] data = model.data;
+		// planar images are indexed by pixel and interleaved images by element
+		final int pixelStride = frame instanceof ImageInterleaved ? inputPixel.length : 1;
+
+		for (int y = y0; y < y1; y++) {
+			int indexModel = model.startIndex + y*model.stride;
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented == null ? 0 : segmented.startIndex + y*segmented.stride;
+
+			int end = indexInput + frame.width*pixelStride;
+			while( indexInput < end ) {
+				inputWrapper.getF(indexInput, inputPixel);
+
+				int result;
+				if( update )
+					result = common.updateMixture(inputPixel, data, indexModel);
+				else
+					result = common.segment(inputPixel, data, indexModel);
+
+				if( segmented != null )
+					segmented.data[indexSegmented++] = (byte)result;
+
+				indexInput += pixelStride;
+				indexModel += model.numBands;
+			}
+		}
+	}
+}
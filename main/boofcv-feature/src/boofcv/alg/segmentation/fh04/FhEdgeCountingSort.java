@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.fh04;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntConsumer;
+
+import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
+
+/**
+ * <p>
+ * Approximate sort for edges in {@link SegmentFelzenszwalbHuttenlocher04}.  Edge weights are quantized into
+ * bins which span the range of weights and the edges are then sorted using a counting sort.  Edges inside
+ * the same bin are not sorted and are kept in their original order.  Weights are quantized the same way as
+ * {@link org.ddogleg.sorting.ApproximateSort_F32} so the output is identical to it.
+ * </p>
+ *
+ * <p>
+ * If concurrent then the edges are split into blocks and each block is processed by its own thread.  Each block
+ * has its own histogram and the sorted location of each edge is found by summing the histograms in bin then
+ * block order, so the output is the same no matter how many threads are used.  All storage is saved and
+ * recycled on the next call.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FhEdgeCountingSort {
+
+	// blocks are never less than this number of edges, to avoid the threading overhead on small images
+	private static final int MIN_BLOCK_EDGES = 10000;
+
+	// number of bins which weights are quantized into
+	private int numBins;
+
+	// if true then multiple threads are used
+	private boolean concurrent;
+
+	// histogram of each block.  index = block*numBins + bin.  Converted into the output index of each bin
+	private int[] counts = new int[0];
+	// minimum and maximum weight inside of each block
+	private float[] blockMin = new float[0];
+	private float[] blockMax = new float[0];
+	// storage for the sorted edges
+	private Edge[] work = new Edge[0];
+
+	// the edges being sorted and information on how they are split up and quantized
+	private Edge[] edges;
+	private int length;
+	private int numBlocks;
+	private double minWeight;
+	private double divisor;
+
+	private IntConsumer computeRange = new IntConsumer() {
+		@Override
+		public void accept(int block) {
+			computeRange(block);
+		}
+	};
+
+	private IntConsumer computeHistogram = new IntConsumer() {
+		@Override
+		public void accept(int block) {
+			computeHistogram(block);
+		}
+	};
+
+	private IntConsumer copyIntoBins = new IntConsumer() {
+		@Override
+		public void accept(int block) {
+			copyIntoBins(block);
+		}
+	};
+
+	/**
+	 * @param numBins Number of bins.  Try 2000.  More bins the more accurate it will be
+	 */
+	public FhEdgeCountingSort(int numBins) {
+		if( numBins < 1 )
+			throw new IllegalArgumentException("Must have at least one bin");
+		this.numBins = numBins;
+	}
+
+	/**
+	 * Sorts the edges from smallest to largest weight.
+	 *
+	 * @param edges Array of edges.  Sorted in place.
+	 * @param length Number of edges in the array which are to be sorted
+	 */
+	public void sort( Edge[] edges , int length ) {
+		if( length <= 1 )
+			return;
+
+		this.edges = edges;
+		this.length = length;
+
+		numBlocks = 1;
+		if( concurrent )
+			numBlocks = BoofConcurrency.computeNumberOfBlocks(
+					length, MIN_BLOCK_EDGES, BoofConcurrency.getMaxThreads());
+
+		if( blockMin.length < numBlocks ) {
+			blockMin = new float[numBlocks];
+			blockMax = new float[numBlocks];
+		}
+		if( counts.length < numBlocks*numBins ) {
+			counts = new int[numBlocks*numBins];
+		}
+		if( work.length < length ) {
+			work = new Edge[length];
+		}
+
+		// find the range of weights
+		loop(computeRange);
+		float maxWeight = blockMax[0];
+		float minWeight = blockMin[0];
+		for (int block = 1; block < numBlocks; block++) {
+			minWeight = Math.min(minWeight, blockMin[block]);
+			maxWeight = Math.max(maxWeight, blockMax[block]);
+		}
+
+		if( maxWeight > minWeight ) {
+			// same quantization as ddogleg's ApproximateSort_F32 so that the edges are put into the same bins
+			this.minWeight = minWeight;
+			divisor = 1.00001*(maxWeight-minWeight)/numBins;
+
+			loop(computeHistogram);
+
+			// convert the counts into the index of the first edge in each bin for each block
+			int total = 0;
+			for (int bin = 0; bin < numBins; bin++) {
+				for (int block = 0; block < numBlocks; block++) {
+					int index = block*numBins + bin;
+					int count = counts[index];
+					counts[index] = total;
+					total += count;
+				}
+			}
+
+			loop(copyIntoBins);
+
+			System.arraycopy(work, 0, edges, 0, length);
+		}
+
+		this.edges = null;
+	}
+
+	private void loop( IntConsumer consumer ) {
+		if( numBlocks > 1 ) {
+			BoofConcurrency.loopFor(0, numBlocks, consumer);
+		} else {
+			consumer.accept(0);
+		}
+	}
+
+	private void computeRange( int block ) {
+		int i0 = BoofConcurrency.blockBoundary(0, length, numBlocks, block);
+		int i1 = BoofConcurrency.blockBoundary(0, length, numBlocks, block+1);
+
+		float min = Float.MAX_VALUE;
+		float max = -Float.MAX_VALUE;
+		for (int i = i0; i < i1; i++) {
+			float w = edges[i].sortValue;
+			if( w < min ) min = w;
+			if( w > max ) max = w;
+		}
+		blockMin[block] = min;
+		blockMax[block] = max;
+	}
+
+	private int bin( float weight ) {
+		return Math.min(numBins-1, (int)((weight-minWeight)/divisor));
+	}
+
+	private void computeHistogram( int block ) {
+		int i0 = BoofConcurrency.blockBoundary(0, length, numBlocks, block);
+		int i1 = BoofConcurrency.blockBoundary(0, length, numBlocks, block+1);
+
+		int offset = block*numBins;
+		for (int i = offset; i < offset + numBins; i++) {
+			counts[i] = 0;
+		}
+		for (int i = i0; i < i1; i++) {
+			counts[offset + bin(edges[i].sortValue)]++;
+		}
+	}
+
+	private void copyIntoBins( int block ) {
+		int i0 = BoofConcurrency.blockBoundary(0, length, numBlocks, block);
+		int i1 = BoofConcurrency.blockBoundary(0, length, numBlocks, block+1);
+
+		int offset = block*numBins;
+		for (int i = i0; i < i1; i++) {
+			Edge e = edges[i];
+			work[counts[offset + bin(e.sortValue)]++] = e;
+		}
+	}
+
+	public int getNumBins() {
+		return numBins;
+	}
+
+	/**
+	 * If true then multiple threads will be used.  The output is the same as when a single thread is used.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
@@ -33,4 +33,10 @@ public interface FhEdgeWeights<T extends ImageBase<T>> {
 	public void process( T input , FastQueue<SegmentFelzenszwalbHuttenlocher04.Edge> edges );
 
 	public ImageType<T> getInputType();
+
+	/**
+	 * If true then edges will be computed using multiple threads.  The edges and their order are the same as when
+	 * a single thread is used.
+	 */
+	public void setConcurrent( boolean concurrent );
 }
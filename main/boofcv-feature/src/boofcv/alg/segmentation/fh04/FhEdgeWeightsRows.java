@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.fh04;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.ImageBase;
+import org.ddogleg.struct.FastQueue;
+
+import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
+
+/**
+ * Base class for {@link FhEdgeWeights} which compute the edges of inner pixels one row at a time.  Every row
+ * has the same number of inner edges, so space for all of them is declared first and each row writes to its
+ * own part of the list.  This allows blocks of rows to be processed by multiple threads with the edges being
+ * in the same order as when a single thread is used.  Edges along the image border are added after the
+ * inner edges.
+ *
+ * @author Peter Abeles
+ */
+public abstract class FhEdgeWeightsRows<T extends ImageBase<T>> implements FhEdgeWeights<T> {
+
+	// if true then multiple threads are used
+	protected boolean concurrent;
+
+	// references to the input image and edges while inner edges are being computed
+	protected T input;
+	protected FastQueue<Edge> edges;
+
+	// index of the first inner edge and number of inner edges in each row
+	protected int edgesStart;
+	protected int edgesPerRow;
+
+	private IntRangeConsumer innerRows = new IntRangeConsumer() {
+		@Override
+		public void accept(int minInclusive, int maxExclusive) {
+			processInner(minInclusive, maxExclusive);
+		}
+	};
+
+	/**
+	 * Adds the edges for all the inner pixels to the end of the list and computes their weights
+	 *
+	 * @param input Input image
+	 * @param edges Storage for edges
+	 * @param edgesPerRow Number of inner edges in each row
+	 */
+	protected void computeInner( T input , FastQueue<Edge> edges , int edgesPerRow ) {
+		int rows = Math.max(0, input.height-1);
+
+		this.input = input;
+		this.edges = edges;
+		this.edgesStart = edges.size;
+		this.edgesPerRow = Math.max(0, edgesPerRow);
+
+		edges.resize(edgesStart + rows*this.edgesPerRow);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, rows, BoofConcurrency.MIN_BLOCK_ROWS, innerRows);
+		} else {
+			processInner(0, rows);
+		}
+
+		this.input = null;
+		this.edges = null;
+	}
+
+	/**
+	 * Computes the weight of inner edges in rows y0 to y1-1.  The first edge in row y is at
+	 * index edgesStart + y*edgesPerRow.
+	 */
+	protected abstract void processInner( int y0 , int y1 );
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
@@ -22,7 +22,6 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
-import org.ddogleg.sorting.ApproximateSort_F32;
 import org.ddogleg.sorting.QuickSortObj_F32;
 import org.ddogleg.sorting.SortableParameter_F32;
 import org.ddogleg.struct.FastQueue;
@@ -71,6 +70,10 @@ import org.ddogleg.struct.GrowQueue_I32;
  * <p>One difference from the original is that Gaussian blur is not applied to the input image by default.  That
  * should be done prior to the image being passed in.</p>
  *
+ * <p>If concurrent is set to true then edge weights are computed by multiple threads, as is the approximate sort
+ * if it has been configured.  The output is the same as when a single thread is used.  Edges are recycled between
+ * calls so memory is only declared when a larger image is encountered.</p>
+ *
  * <p>
  * [1] Felzenszwalb, Pedro F., and Daniel P. Huttenlocher.
  * "Efficient graph-based image segmentation." International Journal of Computer Vision 59.2 (2004): 167-181.
@@ -94,7 +97,7 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	private FhEdgeWeights<T> computeWeights;
 
 	private QuickSortObj_F32 sorter = new QuickSortObj_F32();
-	private ApproximateSort_F32 sorterApprox = null;
+	private FhEdgeCountingSort sorterApprox = null;
 	// storage for edges so that they can be recycled on the next call
 	protected FastQueue<Edge> edges = new FastQueue<>(Edge.class, true);
 	// list of edges which were not matched to anything.  used to merge small regions
@@ -110,6 +113,9 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	private GrowQueue_I32 outputRegionId = new GrowQueue_I32();
 	private GrowQueue_I32 outputRegionSizes = new GrowQueue_I32();
 
+	// if true then multiple threads are used
+	private boolean concurrent;
+
 	/**
 	 * Specifies tuning parameter
 	 *
@@ -129,7 +135,8 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	 * @param numBins Number of bins.  Try 2000.  More bins the more accurate it will be
 	 */
 	public void configureApproximateSort( int numBins ) {
-		sorterApprox = new ApproximateSort_F32(numBins);
+		sorterApprox = new FhEdgeCountingSort(numBins);
+		sorterApprox.setConcurrent(concurrent);
 	}
 
 	/**
@@ -192,8 +199,7 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 		// sort edges
 //		long time0 = System.currentTimeMillis();
 		if( sorterApprox != null ) {
-			sorterApprox.computeRange(edges.data,0,edges.size);
-			sorterApprox.sortObject(edges.data,0,edges.size);
+			sorterApprox.sort(edges.data,edges.size);
 		} else {
 			sorter.sort(edges.data,edges.size);
 		}
@@ -333,6 +339,20 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 		return computeWeights.getInputType();
 	}
 
+	/**
+	 * If true then multiple threads will be used to compute edge weights and for the approximate sort
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		computeWeights.setConcurrent(concurrent);
+		if( sorterApprox != null )
+			sorterApprox.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
 	/**
 	 * Describes the relationship between to adjacent pixels in the image.
 	 *
@@ -18,7 +18,7 @@
 
 package boofcv.alg.segmentation.fh04.impl;
 
-import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.alg.segmentation.fh04.FhEdgeWeightsRows;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
@@ -36,7 +36,7 @@ import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edg
  *
  * @author Peter Abeles
  */
-public class FhEdgeWeights4_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
+public class FhEdgeWeights4_PLF32 extends FhEdgeWeightsRows<Planar<GrayF32>> {
 
 	float pixelColor[];
 	int numBands;
@@ -55,9 +55,28 @@ public class FhEdgeWeights4_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 		int h = input.height-1;
 
 		// First consider the inner pixels
+		computeInner(input,edges,w*2);
+
+		// Handle border pixels
 		for( int y = 0; y < h; y++ ) {
+			checkAround(w,y,input,edges);
+		}
+
+		for( int x = 0; x < w; x++ ) {
+			checkAround(x,h,input,edges);
+		}
+	}
+
+	@Override
+	protected void processInner( int y0 , int y1 ) {
+		final Planar<GrayF32> input = this.input;
+		final Edge[] edges = this.edges.data;
+		int w = input.width-1;
+
+		for( int y = y0; y < y1; y++ ) {
 			int indexSrc = input.startIndex + y*input.stride + 0;
 			int indexDst =                  + y*input.width  + 0;
+			int indexEdge = edgesStart + y*edgesPerRow;
 
 			for( int x = 0; x < w; x++ , indexSrc++ , indexDst++ ) {
 
@@ -75,8 +94,8 @@ public class FhEdgeWeights4_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 					weight2 += diff2*diff2;
 				}
 
-				Edge e1 = edges.grow();
-				Edge e2 = edges.grow();
+				Edge e1 = edges[indexEdge++];
+				Edge e2 = edges[indexEdge++];
 
 				e1.sortValue = (float)Math.sqrt(weight1);
 				e1.indexA = indexDst;
@@ -88,15 +107,6 @@ public class FhEdgeWeights4_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 
 			}
 		}
-
-		// Handle border pixels
-		for( int y = 0; y < h; y++ ) {
-			checkAround(w,y,input,edges);
-		}
-
-		for( int x = 0; x < w; x++ ) {
-			checkAround(x,h,input,edges);
-		}
 	}
 
 	private void checkAround( int x , int y ,
@@ -18,7 +18,7 @@
 
 package boofcv.alg.segmentation.fh04.impl;
 
-import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.alg.segmentation.fh04.FhEdgeWeightsRows;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
@@ -36,7 +36,7 @@ import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edg
  *
  * @author Peter Abeles
  */
-public class FhEdgeWeights8_PLU8 implements FhEdgeWeights<Planar<GrayU8>> {
+public class FhEdgeWeights8_PLU8 extends FhEdgeWeightsRows<Planar<GrayU8>> {
 
 	int pixelColor[];
 	int numBands;
@@ -54,9 +54,29 @@ public class FhEdgeWeights8_PLU8 implements FhEdgeWeights<Planar<GrayU8>> {
 		int h = input.height-1;
 
 		// First consider the inner pixels
+		computeInner(input,edges,(w-1)*4);
+
+		// Handle border pixels
 		for( int y = 0; y < h; y++ ) {
+			checkAround(0,y,input,edges);
+			checkAround(w,y,input,edges);
+		}
+
+		for( int x = 0; x < w; x++ ) {
+			checkAround(x,h,input,edges);
+		}
+	}
+
+	@Override
+	protected void processInner( int y0 , int y1 ) {
+		final Planar<GrayU8> input = this.input;
+		final Edge[] edges = this.edges.data;
+		int w = input.width-1;
+
+		for( int y = y0; y < y1; y++ ) {
 			int indexSrc = input.startIndex + y*input.stride + 1;
 			int indexDst =                  + y*input.width  + 1;
+			int indexEdge = edgesStart + y*edgesPerRow;
 
 			for( int x = 1; x < w; x++ , indexSrc++ , indexDst++ ) {
 
@@ -80,8 +100,8 @@ public class FhEdgeWeights8_PLU8 implements FhEdgeWeights<Planar<GrayU8>> {
 					weight4 += diff4*diff4;
 				}
 
-				Edge e1 = edges.grow();
-				Edge e2 = edges.grow();
+				Edge e1 = edges[indexEdge++];
+				Edge e2 = edges[indexEdge++];
 
 				e1.sortValue = (float)Math.sqrt(weight1);
 				e1.indexA = indexDst;
@@ -91,8 +111,8 @@ public class FhEdgeWeights8_PLU8 implements FhEdgeWeights<Planar<GrayU8>> {
 				e2.indexA = indexDst;
 				e2.indexB = indexDst+input.width;
 
-				Edge e3 = edges.grow();
-				Edge e4 = edges.grow();
+				Edge e3 = edges[indexEdge++];
+				Edge e4 = edges[indexEdge++];
 
 				e3.sortValue = (float)Math.sqrt(weight3);
 				e3.indexA = indexDst;
@@ -103,16 +123,6 @@ public class FhEdgeWeights8_PLU8 implements FhEdgeWeights<Planar<GrayU8>> {
 				e4.indexB = indexDst-1+input.width;
 			}
 		}
-
-		// Handle border pixels
-		for( int y = 0; y < h; y++ ) {
-			checkAround(0,y,input,edges);
-			checkAround(w,y,input,edges);
-		}
-
-		for( int x = 0; x < w; x++ ) {
-			checkAround(x,h,input,edges);
-		}
 	}
 
 	private void checkAround( int x , int y ,
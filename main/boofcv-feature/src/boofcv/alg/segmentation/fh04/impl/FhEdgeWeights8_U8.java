@@ -17,7 +17,7 @@
  */
 package boofcv.alg.segmentation.fh04.impl;
 
-import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.alg.segmentation.fh04.FhEdgeWeightsRows;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageType;
 import org.ddogleg.struct.FastQueue;
@@ -34,7 +34,7 @@ import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edg
  *
  * @author Peter Abeles
  */
-public class FhEdgeWeights8_U8 implements FhEdgeWeights<GrayU8> {
+public class FhEdgeWeights8_U8 extends FhEdgeWeightsRows<GrayU8> {
 
 	@Override
 	public void process(GrayU8 input,
@@ -44,17 +44,36 @@ public class FhEdgeWeights8_U8 implements FhEdgeWeights<GrayU8> {
 		int h = input.height-1;
 
 		// First consider the inner pixels
+		computeInner(input,edges,(w-1)*4);
+
+		// Handle border pixels
 		for( int y = 0; y < h; y++ ) {
+			checkAround(0,y,input,edges);
+			checkAround(w,y,input,edges);
+		}
+
+		for( int x = 0; x < w; x++ ) {
+			checkAround(x,h,input,edges);
+		}
+	}
+	@Override
+	protected void processInner( int y0 , int y1 ) {
+		final GrayU8 input = this.input;
+		final Edge[] edges = this.edges.data;
+		int w = input.width-1;
+
+		for( int y = y0; y < y1; y++ ) {
 			int indexSrc = input.startIndex + y*input.stride + 1;
 			int indexDst =                  + y*input.width  + 1;
+			int indexEdge = edgesStart + y*edgesPerRow;
 
 			for( int x = 1; x < w; x++ , indexSrc++ , indexDst++ ) {
 				int color0 = input.data[indexSrc]& 0xFF;              // (x,y)
 				int color1 = input.data[indexSrc+1]& 0xFF;            // (x+1,y)
 				int color2 = input.data[indexSrc+input.stride]& 0xFF; // (x,y+1)
 
-				Edge e1 = edges.grow();
-				Edge e2 = edges.grow();
+				Edge e1 = edges[indexEdge++];
+				Edge e2 = edges[indexEdge++];
 
 				e1.sortValue = Math.abs(color1-color0);
 				e1.indexA = indexDst;
@@ -67,8 +86,8 @@ public class FhEdgeWeights8_U8 implements FhEdgeWeights<GrayU8> {
 				int color3 = input.data[indexSrc+1+input.stride]& 0xFF; // (x+1,y+1)
 				int color4 = input.data[indexSrc-1+input.stride]& 0xFF; // (x-1,y+1)
 
-				Edge e3 = edges.grow();
-				Edge e4 = edges.grow();
+				Edge e3 = edges[indexEdge++];
+				Edge e4 = edges[indexEdge++];
 
 				e3.sortValue = Math.abs(color3-color0);
 				e3.indexA = indexDst;
@@ -79,16 +98,8 @@ public class FhEdgeWeights8_U8 implements FhEdgeWeights<GrayU8> {
 				e4.indexB = indexDst-1+input.width;
 			}
 		}
-		// Handle border pixels
-		for( int y = 0; y < h; y++ ) {
-			checkAround(0,y,input,edges);
-			checkAround(w,y,input,edges);
-		}
-
-		for( int x = 0; x < w; x++ ) {
-			checkAround(x,h,input,edges);
-		}
 	}
+
 	private void checkAround( int x , int y ,
 							  GrayU8 input ,
 							  FastQueue<Edge> edges )
@@ -18,6 +18,7 @@
 
 package boofcv.alg.segmentation.ms;
 
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -114,6 +115,9 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	// mode of mean-shift
 	protected float modeX, modeY;
 
+	// Rows in pixelToMode which this instance owns.  Trajectory points outside of these rows are ignored
+	protected int rowBegin, rowEnd;
+
 	/**
 	 * Configures mean-shift segmentation
 	 *
@@ -160,7 +164,67 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	 *
 	 * @param image Input image
 	 */
-	public abstract void process( T image );
+	public void process( T image ) {
+		initialize(image);
+
+		pixelToMode.reshape(image.width, image.height);
+		quickMode.reshape(image.width, image.height);
+		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
+		ImageMiscOps.fill(pixelToMode, -1);
+		// mark all pixels are not being a mode
+		ImageMiscOps.fill(quickMode,-1);
+
+		rowBegin = 0;
+		rowEnd = image.height;
+		searchRows();
+	}
+
+	/**
+	 * Performs mean-shift clustering on pixels inside a band of rows.  Modes are written into the
+	 * provided pixelToMode image, which is shared with instances processing other bands, and only rows inside
+	 * the band are read or written.  Mode indexes are local to this instance.  Used by
+	 * {@link SegmentMeanShiftSearchConcurrent}.
+	 *
+	 * @param image Input image
+	 * @param pixelToMode Pixel to mode image. Rows inside the band must be filled with -1.
+	 * @param y0 First row in the band, inclusive
+	 * @param y1 Last row in the band, exclusive
+	 */
+	protected void processRows( T image , GrayS32 pixelToMode , int y0 , int y1 ) {
+		initialize(image);
+
+		this.pixelToMode = pixelToMode;
+		// quickMode is only filled when its shape changes. Afterwards only pixels which are modes are reset
+		if( quickMode.width != image.width || quickMode.height != image.height ) {
+			quickMode.reshape(image.width, image.height);
+			ImageMiscOps.fill(quickMode,-1);
+		}
+
+		rowBegin = y0;
+		rowEnd = y1;
+		searchRows();
+
+		for( int i = 0; i < modeLocation.size; i++ ) {
+			Point2D_I32 p = modeLocation.get(i);
+			quickMode.unsafe_set(p.x,p.y,-1);
+		}
+	}
+
+	/**
+	 * Resets the list of modes and prepares to process the image
+	 */
+	protected void initialize( T image ) {
+		this.image = image;
+
+		modeLocation.reset();
+		modeColor.reset();
+		modeMemberCount.reset();
+	}
+
+	/**
+	 * Runs mean-shift on each pixel from row 'rowBegin' to 'rowEnd'
+	 */
+	protected abstract void searchRows();
 
 	/**
 	 * Returns the Euclidean distance squared between the two vectors
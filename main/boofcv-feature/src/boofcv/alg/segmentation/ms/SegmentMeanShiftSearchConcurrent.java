@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.ms;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.concurrency.IntConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.feature.ColorQueue_F32;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_I32;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Performs the search step in mean-shift segmentation using multiple threads.  The image's rows are split into
+ * blocks and each block is searched by its own {@link SegmentMeanShiftSearch}, which has its own interpolation,
+ * trajectory history, and list of modes.  Once all blocks are finished the modes are merged in block order,
+ * with modes which converged to the same pixel becoming a single mode.
+ * </p>
+ *
+ * <p>
+ * When the 'fast' approximation is turned off the output is identical to the output of a single
+ * {@link SegmentMeanShiftSearch}.  When it's turned on trajectories are only saved inside the block they started
+ * in, so the output will be slightly different but is the same for the same number of threads.  Each thread
+ * has a look up table for modes the size of the input image.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SegmentMeanShiftSearchConcurrent<T extends ImageBase<T>> extends SegmentMeanShiftSearch<T> {
+
+	// creates the search used by each thread
+	private InstanceFactory<SegmentMeanShiftSearch<T>> factory;
+	// one search for each block
+	private List<SegmentMeanShiftSearch<T>> workers = new ArrayList<>();
+
+	// converts a worker's mode index into a global mode index.  Offset is the index of the worker's first mode
+	private GrowQueue_I32 localToGlobal = new GrowQueue_I32();
+	private GrowQueue_I32 offsets = new GrowQueue_I32();
+
+	private IntRangeObjectConsumer<SegmentMeanShiftSearch<T>> search =
+			new IntRangeObjectConsumer<SegmentMeanShiftSearch<T>>() {
+		@Override
+		public void accept(SegmentMeanShiftSearch<T> worker, int minInclusive, int maxExclusive) {
+			worker.processRows(image, pixelToMode, minInclusive, maxExclusive);
+		}
+	};
+
+	private IntConsumer relabel = new IntConsumer() {
+		@Override
+		public void accept(int block) {
+			relabel(workers.get(block), offsets.get(block));
+		}
+	};
+
+	/**
+	 * Specifies how the search used by each thread is created
+	 *
+	 * @param factory Creates a new non-concurrent {@link SegmentMeanShiftSearch}.  Interpolation must not be shared.
+	 */
+	public SegmentMeanShiftSearchConcurrent( InstanceFactory<SegmentMeanShiftSearch<T>> factory ) {
+		this(factory, factory.newInstance());
+	}
+
+	private SegmentMeanShiftSearchConcurrent( InstanceFactory<SegmentMeanShiftSearch<T>> factory ,
+											  SegmentMeanShiftSearch<T> first ) {
+		super(first.maxIterations, first.convergenceTol, first.radiusX, first.radiusY,
+				(float)Math.sqrt(first.maxColorDistanceSq), first.fast);
+		this.factory = factory;
+		this.workers.add(first);
+
+		modeColor = new ColorQueue_F32(first.getImageType().getNumBands());
+	}
+
+	@Override
+	public void process( T image ) {
+		initialize(image);
+
+		pixelToMode.reshape(image.width, image.height);
+		quickMode.reshape(image.width, image.height);
+		ImageMiscOps.fill(pixelToMode, -1);
+		ImageMiscOps.fill(quickMode,-1);
+
+		int numBlocks = Math.max(1,BoofConcurrency.computeNumberOfBlocks(
+				image.height, BoofConcurrency.MIN_BLOCK_ROWS, BoofConcurrency.getMaxThreads()));
+		if( numBlocks == 1 ) {
+			rowBegin = 0;
+			rowEnd = image.height;
+			searchRows();
+			return;
+		}
+
+		while( workers.size() < numBlocks ) {
+			workers.add(factory.newInstance());
+		}
+
+		BoofConcurrency.loopBlocks(0, image.height, workers.subList(0, numBlocks), search);
+
+		// Merge the modes in block order so that the results don't depend on which thread finishes first
+		localToGlobal.reset();
+		offsets.reset();
+		for (int block = 0; block < numBlocks; block++) {
+			offsets.add(localToGlobal.size);
+			mergeModes(workers.get(block));
+		}
+
+		BoofConcurrency.loopFor(0, numBlocks, relabel);
+	}
+
+	/**
+	 * Adds the modes found by the worker to the global list.  If another block already found a mode at the same
+	 * pixel then they are combined.
+	 */
+	private void mergeModes( SegmentMeanShiftSearch<T> worker ) {
+		for (int i = 0; i < worker.modeLocation.size; i++) {
+			Point2D_I32 p = worker.modeLocation.get(i);
+			int modePixelIndex = quickMode.getIndex(p.x, p.y);
+
+			int modeIndex = quickMode.data[modePixelIndex];
+			if( modeIndex < 0 ) {
+				modeIndex = modeLocation.size;
+				modeLocation.grow().set(p);
+				float[] src = worker.modeColor.get(i);
+				System.arraycopy(src, 0, modeColor.grow(), 0, src.length);
+				quickMode.data[modePixelIndex] = modeIndex;
+				modeMemberCount.add(0);
+			}
+			modeMemberCount.data[modeIndex] += worker.modeMemberCount.get(i);
+			localToGlobal.add(modeIndex);
+		}
+	}
+
+	/**
+	 * Converts the local mode indexes in the worker's rows into global indexes
+	 */
+	private void relabel( SegmentMeanShiftSearch<T> worker , int offset ) {
+		for (int y = worker.rowBegin; y < worker.rowEnd; y++) {
+			int index = pixelToMode.startIndex + y*pixelToMode.stride;
+			int end = index + pixelToMode.width;
+			for (; index < end; index++) {
+				pixelToMode.data[index] = localToGlobal.data[offset + pixelToMode.data[index]];
+			}
+		}
+	}
+
+	/**
+	 * Searches rows 'rowBegin' to 'rowEnd' using a single worker.  Used when the image is too small to be split
+	 * into multiple blocks.  A single worker never finds two modes at the same pixel so its mode indexes are
+	 * already the global indexes.
+	 */
+	@Override
+	protected void searchRows() {
+		SegmentMeanShiftSearch<T> worker = workers.get(0);
+		worker.processRows(image, pixelToMode, rowBegin, rowEnd);
+
+		localToGlobal.reset();
+		offsets.reset();
+		offsets.add(0);
+		mergeModes(worker);
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return workers.get(0).getImageType();
+	}
+}
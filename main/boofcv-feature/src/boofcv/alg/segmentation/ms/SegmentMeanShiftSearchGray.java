@@ -19,7 +19,6 @@
 package boofcv.alg.segmentation.ms;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
@@ -54,32 +53,17 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 		modeColor = new ColorQueue_F32(1);
 	}
 
-	/**
-	 * Performs mean-shift clustering on the input image
-	 *
-	 * @param image Input image
-	 */
 	@Override
-	public void process( T image ) {
-		// initialize data structures
-		this.image = image;
-
-		modeLocation.reset();
-		modeColor.reset();
-		modeMemberCount.reset();
-
+	protected void initialize( T image ) {
+		super.initialize(image);
 		interpolate.setImage(image);
+	}
 
-		pixelToMode.reshape(image.width, image.height);
-		quickMode.reshape(image.width, image.height);
-		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
-		ImageMiscOps.fill(pixelToMode, -1);
-		// mark all pixels are not being a mode
-		ImageMiscOps.fill(quickMode,-1);
-
+	@Override
+	protected void searchRows() {
 		// use mean shift to find the peak of each pixel in the image
-		int indexImg = 0;
-		for( int y = 0; y < image.height; y++ ) {
+		int indexImg = rowBegin*image.width;
+		for( int y = rowBegin; y < rowEnd; y++ ) {
 			for( int x = 0; x < image.width; x++ , indexImg++) {
 				if( pixelToMode.data[indexImg] != -1 ) {
 					int peakIndex = pixelToMode.data[indexImg];
@@ -119,6 +103,8 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 					Point2D_F32 p = history.get(i);
 					int px = (int)(p.x+0.5f);
 					int py = (int)(p.y+0.5f);
+					if( py < rowBegin || py >= rowEnd )
+						continue;
 
 					int index = pixelToMode.getIndex(px,py);
 					if( pixelToMode.data[index] == -1 ) {
@@ -215,7 +201,7 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 				int py = (int)(peakY+0.5f);
 
 				int index = pixelToMode.getIndex(px,py);
-				int modeIndex = pixelToMode.data[index];
+				int modeIndex = py >= rowBegin && py < rowEnd ? pixelToMode.data[index] : -1;
 				if( modeIndex != -1 ) {
 					// it already knows the solution so stop searching
 					Point2D_I32 modeP = modeLocation.get(modeIndex);
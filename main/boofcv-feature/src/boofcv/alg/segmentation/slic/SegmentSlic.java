@@ -22,6 +22,8 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.alg.segmentation.ComputeRegionMeanColor;
 import boofcv.alg.segmentation.ms.ClusterLabeledImage;
 import boofcv.alg.segmentation.ms.MergeSmallRegions;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.factory.segmentation.FactorySegmentationAlg;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.feature.ColorQueue_F32;
@@ -56,6 +58,12 @@ import java.util.Arrays;
  * </p>
  *
  * <p>
+ * If concurrent is set to true then distances and labels are computed for blocks of rows in parallel and each
+ * thread updates its own set of clusters.  Pixels are visited in the same order as the single threaded
+ * code, so the output is identical.
+ * </p>
+ *
+ * <p>
  * [1] Radhakrishna Achanta, Appu Shaji, Kevin Smith, Aurelien Lucchi, Pascal Fua, and Sabine Süsstrunk,
  * SLIC Superpixels, EPFL Technical Report no. 149300, June 2010.
  * </p>
@@ -109,6 +117,44 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	// connectivity rule
 	protected ConnectRule connectRule;
 
+	// if true then multiple threads are used
+	protected boolean concurrent;
+
+	// references to the output image when labels are being assigned in parallel
+	private GrayS32 pixelToRegions;
+
+	private IntRangeConsumer clusterDistanceRows = new IntRangeConsumer() {
+		@Override
+		public void accept(int minInclusive, int maxExclusive) {
+			computeClusterDistance(minInclusive, maxExclusive);
+		}
+	};
+
+	private IntRangeConsumer weightRows = new IntRangeConsumer() {
+		@Override
+		public void accept(int minInclusive, int maxExclusive) {
+			for( int i = minInclusive*input.width; i < maxExclusive*input.width; i++ ) {
+				pixels.data[i].computeWeights();
+			}
+		}
+	};
+
+	private IntRangeConsumer updateClusterRange = new IntRangeConsumer() {
+		@Override
+		public void accept(int minInclusive, int maxExclusive) {
+			for( int i = minInclusive; i < maxExclusive; i++ ) {
+				updateCluster(clusters.data[i]);
+			}
+		}
+	};
+
+	private IntRangeConsumer labelRows = new IntRangeConsumer() {
+		@Override
+		public void accept(int minInclusive, int maxExclusive) {
+			findClosestCluster(pixelToRegions, minInclusive, maxExclusive);
+		}
+	};
+
 	public SegmentSlic( int numberOfRegions , float m , int totalIterations ,
 						ConnectRule connectRule , ImageType<T> imageType ) {
 		this.numberOfRegions = numberOfRegions;
@@ -263,7 +309,19 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Computes how far away each cluster is from each pixel.  Expectation step.
 	 */
 	protected void computeClusterDistance() {
-		for( int i = 0; i < pixels.size; i++ ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, input.height, BoofConcurrency.MIN_BLOCK_ROWS, clusterDistanceRows);
+		} else {
+			computeClusterDistance(0, input.height);
+		}
+	}
+
+	/**
+	 * Computes the distance of each cluster from pixels inside the band of rows.  Clusters are processed in the
+	 * same order for every band, so each pixel's list of clusters doesn't depend on how the rows are split up.
+	 */
+	private void computeClusterDistance( int rowBegin , int rowEnd ) {
+		for( int i = rowBegin*input.width; i < rowEnd*input.width; i++ ) {
 			pixels.data[i].reset();
 		}
 
@@ -278,9 +336,9 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 			int y0 = centerY - gridInterval; int y1 = centerY + gridInterval + 1;
 
 			if( x0 < 0 ) x0 = 0;
-			if( y0 < 0 ) y0 = 0;
+			if( y0 < rowBegin ) y0 = rowBegin;
 			if( x1 > input.width ) x1 = input.width;
-			if( y1 > input.height ) y1 = input.height;
+			if( y1 > rowEnd ) y1 = rowEnd;
 
 			for( int y = y0; y < y1; y++ ) {
 				int indexPixel = y*input.width + x0;
@@ -303,6 +361,14 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Update the value of each cluster using  Maximization step.
 	 */
 	protected void updateClusters() {
+		if( concurrent ) {
+			// Each cluster is updated by a single thread using pixels in the same order as below.  Summing up
+			// each thread's partial sums would change the order of floating point operations
+			BoofConcurrency.loopBlocks(0, input.height, BoofConcurrency.MIN_BLOCK_ROWS, weightRows);
+			BoofConcurrency.loopBlocks(0, clusters.size, updateClusterRange);
+			return;
+		}
+
 		for( int i = 0; i < clusters.size; i++ ) {
 			clusters.data[i].reset();
 		}
@@ -332,6 +398,48 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * Updates the cluster using the pixels in its search region.  These are the only pixels which can
+	 * reference the cluster.  Weights must already have been computed.
+	 */
+	private void updateCluster( Cluster c ) {
+		// the search bounds used in computeClusterDistance(), the center hasn't changed since then
+		int centerX = (int)(c.x + 0.5f);
+		int centerY = (int)(c.y + 0.5f);
+
+		int x0 = centerX - gridInterval; int x1 = centerX + gridInterval + 1;
+		int y0 = centerY - gridInterval; int y1 = centerY + gridInterval + 1;
+
+		if( x0 < 0 ) x0 = 0;
+		if( y0 < 0 ) y0 = 0;
+		if( x1 > input.width ) x1 = input.width;
+		if( y1 > input.height ) y1 = input.height;
+
+		c.reset();
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexPixel = y*input.width + x0;
+			int indexInput = input.startIndex + y*input.stride + x0;
+
+			for( int x = x0; x < x1; x++ , indexPixel++ , indexInput++ ) {
+				Pixel p = pixels.data[indexPixel];
+
+				for( int i = 0; i < p.clusters.size; i++ ) {
+					ClusterDistance d = p.clusters.data[i];
+					if( d.cluster != c )
+						continue;
+					c.x += x*d.distance;
+					c.y += y*d.distance;
+					c.totalWeight += d.distance;
+					addColor(c.color,indexInput,d.distance);
+					break;
+				}
+			}
+		}
+
+		c.update();
+	}
+
 	/**
 	 * Selects which region each pixel belongs to based on which cluster it is the closest to
 	 */
@@ -351,14 +459,42 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		regionMemberCount.resize(clusters.size());
 		regionMemberCount.fill(0);
 
-		int indexPixel = 0;
+		if( concurrent ) {
+			this.pixelToRegions = pixelToRegions;
+			BoofConcurrency.loopBlocks(0, pixelToRegions.height, BoofConcurrency.MIN_BLOCK_ROWS, labelRows);
+			this.pixelToRegions = null;
+		} else {
+			findClosestCluster(pixelToRegions, 0, pixelToRegions.height);
+		}
+
+		// Done in a single thread so that new regions are always created in the same order
 		for( int y = 0; y < pixelToRegions.height; y++ ) {
+			int indexOutput = pixelToRegions.startIndex + y*pixelToRegions.stride;
+			for( int x =0; x < pixelToRegions.width; x++ , indexOutput++) {
+				int best = pixelToRegions.data[indexOutput];
+				// It is possible for a pixel to be unassigned if all the means move too far away from it
+				// Default to a non-existant cluster if that's the case
+				if( best == -1 ) {
+					regionColor.grow();
+					best = regionMemberCount.size();
+					regionMemberCount.add(0);
+					pixelToRegions.data[indexOutput] = best;
+				}
+				regionMemberCount.data[best]++;
+			}
+		}
+	}
+
+	/**
+	 * Labels each pixel in the band of rows with the ID of the closest cluster, or -1 if there are no clusters
+	 */
+	private void findClosestCluster( GrayS32 pixelToRegions , int rowBegin , int rowEnd ) {
+		for( int y = rowBegin; y < rowEnd; y++ ) {
+			int indexPixel = y*pixelToRegions.width;
 			int indexOutput = pixelToRegions.startIndex + y*pixelToRegions.stride;
 			for( int x =0; x < pixelToRegions.width; x++ , indexPixel++ , indexOutput++) {
 				Pixel p = pixels.data[indexPixel];
 
-				// It is possible for a pixel to be unassigned if all the means move too far away from it
-				// Default to a non-existant cluster if that's the case
 				int best = -1;
 				float bestDistance = Float.MAX_VALUE;
 				// find the region/cluster which it is closest to
@@ -369,14 +505,8 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 						best = d.cluster.id;
 					}
 				}
-				if( best == -1 ) {
-					regionColor.grow();
-					best = regionMemberCount.size();
-					regionMemberCount.add(0);
-				}
 
 				pixelToRegions.data[indexOutput] = best;
-				regionMemberCount.data[best]++;
 			}
 		}
 	}
@@ -473,4 +603,15 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	public ConnectRule getConnectRule() {
 		return connectRule;
 	}
+
+	/**
+	 * If true then multiple threads will be used.  The output is the same as the single threaded output.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
 }
@@ -77,6 +77,11 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 	private int minimumContour; // this is image.width*minContourFraction
 	private double minimumArea; // computed from minimumContour
 
+	// shape of the full image when sub-images are processed.  0 if the input image's shape is used
+	private int fullWidth, fullHeight;
+	// image shape which size thresholds and the helper were last configured for
+	private int configuredWidth = -1, configuredHeight = -1;
+
 	// does the polygon have to be convex
 	private boolean convex;
 
@@ -223,8 +228,12 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 		if( verbose ) System.out.println("ENTER  BinaryPolygonDetector.process()");
 		InputSanityCheck.checkSameShape(binary, gray);
 
-		if( labeled.width != gray.width || labeled.height == gray.width )
-			configure(gray.width,gray.height);
+		labeled.reshape(gray.width, gray.height);
+
+		int shapeWidth = fullWidth > 0 ? fullWidth : gray.width;
+		int shapeHeight = fullWidth > 0 ? fullHeight : gray.height;
+		if( shapeWidth != configuredWidth || shapeHeight != configuredHeight )
+			configure(shapeWidth,shapeHeight);
 
 		found.reset();
 		foundContours.clear();
@@ -236,16 +245,28 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 		if( verbose ) System.out.println("EXIT  BinaryPolygonDetector.process()");
 	}
 
+	/**
+	 * Specifies the shape of the full image when {@link #process} is called on sub-images of it.  Size thresholds
+	 * and the helper are then configured using the full image's shape instead of the sub-image's shape, so the
+	 * same shapes are accepted no matter which part of the image is processed.
+	 *
+	 * @param width Width of the full image.  If 0 then the input image's shape is used.
+	 * @param height Height of the full image
+	 */
+	public void setFullImageShape( int width , int height ) {
+		this.fullWidth = width;
+		this.fullHeight = height;
+	}
+
 	/**
 	 * Specifies the image's intrinsic parameters and target size
 	 *
-	 * @param width Width of the input image
-	 * @param height Height of the input image
+	 * @param width Width of the image which size thresholds are relative to
+	 * @param height Height of the image which size thresholds are relative to
 	 */
 	private void configure( int width , int height ) {
-
-		// resize storage images
-		labeled.reshape(width, height);
+		configuredWidth = width;
+		configuredHeight = height;
 
 		// adjust size based parameters based on image size
 		this.minimumContour = (int)(width*minContourFraction);
@@ -21,6 +21,7 @@ package boofcv.alg.tracker.combined;
 import boofcv.alg.interpolate.InterpolateRectangle;
 import boofcv.alg.tracker.klt.*;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.factory.tracker.FactoryTrackerAlg;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.pyramid.ImagePyramid;
 
@@ -53,7 +54,7 @@ public class PyramidKltForCombined<I extends ImageGray<I>, D extends ImageGray<D
 		InterpolateRectangle<I> interpInput = FactoryInterpolation.<I>bilinearRectangle(inputType);
 		InterpolateRectangle<D> interpDeriv = FactoryInterpolation.<D>bilinearRectangle(derivType);
 
-		KltTracker<I, D> klt = new KltTracker<>(interpInput, interpDeriv, config);
+		KltTracker<I, D> klt = FactoryTrackerAlg.klt(config, interpInput, interpDeriv, inputType, derivType);
 		tracker = new PyramidKltTracker<>(klt);
 	}
 
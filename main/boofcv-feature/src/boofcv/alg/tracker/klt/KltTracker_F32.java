@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.interpolate.InterpolateRectangle;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageGray;
+
+/**
+ * <p>
+ * Implementation of {@link KltTracker} which has been specialized for {@link GrayF32} input images.  The template's
+ * gradient is computed once when the description is set, as in the inverse compositional formulation, so
+ * each iteration only needs to sample the current image.  When the feature is entirely inside the image
+ * bilinear interpolation is performed inline while the residual is being computed, avoiding a separate pass
+ * through the interpolation class and the temporary region.
+ * </p>
+ *
+ * <p>
+ * The arithmetic is performed in the same order as {@link KltTracker}, so the results are identical.  Along the
+ * image border the general purpose code is used.  Derivatives are only used when the description is set
+ * and can be {@link GrayF32} or {@link boofcv.struct.image.GrayS16}.  Inside the image bilinear interpolation
+ * is always used, so the input image's interpolation should be
+ * {@link boofcv.alg.interpolate.impl.BilinearRectangle_F32}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class KltTracker_F32<D extends ImageGray<D>> extends KltTracker<GrayF32,D> {
+
+	public KltTracker_F32(InterpolateRectangle<GrayF32> interpInput,
+						  InterpolateRectangle<D> interpDeriv,
+						  KltConfig config) {
+		super(interpInput, interpDeriv, config);
+	}
+
+	@Override
+	protected void computeE(KltFeature feature, float x, float y) {
+		float tl_x = x - feature.radius;
+		float tl_y = y - feature.radius;
+
+		int xt = (int) tl_x;
+		int yt = (int) tl_y;
+
+		// the region touches the image border or the storage is a different shape. Use the general code
+		if( xt + widthFeature >= image.width || yt + widthFeature >= image.height ||
+				currDesc.width != widthFeature || currDesc.height != widthFeature ) {
+			super.computeE(feature, x, y);
+			return;
+		}
+
+		float ax = tl_x - xt;
+		float ay = tl_y - yt;
+
+		float bx = 1.0f - ax;
+		float by = 1.0f - ay;
+
+		float a0 = bx * by;
+		float a1 = ax * by;
+		float a2 = ax * ay;
+		float a3 = bx * ay;
+
+		final float data[] = image.data;
+		final int stride = image.stride;
+
+		final float template[] = feature.desc.data;
+		final float gradX[] = feature.derivX.data;
+		final float gradY[] = feature.derivY.data;
+		final float current[] = currDesc.data;
+
+		float Ex = 0, Ey = 0;
+		for (int i = 0; i < widthFeature; i++) {
+			int index = image.startIndex + (yt + i) * stride + xt;
+			int indexFeature = i*widthFeature;
+
+			float XY = data[index];
+			float Xy = data[index + stride];
+
+			// the loop index is used directly when accessing arrays so that bounds checks can be removed
+			for (int j = 0; j < widthFeature; j++) {
+				float xY = data[index + j + 1];
+				float xy = data[index + j + stride + 1];
+
+				float val = a0 * XY + a1 * xY + a2 * xy + a3 * Xy;
+				current[indexFeature + j] = val;
+
+				// compute the difference between the previous and the current image
+				float d = template[indexFeature + j] - val;
+
+				Ex += d * gradX[indexFeature + j];
+				Ey += d * gradY[indexFeature + j];
+
+				XY = xY;
+				Xy = xy;
+			}
+		}
+
+		this.Ex = Ex;
+		this.Ey = Ey;
+	}
+}
@@ -33,6 +33,12 @@ public class PkltConfig{
 	/** Scale factor for each layer in the pyramid */
 	public int pyramidScaling[] = new int[]{1,2,4};
 
+	/**
+	 * If true then tracks will be updated using multiple threads.  The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
+
 	public PkltConfig() {
 	}
 
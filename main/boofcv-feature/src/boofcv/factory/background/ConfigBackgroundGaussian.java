@@ -60,6 +60,12 @@ public class ConfigBackgroundGaussian implements Configuration {
 	 */
 	public InterpolationType interpolation = InterpolationType.BILINEAR;
 
+	/**
+	 * If true then the image will be processed using multiple threads.  The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigBackgroundGaussian(float threshold) {
 		this.threshold = threshold;
 	}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.factory.background;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link BackgroundAlgorithmGmm}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigBackgroundGmm implements Configuration {
+
+	/**
+	 * Specifies how fast it will adapt to changes in the background. From 0 to 1, inclusive.  0 = static  1.0 = instant.
+	 */
+	public float learnRate = 0.01f;
+
+	/**
+	 * Threshold for an observation to match a Gaussian. This threshold is applied to the computed Mahalanobis
+	 * distance.  An appropriate threshold will vary depending on the number of bands in the image.
+	 */
+	public float threshold;
+
+	/**
+	 * Maximum number of Gaussians in each pixel's mixture
+	 */
+	public int maxGaussians = 3;
+
+	/**
+	 * Each update the weight of every Gaussian is reduced by learnRate*decay.  Gaussians which are rarely
+	 * observed will have their weight decay to zero and be removed.
+	 */
+	public float decay = 0.001f;
+
+	/**
+	 * Gaussians with a weight &ge; this value are considered to be part of the background.  From 0 to 1.
+	 */
+	public float significantWeight = 0.2f;
+
+	/**
+	 * The variance assigned to a new Gaussian.
+	 */
+	public float initialVariance = 100;
+
+	/**
+	 * Minimum difference between the mean background and observed pixel value for it to be considered moving.
+	 * The difference is the sum of absolute differences across all bands and this value is automatically scaled
+	 * by the number of bands in the image.
+	 */
+	public float minimumDifference = 0;
+
+	/**
+	 * If true then the image will be processed using multiple threads.  The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
+
+	public ConfigBackgroundGmm(float threshold) {
+		this.threshold = threshold;
+	}
+
+	public ConfigBackgroundGmm(float threshold, float learnRate) {
+		this.threshold = threshold;
+		this.learnRate = learnRate;
+	}
+
+	@Override
+	public void checkValidity() {
+		if( learnRate < 0 || learnRate > 1 )
+			throw new IllegalArgumentException("Learn rate must be 0 <= rate <= 1");
+		if( threshold <= 0 )
+			throw new IllegalArgumentException("threshold must be > 0");
+		if( maxGaussians < 1 )
+			throw new IllegalArgumentException("maxGaussians must be >= 1");
+		if( decay < 0 )
+			throw new IllegalArgumentException("decay must be >= 0");
+		if( significantWeight < 0 || significantWeight > 1 )
+			throw new IllegalArgumentException("significantWeight must be 0 <= weight <= 1");
+		if( initialVariance <= 0 )
+			throw new IllegalArgumentException("Variance must be set to a value larger than zero");
+		if( minimumDifference < 0 )
+			throw new IllegalArgumentException("minimumDifference must be >= 0");
+	}
+}
@@ -123,6 +123,7 @@ public class FactoryBackgroundModel {
 
 		ret.setInitialVariance(config.initialVariance);
 		ret.setMinimumDifference(config.minimumDifference);
+		ret.setConcurrent(config.concurrent);
 
 		return ret;
 	}
@@ -165,6 +166,86 @@ public class FactoryBackgroundModel {
 
 		ret.setInitialVariance(config.initialVariance);
 		ret.setMinimumDifference(config.minimumDifference);
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
+	}
+
+	/**
+	 * Creates an instance of {@link BackgroundStationaryGmm}.
+	 *
+	 * @param config Configures the background model
+	 * @param imageType Type of input image
+	 * @return new instance of the background model
+	 */
+	public static <T extends ImageBase<T>>
+	BackgroundStationaryGmm<T> stationaryGmm( ConfigBackgroundGmm config , ImageType<T> imageType ) {
+
+		config.checkValidity();
+
+		BackgroundStationaryGmm<T> ret;
+
+		switch( imageType.getFamily() ) {
+			case GRAY:
+				ret = new BackgroundStationaryGmm_SB(config.learnRate,config.threshold,config.maxGaussians,
+						imageType.getImageClass());
+				break;
+
+			case PLANAR:
+			case INTERLEAVED:
+				ret = new BackgroundStationaryGmm_MB(config.learnRate,config.threshold,config.maxGaussians,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
+		}
+
+		ret.setInitialVariance(config.initialVariance);
+		ret.setMinimumDifference(config.minimumDifference);
+		ret.setDecay(config.decay);
+		ret.setSignificantWeight(config.significantWeight);
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
+	}
+
+	/**
+	 * Creates an instance of {@link BackgroundMovingGmm}.
+	 *
+	 * @param config Configures the background model
+	 * @param imageType Type of input image
+	 * @return new instance of the background model
+	 */
+	public static <T extends ImageBase<T>,Motion extends InvertibleTransform<Motion>>
+	BackgroundMovingGmm<T,Motion> movingGmm( ConfigBackgroundGmm config ,
+											 Point2Transform2Model_F32<Motion> transform,
+											 ImageType<T> imageType ) {
+
+		config.checkValidity();
+
+		BackgroundMovingGmm<T,Motion> ret;
+
+		switch( imageType.getFamily() ) {
+			case GRAY:
+				ret = new BackgroundMovingGmm_SB(config.learnRate,config.threshold,config.maxGaussians,
+						transform,imageType.getImageClass());
+				break;
+
+			case PLANAR:
+			case INTERLEAVED:
+				ret = new BackgroundMovingGmm_MB(config.learnRate,config.threshold,config.maxGaussians,
+						transform,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
+		}
+
+		ret.setInitialVariance(config.initialVariance);
+		ret.setMinimumDifference(config.minimumDifference);
+		ret.setDecay(config.decay);
+		ret.setSignificantWeight(config.significantWeight);
+		ret.setConcurrent(config.concurrent);
 
 		return ret;
 	}
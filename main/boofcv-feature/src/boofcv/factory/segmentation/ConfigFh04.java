@@ -45,6 +45,12 @@ public class ConfigFh04 {
 	 */
 	public int approximateSortBins = 0;
 
+	/**
+	 * If true then edge weights and the approximate sort will be computed using multiple threads. The number of
+	 * threads is specified by {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigFh04() {
 	}
 
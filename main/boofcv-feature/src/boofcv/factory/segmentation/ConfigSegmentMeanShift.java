@@ -47,7 +47,11 @@ public class ConfigSegmentMeanShift {
 	 * Connection rule when segmenting disconnected regions. Try FOUR
 	 */
 	public ConnectRule connectRule = ConnectRule.FOUR;
-
+	/**
+	 * If true then the mean-shift search will be done using multiple threads. The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
 
 	public ConfigSegmentMeanShift() {
 	}
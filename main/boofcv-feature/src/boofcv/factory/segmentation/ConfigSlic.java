@@ -44,6 +44,11 @@ public class ConfigSlic {
 	 * Connection rule that is used when merging small regions.
 	 */
 	public ConnectRule connectRule = ConnectRule.EIGHT;
+	/**
+	 * If true then the k-means iterations will be done using multiple threads. The number of threads is specified by
+	 * {@link boofcv.concurrency.BoofConcurrency}.
+	 */
+	public boolean concurrent = false;
 
 	public ConfigSlic(int numberOfRegions) {
 		this.numberOfRegions = numberOfRegions;
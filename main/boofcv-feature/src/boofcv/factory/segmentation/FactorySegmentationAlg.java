@@ -28,6 +28,7 @@ import boofcv.alg.segmentation.fh04.impl.*;
 import boofcv.alg.segmentation.ms.*;
 import boofcv.alg.segmentation.slic.*;
 import boofcv.alg.segmentation.watershed.WatershedVincentSoille1991;
+import boofcv.concurrency.InstanceFactory;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.ConnectRule;
@@ -86,20 +87,19 @@ public class FactorySegmentationAlg {
 		int spacialRadius = config.spacialRadius;
 		float colorRadius = config.colorRadius;
 
-		int maxIterations = 20;
-		float convergenceTol = 0.1f;
-
 		SegmentMeanShiftSearch<T> search;
 
-		if( imageType.getFamily() == ImageType.Family.GRAY) {
-			InterpolatePixelS interp = FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
-			search = new SegmentMeanShiftSearchGray(maxIterations,convergenceTol,interp,
-					spacialRadius,spacialRadius,colorRadius,config.fast);
+		if( config.concurrent ) {
+			final ConfigSegmentMeanShift _config = config;
+			final ImageType<T> _imageType = imageType;
+			search = new SegmentMeanShiftSearchConcurrent<>(new InstanceFactory<SegmentMeanShiftSearch<T>>() {
+				@Override
+				public SegmentMeanShiftSearch<T> newInstance() {
+					return meanShiftSearch(_config, _imageType);
+				}
+			});
 		} else {
-			InterpolatePixelMB interp = FactoryInterpolation.createPixelMB(0,255,
-					InterpolationType.BILINEAR, BorderType.EXTENDED,(ImageType)imageType);
-			search = new SegmentMeanShiftSearchColor(maxIterations,convergenceTol,interp,
-					spacialRadius,spacialRadius,colorRadius,config.fast,imageType);
+			search = meanShiftSearch(config, imageType);
 		}
 
 		ComputeRegionMeanColor<T> regionColor = regionMeanColor(imageType);
@@ -111,6 +111,26 @@ public class FactorySegmentationAlg {
 		return new SegmentMeanShift<>(search, merge, prune, config.connectRule);
 	}
 
+	private static<T extends ImageBase<T>>
+	SegmentMeanShiftSearch<T> meanShiftSearch( ConfigSegmentMeanShift config,  ImageType<T> imageType ) {
+		int spacialRadius = config.spacialRadius;
+		float colorRadius = config.colorRadius;
+
+		int maxIterations = 20;
+		float convergenceTol = 0.1f;
+
+		if( imageType.getFamily() == ImageType.Family.GRAY) {
+			InterpolatePixelS interp = FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
+			return new SegmentMeanShiftSearchGray(maxIterations,convergenceTol,interp,
+					spacialRadius,spacialRadius,colorRadius,config.fast);
+		} else {
+			InterpolatePixelMB interp = FactoryInterpolation.createPixelMB(0,255,
+					InterpolationType.BILINEAR, BorderType.EXTENDED,(ImageType)imageType);
+			return new SegmentMeanShiftSearchColor(maxIterations,convergenceTol,interp,
+					spacialRadius,spacialRadius,colorRadius,config.fast,imageType);
+		}
+	}
+
 	public static <T extends ImageBase<T>>
 	FhEdgeWeights<T> weightsFelzenszwalb04( ConnectRule rule , ImageType<T> imageType) {
 		if( imageType.getFamily() == ImageType.Family.GRAY) {
@@ -166,6 +186,7 @@ public class FactorySegmentationAlg {
 		if( config.approximateSortBins > 0 ) {
 			alg.configureApproximateSort(config.approximateSortBins);
 		}
+		alg.setConcurrent(config.concurrent);
 
 		return alg;
 	}
@@ -176,27 +197,37 @@ public class FactorySegmentationAlg {
 		if( config == null )
 			throw new IllegalArgumentException("No default configuration since the number of segments must be specified.");
 
+		SegmentSlic<T> ret = null;
+
 		if( imageType.getFamily() == ImageType.Family.GRAY) {
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_U8(config.numberOfRegions,
+						ret = (SegmentSlic)new SegmentSlic_U8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
 					case F32:
-						return (SegmentSlic)new SegmentSlic_F32(config.numberOfRegions,
+						ret = (SegmentSlic)new SegmentSlic_F32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
 				}
 		} else if( imageType.getFamily() == ImageType.Family.PLANAR) {
 			int N = imageType.getNumBands();
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_PlU8(config.numberOfRegions,
+						ret = (SegmentSlic)new SegmentSlic_PlU8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
 					case F32:
-						return (SegmentSlic)new SegmentSlic_PlF32(config.numberOfRegions,
+						ret = (SegmentSlic)new SegmentSlic_PlF32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
 				}
 		}
-		throw new IllegalArgumentException("Unknown imageType or connect rule");
+		if( ret == null )
+			throw new IllegalArgumentException("Unknown imageType or connect rule");
+
+		ret.setConcurrent(config.concurrent);
+		return ret;
 	}
 
 	public static WatershedVincentSoille1991 watershed( ConnectRule rule ) {
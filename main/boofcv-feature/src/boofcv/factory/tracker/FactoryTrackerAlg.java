@@ -22,14 +22,18 @@ import boofcv.abst.feature.associate.AssociateDescription;
 import boofcv.abst.feature.detdesc.DetectDescribePoint;
 import boofcv.alg.filter.derivative.GImageDerivativeOps;
 import boofcv.alg.interpolate.InterpolateRectangle;
+import boofcv.alg.interpolate.impl.BilinearRectangle_F32;
 import boofcv.alg.tracker.combined.CombinedTrackerScalePoint;
 import boofcv.alg.tracker.combined.PyramidKltForCombined;
 import boofcv.alg.tracker.klt.KltConfig;
 import boofcv.alg.tracker.klt.KltTracker;
+import boofcv.alg.tracker.klt.KltTracker_F32;
 import boofcv.alg.tracker.klt.PkltConfig;
 import boofcv.alg.tracker.klt.PyramidKltTracker;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayS16;
 import boofcv.struct.image.ImageGray;
 
 /**
@@ -62,7 +66,35 @@ public class FactoryTrackerAlg {
 		InterpolateRectangle<I> interpInput = FactoryInterpolation.<I>bilinearRectangle(imageType);
 		InterpolateRectangle<D> interpDeriv = FactoryInterpolation.<D>bilinearRectangle(derivType);
 
-		return new KltTracker<>(interpInput, interpDeriv, config);
+		return klt(config, interpInput, interpDeriv, imageType, derivType);
+	}
+
+	/**
+	 * Creates a {@link KltTracker} which uses the provided interpolation.  If the input image is {@link GrayF32},
+	 * its interpolation is {@link BilinearRectangle_F32}, and the derivative is {@link GrayF32} or {@link GrayS16}
+	 * then the specialized {@link KltTracker_F32} is returned.
+	 *
+	 * @param config KLT configuration
+	 * @param interpInput Interpolation used on the input image
+	 * @param interpDeriv Interpolation used on the image derivative
+	 * @param imageType Type of input image
+	 * @param derivType Type of image derivative
+	 * @param <I> Input image type.
+	 * @param <D> Derivative image type.
+	 * @return Tracker
+	 */
+	public static <I extends ImageGray<I>, D extends ImageGray<D>>
+	KltTracker<I, D> klt( KltConfig config ,
+						  InterpolateRectangle<I> interpInput , InterpolateRectangle<D> interpDeriv ,
+						  Class<I> imageType , Class<D> derivType )
+	{
+		// KltTracker_F32 performs bilinear interpolation inline and would ignore any other interpolation
+		if( imageType == GrayF32.class && interpInput instanceof BilinearRectangle_F32 &&
+				(derivType == GrayF32.class || derivType == GrayS16.class) ) {
+			return (KltTracker)new KltTracker_F32<>((InterpolateRectangle)interpInput, interpDeriv, config);
+		} else {
+			return new KltTracker<>(interpInput, interpDeriv, config);
+		}
 	}
 
 	/**
@@ -90,7 +122,7 @@ public class FactoryTrackerAlg {
 		InterpolateRectangle<I> interpInput = FactoryInterpolation.<I>bilinearRectangle(imageType);
 		InterpolateRectangle<D> interpDeriv = FactoryInterpolation.<D>bilinearRectangle(derivType);
 
-		KltTracker<I, D> klt = new KltTracker<>(interpInput, interpDeriv, config);
+		KltTracker<I, D> klt = klt(config, interpInput, interpDeriv, imageType, derivType);
 		return new PyramidKltTracker<>(klt);
 	}
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBackgroundGmmCommon {
+
+	/**
+	 * A pixel with no Gaussians is observed for the first time
+	 */
+	@Test
+	public void updateMixture_first() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f, 10, 3, 2);
+		alg.unknownValue = 5;
+		alg.initialVariance = 12;
+
+		float[] data = new float[alg.modelStride+2];
+
+		assertEquals(5, alg.updateMixture(new float[]{10,20}, data, 2));
+
+		assertEquals(1.0f, data[2], 1e-6f);
+		assertEquals(12, data[3], 1e-6f);
+		assertEquals(10, data[4], 1e-6f);
+		assertEquals(20, data[5], 1e-6f);
+		// nothing else should be modified
+		assertEquals(0, data[0], 0);
+		assertEquals(0, data[1], 0);
+		for (int i = 6; i < data.length; i++) {
+			assertEquals(0, data[i], 0);
+		}
+	}
+
+	/**
+	 * An observation which matches the Gaussian should move it towards the observation
+	 */
+	@Test
+	public void updateMixture_match() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f, 10, 3, 1);
+		alg.decay = 0;
+
+		float[] data = new float[alg.modelStride];
+		data[0] = 1; data[1] = 4; data[2] = 100;
+
+		assertEquals(0, alg.updateMixture(new float[]{102}, data, 0));
+
+		assertEquals(1.0f, data[0], 1e-6f);
+		assertEquals(100 + 0.05f*2, data[2], 1e-4f);
+		assertEquals(4 + 0.05f*(4-4), data[1], 1e-4f);
+		assertEquals(0, data[3], 0);
+	}
+
+	/**
+	 * An observation which doesn't match adds a new Gaussian which is sorted by weight
+	 */
+	@Test
+	public void updateMixture_newGaussian() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f, 10, 3, 1);
+		alg.decay = 0;
+		alg.initialVariance = 4;
+
+		float[] data = new float[alg.modelStride];
+		alg.updateMixture(new float[]{100}, data, 0);
+		assertEquals(1, alg.updateMixture(new float[]{200}, data, 0));
+
+		int s = alg.gaussianStride;
+		assertEquals(1.0f, data[0] + data[s], 1e-6f);
+		assertTrue(data[0] > data[s]);
+		assertEquals(100, data[2], 1e-4f);
+		assertEquals(200, data[s+2], 1e-4f);
+		assertEquals(0, data[2*s], 0);
+
+		// observe the second one until it's the most significant
+		for (int i = 0; i < 50; i++) {
+			alg.updateMixture(new float[]{200}, data, 0);
+		}
+		assertTrue(data[0] > data[s]);
+		assertEquals(200, data[2], 1e-4f);
+		assertEquals(100, data[s+2], 1e-4f);
+	}
+
+	/**
+	 * When the mixture is full the least significant Gaussian is replaced
+	 */
+	@Test
+	public void updateMixture_full() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f, 10, 2, 1);
+		alg.initialVariance = 4;
+
+		float[] data = new float[alg.modelStride];
+		alg.updateMixture(new float[]{100}, data, 0);
+		alg.updateMixture(new float[]{200}, data, 0);
+		alg.updateMixture(new float[]{50}, data, 0);
+
+		int s = alg.gaussianStride;
+		assertEquals(100, data[2], 1e-4f);
+		assertEquals(50, data[s+2], 1e-4f);
+		assertEquals(1.0f, data[0] + data[s], 1e-6f);
+	}
+
+	/**
+	 * Gaussians which are rarely observed should decay away and be removed
+	 */
+	@Test
+	public void updateMixture_decay() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f, 10, 3, 1);
+		alg.decay = 0.5f;
+		alg.initialVariance = 4;
+
+		float[] data = new float[alg.modelStride];
+		alg.updateMixture(new float[]{100}, data, 0);
+		alg.updateMixture(new float[]{200}, data, 0);
+		for (int i = 0; i < 50; i++) {
+			alg.updateMixture(new float[]{100}, data, 0);
+		}
+
+		int s = alg.gaussianStride;
+		assertEquals(1.0f, data[0], 1e-6f);
+		assertEquals(100, data[2], 1e-4f);
+		assertEquals(0, data[s], 0);
+	}
+
+	/**
+	 * Segment should classify the pixel and not modify the mixture
+	 */
+	@Test
+	public void segment() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f, 10, 3, 1);
+		alg.significantWeight = 0.3f;
+		alg.unknownValue = 2;
+
+		float[] data = new float[alg.modelStride];
+		assertEquals(2, alg.segment(new float[]{100}, data, 0));
+
+		int s = alg.gaussianStride;
+		data[0] = 0.8f; data[1] = 4; data[2] = 100;
+		data[s] = 0.2f; data[s+1] = 4; data[s+2] = 200;
+		float[] original = data.clone();
+
+		assertEquals(0, alg.segment(new float[]{101}, data, 0));
+		// matches but isn't significant
+		assertEquals(1, alg.segment(new float[]{201}, data, 0));
+		assertEquals(1, alg.segment(new float[]{150}, data, 0));
+
+		alg.minimumDifference = 60;
+		assertEquals(0, alg.segment(new float[]{150}, data, 0));
+		assertEquals(1, alg.segment(new float[]{161}, data, 0));
+
+		assertArrayEquals(original, data, 0);
+	}
+}
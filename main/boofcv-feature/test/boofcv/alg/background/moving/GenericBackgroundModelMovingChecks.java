@@ -350,7 +350,57 @@ public abstract class GenericBackgroundModelMovingChecks {
 		alg.segment(homeToCurrent, frame, segmented);
 	}
 
-	private void noise( double mean , double range , ImageBase image ) {
+	/**
+	 * Segmenting and updating in a single call should produce the same results as separate calls
+	 */
+	@Test
+	public void updateAndSegment() {
+		for( ImageType type : imageTypes ) {
+			compareSequence(type, create(type), create(type), true);
+		}
+	}
+
+	/**
+	 * Feeds in the same sequence into both algorithms and sees if they produce the same segmentation.  The
+	 * expected algorithm is always updated using separate calls.
+	 *
+	 * @param fused If true the found algorithm segments and updates in a single call
+	 */
+	protected <T extends ImageBase<T>> void compareSequence( ImageType<T> imageType ,
+															 BackgroundModelMoving<T,Homography2D_F32> expected ,
+															 BackgroundModelMoving<T,Homography2D_F32> found ,
+															 boolean fused ) {
+		T frame = imageType.createImage(width,height);
+		GrayU8 segmentedExpected = new GrayU8(width,height);
+		GrayU8 segmentedFound = new GrayU8(width,height);
+
+		Homography2D_F32 homeToWorld = new Homography2D_F32(1,0,width/2,0,1,height/2,0,0,1);
+		expected.initialize(width*2,height*2,homeToWorld);
+		found.initialize(width*2,height*2,homeToWorld);
+
+		for (int i = 0; i < 10; i++) {
+			Homography2D_F32 homeToCurrent = new Homography2D_F32();
+			homeToCurrent.a13 = rand.nextFloat() * 10 - 5;
+			homeToCurrent.a23 = rand.nextFloat() * 10 - 5;
+
+			noise(100, 30, frame);
+			GImageMiscOps.fillRectangle(frame, 200, i*4, 10, 12, 20);
+
+			expected.segment(homeToCurrent, frame, segmentedExpected);
+			expected.updateBackground(homeToCurrent, frame);
+
+			if( fused ) {
+				found.updateBackground(homeToCurrent, frame, segmentedFound);
+			} else {
+				found.segment(homeToCurrent, frame, segmentedFound);
+				found.updateBackground(homeToCurrent, frame);
+			}
+
+			BoofTesting.assertEquals(segmentedExpected, segmentedFound, 0);
+		}
+	}
+
+	protected void noise( double mean , double range , ImageBase image ) {
 		GImageMiscOps.fill(image,mean);
 		GImageMiscOps.addUniform(image,rand,-range,range);
 	}
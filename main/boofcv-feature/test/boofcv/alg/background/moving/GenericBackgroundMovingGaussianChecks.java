@@ -22,6 +22,7 @@ import boofcv.alg.background.BackgroundModelMoving;
 import boofcv.alg.background.BackgroundModelStationary;
 import boofcv.alg.background.stationary.BackgroundStationaryGaussian;
 import boofcv.alg.background.stationary.GenericBackgroundStationaryGaussianChecks;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -50,6 +51,26 @@ public abstract class GenericBackgroundMovingGaussianChecks extends GenericBackg
 		stationary.checkBandsUsed();
 	}
 
+	/**
+	 * Concurrent implementations should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			for( ImageType type : imageTypes ) {
+				for( boolean fused : new boolean[]{false,true}) {
+					BackgroundMovingGaussian alg = (BackgroundMovingGaussian)create(type);
+					alg.setConcurrent(true);
+					compareSequence(type, create(type), alg, fused);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	private class MovingToStationary extends BackgroundStationaryGaussian {
 
 		BackgroundMovingGaussian moving;
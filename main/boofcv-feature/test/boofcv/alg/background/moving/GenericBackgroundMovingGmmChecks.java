@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.moving;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.ImageType;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericBackgroundMovingGmmChecks extends GenericBackgroundModelMovingChecks {
+
+	/**
+	 * Concurrent implementations should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			for( ImageType type : imageTypes ) {
+				for( boolean fused : new boolean[]{false,true}) {
+					BackgroundMovingGmm alg = (BackgroundMovingGmm)create(type);
+					alg.setConcurrent(true);
+					compareSequence(type, create(type), alg, fused);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+}
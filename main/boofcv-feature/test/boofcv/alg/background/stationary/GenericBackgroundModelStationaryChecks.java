@@ -243,6 +243,47 @@ public abstract class GenericBackgroundModelStationaryChecks {
 		}
 	}
 
+	/**
+	 * Segmenting and updating in a single call should produce the same results as separate calls
+	 */
+	@Test
+	public void updateAndSegment() {
+		for( ImageType type : imageTypes ) {
+			compareSequence(type, create(type), create(type), true);
+		}
+	}
+
+	/**
+	 * Feeds in the same sequence into both algorithms and sees if they produce the same segmentation.  The
+	 * expected algorithm is always updated using separate calls.
+	 *
+	 * @param fused If true the found algorithm segments and updates in a single call
+	 */
+	protected <T extends ImageBase<T>> void compareSequence( ImageType<T> imageType ,
+															 BackgroundModelStationary<T> expected ,
+															 BackgroundModelStationary<T> found , boolean fused ) {
+		T frame = imageType.createImage(width,height);
+		GrayU8 segmentedExpected = new GrayU8(width,height);
+		GrayU8 segmentedFound = new GrayU8(width,height);
+
+		for (int i = 0; i < 10; i++) {
+			noise(100, 30, frame);
+			GImageMiscOps.fillRectangle(frame, 200, i*4, 10, 12, 20);
+
+			expected.segment(frame, segmentedExpected);
+			expected.updateBackground(frame);
+
+			if( fused ) {
+				found.updateBackground(frame, segmentedFound);
+			} else {
+				found.segment(frame, segmentedFound);
+				found.updateBackground(frame);
+			}
+
+			BoofTesting.assertEquals(segmentedExpected, segmentedFound, 0);
+		}
+	}
+
 	protected void noiseBand( double mean , double range , ImageBase image , int band ) {
 		double pixel[] = new double[ image.getImageType().getNumBands() ];
 		Arrays.fill(pixel,10);
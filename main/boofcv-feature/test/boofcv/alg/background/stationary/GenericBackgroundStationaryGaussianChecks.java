@@ -20,6 +20,7 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -187,4 +188,24 @@ public abstract class GenericBackgroundStationaryGaussianChecks extends GenericB
 		ImageMiscOps.fill(expected, 1);
 		BoofTesting.assertEquals(expected, segmented, 1e-5f);
 	}
+
+	/**
+	 * Concurrent implementations should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			for( ImageType type : imageTypes ) {
+				for( boolean fused : new boolean[]{false,true}) {
+					BackgroundStationaryGaussian alg = (BackgroundStationaryGaussian)create(type);
+					alg.setConcurrent(true);
+					compareSequence(type, create(type), alg, fused);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
 }
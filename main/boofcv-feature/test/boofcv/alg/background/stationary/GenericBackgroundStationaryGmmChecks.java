@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericBackgroundStationaryGmmChecks extends GenericBackgroundModelStationaryChecks {
+
+	/**
+	 * The background alternates between two appearances.  Both should be learned as background.
+	 */
+	@Test
+	public void multiModal() {
+		for( ImageType type : imageTypes ) {
+			multiModal(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void multiModal( ImageType<T> imageType ) {
+		BackgroundModelStationary<T> alg = create(imageType);
+		T frame = imageType.createImage(width,height);
+
+		for (int i = 0; i < 60; i++) {
+			noise(i%2 == 0 ? 50 : 150, 2, frame);
+			alg.updateBackground(frame);
+		}
+
+		GrayU8 segmented = new GrayU8(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+
+		noise(50, 2, frame);
+		alg.segment(frame, segmented);
+		BoofTesting.assertEquals(expected, segmented, 0);
+		noise(150, 2, frame);
+		alg.segment(frame, segmented);
+		BoofTesting.assertEquals(expected, segmented, 0);
+
+		ImageMiscOps.fill(expected, 1);
+		noise(250, 2, frame);
+		alg.segment(frame, segmented);
+		BoofTesting.assertEquals(expected, segmented, 0);
+	}
+
+	/**
+	 * Concurrent implementations should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			for( ImageType type : imageTypes ) {
+				for( boolean fused : new boolean[]{false,true}) {
+					BackgroundStationaryGmm alg = (BackgroundStationaryGmm)create(type);
+					alg.setConcurrent(true);
+					compareSequence(type, create(type), alg, fused);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+}
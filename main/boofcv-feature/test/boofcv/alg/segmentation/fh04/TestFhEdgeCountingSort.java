@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.fh04;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.sorting.ApproximateSort_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFhEdgeCountingSort {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Weights are integers and there is a bin for each integer, so the order should be exact.  Edges with the
+	 * same weight should be in their original order
+	 */
+	@Test
+	public void sort_exact() {
+		Edge[] edges = createEdges(500, 21);
+
+		FhEdgeCountingSort alg = new FhEdgeCountingSort(21);
+		alg.sort(edges, edges.length);
+
+		for (int i = 1; i < edges.length; i++) {
+			assertTrue(edges[i-1].weight() <= edges[i].weight());
+			if( edges[i-1].weight() == edges[i].weight() )
+				assertTrue(edges[i-1].indexA < edges[i].indexA);
+		}
+	}
+
+	/**
+	 * With fewer bins than values the edges should only be sorted up to the bin's width
+	 */
+	@Test
+	public void sort_approximate() {
+		Edge[] edges = createEdges(500, 100);
+
+		FhEdgeCountingSort alg = new FhEdgeCountingSort(10);
+		alg.sort(edges, edges.length);
+
+		// bin width is about 99/10
+		for (int i = 1; i < edges.length; i++) {
+			assertTrue(edges[i-1].weight() <= edges[i].weight() + 11);
+		}
+	}
+
+	/**
+	 * Edges should be quantized the same way as ApproximateSort_F32 and produce an identical order
+	 */
+	@Test
+	public void compareToApproximateSort() {
+		Edge[] found = new Edge[2000];
+		for (int i = 0; i < found.length; i++) {
+			found[i] = new Edge(i, i+1);
+			found[i].sortValue = rand.nextFloat()*37.3f - 5.2f;
+		}
+		Edge[] expected = found.clone();
+
+		for( int numBins : new int[]{7,100,2000} ) {
+			ApproximateSort_F32 approx = new ApproximateSort_F32(numBins);
+			approx.computeRange(expected, 0, expected.length);
+			approx.sortObject(expected, 0, expected.length);
+
+			new FhEdgeCountingSort(numBins).sort(found, found.length);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertSame(expected[i], found[i]);
+			}
+		}
+	}
+
+	/**
+	 * Only the specified number of edges should be sorted
+	 */
+	@Test
+	public void sort_length() {
+		Edge[] edges = createEdges(100, 50);
+		Edge[] original = edges.clone();
+
+		new FhEdgeCountingSort(50).sort(edges, 60);
+
+		for (int i = 60; i < edges.length; i++) {
+			assertSame(original[i], edges[i]);
+		}
+	}
+
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			Edge[] expected = createEdges(50000, 1000);
+			Edge[] found = expected.clone();
+
+			FhEdgeCountingSort alg = new FhEdgeCountingSort(200);
+			alg.sort(expected, expected.length);
+
+			alg.setConcurrent(true);
+			alg.sort(found, found.length);
+
+			for (int i = 0; i < expected.length; i++) {
+				assertSame(expected[i], found[i]);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * Creates edges with random integer weights from 0 to numValues-1.  indexA is the original order.
+	 */
+	private Edge[] createEdges( int total , int numValues ) {
+		Edge[] edges = new Edge[total];
+		for (int i = 0; i < total; i++) {
+			edges[i] = new Edge(i, i+1);
+			edges[i].sortValue = rand.nextInt(numValues);
+		}
+		// make sure the full range is used
+		edges[0].sortValue = 0;
+		edges[1].sortValue = numValues-1;
+		return edges;
+	}
+}
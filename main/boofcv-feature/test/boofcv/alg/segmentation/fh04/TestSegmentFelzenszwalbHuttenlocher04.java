@@ -20,8 +20,12 @@ package boofcv.alg.segmentation.fh04;
 
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.segmentation.fh04.impl.FhEdgeWeights4_U8;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.segmentation.ConfigFh04;
+import boofcv.factory.segmentation.FactorySegmentationAlg;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
 import boofcv.testing.BoofTesting;
 import org.ddogleg.struct.GrowQueue_I32;
 import org.junit.Test;
@@ -75,6 +79,42 @@ public class TestSegmentFelzenszwalbHuttenlocher04 {
 		}
 	}
 
+	/**
+	 * The output should be identical when multiple threads are used
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			GrayU8 image = new GrayU8(120,100);
+			ImageMiscOps.fillUniform(image,rand,0,100);
+
+			for( int numBins : new int[]{0,2000} ) {
+				ConfigFh04 config = new ConfigFh04(200,10);
+				config.approximateSortBins = numBins;
+
+				GrayS32 expected = new GrayS32(image.width,image.height);
+				GrayS32 found = new GrayS32(image.width,image.height);
+
+				SegmentFelzenszwalbHuttenlocher04<GrayU8> alg =
+						FactorySegmentationAlg.fh04(config, ImageType.single(GrayU8.class));
+				alg.process(image,expected);
+
+				config.concurrent = true;
+				alg = FactorySegmentationAlg.fh04(config, ImageType.single(GrayU8.class));
+				// process twice to make sure recycled storage is handled correctly
+				alg.process(image,found);
+				alg.process(image,found);
+
+				BoofTesting.assertEquals(expected, found, 0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	@Test
 	public void mergeRegions() {
 
@@ -20,6 +20,7 @@ package boofcv.alg.segmentation.fh04.impl;
 
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -118,6 +119,40 @@ public abstract class GenericFhEdgeWeightsChecks<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * The edges and their order should be the same when multiple threads are used
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			T input = imageType.createImage(25,50);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+			FhEdgeWeights<T> alg = createAlg();
+			FastQueue<Edge> expected = new FastQueue<>(Edge.class, true);
+			FastQueue<Edge> found = new FastQueue<>(Edge.class, true);
+
+			alg.process(input,expected);
+			alg.setConcurrent(true);
+			alg.process(input,found);
+
+			assertEquals(expected.size, found.size);
+			for( int i = 0; i < expected.size; i++ ) {
+				Edge a = expected.get(i);
+				Edge b = found.get(i);
+
+				assertEquals(a.indexA,b.indexA);
+				assertEquals(a.indexB,b.indexB);
+				assertEquals(a.weight(),b.weight(),0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	@Test
 	public void subimage() {
 
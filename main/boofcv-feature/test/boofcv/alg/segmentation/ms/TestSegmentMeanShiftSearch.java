@@ -69,6 +69,9 @@ public class TestSegmentMeanShiftSearch {
 		@Override
 		public void process(ImageBase image) {}
 
+		@Override
+		protected void searchRows() {}
+
 		@Override
 		public ImageType getImageType() {
 			return null;
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.ms;
+
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSegmentMeanShiftSearchConcurrent {
+
+	Random rand = new Random(234);
+
+	int width = 30, height = 45;
+
+	/**
+	 * Without the fast approximation each pixel is independent and the output should be identical
+	 */
+	@Test
+	public void compareToSingleThread() {
+		// one thread is a special case where the image isn't split into blocks
+		for( int numThreads : new int[]{1,4} ) {
+			compareToSingleThread(ImageType.single(GrayF32.class), numThreads);
+			compareToSingleThread(ImageType.single(GrayU8.class), numThreads);
+			compareToSingleThread(ImageType.il(3, InterleavedU8.class), numThreads);
+		}
+	}
+
+	private <T extends ImageBase<T>> void compareToSingleThread( ImageType<T> imageType , int numThreads ) {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(numThreads);
+
+			T image = imageType.createImage(width, height);
+			GImageMiscOps.fillUniform(image, rand, 0, 255);
+
+			SegmentMeanShiftSearch<T> expected = create(imageType, false);
+			SegmentMeanShiftSearch<T> found = new SegmentMeanShiftSearchConcurrent<>(factory(imageType, false));
+
+			expected.process(image);
+			// process it twice to make sure it's properly reset
+			found.process(image);
+			found.process(image);
+
+			assertTrue(expected.getModeLocation().size > 20);
+			assertEquals(expected.getModeLocation().size, found.getModeLocation().size);
+			for (int i = 0; i < expected.getModeLocation().size; i++) {
+				assertEquals(expected.getModeLocation().get(i).x, found.getModeLocation().get(i).x);
+				assertEquals(expected.getModeLocation().get(i).y, found.getModeLocation().get(i).y);
+				assertEquals(expected.getRegionMemberCount().get(i), found.getRegionMemberCount().get(i));
+				float[] a = expected.getModeColor().get(i);
+				float[] b = found.getModeColor().get(i);
+				for (int band = 0; band < a.length; band++) {
+					assertEquals(a[band], b[band], 0);
+				}
+			}
+			BoofTesting.assertEquals(expected.getPixelToRegion(), found.getPixelToRegion(), 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * With the fast approximation the output is different but should still be consistent and repeatable
+	 */
+	@Test
+	public void fast() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			ImageType<GrayF32> imageType = ImageType.single(GrayF32.class);
+			GrayF32 image = imageType.createImage(width, height);
+			GImageMiscOps.fillUniform(image, rand, 0, 255);
+
+			SegmentMeanShiftSearch<GrayF32> alg = new SegmentMeanShiftSearchConcurrent<>(factory(imageType, true));
+			alg.process(image);
+			int numModes = alg.getModeLocation().size;
+			assertTrue(numModes > 20);
+
+			// every pixel is a member of a mode which exists and the counts add up
+			int[] counts = new int[numModes];
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					counts[alg.getPixelToRegion().get(x, y)]++;
+				}
+			}
+			int total = 0;
+			for (int i = 0; i < numModes; i++) {
+				assertEquals(counts[i], alg.getRegionMemberCount().get(i));
+				total += counts[i];
+			}
+			assertEquals(width*height, total);
+
+			// the same number of threads will produce the same results
+			SegmentMeanShiftSearch<GrayF32> alg2 = new SegmentMeanShiftSearchConcurrent<>(factory(imageType, true));
+			alg2.process(image);
+			assertEquals(numModes, alg2.getModeLocation().size);
+			BoofTesting.assertEquals(alg.getPixelToRegion(), alg2.getPixelToRegion(), 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private <T extends ImageBase<T>> InstanceFactory<SegmentMeanShiftSearch<T>>
+	factory( final ImageType<T> imageType , final boolean fast ) {
+		return new InstanceFactory<SegmentMeanShiftSearch<T>>() {
+			@Override
+			public SegmentMeanShiftSearch<T> newInstance() {
+				return create(imageType, fast);
+			}
+		};
+	}
+
+	private <T extends ImageBase<T>> SegmentMeanShiftSearch<T> create( ImageType<T> imageType , boolean fast ) {
+		if( imageType.getFamily() == ImageType.Family.GRAY ) {
+			return new SegmentMeanShiftSearchGray(30, 0.05f,
+					FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED),
+					2, 2, 100, fast);
+		} else {
+			return new SegmentMeanShiftSearchColor(30, 0.05f,
+					FactoryInterpolation.createPixelMB(0, 255, InterpolationType.BILINEAR, BorderType.EXTENDED,
+							(ImageType)imageType), 2, 2, 100, fast, imageType);
+		}
+	}
+}
@@ -20,12 +20,14 @@ package boofcv.alg.segmentation.slic;
 
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.segmentation.ImageSegmentationOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
 import org.ddogleg.struct.FastQueue;
 import org.ddogleg.struct.GrowQueue_I32;
 import org.junit.Test;
@@ -75,6 +77,47 @@ public abstract class GeneralSegmentSlicColorChecks<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * The concurrent and single threaded output should be identical
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			T input = imageType.createImage(60,70);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+			GrayS32 expected = new GrayS32(60,70);
+			GrayS32 found = new GrayS32(60,70);
+
+			SegmentSlic<T> algSingle = createAlg(30,200,10, ConnectRule.EIGHT );
+			SegmentSlic<T> algMulti = createAlg(30,200,10, ConnectRule.EIGHT );
+			algMulti.setConcurrent(true);
+
+			algSingle.process(input,expected);
+			algMulti.process(input,found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+			assertEquals(algSingle.getRegionMemberCount().size, algMulti.getRegionMemberCount().size);
+			for (int i = 0; i < algSingle.getRegionMemberCount().size; i++) {
+				assertEquals(algSingle.getRegionMemberCount().get(i), algMulti.getRegionMemberCount().get(i));
+			}
+			assertEquals(algSingle.getClusters().size, algMulti.getClusters().size);
+			for (int i = 0; i < algSingle.getClusters().size; i++) {
+				SegmentSlic.Cluster a = algSingle.getClusters().get(i);
+				SegmentSlic.Cluster b = algMulti.getClusters().get(i);
+				assertEquals(a.x, b.x, 0);
+				assertEquals(a.y, b.y, 0);
+				for (int band = 0; band < imageType.getNumBands(); band++) {
+					assertEquals(a.color[band], b.color[band], 0);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	@Test
 	public void setColor() {
 		T input = imageType.createImage(30,40);
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.interpolate.InterpolateRectangle;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayS16;
+import boofcv.struct.image.ImageGray;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestKltTracker_F32 {
+
+	Random rand = new Random(234);
+
+	int imageWidth = 40;
+	int imageHeight = 50;
+
+	GrayF32 image = new GrayF32(imageWidth, imageHeight);
+	GrayF32 derivX = new GrayF32(imageWidth, imageHeight);
+	GrayF32 derivY = new GrayF32(imageWidth, imageHeight);
+
+	/**
+	 * The specialized tracker should produce results which are identical to the generic tracker
+	 */
+	@Test
+	public void compareToGeneric_F32() {
+		createImages();
+
+		compareToGeneric(derivX, derivY, GrayF32.class, false);
+		compareToGeneric(derivX, derivY, GrayF32.class, true);
+	}
+
+	@Test
+	public void compareToGeneric_S16() {
+		createImages();
+
+		GrayS16 derivX = ConvertImage.convert(this.derivX, (GrayS16)null);
+		GrayS16 derivY = ConvertImage.convert(this.derivY, (GrayS16)null);
+
+		compareToGeneric(derivX, derivY, GrayS16.class, false);
+		compareToGeneric(derivX, derivY, GrayS16.class, true);
+	}
+
+	private void createImages() {
+		GrayF32 noise = new GrayF32(imageWidth, imageHeight);
+		ImageMiscOps.fillUniform(noise, rand, 0, 100);
+		BlurImageOps.gaussian(noise, image, -1, 2, null);
+		GradientSobel.process(image, derivX, derivY, new ImageBorder1D_F32(BorderIndex1D_Extend.class));
+	}
+
+	private <D extends ImageGray<D>>
+	void compareToGeneric( D derivX , D derivY , Class<D> derivType , boolean subimage ) {
+		KltConfig config = TestKltTracker.createDefaultTracker().getConfig();
+
+		InterpolateRectangle<GrayF32> interpA = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		InterpolateRectangle<D> interpDA = FactoryInterpolation.bilinearRectangle(derivType);
+		KltTracker<GrayF32,D> generic = new KltTracker<>(interpA, interpDA, config);
+
+		InterpolateRectangle<GrayF32> interpB = FactoryInterpolation.bilinearRectangle(GrayF32.class);
+		InterpolateRectangle<D> interpDB = FactoryInterpolation.bilinearRectangle(derivType);
+		KltTracker_F32<D> alg = new KltTracker_F32<>(interpB, interpDB, config);
+
+		GrayF32 image = this.image;
+		if( subimage ) {
+			image = BoofTesting.createSubImageOf(image);
+			derivX = BoofTesting.createSubImageOf(derivX);
+			derivY = BoofTesting.createSubImageOf(derivY);
+		}
+
+		int total = 0;
+		for (int trial = 0; trial < 2; trial++) {
+			// create a description in the first image, including features along the border
+			generic.setImage(image, derivX, derivY);
+			alg.setImage(image, derivX, derivY);
+
+			for( int y = 0; y < imageHeight; y += 3) {
+				for( int x = 0; x < imageWidth; x += 3) {
+					KltFeature featureA = new KltFeature(3);
+					KltFeature featureB = new KltFeature(3);
+
+					featureA.setPosition(x + 0.2f, y + 0.7f);
+					featureB.setPosition(x + 0.2f, y + 0.7f);
+
+					boolean validA = generic.setDescription(featureA);
+					boolean validB = alg.setDescription(featureB);
+					assertEquals(validA, validB);
+					if( !validA )
+						continue;
+
+					// perturb the initial location and track it
+					float dx = rand.nextFloat()*3-1.5f;
+					float dy = rand.nextFloat()*3-1.5f;
+
+					featureA.setPosition(featureA.x + dx, featureA.y + dy);
+					featureB.setPosition(featureB.x + dx, featureB.y + dy);
+
+					KltTrackFault faultA = generic.track(featureA);
+					KltTrackFault faultB = alg.track(featureB);
+
+					assertTrue(faultA == faultB);
+					assertEquals(featureA.x, featureB.x, 0);
+					assertEquals(featureA.y, featureB.y, 0);
+					if( faultA == KltTrackFault.SUCCESS ) {
+						assertEquals(generic.getError(), alg.getError(), 0);
+						total++;
+					}
+				}
+			}
+		}
+		assertTrue(total > 50);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.tracker;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.image.ImageGray;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <p>
+ * Wrapper around a {@link DdaFeatureManager} which detects and describes features in a background thread.  While
+ * the features in frame N are being detected the tracker can associate the features from frame N-1 and the
+ * user can estimate motion from the tracker's output.  When detection is the most expensive step the time to
+ * process a frame approaches the time of the slowest stage, instead of the sum of all the stages.
+ * </p>
+ *
+ * <p>
+ * <b>LATENCY:</b> This comes at the cost of one frame of latency.  The features returned by
+ * {@link #detectFeatures} were detected in the image passed in by the previous call.  No features are returned
+ * for the very first image.  This means the tracks output by {@link DetectDescribeAssociate} after processing
+ * image N are the locations of the features inside of image N-1.  Use {@link #getResultsFrame()} to find out which
+ * image the most recent features came from.  Algorithms which combine track locations with other data from the same
+ * image, e.g. a depth image, need to keep a copy of the older data.
+ * </p>
+ *
+ * <p>
+ * The input image is copied before it's processed, so it is safe to modify the input image after
+ * {@link #detectFeatures} returns.  The wrapped manager is only ever called from one thread at a time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DdaManagerPipelined<I extends ImageGray<I>, Desc extends TupleDesc>
+		implements DdaFeatureManager<I, Desc> {
+
+	// the manager which actually detects the features
+	protected DdaFeatureManager<I, Desc> manager;
+
+	// copy of the image being processed in the background
+	protected I work;
+
+	// results being written by the background thread and results which were given to the tracker
+	protected Results background;
+	protected Results foreground;
+
+	// the background task which is being processed.  null if there is none
+	protected ForkJoinTask<?> pending;
+
+	// number of images which have been passed in
+	protected int totalFrames;
+	// index of the frame which the most recent results came from
+	protected int resultsFrame = -1;
+
+	/**
+	 * Specifies the manager which is to be run in the background
+	 *
+	 * @param manager The manager which detects and describes features.
+	 */
+	public DdaManagerPipelined( DdaFeatureManager<I, Desc> manager ) {
+		this.manager = manager;
+		background = new Results();
+		foreground = new Results();
+	}
+
+	/**
+	 * Returns the features which were detected in the previous image and starts detecting features in
+	 * the input image.
+	 *
+	 * @param input Input image.
+	 * @param locDst Location of features detected in the previous image.
+	 * @param featDst Description of features detected in the previous image.
+	 */
+	@Override
+	public void detectFeatures(I input, FastQueue<Point2D_F64> locDst, FastQueue<Desc> featDst) {
+		// wait for the previous image to finish
+		boolean available = pending != null;
+		waitForPending();
+
+		// the background thread will now write into the results the tracker was using
+		Results tmp = foreground;
+		foreground = background;
+		background = tmp;
+
+		if( work == null )
+			work = input.createSameShape();
+		work.setTo(input);
+
+		final Results target = background;
+		pending = BoofConcurrency.getPool().submit(new Runnable() {
+			@Override
+			public void run() {
+				target.detect(work);
+			}
+		});
+
+		if( available ) {
+			resultsFrame = totalFrames-1;
+			for (int i = 0; i < foreground.locations.size; i++) {
+				locDst.add( foreground.locations.get(i));
+				featDst.add( foreground.descriptions.get(i));
+			}
+		} else {
+			resultsFrame = -1;
+		}
+		totalFrames++;
+	}
+
+	/**
+	 * Blocks until the background thread has finished.  Any exception thrown while detecting features is
+	 * passed on to the caller.
+	 */
+	protected void waitForPending() {
+		if( pending != null ) {
+			ForkJoinTask<?> task = pending;
+			pending = null;
+			task.join();
+		}
+	}
+
+	/**
+	 * Waits for any images still being processed then discards their results.  The next call to
+	 * {@link #detectFeatures} will return no features.
+	 */
+	public void reset() {
+		try {
+			waitForPending();
+		} finally {
+			totalFrames = 0;
+			resultsFrame = -1;
+		}
+	}
+
+	/**
+	 * Index of the image, counting from zero since the last reset, that the features returned by the most recent
+	 * call to {@link #detectFeatures} came from.  -1 if no features have been returned yet.
+	 */
+	public int getResultsFrame() {
+		return resultsFrame;
+	}
+
+	/**
+	 * Number of frames that the output lags behind the input
+	 */
+	public int getLatency() {
+		return 1;
+	}
+
+	public DdaFeatureManager<I, Desc> getManager() {
+		return manager;
+	}
+
+	@Override
+	public Desc createDescription() {
+		return manager.createDescription();
+	}
+
+	@Override
+	public Class<Desc> getDescriptionType() {
+		return manager.getDescriptionType();
+	}
+
+	/**
+	 * Storage for features detected in a single image.  The manager can return references to its internal
+	 * data, which will be modified when the next image is processed, so a copy is saved.
+	 */
+	protected class Results {
+		FastQueue<Point2D_F64> locations = new FastQueue<>(Point2D_F64.class, true);
+		FastQueue<Desc> descriptions = new FastQueue<Desc>(manager.getDescriptionType(), true) {
+			@Override
+			protected Desc createInstance() {
+				return manager.createDescription();
+			}
+		};
+
+		// references returned by the manager
+		FastQueue<Point2D_F64> refLocations = new FastQueue<>(10, Point2D_F64.class, false);
+		FastQueue<Desc> refDescriptions = new FastQueue<>(10, manager.getDescriptionType(), false);
+
+		void detect( I image ) {
+			refLocations.reset();
+			refDescriptions.reset();
+			manager.detectFeatures(image, refLocations, refDescriptions);
+
+			locations.reset();
+			descriptions.reset();
+			for (int i = 0; i < refLocations.size; i++) {
+				locations.grow().set(refLocations.get(i));
+				// Desc is bounded by the raw TupleDesc to match DdaFeatureManager, but it's always a TupleDesc<Desc>
+				@SuppressWarnings("unchecked")
+				TupleDesc<Desc> dst = descriptions.grow();
+				dst.setTo(refDescriptions.get(i));
+			}
+		}
+	}
+}
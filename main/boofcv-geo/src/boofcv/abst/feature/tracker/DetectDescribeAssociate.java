@@ -111,8 +111,41 @@ public class DetectDescribeAssociate<I extends ImageGray<I>, Desc extends TupleD
 		this.updateDescription = updateDescription;
 	}
 
+	/**
+	 * Turns on or off pipelined feature detection.  When on, features are detected and described in a background
+	 * thread while the previous image is being associated.  This increases throughput but the tracks lag behind
+	 * the input image by one frame.  See {@link DdaManagerPipelined} for the details.
+	 *
+	 * @param pipelined true to turn on pipelined detection
+	 */
+	public void setPipelined( boolean pipelined ) {
+		if( pipelined == isPipelined() )
+			return;
+
+		if( pipelined ) {
+			manager = new DdaManagerPipelined<>(manager);
+		} else {
+			DdaManagerPipelined<I,Desc> p = (DdaManagerPipelined<I,Desc>)manager;
+			p.reset();
+			manager = p.getManager();
+		}
+	}
+
+	/**
+	 * Returns true if features are detected in a background thread with one frame of latency
+	 */
+	public boolean isPipelined() {
+		return manager instanceof DdaManagerPipelined;
+	}
+
+	public DdaFeatureManager<I, Desc> getManager() {
+		return manager;
+	}
+
 	@Override
 	public void reset() {
+		if( isPipelined() )
+			((DdaManagerPipelined)manager).reset();
 		dropAllTracks();
 		featureID = 0;
 		featDst.reset();
@@ -343,6 +376,56 @@ public class DetectDescribeAssociate<I extends ImageGray<I>, Desc extends TupleD
 		return list;
 	}
 
+	@Override
+	public int getTotalAll() {
+		return tracksAll.size();
+	}
+
+	@Override
+	public PointTrack getAll(int index) {
+		return tracksAll.get(index);
+	}
+
+	@Override
+	public int getTotalActive() {
+		return tracksActive.size();
+	}
+
+	@Override
+	public PointTrack getActive(int index) {
+		return tracksActive.get(index);
+	}
+
+	@Override
+	public int getTotalInactive() {
+		return tracksInactive.size();
+	}
+
+	@Override
+	public PointTrack getInactive(int index) {
+		return tracksInactive.get(index);
+	}
+
+	@Override
+	public int getTotalDropped() {
+		return tracksDropped.size();
+	}
+
+	@Override
+	public PointTrack getDropped(int index) {
+		return tracksDropped.get(index);
+	}
+
+	@Override
+	public int getTotalNew() {
+		return tracksNew.size();
+	}
+
+	@Override
+	public PointTrack getNew(int index) {
+		return tracksNew.get(index);
+	}
+
 	@Override
 	public List<PointTrack> getInactiveTracks(List<PointTrack> list) {
 		if( list == null )
@@ -55,6 +55,13 @@ import java.util.List;
  * NOTE: Tracks dropped by the user will not be included in the dropped list.
  * </p>
  *
+ * <p>
+ * TRACK ACCESS: Tracks can be accessed by copying them into a list, e.g. {@link #getActiveTracks}, or
+ * by index, e.g. {@link #getTotalActive()} and {@link #getActive(int)}.  Access by index does not create
+ * any new objects and is intended for applications which process images continuously.  Tracks are returned
+ * in the same order by both methods.  Indexes are only valid until the tracker is modified.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public interface PointTracker<T extends ImageBase<T>> {
@@ -140,6 +147,76 @@ public interface PointTracker<T extends ImageBase<T>> {
 	 */
 	public List<PointTrack> getNewTracks(List<PointTrack> list);
 
+	/**
+	 * Returns the number of tracks which are currently being tracked.
+	 *
+	 * @see #getAllTracks(List)
+	 */
+	public int getTotalAll();
+
+	/**
+	 * Returns the track at the specified index in the list of all tracks
+	 *
+	 * @param index Index from 0 to {@link #getTotalAll()}-1
+	 */
+	public PointTrack getAll( int index );
+
+	/**
+	 * Returns the number of active tracks
+	 *
+	 * @see #getActiveTracks(List)
+	 */
+	public int getTotalActive();
+
+	/**
+	 * Returns the track at the specified index in the list of active tracks
+	 *
+	 * @param index Index from 0 to {@link #getTotalActive()}-1
+	 */
+	public PointTrack getActive( int index );
+
+	/**
+	 * Returns the number of inactive tracks
+	 *
+	 * @see #getInactiveTracks(List)
+	 */
+	public int getTotalInactive();
+
+	/**
+	 * Returns the track at the specified index in the list of inactive tracks
+	 *
+	 * @param index Index from 0 to {@link #getTotalInactive()}-1
+	 */
+	public PointTrack getInactive( int index );
+
+	/**
+	 * Returns the number of tracks dropped during the most recent update
+	 *
+	 * @see #getDroppedTracks(List)
+	 */
+	public int getTotalDropped();
+
+	/**
+	 * Returns the track at the specified index in the list of dropped tracks
+	 *
+	 * @param index Index from 0 to {@link #getTotalDropped()}-1
+	 */
+	public PointTrack getDropped( int index );
+
+	/**
+	 * Returns the number of tracks which have been added since process was called
+	 *
+	 * @see #getNewTracks(List)
+	 */
+	public int getTotalNew();
+
+	/**
+	 * Returns the track at the specified index in the list of new tracks
+	 *
+	 * @param index Index from 0 to {@link #getTotalNew()}-1
+	 */
+	public PointTrack getNew( int index );
+
 	/**
 	 * Automatically selects new features in the image to track. Returned tracks must
 	 * be unique and not duplicates of any existing tracks.  This includes both active
@@ -209,6 +209,71 @@ public class PointTrackerCombined<I extends ImageGray<I>, D extends ImageGray<D>
 		return list;
 	}
 
+	/**
+	 * All tracks are ordered as reactivated, pure KLT, and then dormant.
+	 */
+	@Override
+	public int getTotalAll() {
+		return getTotalActive() + tracker.getDormant().size();
+	}
+
+	@Override
+	public PointTrack getAll(int index) {
+		int numActive = getTotalActive();
+		if( index < numActive )
+			return getActive(index);
+		return tracker.getDormant().get(index-numActive).getCookie();
+	}
+
+	/**
+	 * Active tracks are ordered as reactivated and then pure KLT.
+	 */
+	@Override
+	public int getTotalActive() {
+		return tracker.getReactivated().size() + tracker.getPureKlt().size();
+	}
+
+	@Override
+	public PointTrack getActive(int index) {
+		List<CombinedTrack<Desc>> reactivated = tracker.getReactivated();
+		if( index < reactivated.size() )
+			return reactivated.get(index).getCookie();
+		return tracker.getPureKlt().get(index-reactivated.size()).getCookie();
+	}
+
+	@Override
+	public int getTotalInactive() {
+		return tracker.getDormant().size();
+	}
+
+	@Override
+	public PointTrack getInactive(int index) {
+		return tracker.getDormant().get(index).getCookie();
+	}
+
+	/**
+	 * Tracks are never dropped
+	 */
+	@Override
+	public int getTotalDropped() {
+		return 0;
+	}
+
+	@Override
+	public PointTrack getDropped(int index) {
+		throw new IndexOutOfBoundsException("Tracks are never dropped");
+	}
+
+	@Override
+	public int getTotalNew() {
+		return tracker.getSpawned().size();
+	}
+
+	@Override
+	public PointTrack getNew(int index) {
+		return tracker.getSpawned().get(index).getCookie();
+	}
+
 	private void addToList( List<CombinedTrack<Desc>> in , List<PointTrack> out ) {
 		for( int i = 0; i < in.size(); i++ ) {
 			out.add( (PointTrack)in.get(i).getCookie() );
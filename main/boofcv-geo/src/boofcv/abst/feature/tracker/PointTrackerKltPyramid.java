@@ -23,10 +23,14 @@ import boofcv.alg.feature.detect.interest.GeneralFeatureDetector;
 import boofcv.alg.interpolate.InterpolateRectangle;
 import boofcv.alg.tracker.klt.*;
 import boofcv.alg.transform.pyramid.PyramidOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.factory.tracker.FactoryTrackerAlg;
 import boofcv.struct.QueueCorner;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.pyramid.PyramidDiscrete;
 import georegression.struct.point.Point2D_I16;
+import org.ddogleg.struct.GrowQueue_B;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +40,12 @@ import java.util.List;
  * Wrapper around {@link boofcv.alg.tracker.klt.PyramidKltTracker} for {@link PointTracker}.  Every track
  * will have the same size and shaped descriptor.  If any fault is encountered the track will be dropped.
  *
+ * <p>
+ * Optionally, tracks can be updated using multiple threads. Each thread has its own {@link KltTracker} since
+ * it isn't thread safe. The order of active tracks and which tracks are dropped is identical to the single
+ * threaded case.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class PointTrackerKltPyramid<I extends ImageGray<I>,D extends ImageGray<D>>
@@ -69,6 +79,16 @@ public class PointTrackerKltPyramid<I extends ImageGray<I>,D extends ImageGray<D
 
 	// the tracker
 	protected PyramidKltTracker<I, D> tracker;
+	// trackers used when updating tracks.  One for each thread.  The first element is always 'tracker'
+	protected List<PyramidKltTracker<I, D>> trackers = new ArrayList<>();
+	// interpolation used to create a new tracker for each thread
+	protected InterpolateRectangle<I> interpInput;
+	protected InterpolateRectangle<D> interpDeriv;
+
+	// should tracks be updated using multiple threads
+	protected boolean concurrent = false;
+	// indicates if each track in the list passed to trackFeatures() was successfully tracked
+	protected GrowQueue_B trackSuccess = new GrowQueue_B();
 
 	// selects point features
 	private GeneralFeatureDetector<I, D> detector;
@@ -104,9 +124,11 @@ public class PointTrackerKltPyramid<I extends ImageGray<I>,D extends ImageGray<D
 		this.gradient = gradient;
 		this.basePyramid = pyramid;
 		this.derivType = derivType;
+		this.interpInput = interpInput;
+		this.interpDeriv = interpDeriv;
 
-		KltTracker<I, D> klt = new KltTracker<>(interpInput, interpDeriv, config);
-		tracker = new PyramidKltTracker<>(klt);
+		tracker = createTracker(interpInput, interpDeriv);
+		trackers.add(tracker);
 
 		if( detector != null) {
 			if (detector.getRequiresHessian())
@@ -239,29 +261,98 @@ public class PointTrackerKltPyramid<I extends ImageGray<I>,D extends ImageGray<D
 		PyramidOps.gradient(basePyramid, gradient, derivX,derivY);
 
 		// track features
-		tracker.setImage(basePyramid,derivX,derivY);
-		for( int i = 0; i < active.size(); ) {
+		trackFeatures(active);
+
+		// remove tracks which failed while preserving the order of the remaining tracks
+		int numKept = 0;
+		for( int i = 0; i < active.size(); i++ ) {
 			PyramidKltFeature t = active.get(i);
-			KltTrackFault ret = tracker.track(t);
 
-			boolean success = false;
+			if( trackSuccess.data[i] ) {
+				active.set(numKept++, t);
+			} else {
+				dropped.add( t );
+				unused.add( t );
+			}
+		}
+		while( active.size() > numKept )
+			active.remove(active.size()-1);
+	}
 
-			if( ret == KltTrackFault.SUCCESS ) {
-				// discard a track if its center drifts outside the image.
-				if( image.isInBounds((int)t.x,(int)t.y) && tracker.setDescription(t) ) {
-					PointTrack p = t.getCookie();
-					p.set(t.x,t.y);
-					i++;
-					success = true;
+	/**
+	 * Tracks each feature in the list and records if it was successful or not in {@link #trackSuccess}.  If
+	 * concurrent is enabled then the features are split up between threads.  Does not modify the list.
+	 *
+	 * @param features List of features which are to be tracked
+	 */
+	protected void trackFeatures( final List<PyramidKltFeature> features ) {
+		trackSuccess.resize(features.size());
+
+		if( concurrent ) {
+			for (int i = 0; i < trackers.size(); i++) {
+				trackers.get(i).setImage(basePyramid,derivX,derivY);
+			}
+			BoofConcurrency.loopBlocks(0, features.size(), trackers, new IntRangeObjectConsumer<PyramidKltTracker<I, D>>() {
+				@Override
+				public void accept(PyramidKltTracker<I, D> tracker, int minInclusive, int maxExclusive) {
+					for (int i = minInclusive; i < maxExclusive; i++) {
+						trackSuccess.data[i] = trackFeature(tracker, features.get(i));
+					}
 				}
+			});
+		} else {
+			tracker.setImage(basePyramid,derivX,derivY);
+			for (int i = 0; i < features.size(); i++) {
+				trackSuccess.data[i] = trackFeature(tracker, features.get(i));
 			}
+		}
+	}
 
-			if( !success ) {
-				active.remove(i);
-				dropped.add( t );
-				unused.add( t );
+	/**
+	 * Updates the location and description of a single feature.  Can be called from multiple threads at
+	 * once, so it must only modify the feature and the tracker.
+	 *
+	 * @param tracker Tracker which is to be used with this feature
+	 * @param t The feature being tracked
+	 * @return true if the track was successfully updated and should be kept
+	 */
+	protected boolean trackFeature( PyramidKltTracker<I, D> tracker , PyramidKltFeature t ) {
+		KltTrackFault ret = tracker.track(t);
+
+		if( ret == KltTrackFault.SUCCESS ) {
+			// discard a track if its center drifts outside the image.
+			if( input.isInBounds((int)t.x,(int)t.y) && tracker.setDescription(t) ) {
+				PointTrack p = t.getCookie();
+				p.set(t.x,t.y);
+				return true;
 			}
 		}
+		return false;
+	}
+
+	/**
+	 * Specifies if tracks should be updated using multiple threads.  One {@link KltTracker} is created for
+	 * each thread.
+	 *
+	 * @param concurrent true for multiple threads or false for a single thread
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		int numThreads = concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		while( trackers.size() < numThreads ) {
+			trackers.add(createTracker(interpInput.copy(), interpDeriv.copy()));
+		}
+	}
+
+	private PyramidKltTracker<I, D> createTracker( InterpolateRectangle<I> interpInput ,
+												   InterpolateRectangle<D> interpDeriv ) {
+		Class<I> imageType = basePyramid.getImageType().getImageClass();
+		KltTracker<I, D> klt = FactoryTrackerAlg.klt(config, interpInput, interpDeriv, imageType, derivType);
+		return new PyramidKltTracker<>(klt);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	protected void declareOutput() {
@@ -335,6 +426,59 @@ public class PointTrackerKltPyramid<I extends ImageGray<I>,D extends ImageGray<D
 		return getActiveTracks(list);
 	}
 
+	@Override
+	public int getTotalAll() {
+		return getTotalActive();
+	}
+
+	@Override
+	public PointTrack getAll(int index) {
+		return getActive(index);
+	}
+
+	@Override
+	public int getTotalActive() {
+		return active.size();
+	}
+
+	@Override
+	public PointTrack getActive(int index) {
+		return active.get(index).getCookie();
+	}
+
+	/**
+	 * KLT does not have inactive tracks since all tracks are dropped if a problem occurs.
+	 */
+	@Override
+	public int getTotalInactive() {
+		return 0;
+	}
+
+	@Override
+	public PointTrack getInactive(int index) {
+		throw new IndexOutOfBoundsException("There are no inactive tracks");
+	}
+
+	@Override
+	public int getTotalDropped() {
+		return dropped.size();
+	}
+
+	@Override
+	public PointTrack getDropped(int index) {
+		return dropped.get(index).getCookie();
+	}
+
+	@Override
+	public int getTotalNew() {
+		return spawned.size();
+	}
+
+	@Override
+	public PointTrack getNew(int index) {
+		return spawned.get(index).getCookie();
+	}
+
 	protected void addToList( List<PyramidKltFeature> in , List<PointTrack> out ) {
 		for( PyramidKltFeature t : in ) {
 			out.add( (PointTrack)t.cookie );
@@ -84,6 +84,56 @@ public class PointTrackerToTwoPass<T extends ImageBase<T>>
 		return tracker.getNewTracks(list);
 	}
 
+	@Override
+	public int getTotalAll() {
+		return tracker.getTotalAll();
+	}
+
+	@Override
+	public PointTrack getAll(int index) {
+		return tracker.getAll(index);
+	}
+
+	@Override
+	public int getTotalActive() {
+		return tracker.getTotalActive();
+	}
+
+	@Override
+	public PointTrack getActive(int index) {
+		return tracker.getActive(index);
+	}
+
+	@Override
+	public int getTotalInactive() {
+		return tracker.getTotalInactive();
+	}
+
+	@Override
+	public PointTrack getInactive(int index) {
+		return tracker.getInactive(index);
+	}
+
+	@Override
+	public int getTotalDropped() {
+		return tracker.getTotalDropped();
+	}
+
+	@Override
+	public PointTrack getDropped(int index) {
+		return tracker.getDropped(index);
+	}
+
+	@Override
+	public int getTotalNew() {
+		return tracker.getTotalNew();
+	}
+
+	@Override
+	public PointTrack getNew(int index) {
+		return tracker.getNew(index);
+	}
+
 	@Override
 	public void spawnTracks() {
 		tracker.spawnTracks();
@@ -24,6 +24,7 @@ import boofcv.alg.interpolate.InterpolateRectangle;
 import boofcv.alg.tracker.klt.KltConfig;
 import boofcv.alg.tracker.klt.KltTrackFault;
 import boofcv.alg.tracker.klt.PyramidKltFeature;
+import boofcv.alg.tracker.klt.PyramidKltTracker;
 import boofcv.alg.transform.pyramid.PyramidOps;
 import boofcv.misc.BoofMiscOps;
 import boofcv.struct.image.ImageGray;
@@ -82,27 +83,7 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageGray<I>,D extends Imag
 		candidateDrop.clear();
 		active.clear();
 
-		tracker.setImage(basePyramid,derivX,derivY);
-		for( int i = 0; i < originalActive.size(); i++ ) {
-			PyramidKltFeature t = originalActive.get(i);
-			KltTrackFault ret = tracker.track(t);
-
-			boolean success = false;
-
-			if( ret == KltTrackFault.SUCCESS ) {
-				// discard a track if its center drifts outside the image.
-				if( BoofMiscOps.checkInside(input, t.x, t.y)) {
-					active.add(t);
-					PointTrack p = t.getCookie();
-					p.set(t.x,t.y);
-					success = true;
-				}
-			}
-
-			if( !success ) {
-				candidateDrop.add(t);
-			}
-		}
+		trackOriginalActive();
 	}
 
 	@Override
@@ -110,27 +91,44 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageGray<I>,D extends Imag
 		candidateDrop.clear();
 		active.clear();
 
+		trackOriginalActive();
+	}
+
+	/**
+	 * Tracks all the features in the original active list and sorts them into active and candidate drop lists
+	 */
+	private void trackOriginalActive() {
+		trackFeatures(originalActive);
+
 		for( int i = 0; i < originalActive.size(); i++ ) {
 			PyramidKltFeature t = originalActive.get(i);
-			KltTrackFault ret = tracker.track(t);
-
-			boolean success = false;
-
-			if( ret == KltTrackFault.SUCCESS ) {
-				// discard a track if its center drifts outside the image.
-				if(BoofMiscOps.checkInside(input, t.x, t.y)) {
-					active.add(t);
-					PointTrack p = t.getCookie();
-					p.set(t.x,t.y);
-					success = true;
-				}
-			}
-			if( !success) {
+
+			if( trackSuccess.data[i] ) {
+				active.add(t);
+			} else {
 				candidateDrop.add(t);
 			}
 		}
 	}
 
+	/**
+	 * The description isn't updated until {@link #finishTracking()} is called
+	 */
+	@Override
+	protected boolean trackFeature(PyramidKltTracker<I, D> tracker, PyramidKltFeature t) {
+		KltTrackFault ret = tracker.track(t);
+
+		if( ret == KltTrackFault.SUCCESS ) {
+			// discard a track if its center drifts outside the image.
+			if( BoofMiscOps.checkInside(input, t.x, t.y)) {
+				PointTrack p = t.getCookie();
+				p.set(t.x,t.y);
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void finishTracking() {
 		for( int i = 0; i < active.size(); ) {
@@ -170,4 +168,14 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageGray<I>,D extends Imag
 
 		return list;
 	}
+
+	@Override
+	public int getTotalAll() {
+		return finishedTracking ? active.size() : originalActive.size();
+	}
+
+	@Override
+	public PointTrack getAll(int index) {
+		return finishedTracking ? active.get(index).<PointTrack>getCookie() : originalActive.get(index).<PointTrack>getCookie();
+	}
 }
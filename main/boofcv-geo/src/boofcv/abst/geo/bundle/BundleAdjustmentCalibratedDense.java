@@ -65,6 +65,9 @@ public class BundleAdjustmentCalibratedDense
 		int numPoints = initialModel.getNumPoints();
 		int numViewsUnknown = initialModel.getNumUnknownViews();
 
+		if( initialModel.getNumUnknownPoints() != numPoints )
+			throw new IllegalArgumentException("Known points are not supported.  Use BundleAdjustmentCalibratedSparse");
+
 		codec.configure(numViews,numPoints,numViewsUnknown,initialModel.getKnownArray());
 		
 		if( param.length < codec.getParamLength() )
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.bundle.CalibPoseAndPointSchurLM;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+
+import java.util.List;
+
+/**
+ * Bundle adjustment which takes advantage of the problem's sparse structure.  Memory usage is proportional
+ * to the number of observations, allowing it to be applied to problems with a large number of views and
+ * points.  Known views and known points are not modified. See {@link CalibPoseAndPointSchurLM}.
+ *
+ * {@link #process} returns true whenever the model was refined, even if the iteration limit was reached
+ * before it converged.  Use {@link #isConverged()} to see if it converged.
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse
+		implements BundleAdjustmentCalibrated
+{
+	CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+
+	int maxIterations;
+	double convergenceTol;
+
+	// true if the most recent call to process converged
+	boolean converged;
+
+	/**
+	 * Configures bundle adjustment
+	 *
+	 * @param convergenceTol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 */
+	public BundleAdjustmentCalibratedSparse(double convergenceTol,
+											int maxIterations ) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		alg.configure(initialModel,observations);
+		converged = alg.process(maxIterations, convergenceTol, convergenceTol*observations.size());
+
+		// the model is refined unless the initial cost wasn't finite
+		double fx = alg.getFunctionValue();
+		return !(Double.isNaN(fx) || Double.isInfinite(fx));
+	}
+
+	/**
+	 * True if the most recent call to {@link #process} converged.  False if it stopped because of the
+	 * iteration limit or the step could not be improved.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * If true then computations are split up between multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		alg.setConcurrent(concurrent);
+	}
+
+	public CalibPoseAndPointSchurLM getAlgorithm() {
+		return alg;
+	}
+}
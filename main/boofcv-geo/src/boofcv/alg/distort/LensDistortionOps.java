@@ -34,6 +34,7 @@ import boofcv.struct.calib.CameraUniversalOmni;
 import boofcv.struct.distort.PixelTransform2_F32;
 import boofcv.struct.distort.PixelTransform2_F64;
 import boofcv.struct.distort.Point2Transform2_F32;
+import boofcv.struct.distort.RemapTable;
 import boofcv.struct.distort.SequencePoint2Transform2_F32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -87,6 +88,25 @@ public class LensDistortionOps {
 		return distort;
 	}
 
+	/**
+	 * Creates a {@link RemapTable} for modifying the input image from one camera model into another camera model.
+	 * Same as {@link #changeCameraModel} but the table can be saved, shared between threads, and rendered with
+	 * {@link RemapTableRender}.
+	 *
+	 * @param type How it should modify the image model to ensure visibility of pixels.
+	 * @param original The original camera model
+	 * @param desired The desired camera model.  The table will have the same shape as this image.
+	 * @param modified (Optional) The desired camera model after being rescaled.  Can be null.
+	 * @return Location of each pixel in the desired image inside the original image
+	 */
+	public static <O extends CameraPinhole, D extends CameraPinhole>
+	RemapTable changeCameraModelTable(AdjustmentType type, O original, D desired, D modified)
+	{
+		Point2Transform2_F32 undistToDist = transformChangeModel_F32(type, original, desired, true, modified);
+
+		return RemapTable.create(new PointToPixelTransform_F32(undistToDist), desired.width, desired.height);
+	}
+
 	/**
 	 * Creates a {@link Point2Transform2_F32} for converting pixels from original camera model into a new synthetic
 	 * model.  The scaling of the image can be adjusted to ensure certain visibility requirements.
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.spherical;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.Planar;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Precomputed look up table used by {@link MultiCameraToEquirectangular} to render an equirectangular image
+ * from a static camera rig.  For each pixel in the equirectangular image it contains a list of camera pixels which
+ * contribute to it and their weights.  Rendering is then a gather operation with bilinear interpolation, avoiding
+ * the transform chain and mask blending that are otherwise done every frame.
+ * </p>
+ *
+ * <p>
+ * Storage is compact and uses fixed point.  Entries for each output pixel are stored consecutively.
+ * Each entry takes {@link #BYTES_PER_ENTRY} bytes: the integer pixel coordinate in the camera image as two
+ * unsigned shorts, the fractional part of each coordinate in 1/256 of a pixel, the weight as an unsigned 16-bit
+ * fraction, and the index of the camera.  Camera images can be at most 65535 pixels wide or tall and there can
+ * be at most 256 cameras.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class EquirectangularBakedMap {
+	/** Number of bytes used to store each entry */
+	public static final int BYTES_PER_ENTRY = 9;
+
+	/** Shape of the equirectangular image */
+	public int equiWidth, equiHeight;
+
+	/** Shape of each camera's image */
+	public int[] cameraWidth, cameraHeight;
+
+	/** Index of the first entry for each output pixel. Has equiWidth*equiHeight+1 elements */
+	public int[] offsets;
+
+	/** Integer pixel coordinate in the camera image */
+	public short[] x0, y0;
+	/** Fractional part of the pixel coordinate in 1/256 of a pixel */
+	public byte[] fracX, fracY;
+	/** Weight of the entry as a fraction of 65535 */
+	public short[] weight;
+	/** Which camera the entry is from */
+	public byte[] camera;
+
+	// if true the rendering will be done using multiple threads
+	private boolean concurrent;
+
+	/**
+	 * Allocates storage for the map
+	 *
+	 * @param numCameras Number of cameras in the rig
+	 * @param numEntries Total number of entries
+	 */
+	public EquirectangularBakedMap(int equiWidth, int equiHeight, int numCameras, int numEntries) {
+		if( numCameras > 256 )
+			throw new IllegalArgumentException("At most 256 cameras are supported");
+		this.equiWidth = equiWidth;
+		this.equiHeight = equiHeight;
+		cameraWidth = new int[numCameras];
+		cameraHeight = new int[numCameras];
+		offsets = new int[equiWidth*equiHeight+1];
+		x0 = new short[numEntries];
+		y0 = new short[numEntries];
+		fracX = new byte[numEntries];
+		fracY = new byte[numEntries];
+		weight = new short[numEntries];
+		camera = new byte[numEntries];
+	}
+
+	/**
+	 * Estimates the number of bytes a map will take up
+	 *
+	 * @param numEntries Total number of camera pixels which contribute to the output
+	 */
+	public static long estimateBytes( int equiWidth , int equiHeight , long numEntries ) {
+		return 4L*(equiWidth*(long)equiHeight+1) + BYTES_PER_ENTRY*numEntries;
+	}
+
+	/**
+	 * Sets the value of an entry
+	 *
+	 * @param x Pixel coordinate in the camera image.  Must be inside the image.  Negative values are clamped to zero.
+	 * @param y Pixel coordinate in the camera image.  Must be inside the image.  Negative values are clamped to zero.
+	 * @param w Weight from 0 to 1
+	 */
+	public void setEntry( int index , int cameraIndex , float x , float y , float w ) {
+		x = Math.max(0, x);
+		y = Math.max(0, y);
+		int ix = (int)x, iy = (int)y;
+		int fx = (int)((x-ix)*256f+0.5f);
+		int fy = (int)((y-iy)*256f+0.5f);
+		// rounding can push the fraction into the next pixel
+		if( fx == 256 ) { ix++; fx = 0; }
+		if( fy == 256 ) { iy++; fy = 0; }
+
+		x0[index] = (short)ix;
+		y0[index] = (short)iy;
+		fracX[index] = (byte)fx;
+		fracY[index] = (byte)fy;
+		weight[index] = (short)(int)(w*65535f+0.5f);
+		camera[index] = (byte)cameraIndex;
+	}
+
+	/**
+	 * Renders the equirectangular image
+	 *
+	 * @param cameraImages Images from each camera, in the same order as the cameras.
+	 * @param output (Output) The rendered image.  Must be equiWidth by equiHeight.
+	 */
+	public <T extends ImageBase<T>> void render( List<T> cameraImages , T output ) {
+		if( cameraImages.size() != getTotalCameras() )
+			throw new IllegalArgumentException("Input camera image count doesn't equal the expected number");
+		if( output.width != equiWidth || output.height != equiHeight )
+			throw new IllegalArgumentException("Output image has an unexpected shape");
+		for (int i = 0; i < cameraImages.size(); i++) {
+			T image = cameraImages.get(i);
+			if( image.width != cameraWidth[i] || image.height != cameraHeight[i] )
+				throw new IllegalArgumentException("Camera "+i+" image has an unexpected shape");
+		}
+
+		if( output instanceof GrayF32 ) {
+			GrayF32[] images = cameraImages.toArray(new GrayF32[cameraImages.size()]);
+			renderRows((GrayF32)output, images);
+		} else if( output instanceof Planar ) {
+			Planar<?> planar = (Planar)output;
+			if( planar.getBandType() != GrayF32.class )
+				throw new IllegalArgumentException("Only GrayF32 bands are supported");
+			GrayF32[] images = new GrayF32[cameraImages.size()];
+			for (int band = 0; band < planar.getNumBands(); band++) {
+				for (int i = 0; i < images.length; i++) {
+					images[i] = (GrayF32)((Planar)cameraImages.get(i)).getBand(band);
+				}
+				renderRows((GrayF32)planar.getBand(band), images);
+			}
+		} else if( output instanceof InterleavedF32 ) {
+			InterleavedF32[] images = cameraImages.toArray(new InterleavedF32[cameraImages.size()]);
+			renderRows((InterleavedF32)output, images);
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+output.getClass().getSimpleName());
+		}
+	}
+
+	private void renderRows( final GrayF32 output , final GrayF32[] images ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, equiHeight, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					renderRows(output, images, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			renderRows(output, images, 0, equiHeight);
+		}
+	}
+
+	private void renderRows( final InterleavedF32 output , final InterleavedF32[] images ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, equiHeight, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					renderRows(output, images, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			renderRows(output, images, 0, equiHeight);
+		}
+	}
+
+	private void renderRows( GrayF32 output , GrayF32[] images , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexOut = output.startIndex + y*output.stride;
+			int pixel = y*equiWidth;
+			for (int x = 0; x < equiWidth; x++, pixel++ ) {
+				float sum = 0;
+				for (int i = offsets[pixel]; i < offsets[pixel+1]; i++) {
+					GrayF32 image = images[camera[i] & 0xFF];
+					int px = x0[i] & 0xFFFF, py = y0[i] & 0xFFFF;
+					float ax = (fracX[i] & 0xFF)/256f;
+					float ay = (fracY[i] & 0xFF)/256f;
+					// the next pixel is clamped at the image border
+					int dx = px+1 < image.width ? 1 : 0;
+					int dy = py+1 < image.height ? image.stride : 0;
+
+					int index = image.startIndex + py*image.stride + px;
+					float[] data = image.data;
+					float v = (1f-ay)*((1f-ax)*data[index] + ax*data[index+dx]) +
+							ay*((1f-ax)*data[index+dy] + ax*data[index+dy+dx]);
+
+					sum += v*(weight[i] & 0xFFFF)/65535f;
+				}
+				output.data[indexOut++] = sum;
+			}
+		}
+	}
+
+	private void renderRows( InterleavedF32 output , InterleavedF32[] images , int row0 , int row1 ) {
+		int numBands = output.numBands;
+		float[] sum = new float[numBands];
+
+		for (int y = row0; y < row1; y++) {
+			int indexOut = output.startIndex + y*output.stride;
+			int pixel = y*equiWidth;
+			for (int x = 0; x < equiWidth; x++, pixel++ ) {
+				for (int band = 0; band < numBands; band++) {
+					sum[band] = 0;
+				}
+				for (int i = offsets[pixel]; i < offsets[pixel+1]; i++) {
+					InterleavedF32 image = images[camera[i] & 0xFF];
+					int px = x0[i] & 0xFFFF, py = y0[i] & 0xFFFF;
+					float ax = (fracX[i] & 0xFF)/256f;
+					float ay = (fracY[i] & 0xFF)/256f;
+					float w = (weight[i] & 0xFFFF)/65535f;
+					int dx = px+1 < image.width ? numBands : 0;
+					int dy = py+1 < image.height ? image.stride : 0;
+
+					int index = image.startIndex + py*image.stride + px*numBands;
+					float[] data = image.data;
+					for (int band = 0; band < numBands; band++, index++) {
+						float v = (1f-ay)*((1f-ax)*data[index] + ax*data[index+dx]) +
+								ay*((1f-ax)*data[index+dy] + ax*data[index+dy+dx]);
+						sum[band] += v*w;
+					}
+				}
+				for (int band = 0; band < numBands; band++) {
+					output.data[indexOut++] = sum[band];
+				}
+			}
+		}
+	}
+
+	public int getTotalCameras() {
+		return cameraWidth.length;
+	}
+
+	public int getTotalEntries() {
+		return camera.length;
+	}
+
+	/**
+	 * Number of bytes used to store the map
+	 */
+	public long getBytes() {
+		return estimateBytes(equiWidth, equiHeight, getTotalEntries());
+	}
+
+	/**
+	 * If true the rendering will be done using multiple threads
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
@@ -45,9 +45,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * <p>
  * Fuses information from multiple camera to create a single equirectangular image.  Each image
  * is rendered independently and added to the output image, but weighted by the mask.  The mask
  * describes the region of pixels in the equirectangular image which it represents.
+ * </p>
+ *
+ * <p>
+ * If the camera rig is static then the transforms and masks are the same every frame.  Calling {@link #bake()}
+ * precomputes them into a {@link EquirectangularBakedMap} and all future calls to {@link #render} will use it
+ * instead of {@link ImageDistort}.  The baked map always uses bilinear interpolation.  It can be saved to disk and
+ * provided later with {@link #setBakedMap} to avoid recomputing it.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -65,6 +74,11 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 
 	private ImageDistort<T,T> distort;
 
+	// precomputed look up table for rendering.  null if it hasn't been baked
+	private EquirectangularBakedMap bakedMap;
+	// if true the baked map will be rendered using multiple threads
+	private boolean concurrent;
+
 	// how close two spherical coordinates need to be to be considered a match when doing back and forth validation
 	// in radians
 	private float maskToleranceAngle = UtilAngle.radian(0.1f);
@@ -141,7 +155,8 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 				}
 			}
 		}
-		cameras.add( new Camera(equiMask, transformEquiToCam));
+		cameras.add( new Camera(equiMask, transformEquiToCam, width, height));
+		bakedMap = null;
 	}
 
 	/**
@@ -197,7 +212,8 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 			}
 		}
 
-		cameras.add( new Camera(equiMask, transformEquiToCam));
+		cameras.add( new Camera(equiMask, transformEquiToCam, width, height));
+		bakedMap = null;
 	}
 
 	/**
@@ -207,6 +223,10 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 	 * @param cameraImages List of camera images
 	 */
 	public void render( List<T> cameraImages ) {
+		if( bakedMap != null ) {
+			bakedMap.render(cameraImages, averageImage);
+			return;
+		}
 		if( cameraImages.size() != cameras.size())
 			throw new IllegalArgumentException("Input camera image count doesn't equal the expected number");
 
@@ -239,6 +259,109 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 		return averageImage;
 	}
 
+	/**
+	 * Precomputes the source pixel and weight of every camera pixel which contributes to the equirectangular
+	 * image.  After this function has been called {@link #render} will use the baked map.  Adding another camera
+	 * discards the baked map.
+	 *
+	 * @return The baked map
+	 */
+	public EquirectangularBakedMap bake() {
+		int N = equiWidth*equHeight;
+
+		int totalEntries = 0;
+		for (int i = 0; i < cameras.size(); i++) {
+			totalEntries += countMaskPixels(cameras.get(i).mask);
+		}
+
+		EquirectangularBakedMap map = new EquirectangularBakedMap(equiWidth,equHeight,cameras.size(),totalEntries);
+		for (int i = 0; i < cameras.size(); i++) {
+			Camera c = cameras.get(i);
+			if( c.width > 0xFFFF || c.height > 0xFFFF )
+				throw new IllegalArgumentException("Camera images are too large to bake");
+			map.cameraWidth[i] = c.width;
+			map.cameraHeight[i] = c.height;
+		}
+
+		int entry = 0;
+		for (int row = 0, pixel = 0; row < equHeight; row++) {
+			for (int col = 0; col < equiWidth; col++, pixel++) {
+				map.offsets[pixel] = entry;
+
+				// same as the weight used in render()
+				float totalWeight = 1e-4f;
+				for (int i = 0; i < cameras.size(); i++) {
+					totalWeight += cameras.get(i).mask.data[pixel];
+				}
+
+				for (int i = 0; i < cameras.size(); i++) {
+					Camera c = cameras.get(i);
+					float w = c.mask.data[pixel];
+					if( w <= 0 )
+						continue;
+					c.equiToCamera.compute(col,row);
+					map.setEntry(entry++, i, c.equiToCamera.distX, c.equiToCamera.distY, w/totalWeight);
+				}
+			}
+		}
+		map.offsets[N] = entry;
+
+		setBakedMap(map);
+		return map;
+	}
+
+	/**
+	 * Estimates how many bytes {@link #bake()} will need to store the baked map
+	 */
+	public long estimateBakedBytes() {
+		long totalEntries = 0;
+		for (int i = 0; i < cameras.size(); i++) {
+			totalEntries += countMaskPixels(cameras.get(i).mask);
+		}
+		return EquirectangularBakedMap.estimateBytes(equiWidth,equHeight,totalEntries);
+	}
+
+	private static int countMaskPixels( GrayF32 mask ) {
+		int total = 0;
+		for (int i = 0; i < mask.data.length; i++) {
+			if( mask.data[i] > 0 )
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Specifies a previously baked map, e.g. one loaded from disk.  The cameras don't need to be added when a
+	 * baked map is used.
+	 *
+	 * @param bakedMap The baked map.  If null then the baked map is discarded and {@link ImageDistort} is used.
+	 */
+	public void setBakedMap( EquirectangularBakedMap bakedMap ) {
+		if( bakedMap != null ) {
+			if( bakedMap.equiWidth != equiWidth || bakedMap.equiHeight != equHeight )
+				throw new IllegalArgumentException("Baked map has a different equirectangular image shape");
+			bakedMap.setConcurrent(concurrent);
+		}
+		this.bakedMap = bakedMap;
+	}
+
+	public EquirectangularBakedMap getBakedMap() {
+		return bakedMap;
+	}
+
+	/**
+	 * If true then the baked map will be rendered using multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		if( bakedMap != null )
+			bakedMap.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
 
 	/**
 	 * Returns the mask for a specific camera
@@ -268,9 +391,14 @@ public class MultiCameraToEquirectangular<T extends ImageBase<T>> {
 
 		PixelTransform2_F32 equiToCamera;
 
-		public Camera(GrayF32 mask, PixelTransform2_F32 equiToCamera) {
+		// shape of the camera's image
+		int width, height;
+
+		public Camera(GrayF32 mask, PixelTransform2_F32 equiToCamera, int width, int height) {
 			this.mask = mask;
 			this.equiToCamera = equiToCamera;
+			this.width = width;
+			this.height = height;
 		}
 	}
 
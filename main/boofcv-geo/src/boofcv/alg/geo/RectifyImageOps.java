@@ -34,6 +34,7 @@ import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.distort.Point2Transform2_F32;
 import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.distort.RemapTable;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
@@ -427,4 +428,20 @@ public class RectifyImageOps {
 		return ret;
 	}
 
+	/**
+	 * Creates a {@link RemapTable} for rectifying an image given its radial distortion and rectification matrix.
+	 * The table can be saved, shared between threads, and rendered with
+	 * {@link boofcv.alg.distort.RemapTableRender}.
+	 *
+	 * @param param Intrinsic parameters.  The table will have the same shape as the image.
+	 * @param rectify Transform for rectifying the image.
+	 * @return Location of each pixel in the rectified image inside the distorted image
+	 */
+	public static RemapTable rectifyTable(CameraPinholeRadial param, FMatrixRMaj rectify )
+	{
+		Point2Transform2_F32 transform = transformRectToPixel(param, rectify);
+
+		return RemapTable.create(new PointToPixelTransform_F32(transform), param.width, param.height);
+	}
+
 }
@@ -0,0 +1,1299 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition;
+import org.ejml.interfaces.linsol.LinearSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Sparse Levenberg-Marquardt bundle adjustment for calibrated cameras.  The same cost function as
+ * {@link CalibPoseAndPointResiduals} is minimized, but the Jacobian is never stored as a dense matrix.  Instead
+ * each observation stores its 2x6 partial for the view's pose and its 2x3 partial for the point. The normal
+ * equations then have the following block structure:
+ * </p>
+ * <pre>
+ * [ U   W ] [ dc ]   [ -gc ]
+ * [ W'  V ] [ dp ] = [ -gp ]
+ * </pre>
+ * <p>
+ * U is block diagonal with a 6x6 block for each view, V is block diagonal with a 3x3 block for each point, and W has
+ * one 6x3 block for each observation.  Points are eliminated using the Schur complement to create the reduced
+ * camera system (U - W*inv(V)*W')*dc = -gc + W*inv(V)*gp. Once solved, the change in each point is found by back
+ * substitution.
+ * </p>
+ *
+ * <p>
+ * If the reduced camera system is small it's constructed explicitly and solved using Cholesky decomposition. Otherwise
+ * it's solved using block-Jacobi preconditioned conjugate gradient, which only requires multiplication by the reduced
+ * system and is done directly from the blocks. All storage is proportional to the number of observations.
+ * </p>
+ *
+ * <p>
+ * Views and points which are marked as known in {@link CalibratedPoseAndPoint} are not modified.  Residuals, the
+ * Jacobian, and each block operation can be computed using multiple threads.  Results are identical with and without
+ * threads.
+ * </p>
+ *
+ * <p>
+ * Observations can be made by additional cameras which are rigidly attached to a view, such as the right camera
+ * in a stereo pair.  These cameras share the view's parameters.  See {@link #setViewToCamera}.
+ * </p>
+ *
+ * <p>
+ * Rotations are parametrized using {@link Rodrigues_F64} coordinates.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointSchurLM {
+
+	// initial value of the dampening parameter
+	private double initialDampParam = 1e-3;
+	// current dampening parameter
+	private double lambda;
+
+	// if there are more camera parameters than this the reduced system is solved iteratively
+	private int maxDenseCameraParam = 600;
+	// conjugate gradient stopping conditions
+	private int maxConjugateIterations = 500;
+	private double conjugateTol = 1e-12;
+
+	// should the computations be done using multiple threads
+	private boolean concurrent = false;
+
+	// Stop iterating after this amount of time has elapsed.  Nanoseconds.  If &le; 0 then there is no limit
+	private long maxTimeNano = 0;
+
+	// rigid transforms from a view to additional cameras.  3x3 rotation and translation for each, row-major
+	private int numExtraCameras = 0;
+	private double[] extraR = new double[0], extraT = new double[0];
+
+	// the model being optimized
+	private CalibratedPoseAndPoint model;
+
+	private int numViews, numPoints;
+	// number of parameters for all the unknown views and points
+	private int numCameraParam, numPointParam;
+	// index of a view's or point's first parameter. -1 if it's known
+	private int[] viewParam = new int[0];
+	private int[] pointParam = new int[0];
+
+	// observations in the same order as they were provided, grouped by view
+	private int numObs;
+	private int[] viewObsStart = new int[0];
+	private int[] obsView = new int[0];
+	private int[] obsPoint = new int[0];
+	// which camera made the observation.  0 is the view
+	private int[] obsCamera = new int[0];
+	private double[] obsXY = new double[0];
+	// observations of each point
+	private int[] pointObsStart = new int[0];
+	private int[] pointObs = new int[0];
+
+	// current and candidate parameters
+	private double[] cam = new double[0], pts = new double[0];
+	private double[] camCandidate = new double[0], ptsCandidate = new double[0];
+
+	// current and candidate residuals, and their cost
+	private double[] residuals = new double[0], residualsCandidate = new double[0];
+	private double fx;
+
+	// partial for each observation.  2x6 for the view and 2x3 for the point.  Row-major
+	private double[] jacCam = new double[0], jacPoint = new double[0];
+	// W = Jc'*Jp for each observation, 6x3
+	private double[] W = new double[0];
+
+	// blocks in the normal equations and the gradient
+	private double[] U = new double[0], V = new double[0];
+	private double[] gc = new double[0], gp = new double[0];
+	// inverse of the damped V blocks
+	private double[] Vinv = new double[0];
+
+	// solution
+	private double[] deltaCam = new double[0], deltaPts = new double[0];
+	// right hand side of the reduced camera system
+	private double[] b = new double[0];
+
+	// storage for the dense reduced camera system
+	private DMatrixRMaj S = new DMatrixRMaj(1,1);
+	private DMatrixRMaj denseB = new DMatrixRMaj(1,1);
+	private DMatrixRMaj denseX = new DMatrixRMaj(1,1);
+	private LinearSolver<DMatrixRMaj> solverS = LinearSolverFactory_DDRM.chol(100);
+
+	// storage for conjugate gradient
+	private double[] cgR = new double[0], cgZ = new double[0], cgP = new double[0], cgQ = new double[0];
+	// inverse of each 6x6 diagonal block in the reduced system
+	private double[] Minv = new double[0];
+	// inv(V)*W'*x for each point
+	private double[] pointTmp = new double[0];
+
+	// indicates if processing a block failed
+	private boolean[] failed = new boolean[0];
+
+	// storage for each thread
+	private List<Workspace> workspaces = new ArrayList<>();
+
+	// used to make sure the rotation matrix is in SO(3)
+	private SingularValueDecomposition<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3, true, true, false);
+	private DMatrixRMaj R = new DMatrixRMaj(3,3);
+	private Rodrigues_F64 rodrigues = new Rodrigues_F64();
+
+	// number of iterations in the last call to process
+	private int iterations;
+
+	public CalibPoseAndPointSchurLM() {
+		workspaces.add( new Workspace());
+	}
+
+	/**
+	 * Specifies the model and the observations.  Internal data structures are resized and the model's current
+	 * state is used as the initial estimate.
+	 *
+	 * @param model The model.  Not modified until {@link #process} is called.
+	 * @param observations Observations of points in each view.  Normalized image coordinates.
+	 */
+	public void configure( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		if( observations.size() < model.getNumViews() )
+			throw new IllegalArgumentException("There must be observations for every view");
+
+		this.model = model;
+		numViews = model.getNumViews();
+		numPoints = model.getNumPoints();
+
+		// assign parameters to unknown views and points
+		viewParam = grow(viewParam,numViews);
+		pointParam = grow(pointParam,numPoints);
+		numCameraParam = 0;
+		for (int i = 0; i < numViews; i++) {
+			if( model.isViewKnown(i) ) {
+				viewParam[i] = -1;
+			} else {
+				viewParam[i] = numCameraParam;
+				numCameraParam += 6;
+			}
+		}
+		numPointParam = 0;
+		for (int i = 0; i < numPoints; i++) {
+			if( model.isPointKnown(i) ) {
+				pointParam[i] = -1;
+			} else {
+				pointParam[i] = numPointParam;
+				numPointParam += 3;
+			}
+		}
+
+		// flatten the observations
+		numObs = 0;
+		for (int i = 0; i < numViews; i++) {
+			numObs += observations.get(i).getPoints().size;
+		}
+		viewObsStart = grow(viewObsStart,numViews+1);
+		obsView = grow(obsView,numObs);
+		obsPoint = grow(obsPoint,numObs);
+		obsCamera = grow(obsCamera,numObs);
+		obsXY = grow(obsXY,numObs*2);
+
+		int index = 0;
+		for (int view = 0; view < numViews; view++) {
+			viewObsStart[view] = index;
+			FastQueue<PointIndexObservation> points = observations.get(view).getPoints();
+			for (int i = 0; i < points.size; i++, index++) {
+				PointIndexObservation o = points.get(i);
+				if( o.pointIndex < 0 || o.pointIndex >= numPoints )
+					throw new IllegalArgumentException("Observation references a point which doesn't exist");
+				if( o.camera < 0 || o.camera > numExtraCameras )
+					throw new IllegalArgumentException("Observation references a camera which doesn't exist");
+				obsView[index] = view;
+				obsPoint[index] = o.pointIndex;
+				obsCamera[index] = o.camera;
+				obsXY[index*2  ] = o.obs.x;
+				obsXY[index*2+1] = o.obs.y;
+			}
+		}
+		viewObsStart[numViews] = numObs;
+
+		// find the observations of each point using a counting sort
+		pointObsStart = grow(pointObsStart,numPoints+1);
+		pointObs = grow(pointObs,numObs);
+		for (int i = 0; i <= numPoints; i++) {
+			pointObsStart[i] = 0;
+		}
+		for (int i = 0; i < numObs; i++) {
+			pointObsStart[obsPoint[i]+1]++;
+		}
+		for (int i = 0; i < numPoints; i++) {
+			pointObsStart[i+1] += pointObsStart[i];
+		}
+		int[] fill = new int[numPoints];
+		for (int i = 0; i < numObs; i++) {
+			int p = obsPoint[i];
+			pointObs[pointObsStart[p] + fill[p]++] = i;
+		}
+
+		int numCameras = numCameraParam/6;
+		int numUnknownPoints = numPointParam/3;
+
+		cam = grow(cam,numCameraParam);
+		camCandidate = grow(camCandidate,numCameraParam);
+		pts = grow(pts,numPointParam);
+		ptsCandidate = grow(ptsCandidate,numPointParam);
+		residuals = grow(residuals,numObs*2);
+		residualsCandidate = grow(residualsCandidate,numObs*2);
+		jacCam = grow(jacCam,numObs*12);
+		jacPoint = grow(jacPoint,numObs*6);
+		W = grow(W,numObs*18);
+		U = grow(U,numCameras*36);
+		V = grow(V,numUnknownPoints*9);
+		Vinv = grow(Vinv,numUnknownPoints*9);
+		gc = grow(gc,numCameraParam);
+		gp = grow(gp,numPointParam);
+		deltaCam = grow(deltaCam,numCameraParam);
+		deltaPts = grow(deltaPts,numPointParam);
+		b = grow(b,numCameraParam);
+		failed = new boolean[Math.max(numViews,numPoints)];
+
+		encode();
+	}
+
+	/**
+	 * Refines the model's parameters.  The model is updated with the results.
+	 *
+	 * @param maxIterations Maximum number of iterations
+	 * @param ftol Converges if the relative change in the cost is less than this
+	 * @param gtol Converges if the largest element in the gradient is less than this
+	 * @return true if it converged.  false if it stopped because of the iteration limit, the time limit,
+	 * the step could not be improved, or the initial cost was not finite.  Unless the initial cost was
+	 * not finite the model is always updated with the best estimate found.
+	 */
+	public boolean process( int maxIterations , double ftol , double gtol ) {
+		int numThreads = concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		while( workspaces.size() < numThreads )
+			workspaces.add( new Workspace());
+		while( workspaces.size() > numThreads )
+			workspaces.remove( workspaces.size()-1 );
+
+		long startTime = System.nanoTime();
+		lambda = initialDampParam;
+		fx = computeResiduals(cam,pts,residuals);
+		if( Double.isNaN(fx) || Double.isInfinite(fx) )
+			return false;
+
+		boolean converged = false;
+		boolean computeJacobian = true;
+		for( iterations = 0; iterations < maxIterations; iterations++ ) {
+			if( maxTimeNano > 0 && iterations > 0 && System.nanoTime()-startTime >= maxTimeNano )
+				break;
+			if( computeJacobian ) {
+				computeJacobian = false;
+				computeNormalEquations();
+				if( gradientNorm() <= gtol ) {
+					converged = true;
+					break;
+				}
+			}
+
+			if( computeStep() ) {
+				double fxCandidate = computeResiduals(camCandidate, ptsCandidate, residualsCandidate);
+
+				if( fxCandidate < fx ) {
+					converged = fx - fxCandidate <= ftol*fx;
+
+					double[] tmp = cam; cam = camCandidate; camCandidate = tmp;
+					tmp = pts; pts = ptsCandidate; ptsCandidate = tmp;
+					tmp = residuals; residuals = residualsCandidate; residualsCandidate = tmp;
+					fx = fxCandidate;
+
+					lambda = Math.max(lambda/10.0,1e-20);
+					computeJacobian = true;
+
+					if( converged )
+						break;
+					continue;
+				}
+			}
+
+			// the step failed.  Increase dampening and try again
+			lambda *= 10;
+			if( lambda > 1e30 )
+				break;
+		}
+
+		decode();
+		return converged;
+	}
+
+	/**
+	 * Converts the model into the parameters being optimized
+	 */
+	private void encode() {
+		for (int view = 0; view < numViews; view++) {
+			int index = viewParam[view];
+			if( index < 0 )
+				continue;
+
+			Se3_F64 se = model.getWorldToCamera(view);
+
+			// force the "rotation matrix" to be an exact rotation matrix
+			// otherwise Rodrigues will have issues with the noise
+			if( !svd.decompose(se.getR()) )
+				throw new RuntimeException("SVD failed");
+
+			DMatrixRMaj U = svd.getU(null,false);
+			DMatrixRMaj V = svd.getV(null,false);
+			CommonOps_DDRM.multTransB(U,V,R);
+			ConvertRotation3D_F64.matrixToRodrigues(R,rodrigues);
+
+			cam[index++] = rodrigues.unitAxisRotation.x*rodrigues.theta;
+			cam[index++] = rodrigues.unitAxisRotation.y*rodrigues.theta;
+			cam[index++] = rodrigues.unitAxisRotation.z*rodrigues.theta;
+			cam[index++] = se.T.x;
+			cam[index++] = se.T.y;
+			cam[index  ] = se.T.z;
+		}
+
+		for (int i = 0; i < numPoints; i++) {
+			int index = pointParam[i];
+			if( index < 0 )
+				continue;
+			Point3D_F64 p = model.getPoint(i);
+			pts[index++] = p.x;
+			pts[index++] = p.y;
+			pts[index  ] = p.z;
+		}
+	}
+
+	/**
+	 * Writes the parameters into the model
+	 */
+	private void decode() {
+		for (int view = 0; view < numViews; view++) {
+			int index = viewParam[view];
+			if( index < 0 )
+				continue;
+
+			Se3_F64 se = model.getWorldToCamera(view);
+			rodrigues.setParamVector(cam[index],cam[index+1],cam[index+2]);
+			ConvertRotation3D_F64.rodriguesToMatrix(rodrigues,se.getR());
+			se.T.set(cam[index+3],cam[index+4],cam[index+5]);
+		}
+
+		for (int i = 0; i < numPoints; i++) {
+			int index = pointParam[i];
+			if( index < 0 )
+				continue;
+			model.getPoint(i).set(pts[index],pts[index+1],pts[index+2]);
+		}
+	}
+
+	/**
+	 * Computes the residuals for all observations
+	 *
+	 * @return the cost, 0.5 times the sum of squared residuals
+	 */
+	private double computeResiduals( final double[] cam , final double[] pts , final double[] output ) {
+		BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int view = minInclusive; view < maxExclusive; view++) {
+					work.setView(view,cam,false);
+					for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+						work.project(obsPoint[obs],obsCamera[obs],pts);
+						output[obs*2  ] = work.cameraPt.x/work.cameraPt.z - obsXY[obs*2  ];
+						output[obs*2+1] = work.cameraPt.y/work.cameraPt.z - obsXY[obs*2+1];
+					}
+				}
+			}
+		});
+
+		// summed in a fixed order so that the results don't depend on the number of threads
+		double total = 0;
+		for (int i = 0; i < numObs*2; i++) {
+			total += output[i]*output[i];
+		}
+		return total/2.0;
+	}
+
+	/**
+	 * Computes the Jacobian for every observation and then the blocks in the normal equations
+	 */
+	private void computeNormalEquations() {
+		// Jacobian, U, W, and gc are computed one view at a time
+		BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int view = minInclusive; view < maxExclusive; view++) {
+					computeViewJacobian(work, view);
+				}
+			}
+		});
+
+		// V and gp are computed one point at a time
+		BoofConcurrency.loopBlocks(0, numPoints, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int point = minInclusive; point < maxExclusive; point++) {
+					computePointNormal(point);
+				}
+			}
+		});
+	}
+
+	private void computeViewJacobian( Workspace work , int view ) {
+		int indexView = viewParam[view];
+		boolean unknownView = indexView >= 0;
+		work.setView(view,cam,unknownView);
+
+		int indexU = indexView/6*36;
+		if( unknownView ) {
+			for (int i = 0; i < 36; i++)
+				U[indexU+i] = 0;
+			for (int i = 0; i < 6; i++)
+				gc[indexView+i] = 0;
+		}
+
+		for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+			int point = obsPoint[obs];
+			boolean unknownPoint = pointParam[point] >= 0;
+			work.project(point,obsCamera[obs],pts);
+
+			if( unknownView ) {
+				work.viewJacobian(jacCam, obs*12);
+
+				double rx = residuals[obs*2], ry = residuals[obs*2+1];
+				int indexJ = obs*12;
+				for (int i = 0; i < 6; i++) {
+					double jxi = jacCam[indexJ+i], jyi = jacCam[indexJ+6+i];
+					gc[indexView+i] += jxi*rx + jyi*ry;
+					for (int j = 0; j < 6; j++) {
+						U[indexU+i*6+j] += jxi*jacCam[indexJ+j] + jyi*jacCam[indexJ+6+j];
+					}
+				}
+			}
+
+			if( unknownPoint ) {
+				work.pointJacobian(jacPoint, obs*6);
+
+				if( unknownView ) {
+					int indexJ = obs*12;
+					int indexP = obs*6;
+					int indexW = obs*18;
+					for (int i = 0; i < 6; i++) {
+						double jxi = jacCam[indexJ+i], jyi = jacCam[indexJ+6+i];
+						for (int j = 0; j < 3; j++) {
+							W[indexW++] = jxi*jacPoint[indexP+j] + jyi*jacPoint[indexP+3+j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void computePointNormal( int point ) {
+		int indexPoint = pointParam[point];
+		if( indexPoint < 0 )
+			return;
+		int indexV = indexPoint*3;
+
+		for (int i = 0; i < 9; i++)
+			V[indexV+i] = 0;
+		for (int i = 0; i < 3; i++)
+			gp[indexPoint+i] = 0;
+
+		for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+			int obs = pointObs[k];
+			double rx = residuals[obs*2], ry = residuals[obs*2+1];
+			int indexJ = obs*6;
+			for (int i = 0; i < 3; i++) {
+				double jxi = jacPoint[indexJ+i], jyi = jacPoint[indexJ+3+i];
+				gp[indexPoint+i] += jxi*rx + jyi*ry;
+				for (int j = 0; j < 3; j++) {
+					V[indexV+i*3+j] += jxi*jacPoint[indexJ+j] + jyi*jacPoint[indexJ+3+j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Infinity norm of the gradient
+	 */
+	private double gradientNorm() {
+		double max = 0;
+		for (int i = 0; i < numCameraParam; i++) {
+			max = Math.max(max,Math.abs(gc[i]));
+		}
+		for (int i = 0; i < numPointParam; i++) {
+			max = Math.max(max,Math.abs(gp[i]));
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the damped step and the candidate parameters
+	 *
+	 * @return true if successful or false if a linear system couldn't be solved
+	 */
+	private boolean computeStep() {
+		// invert the damped point blocks
+		BoofConcurrency.loopBlocks(0, numPoints, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int point = minInclusive; point < maxExclusive; point++) {
+					int indexPoint = pointParam[point];
+					failed[point] = indexPoint >= 0 && !invertDamped3(V, Vinv, indexPoint*3);
+				}
+			}
+		});
+		if( anyFailed(numPoints) )
+			return false;
+
+		if( numCameraParam > 0 ) {
+			// right hand side of the reduced camera system
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace work, int minInclusive, int maxExclusive) {
+					for (int view = minInclusive; view < maxExclusive; view++) {
+						computeReducedB(work, view);
+					}
+				}
+			});
+
+			if( numCameraParam <= maxDenseCameraParam ) {
+				if( !solveDense() )
+					return false;
+			} else {
+				if( !solveConjugateGradient() )
+					return false;
+			}
+		}
+
+		// back substitution to find the change in each point
+		BoofConcurrency.loopBlocks(0, numPoints, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int point = minInclusive; point < maxExclusive; point++) {
+					backSubstitute(work, point);
+				}
+			}
+		});
+
+		for (int i = 0; i < numCameraParam; i++) {
+			camCandidate[i] = cam[i] + deltaCam[i];
+		}
+		for (int i = 0; i < numPointParam; i++) {
+			ptsCandidate[i] = pts[i] + deltaPts[i];
+		}
+
+		return true;
+	}
+
+	private boolean anyFailed( int length ) {
+		for (int i = 0; i < length; i++) {
+			if( failed[i] )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * b = -gc + sum W*inv(V)*gp
+	 */
+	private void computeReducedB( Workspace work , int view ) {
+		int indexView = viewParam[view];
+		if( indexView < 0 )
+			return;
+
+		for (int i = 0; i < 6; i++) {
+			b[indexView+i] = -gc[indexView+i];
+		}
+
+		for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+			int indexPoint = pointParam[obsPoint[obs]];
+			if( indexPoint < 0 )
+				continue;
+
+			// inv(V)*gp
+			mult3(Vinv, indexPoint*3, gp, indexPoint, work.vec3);
+
+			int indexW = obs*18;
+			for (int i = 0; i < 6; i++, indexW += 3) {
+				b[indexView+i] += W[indexW]*work.vec3[0] + W[indexW+1]*work.vec3[1] + W[indexW+2]*work.vec3[2];
+			}
+		}
+	}
+
+	/**
+	 * Explicitly constructs the reduced camera system then solves it using Cholesky
+	 */
+	private boolean solveDense() {
+		S.reshape(numCameraParam,numCameraParam);
+
+		BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int view = minInclusive; view < maxExclusive; view++) {
+					computeDenseRow(work, view);
+				}
+			}
+		});
+
+		denseB.reshape(numCameraParam,1);
+		denseX.reshape(numCameraParam,1);
+		System.arraycopy(b,0,denseB.data,0,numCameraParam);
+
+		if( !solverS.setA(S) )
+			return false;
+		solverS.solve(denseB,denseX);
+		System.arraycopy(denseX.data,0,deltaCam,0,numCameraParam);
+
+		for (int i = 0; i < numCameraParam; i++) {
+			if( Double.isNaN(deltaCam[i]) || Double.isInfinite(deltaCam[i]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the rows in S for a single view. S_ik = U*_i - sum W_ij*inv(V_j)*W_kj'
+	 */
+	private void computeDenseRow( Workspace work , int view ) {
+		int indexView = viewParam[view];
+		if( indexView < 0 )
+			return;
+
+		int N = numCameraParam;
+		for (int i = 0; i < 6; i++) {
+			int rowStart = (indexView+i)*N;
+			for (int j = 0; j < N; j++) {
+				S.data[rowStart+j] = 0;
+			}
+		}
+
+		// damped diagonal block
+		int indexU = indexView/6*36;
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 6; j++) {
+				S.data[(indexView+i)*N + indexView+j] = U[indexU+i*6+j];
+			}
+			S.data[(indexView+i)*N + indexView+i] += lambda*dampScale(U[indexU+i*6+i]);
+		}
+
+		double[] T = work.block6x3;
+		for (int obsA = viewObsStart[view]; obsA < viewObsStart[view+1]; obsA++) {
+			int point = obsPoint[obsA];
+			int indexPoint = pointParam[point];
+			if( indexPoint < 0 )
+				continue;
+
+			// T = W_a*inv(V_j)
+			mult6x3_3x3(W, obsA*18, Vinv, indexPoint*3, T);
+
+			for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+				int obsB = pointObs[k];
+				int indexViewB = viewParam[obsView[obsB]];
+				if( indexViewB < 0 )
+					continue;
+
+				// S_ik -= T*W_b'
+				int indexW = obsB*18;
+				for (int i = 0; i < 6; i++) {
+					int rowStart = (indexView+i)*N + indexViewB;
+					double t0 = T[i*3], t1 = T[i*3+1], t2 = T[i*3+2];
+					for (int j = 0; j < 6; j++) {
+						S.data[rowStart+j] -= t0*W[indexW+j*3] + t1*W[indexW+j*3+1] + t2*W[indexW+j*3+2];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves the reduced camera system using conjugate gradient with a block Jacobi preconditioner.  The reduced
+	 * system is never explicitly constructed.
+	 */
+	private boolean solveConjugateGradient() {
+		int N = numCameraParam;
+		cgR = grow(cgR,N);
+		cgZ = grow(cgZ,N);
+		cgP = grow(cgP,N);
+		cgQ = grow(cgQ,N);
+		Minv = grow(Minv,N*6);
+		pointTmp = grow(pointTmp,numPointParam);
+
+		// compute the preconditioner
+		BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int view = minInclusive; view < maxExclusive; view++) {
+					failed[view] = !computePreconditioner(work, view);
+				}
+			}
+		});
+		if( anyFailed(numViews) )
+			return false;
+
+		for (int i = 0; i < N; i++) {
+			deltaCam[i] = 0;
+			cgR[i] = b[i];
+		}
+		double normB = Math.sqrt(dot(b,b,N));
+		if( normB == 0 )
+			return true;
+
+		applyPreconditioner(cgR, cgZ);
+		System.arraycopy(cgZ,0,cgP,0,N);
+		double rz = dot(cgR,cgZ,N);
+
+		for (int iter = 0; iter < maxConjugateIterations; iter++) {
+			multiplyReduced(cgP, cgQ);
+
+			double pq = dot(cgP,cgQ,N);
+			if( pq <= 0 || Double.isNaN(pq) )
+				break;
+			double alpha = rz/pq;
+			for (int i = 0; i < N; i++) {
+				deltaCam[i] += alpha*cgP[i];
+				cgR[i] -= alpha*cgQ[i];
+			}
+
+			if( Math.sqrt(dot(cgR,cgR,N)) <= conjugateTol*normB )
+				break;
+
+			applyPreconditioner(cgR, cgZ);
+			double rzNext = dot(cgR,cgZ,N);
+			double beta = rzNext/rz;
+			rz = rzNext;
+			for (int i = 0; i < N; i++) {
+				cgP[i] = cgZ[i] + beta*cgP[i];
+			}
+		}
+
+		for (int i = 0; i < N; i++) {
+			if( Double.isNaN(deltaCam[i]) || Double.isInfinite(deltaCam[i]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Inverse of the reduced system's diagonal block for the view.  M_i = U*_i - sum W_ij*inv(V_j)*W_ij'
+	 */
+	private boolean computePreconditioner( Workspace work , int view ) {
+		int indexView = viewParam[view];
+		if( indexView < 0 )
+			return true;
+
+		double[] M = work.M.data;
+		int indexU = indexView/6*36;
+		System.arraycopy(U,indexU,M,0,36);
+		for (int i = 0; i < 6; i++) {
+			M[i*6+i] += lambda*dampScale(U[indexU+i*6+i]);
+		}
+
+		double[] T = work.block6x3;
+		for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+			int indexPoint = pointParam[obsPoint[obs]];
+			if( indexPoint < 0 )
+				continue;
+
+			mult6x3_3x3(W, obs*18, Vinv, indexPoint*3, T);
+			int indexW = obs*18;
+			for (int i = 0; i < 6; i++) {
+				double t0 = T[i*3], t1 = T[i*3+1], t2 = T[i*3+2];
+				for (int j = 0; j < 6; j++) {
+					M[i*6+j] -= t0*W[indexW+j*3] + t1*W[indexW+j*3+1] + t2*W[indexW+j*3+2];
+				}
+			}
+		}
+
+		if( !work.solver6.setA(work.M) )
+			return false;
+		CommonOps_DDRM.setIdentity(work.I);
+		work.solver6.solve(work.I,work.Minv);
+		System.arraycopy(work.Minv.data,0,Minv,indexView*6,36);
+		return true;
+	}
+
+	private void applyPreconditioner( final double[] input , final double[] output ) {
+		int numCameras = numCameraParam/6;
+		for (int c = 0; c < numCameras; c++) {
+			int index = c*6;
+			for (int i = 0; i < 6; i++) {
+				double sum = 0;
+				for (int j = 0; j < 6; j++) {
+					sum += Minv[index*6+i*6+j]*input[index+j];
+				}
+				output[index+i] = sum;
+			}
+		}
+	}
+
+	/**
+	 * output = (U* - W*inv(V)*W')*input.  Computed from the blocks
+	 */
+	private void multiplyReduced( final double[] input , final double[] output ) {
+		// inv(V)*W'*input for each point
+		BoofConcurrency.loopBlocks(0, numPoints, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int point = minInclusive; point < maxExclusive; point++) {
+					int indexPoint = pointParam[point];
+					if( indexPoint < 0 )
+						continue;
+
+					double[] y = work.vec3b;
+					y[0] = y[1] = y[2] = 0;
+					for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+						int obs = pointObs[k];
+						int indexView = viewParam[obsView[obs]];
+						if( indexView < 0 )
+							continue;
+						int indexW = obs*18;
+						for (int i = 0; i < 6; i++, indexW += 3) {
+							double x = input[indexView+i];
+							y[0] += W[indexW]*x;
+							y[1] += W[indexW+1]*x;
+							y[2] += W[indexW+2]*x;
+						}
+					}
+					mult3(Vinv, indexPoint*3, y, 0, work.vec3);
+					System.arraycopy(work.vec3,0,pointTmp,indexPoint,3);
+				}
+			}
+		});
+
+		// U*x - W*tmp for each view
+		BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace work, int minInclusive, int maxExclusive) {
+				for (int view = minInclusive; view < maxExclusive; view++) {
+					int indexView = viewParam[view];
+					if( indexView < 0 )
+						continue;
+
+					int indexU = indexView/6*36;
+					for (int i = 0; i < 6; i++) {
+						double sum = lambda*dampScale(U[indexU+i*6+i])*input[indexView+i];
+						for (int j = 0; j < 6; j++) {
+							sum += U[indexU+i*6+j]*input[indexView+j];
+						}
+						output[indexView+i] = sum;
+					}
+
+					for (int obs = viewObsStart[view]; obs < viewObsStart[view+1]; obs++) {
+						int indexPoint = pointParam[obsPoint[obs]];
+						if( indexPoint < 0 )
+							continue;
+						int indexW = obs*18;
+						for (int i = 0; i < 6; i++, indexW += 3) {
+							output[indexView+i] -= W[indexW]*pointTmp[indexPoint] +
+									W[indexW+1]*pointTmp[indexPoint+1] + W[indexW+2]*pointTmp[indexPoint+2];
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * dp = inv(V)*(-gp - sum W'*dc)
+	 */
+	private void backSubstitute( Workspace work , int point ) {
+		int indexPoint = pointParam[point];
+		if( indexPoint < 0 )
+			return;
+
+		double[] y = work.vec3b;
+		y[0] = -gp[indexPoint];
+		y[1] = -gp[indexPoint+1];
+		y[2] = -gp[indexPoint+2];
+
+		for (int k = pointObsStart[point]; k < pointObsStart[point+1]; k++) {
+			int obs = pointObs[k];
+			int indexView = viewParam[obsView[obs]];
+			if( indexView < 0 )
+				continue;
+			int indexW = obs*18;
+			for (int i = 0; i < 6; i++, indexW += 3) {
+				double x = deltaCam[indexView+i];
+				y[0] -= W[indexW]*x;
+				y[1] -= W[indexW+1]*x;
+				y[2] -= W[indexW+2]*x;
+			}
+		}
+		mult3(Vinv, indexPoint*3, y, 0, work.vec3);
+		System.arraycopy(work.vec3,0,deltaPts,indexPoint,3);
+	}
+
+	/**
+	 * Inverts a damped symmetric 3x3 block
+	 */
+	private boolean invertDamped3( double[] src , double[] dst , int index ) {
+		double a11 = src[index  ] + lambda*dampScale(src[index  ]);
+		double a12 = src[index+1];
+		double a13 = src[index+2];
+		double a22 = src[index+4] + lambda*dampScale(src[index+4]);
+		double a23 = src[index+5];
+		double a33 = src[index+8] + lambda*dampScale(src[index+8]);
+
+		double m11 = a22*a33 - a23*a23;
+		double m12 = a13*a23 - a12*a33;
+		double m13 = a12*a23 - a13*a22;
+		double det = a11*m11 + a12*m12 + a13*m13;
+
+		if( !(det > 0) || Double.isInfinite(det) )
+			return false;
+
+		double m22 = a11*a33 - a13*a13;
+		double m23 = a12*a13 - a11*a23;
+		double m33 = a11*a22 - a12*a12;
+
+		dst[index  ] = m11/det; dst[index+1] = m12/det; dst[index+2] = m13/det;
+		dst[index+3] = m12/det; dst[index+4] = m22/det; dst[index+5] = m23/det;
+		dst[index+6] = m13/det; dst[index+7] = m23/det; dst[index+8] = m33/det;
+		return true;
+	}
+
+	/**
+	 * Scale of the dampening applied to a diagonal element.  Prevents a zero from causing a singular matrix
+	 */
+	private static double dampScale( double diagonal ) {
+		return Math.max(diagonal, 1e-12);
+	}
+
+	private static void mult3( double[] M , int indexM , double[] x , int indexX , double[] output ) {
+		for (int i = 0; i < 3; i++) {
+			output[i] = M[indexM+i*3]*x[indexX] + M[indexM+i*3+1]*x[indexX+1] + M[indexM+i*3+2]*x[indexX+2];
+		}
+	}
+
+	private static void mult6x3_3x3( double[] A , int indexA , double[] B , int indexB , double[] output ) {
+		for (int i = 0; i < 6; i++) {
+			double a0 = A[indexA+i*3], a1 = A[indexA+i*3+1], a2 = A[indexA+i*3+2];
+			for (int j = 0; j < 3; j++) {
+				output[i*3+j] = a0*B[indexB+j] + a1*B[indexB+3+j] + a2*B[indexB+6+j];
+			}
+		}
+	}
+
+	private static double dot( double[] a , double[] b , int length ) {
+		double total = 0;
+		for (int i = 0; i < length; i++) {
+			total += a[i]*b[i];
+		}
+		return total;
+	}
+
+	private static double[] grow( double[] array , int length ) {
+		return array.length < length ? new double[length] : array;
+	}
+
+	private static int[] grow( int[] array , int length ) {
+		return array.length < length ? new int[length] : array;
+	}
+
+	/**
+	 * If true then residuals, the Jacobian, and block operations are computed using multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Specifies additional cameras which are rigidly attached to every view, e.g. the right camera in a stereo pair.
+	 * An observation with {@link PointIndexObservation#camera camera} index i &gt; 0 was made by the camera
+	 * viewToCamera.get(i-1).  Must be called before {@link #configure}.
+	 *
+	 * @param viewToCamera Transform from a view's reference frame to each additional camera's reference frame.
+	 */
+	public void setViewToCamera( List<Se3_F64> viewToCamera ) {
+		numExtraCameras = viewToCamera.size();
+		extraR = grow(extraR,numExtraCameras*9);
+		extraT = grow(extraT,numExtraCameras*3);
+		for (int i = 0; i < numExtraCameras; i++) {
+			Se3_F64 se = viewToCamera.get(i);
+			System.arraycopy(se.getR().data,0,extraR,i*9,9);
+			extraT[i*3  ] = se.T.x;
+			extraT[i*3+1] = se.T.y;
+			extraT[i*3+2] = se.T.z;
+		}
+	}
+
+	/**
+	 * Optimization will stop after this much time has elapsed.  Time is only checked between iterations and
+	 * at least one iteration is always performed.
+	 *
+	 * @param milliseconds Maximum time.  If &le; 0 then there is no limit.
+	 */
+	public void setMaxTime( double milliseconds ) {
+		this.maxTimeNano = (long)(milliseconds*1e6);
+	}
+
+	public double getMaxTime() {
+		return maxTimeNano*1e-6;
+	}
+
+	public double getInitialDampParam() {
+		return initialDampParam;
+	}
+
+	public void setInitialDampParam(double initialDampParam) {
+		this.initialDampParam = initialDampParam;
+	}
+
+	/**
+	 * If the number of camera parameters (6 times the number of unknown views) is more than this then the reduced
+	 * camera system is solved using conjugate gradient instead of being explicitly constructed.
+	 */
+	public void setMaxDenseCameraParam(int maxDenseCameraParam) {
+		this.maxDenseCameraParam = maxDenseCameraParam;
+	}
+
+	public int getMaxDenseCameraParam() {
+		return maxDenseCameraParam;
+	}
+
+	public void setMaxConjugateIterations(int maxConjugateIterations) {
+		this.maxConjugateIterations = maxConjugateIterations;
+	}
+
+	public int getMaxConjugateIterations() {
+		return maxConjugateIterations;
+	}
+
+	/**
+	 * Conjugate gradient stops when the norm of its residual relative to the norm of the right hand side is less
+	 * than this.
+	 */
+	public void setConjugateTol(double conjugateTol) {
+		this.conjugateTol = conjugateTol;
+	}
+
+	public double getConjugateTol() {
+		return conjugateTol;
+	}
+
+	/**
+	 * Value of the cost function, 0.5 times the sum of squared residuals
+	 */
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	/**
+	 * Number of iterations in the last call to {@link #process}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Storage for a single thread
+	 */
+	private class Workspace {
+		// used to compute the Jacobian from Rodrigues coordinates
+		RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+		Rodrigues_F64 rodrigues = new Rodrigues_F64();
+
+		// the current view's rotation and translation
+		DMatrixRMaj R = new DMatrixRMaj(3,3);
+		double tx,ty,tz;
+
+		// location of the point in world and camera frames
+		Point3D_F64 worldPt = new Point3D_F64();
+		Point3D_F64 cameraPt = new Point3D_F64();
+		// camera which made the observation. 0 is the view itself
+		int camera;
+
+		double[] vec3 = new double[3];
+		double[] vec3b = new double[3];
+		double[] block6x3 = new double[18];
+
+		// used to invert 6x6 blocks
+		DMatrixRMaj M = new DMatrixRMaj(6,6);
+		DMatrixRMaj Minv = new DMatrixRMaj(6,6);
+		DMatrixRMaj I = new DMatrixRMaj(6,6);
+		LinearSolver<DMatrixRMaj> solver6 = LinearSolverFactory_DDRM.chol(6);
+
+		/**
+		 * Sets the current view's pose
+		 *
+		 * @param jacobian if true the Jacobian of the rotation is computed too
+		 */
+		public void setView( int view , double[] cam , boolean jacobian ) {
+			int index = viewParam[view];
+			if( index < 0 ) {
+				Se3_F64 se = model.getWorldToCamera(view);
+				R.set(se.getR());
+				tx = se.T.x; ty = se.T.y; tz = se.T.z;
+			} else {
+				double rodX = cam[index], rodY = cam[index+1], rodZ = cam[index+2];
+				rodrigues.setParamVector(rodX,rodY,rodZ);
+				ConvertRotation3D_F64.rodriguesToMatrix(rodrigues,R);
+				tx = cam[index+3]; ty = cam[index+4]; tz = cam[index+5];
+				if( jacobian )
+					rodJacobian.process(rodX,rodY,rodZ);
+			}
+		}
+
+		/**
+		 * Transforms the point into the current view and then the specified camera
+		 */
+		public void project( int point , int camera , double[] pts ) {
+			this.camera = camera;
+			int index = pointParam[point];
+			if( index < 0 ) {
+				worldPt.set(model.getPoint(point));
+			} else {
+				worldPt.set(pts[index],pts[index+1],pts[index+2]);
+			}
+
+			double[] r = R.data;
+			cameraPt.x = r[0]*worldPt.x + r[1]*worldPt.y + r[2]*worldPt.z + tx;
+			cameraPt.y = r[3]*worldPt.x + r[4]*worldPt.y + r[5]*worldPt.z + ty;
+			cameraPt.z = r[6]*worldPt.x + r[7]*worldPt.y + r[8]*worldPt.z + tz;
+
+			if( camera > 0 ) {
+				int indexR = (camera-1)*9, indexT = (camera-1)*3;
+				double x = cameraPt.x, y = cameraPt.y, z = cameraPt.z;
+				cameraPt.x = extraR[indexR  ]*x + extraR[indexR+1]*y + extraR[indexR+2]*z + extraT[indexT  ];
+				cameraPt.y = extraR[indexR+3]*x + extraR[indexR+4]*y + extraR[indexR+5]*z + extraT[indexT+1];
+				cameraPt.z = extraR[indexR+6]*x + extraR[indexR+7]*y + extraR[indexR+8]*z + extraT[indexT+2];
+			}
+		}
+
+		/**
+		 * Partial of the projected point relative to the view's Rodrigues and translation parameters.
+		 * See {@link CalibPoseAndPointRodriguesJacobian}
+		 */
+		public void viewJacobian( double[] output , int index ) {
+			if( camera > 0 ) {
+				viewJacobianCamera(output,index);
+				return;
+			}
+			rodriguesGradient(rodJacobian.Rx, output, index);
+			rodriguesGradient(rodJacobian.Ry, output, index+1);
+			rodriguesGradient(rodJacobian.Rz, output, index+2);
+
+			double divZ = 1.0/cameraPt.z;
+			double divZ2 = divZ*divZ;
+
+			output[index+3] = divZ;
+			output[index+4] = 0;
+			output[index+5] = -cameraPt.x*divZ2;
+			output[index+9] = 0;
+			output[index+10] = divZ;
+			output[index+11] = -cameraPt.y*divZ2;
+		}
+
+		private void rodriguesGradient( DMatrixRMaj Rj , double[] output , int index ) {
+			double Rx = (Rj.data[0]*worldPt.x + Rj.data[1]*worldPt.y + Rj.data[2]*worldPt.z)/cameraPt.z;
+			double Ry = (Rj.data[3]*worldPt.x + Rj.data[4]*worldPt.y + Rj.data[5]*worldPt.z)/cameraPt.z;
+
+			double zDot_div_z2 = (Rj.data[6]*worldPt.x + Rj.data[7]*worldPt.y + Rj.data[8]*worldPt.z)/
+					(cameraPt.z*cameraPt.z);
+
+			output[index  ] = -zDot_div_z2*cameraPt.x + Rx;
+			output[index+6] = -zDot_div_z2*cameraPt.y + Ry;
+		}
+
+		/**
+		 * Partial of the projected point relative to the view's parameters when observed by an attached camera.
+		 * The derivative of the point in the view's frame is rotated into the camera's frame.
+		 */
+		private void viewJacobianCamera( double[] output , int index ) {
+			int indexR = (camera-1)*9;
+			for (int k = 0; k < 6; k++) {
+				// derivative of the point in the view's frame
+				if( k < 3 ) {
+					DMatrixRMaj Rj = k == 0 ? rodJacobian.Rx : (k == 1 ? rodJacobian.Ry : rodJacobian.Rz);
+					mult3(Rj.data,0,worldPt,vec3);
+				} else {
+					vec3[0] = vec3[1] = vec3[2] = 0;
+					vec3[k-3] = 1;
+				}
+				projectDerivative(extraR,indexR,output,index+k,6);
+			}
+		}
+
+		/**
+		 * Given the derivative of the point in the view's frame in vec3, rotate it into the camera's frame and
+		 * compute the derivative of the normalized image coordinate.  The y-partial is written stride elements after
+		 * the x-partial.
+		 */
+		private void projectDerivative( double[] rotation , int indexR , double[] output , int index , int stride ) {
+			double dx = rotation[indexR  ]*vec3[0] + rotation[indexR+1]*vec3[1] + rotation[indexR+2]*vec3[2];
+			double dy = rotation[indexR+3]*vec3[0] + rotation[indexR+4]*vec3[1] + rotation[indexR+5]*vec3[2];
+			double dz = rotation[indexR+6]*vec3[0] + rotation[indexR+7]*vec3[1] + rotation[indexR+8]*vec3[2];
+
+			double divZ = 1.0/cameraPt.z;
+			output[index  ] = (dx - cameraPt.x*dz*divZ)*divZ;
+			output[index+stride] = (dy - cameraPt.y*dz*divZ)*divZ;
+		}
+
+		private void mult3( double[] M , int indexM , Point3D_F64 p , double[] output ) {
+			for (int i = 0; i < 3; i++) {
+				output[i] = M[indexM+i*3]*p.x + M[indexM+i*3+1]*p.y + M[indexM+i*3+2]*p.z;
+			}
+		}
+
+		/**
+		 * Partial of the projected point relative to the point's location
+		 */
+		public void pointJacobian( double[] output , int index ) {
+			if( camera > 0 ) {
+				int indexR = (camera-1)*9;
+				double[] r = R.data;
+				for (int i = 0; i < 3; i++) {
+					// derivative of the point in the view's frame is column i of R
+					vec3[0] = r[i]; vec3[1] = r[3+i]; vec3[2] = r[6+i];
+					projectDerivative(extraR,indexR,output,index+i,3);
+				}
+				return;
+			}
+			double[] r = R.data;
+			double divZ = 1.0/cameraPt.z;
+			double divZ2 = divZ*divZ;
+
+			for (int i = 0; i < 3; i++) {
+				output[index+i  ] = -r[6+i]*divZ2*cameraPt.x + r[i]*divZ;
+				output[index+3+i] = -r[6+i]*divZ2*cameraPt.y + r[3+i]*divZ;
+			}
+		}
+	}
+}
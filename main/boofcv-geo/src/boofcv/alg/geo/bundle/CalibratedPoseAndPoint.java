@@ -24,7 +24,8 @@ import georegression.struct.se.Se3_F64;
 /**
  * Expanded model for fast computations used by bundle adjustment with calibrated cameras.
  * Designed to minimize unnecessary creating and destroying memory.  Each view can be marked as known or not.
- * If a view is known then initial pose is fixed and will not be optimized.  The list of points is a list
+ * If a view is known then initial pose is fixed and will not be optimized.  Points can be marked as known
+ * in the same way, but not all implementations support known points.  The list of points is a list
  * of all points which have been observed across all views.  Both views and points are referenced by
  * their index.  Before the class is used you must call {@link #configure(int, int)} to specif the number
  * of views and points.
@@ -44,6 +45,8 @@ public class CalibratedPoseAndPoint {
 	private Se3_F64[] worldToCamera = new Se3_F64[0];
 	// location of each point in 3D space, world coordinate
 	private Point3D_F64[] points = new Point3D_F64[0];
+	// if true the point's location is assumed to be known
+	private boolean[] pointKnown = new boolean[0];
 
 	/**
 	 * Specifies the number of views and 3D points being estimated
@@ -70,6 +73,8 @@ public class CalibratedPoseAndPoint {
 				temp[i] = new Point3D_F64();
 			}
 			points = temp;
+
+			pointKnown = new boolean[numPoints];
 		}
 
 		this.numPoints = numPoints;
@@ -78,6 +83,9 @@ public class CalibratedPoseAndPoint {
 		for( int i = 0; i < numViews; i++ ) {
 			viewKnown[i] = false;
 		}
+		for( int i = 0; i < numPoints; i++ ) {
+			pointKnown[i] = false;
+		}
 	}
 
 	/**
@@ -99,6 +107,25 @@ public class CalibratedPoseAndPoint {
 		return viewKnown[view];
 	}
 
+	/**
+	 * Specify if a point's location is known or not.
+	 * @param index Index of the point
+	 * @param known true of known or false if not.
+	 */
+	public void setPointKnown( int index , boolean known ) {
+		pointKnown[index] = known;
+	}
+
+	/**
+	 * Used to see if a particular point is marked as known or not
+	 *
+	 * @param index The point's index
+	 * @return if true then the point's location is assumed to be known and is not optimized
+	 */
+	public boolean isPointKnown( int index ) {
+		return pointKnown[index];
+	}
+
 	/**
 	 * Transform from world to camera view
 	 * @param view The view's index
@@ -147,6 +174,19 @@ public class CalibratedPoseAndPoint {
 		return ret;
 	}
 
+	/**
+	 * Returns the number of points which do not have a 'known' or fixed location.
+	 * @return Number of points whose location is to be optimized.
+	 */
+	public int getNumUnknownPoints() {
+		int ret = 0;
+		for( int i = 0; i < numPoints; i++ ) {
+			if( !pointKnown[i] )
+				ret++;
+		}
+		return ret;
+	}
+
 	/**
 	 * An array that indicates which views are known and which views are not
 	 */
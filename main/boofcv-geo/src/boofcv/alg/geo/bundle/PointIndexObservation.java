@@ -33,14 +33,25 @@ public class PointIndexObservation {
 	public int pointIndex;
 	/** The observation of the feature */
 	public Point2D_F64 obs;
+	/**
+	 * Which camera attached to the view made the observation.  0 is the view itself.  Only supported by
+	 * {@link CalibPoseAndPointSchurLM}, see {@link CalibPoseAndPointSchurLM#setViewToCamera}.
+	 */
+	public int camera;
 
 	public void set( int pointIndex , Point2D_F64 obs ) {
+		set(pointIndex,0,obs);
+	}
+
+	public void set( int pointIndex , int camera , Point2D_F64 obs ) {
 		this.pointIndex = pointIndex;
+		this.camera = camera;
 		this.obs = obs;
 	}
 
 	public void reset() {
 		pointIndex = -1;
+		camera = 0;
 		obs = null;
 	}
 
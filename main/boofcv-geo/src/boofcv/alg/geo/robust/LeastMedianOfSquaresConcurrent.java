@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.InstanceFactory;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.sorting.QuickSelect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Least Median of Squares which evaluates hypotheses using multiple threads.  The hypothesis with the smallest
+ * median error is selected.  See {@link ModelMatcherConcurrent} for how work is split up and why the results
+ * don't depend on the number of threads.
+ * </p>
+ *
+ * <p>
+ * After the best model has been found, the fraction of points with the lowest error are selected as inliers.
+ * If the inlier fraction is zero then all the points are inliers.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LeastMedianOfSquaresConcurrent<Model,Point> extends ModelMatcherConcurrent<Model,Point> {
+
+	// if the best median error is more than this then it failed
+	protected double maxMedianError;
+	// fraction of points which are selected as inliers
+	protected double inlierFraction;
+
+	protected List<Point> matchSet = new ArrayList<>();
+	protected int[] matchToInput = new int[0];
+	protected double[] errors = new double[0];
+
+	/**
+	 * Configures LMedS
+	 *
+	 * @param randSeed Seed for the random number generators
+	 * @param totalCycles Number of hypotheses it will consider
+	 * @param maxMedianError If the best median error is larger than this it has failed
+	 * @param inlierFraction Fraction of points with the lowest error which are inliers. If &le; 0 all points are
+	 *                       inliers.
+	 * @param manager Used to create and copy models
+	 * @param factoryGenerator Creates a model generator for each thread
+	 * @param factoryDistance Creates a distance function for each thread
+	 */
+	public LeastMedianOfSquaresConcurrent(long randSeed, int totalCycles,
+										  double maxMedianError, double inlierFraction,
+										  ModelManager<Model> manager,
+										  InstanceFactory<ModelGenerator<Model, Point>> factoryGenerator,
+										  InstanceFactory<DistanceFromModel<Model, Point>> factoryDistance) {
+		super(randSeed, totalCycles, manager, factoryGenerator, factoryDistance);
+		this.maxMedianError = maxMedianError;
+		this.inlierFraction = inlierFraction;
+	}
+
+	public LeastMedianOfSquaresConcurrent(long randSeed, int totalCycles,
+										  ModelManager<Model> manager,
+										  InstanceFactory<ModelGenerator<Model, Point>> factoryGenerator,
+										  InstanceFactory<DistanceFromModel<Model, Point>> factoryDistance) {
+		this(randSeed, totalCycles, Double.MAX_VALUE, 0, manager, factoryGenerator, factoryDistance);
+	}
+
+	/**
+	 * Score is the median error
+	 */
+	@Override
+	protected double computeScore(double[] errors, int size) {
+		return QuickSelect.select(errors, size/2, size);
+	}
+
+	@Override
+	protected boolean finish(DistanceFromModel<Model, Point> distance) {
+		int N = dataSet.size();
+		int numInliers = (int)(N*inlierFraction);
+
+		matchSet.clear();
+		if( matchToInput.length < N )
+			matchToInput = new int[N];
+
+		if( inlierFraction > 0 && numInliers > sampleSize ) {
+			if( errors.length < N )
+				errors = new double[N];
+
+			distance.setModel(bestModel);
+			distance.computeDistance(dataSet, errors);
+
+			int[] indexes = new int[N];
+			QuickSelect.selectIndex(errors, numInliers, N, indexes);
+			for (int i = 0; i < numInliers; i++) {
+				matchToInput[i] = indexes[i];
+				matchSet.add(dataSet.get(indexes[i]));
+			}
+		} else {
+			for (int i = 0; i < N; i++) {
+				matchToInput[i] = i;
+				matchSet.add(dataSet.get(i));
+			}
+		}
+
+		return bestScore <= maxMedianError;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return matchSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	/**
+	 * The median error of the best model
+	 */
+	@Override
+	public double getFitQuality() {
+		return bestScore;
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Base class for robust model matchers which evaluate hypotheses using multiple threads.  Hypotheses are processed
+ * in batches.  Each thread has its own {@link ModelGenerator} and {@link DistanceFromModel}, created using the
+ * provided factories, since they are typically not thread safe.
+ * </p>
+ *
+ * <p>
+ * The random sample used by each hypothesis is drawn from a generator that's seeded using the base seed and the
+ * hypothesis's index.  Ties between hypotheses with the same score are resolved by selecting the one with the
+ * lowest index and the stopping condition is only checked between batches.  As a result the output is the
+ * same no matter how many threads are used.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ModelMatcherConcurrent<Model,Point> implements ModelMatcher<Model,Point> {
+
+	// base seed for the random number generators
+	protected long randSeed;
+	// maximum number of hypotheses which will be considered
+	protected int maxIterations;
+	// number of hypotheses in each batch
+	protected int batchSize = 64;
+
+	// creates and copies models
+	protected ModelManager<Model> manager;
+	// creates instances for each thread
+	protected InstanceFactory<ModelGenerator<Model,Point>> factoryGenerator;
+	protected InstanceFactory<DistanceFromModel<Model,Point>> factoryDistance;
+
+	// number of points used to generate a hypothesis
+	protected int sampleSize;
+
+	// storage for each thread
+	protected List<Worker> workers = new ArrayList<>();
+
+	// input points
+	protected List<Point> dataSet;
+
+	// best hypothesis found so far
+	protected Model bestModel;
+	protected double bestScore;
+	protected int bestIndex;
+
+	// number of hypotheses which have been evaluated
+	protected int iterations;
+
+	/**
+	 * Configures the matcher
+	 *
+	 * @param randSeed Seed used to create the random number generator for each hypothesis
+	 * @param maxIterations Maximum number of hypotheses
+	 * @param manager Used to create and copy models
+	 * @param factoryGenerator Creates a model generator for each thread
+	 * @param factoryDistance Creates a distance function for each thread
+	 */
+	protected ModelMatcherConcurrent(long randSeed, int maxIterations,
+									 ModelManager<Model> manager,
+									 InstanceFactory<ModelGenerator<Model, Point>> factoryGenerator,
+									 InstanceFactory<DistanceFromModel<Model, Point>> factoryDistance) {
+		this.randSeed = randSeed;
+		this.maxIterations = maxIterations;
+		this.manager = manager;
+		this.factoryGenerator = factoryGenerator;
+		this.factoryDistance = factoryDistance;
+
+		bestModel = manager.createModelInstance();
+		workers.add( new Worker());
+		sampleSize = workers.get(0).generator.getMinimumPoints();
+	}
+
+	@Override
+	public boolean process(List<Point> dataSet) {
+		if( dataSet.size() < sampleSize )
+			return false;
+
+		this.dataSet = dataSet;
+
+		int numThreads = BoofConcurrency.getMaxThreads();
+		while( workers.size() < numThreads )
+			workers.add( new Worker());
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).reset(dataSet.size());
+		}
+
+		bestScore = Double.MAX_VALUE;
+		bestIndex = -1;
+		iterations = 0;
+
+		initialize(dataSet);
+
+		IntRangeObjectConsumer<Worker> batch = new IntRangeObjectConsumer<Worker>() {
+			@Override
+			public void accept(Worker worker, int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					worker.evaluate(i);
+				}
+			}
+		};
+
+		while( iterations < iterationLimit() ) {
+			int end = Math.min(iterations + batchSize, maxIterations);
+
+			BoofConcurrency.loopBlocks(iterations, end, workers.subList(0, numThreads), batch);
+
+			// select the best hypothesis.  Ties are broken using the index so that the result doesn't
+			// depend on how the hypotheses were split between threads
+			for (int i = 0; i < numThreads; i++) {
+				Worker w = workers.get(i);
+				if( w.bestIndex < 0 )
+					continue;
+				if( w.bestScore < bestScore || (w.bestScore == bestScore && w.bestIndex < bestIndex) ) {
+					bestScore = w.bestScore;
+					bestIndex = w.bestIndex;
+					manager.copyModel(w.best, bestModel);
+				}
+			}
+
+			iterations = end;
+		}
+
+		if( bestIndex < 0 )
+			return false;
+
+		return finish(workers.get(0).distance);
+	}
+
+	/**
+	 * Called before any hypotheses are evaluated
+	 */
+	protected void initialize( List<Point> dataSet ) {}
+
+	/**
+	 * The number of hypotheses which should be considered given the current best hypothesis.  Checked between
+	 * batches.
+	 */
+	protected int iterationLimit() {
+		return maxIterations;
+	}
+
+	/**
+	 * Computes the score of a hypothesis.  Lower is better.
+	 *
+	 * @param errors Distance of each point from the hypothesis.  Can be modified.
+	 */
+	protected abstract double computeScore( double[] errors , int size );
+
+	/**
+	 * Called after all the hypotheses have been considered.  Computes the match set for the best model.
+	 *
+	 * @param distance Distance function which can be used
+	 * @return true if successful
+	 */
+	protected abstract boolean finish( DistanceFromModel<Model,Point> distance );
+
+	/**
+	 * Mixes the seed and the index of the hypothesis together to create a seed for the hypothesis.  SplitMix64
+	 */
+	protected static long hypothesisSeed( long seed , int index ) {
+		long z = seed + (index+1)*0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Number of hypotheses which are evaluated between checks of the stopping condition.
+	 */
+	public void setBatchSize(int batchSize) {
+		if( batchSize < 1 )
+			throw new IllegalArgumentException("Batch size must be at least 1");
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Number of hypotheses considered in the last call to {@link #process}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	@Override
+	public Model getModelParameters() {
+		return bestModel;
+	}
+
+	@Override
+	public int getMinimumSize() {
+		return sampleSize;
+	}
+
+	@Override
+	public Class<Point> getPointType() {
+		return workers.get(0).distance.getPointType();
+	}
+
+	@Override
+	public Class<Model> getModelType() {
+		return workers.get(0).distance.getModelType();
+	}
+
+	/**
+	 * Generates and evaluates hypotheses.  One for each thread
+	 */
+	protected class Worker {
+		ModelGenerator<Model,Point> generator = factoryGenerator.newInstance();
+		DistanceFromModel<Model,Point> distance = factoryDistance.newInstance();
+
+		Random rand = new Random();
+		List<Point> sample = new ArrayList<>();
+		int[] sampleIndexes = new int[0];
+		double[] errors = new double[0];
+
+		Model candidate = manager.createModelInstance();
+
+		// best hypothesis this worker has found
+		Model best = manager.createModelInstance();
+		double bestScore;
+		int bestIndex;
+
+		void reset( int numPoints ) {
+			if( errors.length < numPoints )
+				errors = new double[numPoints];
+			if( sampleIndexes.length < sampleSize )
+				sampleIndexes = new int[sampleSize];
+			bestScore = Double.MAX_VALUE;
+			bestIndex = -1;
+		}
+
+		void evaluate( int index ) {
+			rand.setSeed(hypothesisSeed(randSeed, index));
+			drawSample();
+
+			if( !generator.generate(sample, candidate) )
+				return;
+
+			distance.setModel(candidate);
+			distance.computeDistance(dataSet, errors);
+			double score = computeScore(errors, dataSet.size());
+
+			// hypotheses within a worker are evaluated in increasing order, only need to check the score
+			if( score < bestScore ) {
+				bestScore = score;
+				bestIndex = index;
+				Model tmp = best; best = candidate; candidate = tmp;
+			}
+		}
+
+		/**
+		 * Randomly selects points without replacement.  The input list isn't modified so it can be shared
+		 * between threads
+		 */
+		void drawSample() {
+			int N = dataSet.size();
+			sample.clear();
+			for (int i = 0; i < sampleSize; i++) {
+				int selected;
+				boolean duplicate;
+				do {
+					selected = rand.nextInt(N);
+					duplicate = false;
+					for (int j = 0; j < i; j++) {
+						if( sampleIndexes[j] == selected ) {
+							duplicate = true;
+							break;
+						}
+					}
+				} while( duplicate );
+				sampleIndexes[i] = selected;
+				sample.add(dataSet.get(selected));
+			}
+		}
+	}
+}
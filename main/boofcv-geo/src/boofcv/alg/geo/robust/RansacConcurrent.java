@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.InstanceFactory;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * RANSAC which evaluates hypotheses using multiple threads.  The hypothesis with the most inliers is selected.
+ * See {@link ModelMatcherConcurrent} for how work is split up and why the results don't depend on the number of
+ * threads.
+ * </p>
+ *
+ * <p>
+ * If a confidence is specified then it will stop early once enough hypotheses have been considered to have
+ * sampled an outlier free set with that probability, given the best inlier fraction found so far.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacConcurrent<Model,Point> extends ModelMatcherConcurrent<Model,Point> {
+
+	// maximum distance for a point to be considered an inlier
+	protected double thresholdFit;
+
+	// probability of having selected an outlier free sample.  Disabled if <= 0
+	protected double confidence = 0;
+
+	// number of points in the input
+	protected int numPoints;
+
+	// inliers of the best model
+	protected List<Point> matchSet = new ArrayList<>();
+	protected int[] matchToInput = new int[0];
+
+	/**
+	 * Configures RANSAC
+	 *
+	 * @param randSeed Seed for the random number generators
+	 * @param manager Used to create and copy models
+	 * @param factoryGenerator Creates a model generator for each thread
+	 * @param factoryDistance Creates a distance function for each thread
+	 * @param maxIterations Maximum number of hypotheses
+	 * @param thresholdFit Points with a distance less than or equal to this are inliers
+	 */
+	public RansacConcurrent(long randSeed,
+							ModelManager<Model> manager,
+							InstanceFactory<ModelGenerator<Model, Point>> factoryGenerator,
+							InstanceFactory<DistanceFromModel<Model, Point>> factoryDistance,
+							int maxIterations, double thresholdFit) {
+		super(randSeed, maxIterations, manager, factoryGenerator, factoryDistance);
+		this.thresholdFit = thresholdFit;
+	}
+
+	@Override
+	protected void initialize(List<Point> dataSet) {
+		numPoints = dataSet.size();
+	}
+
+	/**
+	 * Score is the negative of the number of inliers
+	 */
+	@Override
+	protected double computeScore(double[] errors, int size) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if( errors[i] <= thresholdFit )
+				count++;
+		}
+		return -count;
+	}
+
+	@Override
+	protected int iterationLimit() {
+		if( confidence <= 0 || bestIndex < 0 )
+			return maxIterations;
+
+		double inlierFraction = -bestScore/numPoints;
+		double outlierFree = Math.pow(inlierFraction, sampleSize);
+		if( outlierFree >= 1.0 )
+			return iterations;
+		if( outlierFree <= 0 )
+			return maxIterations;
+
+		double required = Math.log(1.0 - confidence)/Math.log(1.0 - outlierFree);
+		return (int)Math.min(maxIterations, Math.ceil(required));
+	}
+
+	@Override
+	protected boolean finish(DistanceFromModel<Model, Point> distance) {
+		matchSet.clear();
+		if( matchToInput.length < numPoints )
+			matchToInput = new int[numPoints];
+
+		distance.setModel(bestModel);
+		for (int i = 0; i < numPoints; i++) {
+			Point p = dataSet.get(i);
+			if( distance.computeDistance(p) <= thresholdFit ) {
+				matchToInput[matchSet.size()] = i;
+				matchSet.add(p);
+			}
+		}
+
+		return matchSet.size() > 0;
+	}
+
+	/**
+	 * Specifies the desired probability that at least one sample is free of outliers.  Once the number of
+	 * hypotheses required to achieve this has been reached it stops early.  Set to zero to disable.
+	 *
+	 * @param confidence Probability from 0 to 1.  Try 0.999
+	 */
+	public void setConfidence(double confidence) {
+		if( confidence >= 1 )
+			throw new IllegalArgumentException("Confidence must be less than 1");
+		this.confidence = confidence;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	public double getThresholdFit() {
+		return thresholdFit;
+	}
+
+	public void setThresholdFit(double thresholdFit) {
+		this.thresholdFit = thresholdFit;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return matchSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	/**
+	 * Number of inliers
+	 */
+	@Override
+	public double getFitQuality() {
+		return matchSet.size();
+	}
+}
@@ -139,8 +139,11 @@ public class FactoryPointTracker {
 
 		PyramidDiscrete<I> pyramid = FactoryPyramid.discreteGaussian(config.pyramidScaling,-1,2,true, ImageType.single(imageType));
 
-		return new PointTrackerKltPyramid<>(config.config, config.templateRadius, pyramid, detector,
-				gradient, interpInput, interpDeriv, derivType);
+		PointTrackerKltPyramid<I,D> tracker = new PointTrackerKltPyramid<>(config.config, config.templateRadius,
+				pyramid, detector, gradient, interpInput, interpDeriv, derivType);
+		tracker.setConcurrent(config.concurrent);
+
+		return tracker;
 	}
 
 	/**
@@ -64,8 +64,11 @@ public class FactoryPointTrackerTwoPass {
 		PyramidDiscrete<I> pyramid = FactoryPyramid.discreteGaussian(
 				config.pyramidScaling,-1,2,true, ImageType.single(imageType));
 
-		return new PointTrackerTwoPassKltPyramid<>(config.config, config.templateRadius, pyramid, detector,
-				gradient, interpInput, interpDeriv);
+		PointTrackerTwoPassKltPyramid<I,D> tracker = new PointTrackerTwoPassKltPyramid<>(
+				config.config, config.templateRadius, pyramid, detector, gradient, interpInput, interpDeriv);
+		tracker.setConcurrent(config.concurrent);
+
+		return tracker;
 	}
 
 	public static <I extends ImageGray<I>, D extends ImageGray<D>, Desc extends TupleDesc>
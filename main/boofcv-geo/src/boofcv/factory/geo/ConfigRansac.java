@@ -38,6 +38,11 @@ public class ConfigRansac implements Configuration {
 	 * Inlier threshold.
 	 */
 	public double inlierThreshold;
+	/**
+	 * If greater than zero it will stop early once this is the probability that an outlier free sample has been
+	 * drawn. Only used by {@link boofcv.alg.geo.robust.RansacConcurrent}.
+	 */
+	public double confidence = 0;
 
 	public ConfigRansac(int maxIterations, double inlierThreshold) {
 		this.maxIterations = maxIterations;
@@ -49,6 +54,8 @@ public class ConfigRansac implements Configuration {
 
 	@Override
 	public void checkValidity() {
+		if( confidence >= 1 )
+			throw new IllegalArgumentException("confidence must be less than one");
 
 	}
 }
@@ -20,6 +20,7 @@ package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
 import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -66,6 +67,24 @@ public class FactoryMultiView {
 		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
 	}
 
+	/**
+	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration.  The sparse structure
+	 * of the problem is used, so it can handle a large number of views and points, and known points are supported.
+	 *
+	 * @see BundleAdjustmentCalibratedSparse
+	 *
+	 * @param tol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 * @param concurrent If true it will use multiple threads
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibratedSparse bundleCalibratedSparse(double tol , int maxIterations ,
+																		  boolean concurrent ) {
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(tol,maxIterations);
+		alg.setConcurrent(concurrent);
+		return alg;
+	}
+
 	/**
 	 * Returns an algorithm for estimating a homography matrix given a set of
 	 * {@link AssociatedPair}.
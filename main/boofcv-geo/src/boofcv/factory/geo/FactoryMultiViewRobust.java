@@ -23,10 +23,8 @@ import boofcv.abst.geo.Estimate1ofPnP;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
 import boofcv.alg.geo.DistanceModelMonoPixels;
 import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
-import boofcv.alg.geo.robust.DistanceHomographySq;
-import boofcv.alg.geo.robust.DistanceSe3SymmetricSq;
-import boofcv.alg.geo.robust.GenerateHomographyLinear;
-import boofcv.alg.geo.robust.Se3FromEssentialGenerator;
+import boofcv.alg.geo.robust.*;
+import boofcv.concurrency.InstanceFactory;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.Point2D3D;
@@ -270,4 +268,231 @@ public class FactoryMultiViewRobust {
 		return new Ransac<>
 				(ransac.randSeed, manager, modelFitter, distance, ransac.maxIterations, ransacTol);
 	}
+
+	/**
+	 * Concurrent version of {@link #pnpRansac}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see RansacConcurrent
+	 *
+	 * @param pnp PnP parameters.  Can't be null.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static RansacConcurrent<Se3_F64, Point2D3D> pnpRansacConcurrent( final ConfigPnP pnp,
+																			ConfigRansac ransac)
+	{
+		ransac.checkValidity();
+
+		// convert from pixels to pixels squared
+		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		RansacConcurrent<Se3_F64, Point2D3D> alg = new RansacConcurrent<>(ransac.randSeed,
+				new ModelManagerSe3_F64(), pnpGenerator(pnp.which, pnp.numResolve), pnpDistance(pnp),
+				ransac.maxIterations, threshold);
+		alg.setConfidence(ransac.confidence);
+		return alg;
+	}
+
+	/**
+	 * Concurrent version of {@link #pnpLMedS}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see LeastMedianOfSquaresConcurrent
+	 *
+	 * @param pnp PnP parameters.  Can't be null.
+	 * @param lmeds Parameters for LMedS.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static LeastMedianOfSquaresConcurrent<Se3_F64, Point2D3D> pnpLMedSConcurrent( ConfigPnP pnp,
+																						 ConfigLMedS lmeds)
+	{
+		return new LeastMedianOfSquaresConcurrent<>(lmeds.randSeed, lmeds.totalCycles,
+				new ModelManagerSe3_F64(), pnpGenerator(EnumPNP.P3P_FINSTERWALDER, 1), pnpDistance(pnp));
+	}
+
+	private static InstanceFactory<ModelGenerator<Se3_F64, Point2D3D>> pnpGenerator( final EnumPNP which ,
+																					 final int numResolve ) {
+		return new InstanceFactory<ModelGenerator<Se3_F64, Point2D3D>>() {
+			@Override
+			public ModelGenerator<Se3_F64, Point2D3D> newInstance() {
+				return new EstimatorToGenerator<>(FactoryMultiView.computePnP_1(which, -1, numResolve));
+			}
+		};
+	}
+
+	private static InstanceFactory<DistanceFromModel<Se3_F64, Point2D3D>> pnpDistance( final ConfigPnP pnp ) {
+		return new InstanceFactory<DistanceFromModel<Se3_F64, Point2D3D>>() {
+			@Override
+			public DistanceFromModel<Se3_F64, Point2D3D> newInstance() {
+				DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+				distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+				return distance;
+			}
+		};
+	}
+
+	/**
+	 * Concurrent version of {@link #essentialRansac}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see RansacConcurrent
+	 *
+	 * @param essential Essential matrix estimation parameters.  Can't be null.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static RansacConcurrent<Se3_F64, AssociatedPair> essentialRansacConcurrent( final ConfigEssential essential,
+																					   ConfigRansac ransac ) {
+		essential.checkValidity();
+		ransac.checkValidity();
+
+		InstanceFactory<Estimate1ofEpipolar> factory = new InstanceFactory<Estimate1ofEpipolar>() {
+			@Override
+			public Estimate1ofEpipolar newInstance() {
+				return FactoryMultiView.computeEssential_1(essential.which, essential.numResolve);
+			}
+		};
+
+		return epipolarRansacConcurrent(factory, essential.intrinsic, ransac);
+	}
+
+	/**
+	 * Concurrent version of {@link #fundamentalRansac}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see RansacConcurrent
+	 *
+	 * @param fundamental Fundamental matrix estimation parameters.  Can't be null.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static RansacConcurrent<Se3_F64, AssociatedPair> fundamentalRansacConcurrent( final ConfigFundamental fundamental,
+																						 ConfigRansac ransac ) {
+		fundamental.checkValidity();
+		ransac.checkValidity();
+
+		InstanceFactory<Estimate1ofEpipolar> factory = new InstanceFactory<Estimate1ofEpipolar>() {
+			@Override
+			public Estimate1ofEpipolar newInstance() {
+				return FactoryMultiView.computeFundamental_1(fundamental.which, fundamental.numResolve);
+			}
+		};
+
+		return epipolarRansacConcurrent(factory, fundamental.intrinsic, ransac);
+	}
+
+	/**
+	 * Concurrent version of {@link #essentialLMedS}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see LeastMedianOfSquaresConcurrent
+	 *
+	 * @param essential Essential matrix estimation parameters.  Can't be null.
+	 * @param lmeds Parameters for LMedS.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static LeastMedianOfSquaresConcurrent<Se3_F64, AssociatedPair> essentialLMedSConcurrent( final ConfigEssential essential,
+																									ConfigLMedS lmeds ) {
+		essential.checkValidity();
+
+		InstanceFactory<Estimate1ofEpipolar> factory = new InstanceFactory<Estimate1ofEpipolar>() {
+			@Override
+			public Estimate1ofEpipolar newInstance() {
+				return FactoryMultiView.computeEssential_1(essential.which, essential.numResolve);
+			}
+		};
+
+		return new LeastMedianOfSquaresConcurrent<>(lmeds.randSeed, lmeds.totalCycles,
+				new ModelManagerSe3_F64(), epipolarGenerator(factory), epipolarDistance(essential.intrinsic));
+	}
+
+	private static RansacConcurrent<Se3_F64, AssociatedPair> epipolarRansacConcurrent(
+			InstanceFactory<Estimate1ofEpipolar> epipolar, CameraPinholeRadial intrinsic, ConfigRansac ransac ) {
+
+		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
+
+		RansacConcurrent<Se3_F64, AssociatedPair> alg = new RansacConcurrent<>(ransac.randSeed,
+				new ModelManagerSe3_F64(), epipolarGenerator(epipolar), epipolarDistance(intrinsic),
+				ransac.maxIterations, ransacTOL);
+		alg.setConfidence(ransac.confidence);
+		return alg;
+	}
+
+	private static InstanceFactory<ModelGenerator<Se3_F64, AssociatedPair>> epipolarGenerator(
+			final InstanceFactory<Estimate1ofEpipolar> epipolar ) {
+		return new InstanceFactory<ModelGenerator<Se3_F64, AssociatedPair>>() {
+			@Override
+			public ModelGenerator<Se3_F64, AssociatedPair> newInstance() {
+				return new Se3FromEssentialGenerator(epipolar.newInstance(),
+						FactoryMultiView.triangulateTwoGeometric());
+			}
+		};
+	}
+
+	private static InstanceFactory<DistanceFromModel<Se3_F64, AssociatedPair>> epipolarDistance(
+			final CameraPinholeRadial intrinsic ) {
+		return new InstanceFactory<DistanceFromModel<Se3_F64, AssociatedPair>>() {
+			@Override
+			public DistanceFromModel<Se3_F64, AssociatedPair> newInstance() {
+				return new DistanceSe3SymmetricSq(FactoryMultiView.triangulateTwoGeometric(),
+						intrinsic.fx, intrinsic.fy, intrinsic.skew,
+						intrinsic.fx, intrinsic.fy, intrinsic.skew);
+			}
+		};
+	}
+
+	/**
+	 * Concurrent version of {@link #homographyRansac}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see RansacConcurrent
+	 *
+	 * @param homography Homography estimation parameters.  If null default is used.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Homography estimator
+	 */
+	public static RansacConcurrent<Homography2D_F64,AssociatedPair>
+	homographyRansacConcurrent( ConfigHomography homography , ConfigRansac ransac )
+	{
+		ransac.checkValidity();
+
+		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = new RansacConcurrent<>(ransac.randSeed,
+				new ModelManagerHomography2D_F64(), homographyGenerator(homography), homographyDistance(),
+				ransac.maxIterations, ransacTol);
+		alg.setConfidence(ransac.confidence);
+		return alg;
+	}
+
+	/**
+	 * Concurrent version of {@link #homographyLMedS}.  Hypotheses are evaluated using multiple threads.
+	 *
+	 * @see LeastMedianOfSquaresConcurrent
+	 *
+	 * @param homography Homography estimation parameters.  If null default is used.
+	 * @param lmeds Parameters for LMedS.  Can't be null.
+	 * @return Homography estimator
+	 */
+	public static LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair>
+	homographyLMedSConcurrent( ConfigHomography homography , ConfigLMedS lmeds )
+	{
+		return new LeastMedianOfSquaresConcurrent<>(lmeds.randSeed, lmeds.totalCycles,
+				new ModelManagerHomography2D_F64(), homographyGenerator(homography), homographyDistance());
+	}
+
+	private static InstanceFactory<ModelGenerator<Homography2D_F64,AssociatedPair>> homographyGenerator(
+			ConfigHomography homography ) {
+		final boolean normalize = homography == null ? new ConfigHomography().normalize : homography.normalize;
+		return new InstanceFactory<ModelGenerator<Homography2D_F64, AssociatedPair>>() {
+			@Override
+			public ModelGenerator<Homography2D_F64, AssociatedPair> newInstance() {
+				return new GenerateHomographyLinear(normalize);
+			}
+		};
+	}
+
+	private static InstanceFactory<DistanceFromModel<Homography2D_F64,AssociatedPair>> homographyDistance() {
+		return new InstanceFactory<DistanceFromModel<Homography2D_F64, AssociatedPair>>() {
+			@Override
+			public DistanceFromModel<Homography2D_F64, AssociatedPair> newInstance() {
+				return new DistanceHomographySq();
+			}
+		};
+	}
 }
@@ -276,6 +276,59 @@ public abstract class StandardPointTracker<T extends ImageGray<T>> {
 
 	}
 
+	/**
+	 * Index based access should return the same tracks in the same order as the lists
+	 */
+	@Test
+	public void indexAccess() {
+		tracker = createTracker();
+		processImage((T)image);
+		tracker.spawnTracks();
+		checkIndexAccess();
+
+		// after an update with a few tracks dropped
+		ImageMiscOps.addUniform(image,rand,0,5);
+		processImage((T)image);
+		checkIndexAccess();
+
+		// poor match so that tracks become dropped or inactive
+		GImageMiscOps.fill(image, 0);
+		processImage((T)image);
+		checkIndexAccess();
+	}
+
+	private void checkIndexAccess() {
+		List<PointTrack> all = tracker.getAllTracks(null);
+		assertEquals(all.size(),tracker.getTotalAll());
+		for (int i = 0; i < all.size(); i++) {
+			assertTrue(all.get(i) == tracker.getAll(i));
+		}
+
+		List<PointTrack> active = tracker.getActiveTracks(null);
+		assertEquals(active.size(),tracker.getTotalActive());
+		for (int i = 0; i < active.size(); i++) {
+			assertTrue(active.get(i) == tracker.getActive(i));
+		}
+
+		List<PointTrack> inactive = tracker.getInactiveTracks(null);
+		assertEquals(inactive.size(),tracker.getTotalInactive());
+		for (int i = 0; i < inactive.size(); i++) {
+			assertTrue(inactive.get(i) == tracker.getInactive(i));
+		}
+
+		List<PointTrack> dropped = tracker.getDroppedTracks(null);
+		assertEquals(dropped.size(),tracker.getTotalDropped());
+		for (int i = 0; i < dropped.size(); i++) {
+			assertTrue(dropped.get(i) == tracker.getDropped(i));
+		}
+
+		List<PointTrack> spawned = tracker.getNewTracks(null);
+		assertEquals(spawned.size(),tracker.getTotalNew());
+		for (int i = 0; i < spawned.size(); i++) {
+			assertTrue(spawned.get(i) == tracker.getNew(i));
+		}
+	}
+
 	@Test
 	public void testTrackUpdate() {
 		tracker = createTracker();
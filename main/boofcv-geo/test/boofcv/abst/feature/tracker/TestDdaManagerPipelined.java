@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.tracker;
+
+import boofcv.abst.feature.associate.AssociateDescTo2D;
+import boofcv.abst.feature.associate.ScoreAssociateHamming_B;
+import boofcv.abst.feature.describe.WrapDescribeBrief;
+import boofcv.abst.feature.detdesc.DetectDescribeFusion;
+import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
+import boofcv.abst.feature.detect.interest.InterestPointDetector;
+import boofcv.alg.feature.describe.DescribePointBrief;
+import boofcv.alg.feature.describe.brief.FactoryBriefDefinition;
+import boofcv.alg.feature.detect.interest.GeneralFeatureDetector;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.factory.feature.associate.FactoryAssociation;
+import boofcv.factory.feature.describe.FactoryDescribePointAlgs;
+import boofcv.factory.feature.detect.interest.FactoryDetectPoint;
+import boofcv.factory.feature.detect.interest.FactoryInterestPoint;
+import boofcv.factory.filter.blur.FactoryBlurFilter;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDdaManagerPipelined {
+
+	Random rand = new Random(234);
+	int width = 100;
+	int height = 80;
+
+	/**
+	 * The features returned should be the same as the features from the previous image
+	 */
+	@Test
+	public void detectFeatures_oneFrameLatency() {
+		List<GrayF32> images = createImages(5);
+
+		DdaManagerPipelined<GrayF32,TupleDesc_B> alg = new DdaManagerPipelined<>(createManager());
+		DdaFeatureManager<GrayF32,TupleDesc_B> expected = createManager();
+
+		assertEquals(1,alg.getLatency());
+
+		GrayF32 input = new GrayF32(width,height);
+		for (int i = 0; i < images.size(); i++) {
+			FastQueue<Point2D_F64> locFound = new FastQueue<>(10,Point2D_F64.class,false);
+			FastQueue<TupleDesc_B> descFound = new FastQueue<>(10,TupleDesc_B.class,false);
+
+			input.setTo(images.get(i));
+			alg.detectFeatures(input, locFound, descFound);
+			// the input image is modified but that should not change the results
+			ImageMiscOps.fill(input,0);
+
+			if( i == 0 ) {
+				assertEquals(-1,alg.getResultsFrame());
+				assertEquals(0,locFound.size);
+				assertEquals(0,descFound.size);
+				continue;
+			}
+			assertEquals(i-1,alg.getResultsFrame());
+
+			FastQueue<Point2D_F64> locExpected = new FastQueue<>(10,Point2D_F64.class,false);
+			FastQueue<TupleDesc_B> descExpected = new FastQueue<>(10,TupleDesc_B.class,false);
+			expected.detectFeatures(images.get(i-1), locExpected, descExpected);
+
+			assertTrue(locExpected.size > 0);
+			assertEquals(locExpected.size,locFound.size);
+			assertEquals(descExpected.size,descFound.size);
+			for (int j = 0; j < locExpected.size; j++) {
+				assertEquals(0,locExpected.get(j).distance(locFound.get(j)),1e-8);
+				assertArrayEquals(descExpected.get(j).data,descFound.get(j).data);
+			}
+		}
+	}
+
+	@Test
+	public void reset() {
+		List<GrayF32> images = createImages(2);
+		DdaManagerPipelined<GrayF32,TupleDesc_B> alg = new DdaManagerPipelined<>(createManager());
+
+		FastQueue<Point2D_F64> locFound = new FastQueue<>(10,Point2D_F64.class,false);
+		FastQueue<TupleDesc_B> descFound = new FastQueue<>(10,TupleDesc_B.class,false);
+		alg.detectFeatures(images.get(0), locFound, descFound);
+		alg.reset();
+		assertEquals(-1,alg.getResultsFrame());
+
+		// results from the image before the reset should be discarded
+		alg.detectFeatures(images.get(1), locFound, descFound);
+		assertEquals(-1,alg.getResultsFrame());
+		assertEquals(0,locFound.size);
+		locFound.reset();descFound.reset();
+		alg.detectFeatures(images.get(0), locFound, descFound);
+		assertEquals(0,alg.getResultsFrame());
+		assertTrue(locFound.size > 0);
+	}
+
+	/**
+	 * Compare a pipelined tracker against a regular tracker which is one frame behind
+	 */
+	@Test
+	public void tracker_compareToSerial() {
+		List<GrayF32> images = createImages(6);
+
+		DetectDescribeAssociate<GrayF32,TupleDesc_B> serial = createTracker();
+		DetectDescribeAssociate<GrayF32,TupleDesc_B> pipelined = createTracker();
+		pipelined.setPipelined(true);
+		assertTrue(pipelined.isPipelined());
+		assertFalse(serial.isPipelined());
+
+		pipelined.process(images.get(0));
+		pipelined.spawnTracks();
+		assertEquals(0,pipelined.getTotalAll());
+
+		for (int i = 1; i < images.size(); i++) {
+			serial.process(images.get(i-1));
+			serial.spawnTracks();
+			pipelined.process(images.get(i));
+			pipelined.spawnTracks();
+
+			assertTrue(serial.getTotalAll() > 0);
+			assertEquals(serial.getTotalAll(),pipelined.getTotalAll());
+			assertEquals(serial.getTotalActive(),pipelined.getTotalActive());
+			assertEquals(serial.getTotalNew(),pipelined.getTotalNew());
+			for (int j = 0; j < serial.getTotalActive(); j++) {
+				PointTrack a = serial.getActive(j);
+				PointTrack b = pipelined.getActive(j);
+				assertEquals(a.featureId,b.featureId);
+				assertEquals(0,a.distance(b),1e-8);
+			}
+		}
+
+		// turning it off should restore the original manager
+		pipelined.setPipelined(false);
+		assertFalse(pipelined.isPipelined());
+		assertTrue(pipelined.getManager() instanceof DdaManagerDetectDescribePoint);
+	}
+
+	private List<GrayF32> createImages( int total ) {
+		GrayF32 image = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(image, rand, 0, 100);
+
+		// each image is the previous image with a bit of noise so that tracks can be associated
+		List<GrayF32> images = new ArrayList<>();
+		for (int i = 0; i < total; i++) {
+			images.add(image.clone());
+			ImageMiscOps.addUniform(image,rand,0,5);
+		}
+		return images;
+	}
+
+	private DetectDescribeAssociate<GrayF32,TupleDesc_B> createTracker() {
+		ScoreAssociateHamming_B score = new ScoreAssociateHamming_B();
+		return new DetectDescribeAssociate<>(createManager(),
+				new AssociateDescTo2D<>(FactoryAssociation.greedy(score, 400, true)), false);
+	}
+
+	private DdaManagerDetectDescribePoint<GrayF32,TupleDesc_B> createManager() {
+		DescribePointBrief<GrayF32> brief =
+				FactoryDescribePointAlgs.brief(FactoryBriefDefinition.gaussian2(new Random(123), 16, 512),
+						FactoryBlurFilter.gaussian(ImageType.single(GrayF32.class), 0, 4));
+
+		GeneralFeatureDetector<GrayF32,GrayF32> corner =
+				FactoryDetectPoint.createShiTomasi(new ConfigGeneralDetector(100,2,0,0,true), false, GrayF32.class);
+
+		InterestPointDetector<GrayF32> detector =
+				FactoryInterestPoint.wrapPoint(corner, 1,GrayF32.class, GrayF32.class);
+
+		DetectDescribeFusion<GrayF32,TupleDesc_B> fused =
+				new DetectDescribeFusion<>(detector, null, new WrapDescribeBrief<>(brief, GrayF32.class));
+
+		return new DdaManagerDetectDescribePoint<>(fused);
+	}
+}
@@ -20,11 +20,15 @@ package boofcv.abst.feature.tracker;
 
 import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.tracker.klt.*;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.feature.tracker.FactoryPointTracker;
 import boofcv.struct.image.GrayF32;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -157,6 +161,62 @@ public class TestPointTrackerKltPyramid extends StandardPointTracker<GrayF32> {
 
 	}
 
+	/**
+	 * Tracks should be updated and dropped in exactly the same way when multiple threads are used
+	 */
+	@Test
+	public void process_concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			PointTrackerKltPyramid<GrayF32,GrayF32> serial =
+					(PointTrackerKltPyramid<GrayF32,GrayF32>)createTracker();
+			config = new PkltConfig();
+			config.concurrent = true;
+			PointTrackerKltPyramid<GrayF32,GrayF32> concurrent =
+					(PointTrackerKltPyramid<GrayF32,GrayF32>)FactoryPointTracker.klt(config,
+							new ConfigGeneralDetector(200, 3, 1000, 0, true), GrayF32.class, GrayF32.class);
+			assertTrue(concurrent.isConcurrent());
+
+			serial.process(image);
+			serial.spawnTracks();
+			concurrent.process(image);
+			concurrent.spawnTracks();
+			assertTrue(serial.getActiveTracks(null).size() > 20);
+
+			// shift the image, add noise, and remove texture from part of it so some tracks are dropped
+			GrayF32 shifted = image.createSameShape();
+			for (int frame = 0; frame < 3; frame++) {
+				ImageMiscOps.fill(shifted, 0);
+				ImageMiscOps.copy(0, 0, 1, 1, width - 1, height - 1, image, shifted);
+				ImageMiscOps.addGaussian(shifted, rand, 2, 0, 255);
+				ImageMiscOps.fillRectangle(shifted, 0, width/2, 0, width/2, height/2);
+				image.setTo(shifted);
+
+				serial.process(image);
+				concurrent.process(image);
+
+				checkIdentical(serial.getActiveTracks(null), concurrent.getActiveTracks(null));
+				checkIdentical(serial.getDroppedTracks(null), concurrent.getDroppedTracks(null));
+			}
+			assertTrue(serial.getActiveTracks(null).size() > 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private static void checkIdentical( List<PointTrack> expected , List<PointTrack> found ) {
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			PointTrack e = expected.get(i);
+			PointTrack f = found.get(i);
+			assertEquals(e.featureId, f.featureId);
+			assertEquals(e.x, f.x, 0);
+			assertEquals(e.y, f.y, 0);
+		}
+	}
+
 	/**
 	 * Don't change the track state
 	 */
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.GeoTestingOps;
+import boofcv.alg.geo.bundle.CalibPoseAndPointResiduals;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse {
+
+	Random rand = new Random(234);
+	int numViews = 2;
+	int numPoints = 4;
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+		
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,500);
+	
+		assertTrue(alg.process(model, observations));
+		
+		// compute error, which should be zero
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  See if the error decreases
+	 */
+	@Test
+	public void noisy() {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+
+		// add noise to the model
+		model.getWorldToCamera(0).getT().x += 0.02;
+		model.getWorldToCamera(1).getT().y -= 0.01;
+
+		double errorBefore = computeError(model,observations);
+
+		assertTrue(alg.process(model, observations));
+
+		double errorAfter = computeError(model,observations);
+
+		// the error should be less now
+		assertTrue(errorAfter<errorBefore*0.1);
+	}
+
+	/**
+	 * If the iteration limit is hit the model should still be refined, but it shouldn't be marked as converged
+	 */
+	@Test
+	public void iterationLimit() {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,1);
+
+		model.getWorldToCamera(0).getT().x += 0.02;
+		model.getWorldToCamera(1).getT().y -= 0.01;
+
+		double errorBefore = computeError(model,observations);
+
+		assertTrue(alg.process(model, observations));
+		assertFalse(alg.isConverged());
+		assertTrue(computeError(model,observations) < errorBefore);
+
+		alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+		assertTrue(alg.process(model, observations));
+		assertTrue(alg.isConverged());
+	}
+
+	/**
+	 * A larger problem with known views and known points.  Those shouldn't be modified
+	 */
+	@Test
+	public void noisy_known() {
+		int numViews = 8;
+		int numPoints = 40;
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+
+		model.setViewKnown(0,true);
+		model.setPointKnown(3,true);
+
+		Se3_F64 expectedView = model.getWorldToCamera(0).copy();
+		Point3D_F64 expectedPoint = model.getPoint(3).copy();
+
+		for (int i = 1; i < numViews; i++) {
+			model.getWorldToCamera(i).getT().x += rand.nextGaussian()*0.01;
+		}
+		for (int i = 0; i < numPoints; i++) {
+			if( i != 3 )
+				model.getPoint(i).z += rand.nextGaussian()*0.05;
+		}
+
+		double errorBefore = computeError(model,observations);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+		assertTrue(alg.process(model, observations));
+
+		assertTrue(computeError(model,observations) < errorBefore*1e-4);
+
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expectedView.R, model.getWorldToCamera(0).R, 0));
+		assertEquals(0, expectedView.T.distance(model.getWorldToCamera(0).T), 0);
+		assertEquals(0, expectedPoint.distance(model.getPoint(3)), 0);
+	}
+
+	private double computeError( CalibratedPoseAndPoint model ,
+								 List<ViewPointObservations> observations )
+	{
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(null,model,observations);
+		double residuals[] = new double[ func.getNumOfOutputsM() ];
+
+		func.process(model,residuals);
+
+		return GeoTestingOps.residualError(residuals);
+	}
+}
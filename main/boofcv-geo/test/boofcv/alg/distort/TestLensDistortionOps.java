@@ -23,6 +23,7 @@ import boofcv.struct.calib.CameraPinhole;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.distort.Point2Transform2_F32;
 import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.distort.RemapTable;
 import georegression.struct.affine.Affine2D_F32;
 import georegression.struct.affine.Affine2D_F64;
 import georegression.struct.point.Point2D_F32;
@@ -186,6 +187,34 @@ public class TestLensDistortionOps {
 		assertEquals(norm.y, normFound.y, 1e-3);
 	}
 
+	/**
+	 * The table should contain the same values as the transform
+	 */
+	@Test
+	public void changeCameraModelTable() {
+		CameraPinholeRadial orig = new CameraPinholeRadial().
+				fsetK(300, 320, 0, 150, 130, width, height).fsetRadial(0.1, 0.05);
+		CameraPinhole desired = new CameraPinhole(orig);
+		desired.width = 200;
+		desired.height = 210;
+
+		RemapTable table = LensDistortionOps.changeCameraModelTable(
+				AdjustmentType.FULL_VIEW,orig,desired,null);
+		assertEquals(200,table.width);
+		assertEquals(210,table.height);
+
+		Point2Transform2_F32 expected = LensDistortionOps.transformChangeModel_F32(
+				AdjustmentType.FULL_VIEW,orig,desired,true,null);
+
+		for (int y = 0; y < table.height; y += 13) {
+			for (int x = 0; x < table.width; x += 11) {
+				expected.compute(x,y,pf);
+				assertEquals(pf.x, table.srcX[table.getIndex(x,y)], 1e-4f);
+				assertEquals(pf.y, table.srcY[table.getIndex(x,y)], 1e-4f);
+			}
+		}
+	}
+
 	private void checkBorderOutside(Point2Transform2_F32 tran, Point2Transform2_F32 tranInv) {
 		for( int y = 0; y < height; y++ ) {
 			checkBorderOutside(0, y, tran, tranInv);
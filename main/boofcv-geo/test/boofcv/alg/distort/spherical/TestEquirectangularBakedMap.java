@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.spherical;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.Planar;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEquirectangularBakedMap {
+	Random rand = new Random(234);
+
+	/**
+	 * Hand constructed map with a pixel inside the image, one at the border, and one with no entries
+	 */
+	@Test
+	public void render_gray() {
+		EquirectangularBakedMap map = createMap();
+
+		GrayF32 image0 = new GrayF32(4,3);
+		GrayF32 image1 = new GrayF32(4,3);
+		GImageMiscOps.fillUniform(image0,rand,0,100);
+		GImageMiscOps.fillUniform(image1,rand,0,100);
+		List<GrayF32> images = new ArrayList<>();
+		images.add(image0);
+		images.add(image1);
+
+		GrayF32 output = new GrayF32(3,1);
+		map.render(images,output);
+
+		float a = 0.75f*(0.5f*image0.get(1,1) + 0.5f*image0.get(2,1)) + 0.25f*(0.5f*image0.get(1,2) + 0.5f*image0.get(2,2));
+		// the border pixel is repeated
+		float b = image1.get(3,2);
+		assertEquals(0.25f*a + 0.75f*b, output.get(0,0), 1e-3f);
+		assertEquals(image1.get(0,0), output.get(1,0), 1e-3f);
+		assertEquals(0, output.get(2,0), 0f);
+	}
+
+	/**
+	 * Planar and interleaved images should be the same as rendering each band independently
+	 */
+	@Test
+	public void render_multiBand() {
+		EquirectangularBakedMap map = createMap();
+
+		List<Planar<GrayF32>> planar = new ArrayList<>();
+		List<InterleavedF32> interleaved = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			Planar<GrayF32> p = new Planar<>(GrayF32.class,4,3,2);
+			GImageMiscOps.fillUniform(p,rand,0,100);
+			InterleavedF32 in = new InterleavedF32(4,3,2);
+			ConvertImage.convert(p,in);
+			planar.add(p);
+			interleaved.add(in);
+		}
+
+		Planar<GrayF32> foundPlanar = new Planar<>(GrayF32.class,3,1,2);
+		InterleavedF32 foundInterleaved = new InterleavedF32(3,1,2);
+		map.render(planar,foundPlanar);
+		map.render(interleaved,foundInterleaved);
+
+		for (int band = 0; band < 2; band++) {
+			List<GrayF32> gray = new ArrayList<>();
+			gray.add(planar.get(0).getBand(band));
+			gray.add(planar.get(1).getBand(band));
+			GrayF32 expected = new GrayF32(3,1);
+			map.render(gray,expected);
+
+			for (int x = 0; x < 3; x++) {
+				assertEquals(expected.get(x,0), foundPlanar.getBand(band).get(x,0), 1e-4f);
+				assertEquals(expected.get(x,0), foundInterleaved.getBand(x,0,band), 1e-4f);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void render_wrongCameraShape() {
+		EquirectangularBakedMap map = createMap();
+		List<GrayF32> images = new ArrayList<>();
+		images.add(new GrayF32(4,3));
+		images.add(new GrayF32(4,4));
+		map.render(images,new GrayF32(3,1));
+	}
+
+	private EquirectangularBakedMap createMap() {
+		EquirectangularBakedMap map = new EquirectangularBakedMap(3,1,2,3);
+		map.cameraWidth[0] = map.cameraWidth[1] = 4;
+		map.cameraHeight[0] = map.cameraHeight[1] = 3;
+
+		map.offsets[0] = 0;
+		map.setEntry(0,0,1.5f,1.25f,0.25f);
+		map.setEntry(1,1,3f,2f,0.75f);
+		map.offsets[1] = 2;
+		map.setEntry(2,1,0,0,1.0f);
+		map.offsets[2] = 3;
+		map.offsets[3] = 3;
+		return map;
+	}
+}
@@ -22,6 +22,7 @@ import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.LensDistortionWideFOV;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.struct.distort.Point2Transform3_F32;
@@ -31,6 +32,7 @@ import boofcv.struct.distort.Point3Transform2_F64;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
 import georegression.geometry.ConvertRotation3D_F32;
 import georegression.metric.UtilAngle;
 import georegression.misc.GrlConstants;
@@ -42,8 +44,9 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * Unit tests below handle the following:
@@ -58,6 +61,8 @@ import static org.junit.Assert.assertTrue;
  */
 public class TestMultiCameraToEquirectangular {
 
+	private Random rand = new Random(234);
+
 	private int inputHeight = 150;
 	private int inputWidth = 200;
 
@@ -160,6 +165,98 @@ public class TestMultiCameraToEquirectangular {
 		assertTrue(found <= 0.05 );
 	}
 
+	/**
+	 * Rendering with a baked map should produce the same image as rendering with the distortion
+	 */
+	@Test
+	public void bake() {
+		MultiCameraToEquirectangular<GrayF32> alg = createTwoCameras();
+
+		List<GrayF32> images = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			// bilinear interpolation is exact for a linear function
+			GrayF32 image = new GrayF32(inputWidth,inputHeight);
+			for (int y = 0; y < inputHeight; y++) {
+				for (int x = 0; x < inputWidth; x++) {
+					image.set(x,y,x*0.5f+y*(i+1)+i*20);
+				}
+			}
+			images.add(image);
+		}
+
+		alg.render(images);
+		GrayF32 expected = alg.getRenderedImage().clone();
+
+		long estimate = alg.estimateBakedBytes();
+		EquirectangularBakedMap map = alg.bake();
+		assertSame(map, alg.getBakedMap());
+		assertEquals(estimate, map.getBytes());
+		assertTrue(map.getTotalEntries() > 0);
+
+		alg.render(images);
+		GrayF32 found = alg.getRenderedImage();
+
+		// pixels along the input image's border are handled differently and are allowed to be different
+		int totalBad = 0;
+		for (int y = 0; y < equiHeight; y++) {
+			for (int x = 0; x < equiWidth; x++) {
+				if( Math.abs(expected.get(x,y)-found.get(x,y)) > 0.02 )
+					totalBad++;
+			}
+		}
+		assertTrue(totalBad < equiWidth*equiHeight*0.01);
+
+		// adding a camera should discard the map
+		alg.addCamera(new Se3_F32(),new HelperDistortion(),inputWidth,inputHeight);
+		assertNull(alg.getBakedMap());
+	}
+
+	/**
+	 * Concurrent rendering of the baked map should produce identical results
+	 */
+	@Test
+	public void bake_concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			MultiCameraToEquirectangular<GrayF32> alg = createTwoCameras();
+			alg.bake();
+
+			List<GrayF32> images = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				GrayF32 image = new GrayF32(inputWidth,inputHeight);
+				ImageMiscOps.fillUniform(image,rand,0,255);
+				images.add(image);
+			}
+
+			alg.render(images);
+			GrayF32 expected = alg.getRenderedImage().clone();
+
+			alg.setConcurrent(true);
+			assertTrue(alg.getBakedMap().isConcurrent());
+			alg.render(images);
+
+			BoofTesting.assertEquals(expected,alg.getRenderedImage(),0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setBakedMap_wrongShape() {
+		MultiCameraToEquirectangular<GrayF32> alg = createAlgorithm();
+		alg.setBakedMap(new EquirectangularBakedMap(equiWidth+1,equiHeight,1,0));
+	}
+
+	private MultiCameraToEquirectangular<GrayF32> createTwoCameras() {
+		MultiCameraToEquirectangular<GrayF32> alg = createAlgorithm();
+		alg.addCamera(new Se3_F32(),new HelperDistortion(),inputWidth,inputHeight);
+		Se3_F32 cam2_to_1 = new Se3_F32();
+		ConvertRotation3D_F32.eulerToMatrix(EulerType.XYZ, GrlConstants.F_PI, 0,0,cam2_to_1.R);
+		alg.addCamera(cam2_to_1,new HelperDistortion(),inputWidth,inputHeight);
+		return alg;
+	}
+
 	private MultiCameraToEquirectangular<GrayF32> createAlgorithm() {
 		ImageType<GrayF32> imageType = ImageType.single(GrayF32.class);
 		ImageDistort<GrayF32,GrayF32> distort = FactoryDistort.
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense;
+import boofcv.concurrency.BoofConcurrency;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointSchurLM {
+
+	Random rand = new Random(234);
+
+	int numViews = 10;
+	int numPoints = 50;
+
+	/**
+	 * Perfect observations with a corrupted model.  The reduced camera system is solved explicitly
+	 */
+	@Test
+	public void noisy_dense() {
+		noisy(600, false);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  The reduced camera system is solved using conjugate gradient
+	 */
+	@Test
+	public void noisy_iterative() {
+		noisy(0, false);
+	}
+
+	@Test
+	public void noisy_concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			noisy(600, true);
+			noisy(0, true);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private void noisy( int maxDense , boolean concurrent ) {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+
+		// fix the first view and one point so that there's a unique solution
+		model.setViewKnown(0,true);
+		model.setPointKnown(0,true);
+		CalibratedPoseAndPoint expected = copy(model);
+
+		addNoise(model);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+		alg.setMaxDenseCameraParam(maxDense);
+		alg.setConcurrent(concurrent);
+		alg.configure(model,observations);
+		assertTrue(alg.process(500,1e-14,1e-14));
+
+		assertEquals(0,alg.getFunctionValue(),1e-14);
+
+		for (int i = 0; i < numViews; i++) {
+			Se3_F64 e = expected.getWorldToCamera(i);
+			Se3_F64 f = model.getWorldToCamera(i);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(e.R,f.R,1e-5));
+			assertEquals(0,e.T.distance(f.T),1e-5);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,expected.getPoint(i).distance(model.getPoint(i)),1e-4);
+		}
+	}
+
+	/**
+	 * Results should be identical with and without threads
+	 */
+	@Test
+	public void concurrent_identical() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			concurrent_identical(600);
+			concurrent_identical(0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private void concurrent_identical( int maxDense ) {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+		addNoise(model);
+
+		CalibratedPoseAndPoint modelA = copy(model);
+		CalibratedPoseAndPoint modelB = copy(model);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+		alg.setMaxDenseCameraParam(maxDense);
+		alg.configure(modelA,observations);
+		alg.process(20,0,0);
+
+		alg.setConcurrent(true);
+		alg.configure(modelB,observations);
+		alg.process(20,0,0);
+
+		for (int i = 0; i < numViews; i++) {
+			Se3_F64 a = modelA.getWorldToCamera(i);
+			Se3_F64 b = modelB.getWorldToCamera(i);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(a.R,b.R,0));
+			assertEquals(0,a.T.distance(b.T),0);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,modelA.getPoint(i).distance(modelB.getPoint(i)),0);
+		}
+	}
+
+	/**
+	 * Observations are made by a stereo camera.  Right camera observations constrain the scale, so only the first
+	 * view needs to be fixed.
+	 */
+	@Test
+	public void stereo() {
+		stereo(600);
+		stereo(0);
+	}
+
+	private void stereo( int maxDense ) {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+
+		Se3_F64 leftToRight = new Se3_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,0.01,-0.02,0.005,leftToRight.R);
+		leftToRight.T.set(-0.2,0.01,0);
+		addRightObservations(model,observations,leftToRight);
+
+		model.setViewKnown(0,true);
+		CalibratedPoseAndPoint expected = copy(model);
+		addNoise(model);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+		alg.setMaxDenseCameraParam(maxDense);
+		alg.setViewToCamera(Arrays.asList(leftToRight));
+		alg.configure(model,observations);
+		assertTrue(alg.process(500,1e-14,1e-14));
+
+		assertEquals(0,alg.getFunctionValue(),1e-14);
+
+		for (int i = 0; i < numViews; i++) {
+			Se3_F64 e = expected.getWorldToCamera(i);
+			Se3_F64 f = model.getWorldToCamera(i);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(e.R,f.R,1e-5));
+			assertEquals(0,e.T.distance(f.T),1e-5);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,expected.getPoint(i).distance(model.getPoint(i)),1e-4);
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void stereo_unknownCamera() {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+		addRightObservations(model,observations,new Se3_F64());
+
+		new CalibPoseAndPointSchurLM().configure(model,observations);
+	}
+
+	/**
+	 * Optimization should stop after the first iteration when the time limit is tiny
+	 */
+	@Test
+	public void maxTime() {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+		model.setViewKnown(0,true);
+		model.setPointKnown(0,true);
+		addNoise(model);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+		alg.setMaxTime(1e-6);
+		alg.configure(model,observations);
+		assertFalse(alg.process(500,0,0));
+		assertEquals(1,alg.getIterations());
+
+		alg.setMaxTime(0);
+		alg.configure(model,observations);
+		assertFalse(alg.process(5,0,0));
+		assertEquals(5,alg.getIterations());
+	}
+
+	private static void addRightObservations( CalibratedPoseAndPoint model ,
+											  List<ViewPointObservations> observations ,
+											  Se3_F64 leftToRight ) {
+		Point3D_F64 left = new Point3D_F64();
+		Point3D_F64 right = new Point3D_F64();
+		for (int view = 0; view < observations.size(); view++) {
+			for (int i = 0; i < model.getNumPoints(); i++) {
+				SePointOps_F64.transform(model.getWorldToCamera(view),model.getPoint(i),left);
+				SePointOps_F64.transform(leftToRight,left,right);
+				observations.get(view).getPoints().grow().set(i,1,new Point2D_F64(right.x/right.z,right.y/right.z));
+			}
+		}
+	}
+
+	/**
+	 * If everything is known then nothing should change
+	 */
+	@Test
+	public void allKnown() {
+		CalibratedPoseAndPoint model = TestBundleAdjustmentCalibratedDense.createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations =
+				TestBundleAdjustmentCalibratedDense.createObservations(model,numViews,numPoints);
+		addNoise(model);
+
+		for (int i = 0; i < numViews; i++)
+			model.setViewKnown(i,true);
+		for (int i = 0; i < numPoints; i++)
+			model.setPointKnown(i,true);
+
+		CalibratedPoseAndPoint expected = copy(model);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM();
+		alg.configure(model,observations);
+		assertTrue(alg.process(20,1e-12,1e-12));
+
+		for (int i = 0; i < numViews; i++) {
+			assertTrue(MatrixFeatures_DDRM.isIdentical(
+					expected.getWorldToCamera(i).R,model.getWorldToCamera(i).R,0));
+		}
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,expected.getPoint(i).distance(model.getPoint(i)),0);
+		}
+	}
+
+	private void addNoise( CalibratedPoseAndPoint model ) {
+		for (int i = 0; i < model.getNumViews(); i++) {
+			if( !model.isViewKnown(i) )
+				model.getWorldToCamera(i).getT().x += rand.nextGaussian()*0.01;
+		}
+		for (int i = 0; i < model.getNumPoints(); i++) {
+			if( !model.isPointKnown(i) ) {
+				Point3D_F64 p = model.getPoint(i);
+				p.x += rand.nextGaussian()*0.01;
+				p.z += rand.nextGaussian()*0.05;
+			}
+		}
+	}
+
+	private static CalibratedPoseAndPoint copy( CalibratedPoseAndPoint src ) {
+		CalibratedPoseAndPoint dst = new CalibratedPoseAndPoint();
+		dst.configure(src.getNumViews(),src.getNumPoints());
+		for (int i = 0; i < src.getNumViews(); i++) {
+			dst.getWorldToCamera(i).set(src.getWorldToCamera(i));
+			dst.setViewKnown(i,src.isViewKnown(i));
+		}
+		for (int i = 0; i < src.getNumPoints(); i++) {
+			dst.getPoint(i).set(src.getPoint(i));
+			dst.setPointKnown(i,src.isPointKnown(i));
+		}
+		return dst;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.alg.geo.robust.TestRansacConcurrent.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLeastMedianOfSquaresConcurrent {
+
+	static int maxThreads;
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 H = new Homography2D_F64(1.1,0.05,5,-0.02,0.95,-3,0.0001,0.0002,1);
+
+	@BeforeClass
+	public static void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+	}
+
+	@AfterClass
+	public static void after() {
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * With less than half outliers the median error of the best model should be zero
+	 */
+	@Test
+	public void findModel() {
+		List<AssociatedPair> pairs = createPairs(H, 120, 80, rand);
+
+		LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> alg =
+				new LeastMedianOfSquaresConcurrent<>(0xBEEF, 200, 1e-4, 0.5,
+						new ModelManagerHomography2D_F64(), generator(), distance());
+
+		assertTrue(alg.process(pairs));
+		assertEquals(0, alg.getFitQuality(), 1e-8);
+
+		// inliers are the half with the smallest error, which should all be true inliers
+		assertEquals(100, alg.getMatchSet().size());
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(alg.getInputIndex(i) < 120);
+		}
+	}
+
+	/**
+	 * The results should be the same no matter how many threads are used
+	 */
+	@Test
+	public void sameResultsForAnyThreads() {
+		List<AssociatedPair> pairs = createPairs(H, 100, 60, rand);
+
+		Homography2D_F64 expected = null;
+		double expectedQuality = 0;
+		for (int threads = 1; threads <= 4; threads++) {
+			BoofConcurrency.setMaxThreads(threads);
+			LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> alg =
+					new LeastMedianOfSquaresConcurrent<>(0xBEEF, 100,
+							new ModelManagerHomography2D_F64(), generator(), distance());
+			assertTrue(alg.process(pairs));
+
+			if( expected == null ) {
+				expected = alg.getModelParameters().copy();
+				expectedQuality = alg.getFitQuality();
+			} else {
+				checkIdentical(expected, alg.getModelParameters());
+				assertEquals(expectedQuality, alg.getFitQuality(), 0);
+			}
+			// all points are inliers by default
+			assertEquals(pairs.size(), alg.getMatchSet().size());
+		}
+		BoofConcurrency.setMaxThreads(4);
+	}
+}
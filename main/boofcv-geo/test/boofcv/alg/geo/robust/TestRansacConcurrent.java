@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacConcurrent {
+
+	static int maxThreads;
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 H = new Homography2D_F64(1.1,0.05,5,-0.02,0.95,-3,0.0001,0.0002,1);
+
+	@BeforeClass
+	public static void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+	}
+
+	@AfterClass
+	public static void after() {
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * Finds the inliers when there's a large fraction of outliers
+	 */
+	@Test
+	public void findInliers() {
+		List<AssociatedPair> pairs = createPairs(H, 200, 150, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(200);
+		assertTrue(alg.process(pairs));
+
+		List<AssociatedPair> matches = alg.getMatchSet();
+		assertEquals(200, matches.size());
+		for (int i = 0; i < matches.size(); i++) {
+			assertTrue(alg.getInputIndex(i) < 200);
+			assertSame(pairs.get(alg.getInputIndex(i)), matches.get(i));
+		}
+		assertEquals(200, alg.getFitQuality(), 0);
+	}
+
+	/**
+	 * The results should be the same no matter how many threads are used
+	 */
+	@Test
+	public void sameResultsForAnyThreads() {
+		List<AssociatedPair> pairs = createPairs(H, 100, 100, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(150);
+
+		BoofConcurrency.setMaxThreads(1);
+		assertTrue(alg.process(pairs));
+		Homography2D_F64 expected = alg.getModelParameters().copy();
+		int expectedMatches = alg.getMatchSet().size();
+
+		for (int threads = 2; threads <= 5; threads++) {
+			BoofConcurrency.setMaxThreads(threads);
+			alg = create(150);
+			assertTrue(alg.process(pairs));
+			checkIdentical(expected, alg.getModelParameters());
+			assertEquals(expectedMatches, alg.getMatchSet().size());
+		}
+		BoofConcurrency.setMaxThreads(4);
+	}
+
+	/**
+	 * With no outliers it should stop after the first batch when confidence is specified
+	 */
+	@Test
+	public void earlyTermination() {
+		List<AssociatedPair> pairs = createPairs(H, 100, 10, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(1000);
+		alg.setBatchSize(20);
+		assertTrue(alg.process(pairs));
+		assertEquals(1000, alg.getIterations());
+
+		alg.setConfidence(0.99);
+		assertTrue(alg.process(pairs));
+		assertTrue(alg.getIterations() < 1000);
+		assertEquals(0, alg.getIterations() % 20);
+		assertEquals(100, alg.getMatchSet().size());
+	}
+
+	@Test
+	public void tooFewPoints() {
+		List<AssociatedPair> pairs = createPairs(H, 3, 0, rand);
+		assertFalse(create(10).process(pairs));
+	}
+
+	private RansacConcurrent<Homography2D_F64,AssociatedPair> create( int maxIterations ) {
+		return new RansacConcurrent<>(0xBEEF, new ModelManagerHomography2D_F64(),
+				generator(), distance(), maxIterations, 0.5*0.5);
+	}
+
+	static void checkIdentical( Homography2D_F64 a , Homography2D_F64 b ) {
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertEquals(a.get(i,j), b.get(i,j), 0);
+			}
+		}
+	}
+
+	static InstanceFactory<ModelGenerator<Homography2D_F64,AssociatedPair>> generator() {
+		return new InstanceFactory<ModelGenerator<Homography2D_F64, AssociatedPair>>() {
+			@Override
+			public ModelGenerator<Homography2D_F64, AssociatedPair> newInstance() {
+				return new GenerateHomographyLinear(true);
+			}
+		};
+	}
+
+	static InstanceFactory<DistanceFromModel<Homography2D_F64,AssociatedPair>> distance() {
+		return new InstanceFactory<DistanceFromModel<Homography2D_F64, AssociatedPair>>() {
+			@Override
+			public DistanceFromModel<Homography2D_F64, AssociatedPair> newInstance() {
+				return new DistanceHomographySq();
+			}
+		};
+	}
+
+	/**
+	 * Creates a set of pairs.  Inliers come first and are followed by outliers
+	 */
+	static List<AssociatedPair> createPairs( Homography2D_F64 H , int numInliers , int numOutliers , Random rand ) {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		for (int i = 0; i < numInliers+numOutliers; i++) {
+			Point2D_F64 a = new Point2D_F64(rand.nextDouble()*400, rand.nextDouble()*300);
+			Point2D_F64 b = new Point2D_F64();
+			if( i < numInliers ) {
+				HomographyPointOps_F64.transform(H, a, b);
+			} else {
+				b.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			}
+			pairs.add(new AssociatedPair(a,b));
+		}
+		return pairs;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.calibration;
+
+import boofcv.abst.geo.calibration.ConcurrentCalibrationDetector;
+import boofcv.io.image.UtilImageIO;
+import boofcv.struct.image.GrayF32;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides images stored in files to {@link ConcurrentCalibrationDetector}.  The cache key is a SHA-1 hash
+ * of the file's contents and a description of the detector, so changing either will invalidate the cache.
+ *
+ * @author Peter Abeles
+ */
+public class CalibrationImageFiles implements ConcurrentCalibrationDetector.ImageSource {
+
+	// list of image files
+	private List<File> files = new ArrayList<>();
+
+	// describes the detector and its configuration
+	private String detectorDescription;
+
+	/**
+	 * Specifies the images and detector
+	 *
+	 * @param files List of image files
+	 * @param detectorDescription Uniquely describes the detector and its configuration
+	 */
+	public CalibrationImageFiles(List<File> files, String detectorDescription) {
+		this.files.addAll(files);
+		this.detectorDescription = detectorDescription;
+	}
+
+	@Override
+	public int size() {
+		return files.size();
+	}
+
+	@Override
+	public GrayF32 load(int index) {
+		return UtilImageIO.loadImage(files.get(index).getPath(), GrayF32.class);
+	}
+
+	@Override
+	public String getKey(int index) {
+		try {
+			return hash(files.get(index), detectorDescription);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Computes a SHA-1 hash of the text and the file's contents.
+	 *
+	 * @return hash encoded as a hexadecimal string
+	 */
+	public static String hash( File file , String text ) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		digest.update(text.getBytes("UTF-8"));
+
+		byte[] buffer = new byte[1024*16];
+		InputStream input = new FileInputStream(file);
+		try {
+			int length;
+			while( (length = input.read(buffer)) > 0 ) {
+				digest.update(buffer, 0, length);
+			}
+		} finally {
+			input.close();
+		}
+
+		StringBuilder hex = new StringBuilder();
+		for( byte b : digest.digest() ) {
+			hex.append(String.format("%02x", b & 0xFF));
+		}
+		return hex.toString();
+	}
+
+	public List<File> getFiles() {
+		return files;
+	}
+
+	public String getDetectorDescription() {
+		return detectorDescription;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.calibration;
+
+import boofcv.abst.geo.calibration.CalibrationObservationCache;
+import boofcv.abst.geo.calibration.ConcurrentCalibrationDetector;
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.struct.geo.PointIndex2D_F64;
+
+import java.io.*;
+
+/**
+ * Caches detected calibration targets on disk.  Each key is saved in its own file inside of a directory.  The
+ * file is a simple text format which stores if the target was detected, the image shape, and the location and
+ * index of each calibration point.
+ *
+ * @author Peter Abeles
+ */
+public class CalibrationObservationFileCache implements CalibrationObservationCache {
+
+	public static final String HEADER = "# BoofCV Calibration Observations";
+	public static final String SUFFIX = ".txt";
+
+	// directory all the files are saved in
+	private File directory;
+
+	/**
+	 * Specifies the cache's directory.  If it doesn't exist it will be created.
+	 *
+	 * @param directory Directory the cache is stored in
+	 */
+	public CalibrationObservationFileCache(File directory) {
+		if( !directory.exists() && !directory.mkdirs() )
+			throw new RuntimeException("Can't create cache directory "+directory.getPath());
+		if( !directory.isDirectory() )
+			throw new IllegalArgumentException("Not a directory. "+directory.getPath());
+		this.directory = directory;
+	}
+
+	@Override
+	public boolean load(String key, ConcurrentCalibrationDetector.Results results) {
+		File file = new File(directory, key + SUFFIX);
+		if( !file.exists() )
+			return false;
+
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				read(reader, results);
+			} finally {
+				reader.close();
+			}
+			return true;
+		} catch( IOException | RuntimeException e ) {
+			// a corrupted entry is treated the same as a missing one so that it gets recomputed
+			return false;
+		}
+	}
+
+	@Override
+	public void save(String key, ConcurrentCalibrationDetector.Results results) {
+		File file = new File(directory, key + SUFFIX);
+		// write to a temporary file first so that a partial file is never read
+		File tmp = new File(directory, key + SUFFIX + ".tmp" + Thread.currentThread().getId());
+		try {
+			PrintWriter out = new PrintWriter(new FileWriter(tmp));
+			try {
+				write(results, out);
+			} finally {
+				out.close();
+			}
+			if( !tmp.renameTo(file) ) {
+				file.delete();
+				if( !tmp.renameTo(file) )
+					throw new IOException("Failed to rename "+tmp.getPath());
+			}
+		} catch( IOException e ) {
+			tmp.delete();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Writes the results in a text format
+	 */
+	public static void write( ConcurrentCalibrationDetector.Results results , PrintWriter out ) {
+		out.println(HEADER);
+		out.println("detected " + results.detected);
+		out.println("shape " + results.width + " " + results.height);
+		if( results.detected ) {
+			CalibrationObservation obs = results.observation;
+			out.println("points " + obs.size());
+			for (int i = 0; i < obs.size(); i++) {
+				PointIndex2D_F64 p = obs.get(i);
+				out.println(p.index + " " + p.x + " " + p.y);
+			}
+		}
+	}
+
+	/**
+	 * Reads results that were written by {@link #write}
+	 */
+	public static void read( BufferedReader reader , ConcurrentCalibrationDetector.Results results )
+			throws IOException
+	{
+		results.reset();
+
+		String line = reader.readLine();
+		if( line == null || !line.equals(HEADER) )
+			throw new IOException("Unexpected header");
+
+		String[] words = readWords(reader, "detected", 2);
+		results.detected = Boolean.parseBoolean(words[1]);
+
+		words = readWords(reader, "shape", 3);
+		results.width = Integer.parseInt(words[1]);
+		results.height = Integer.parseInt(words[2]);
+
+		if( results.detected ) {
+			words = readWords(reader, "points", 2);
+			int N = Integer.parseInt(words[1]);
+
+			CalibrationObservation obs = new CalibrationObservation();
+			for (int i = 0; i < N; i++) {
+				line = reader.readLine();
+				if( line == null )
+					throw new IOException("Unexpected end of file");
+				words = line.split(" ");
+				if( words.length != 3 )
+					throw new IOException("Expected 3 words for a point");
+				obs.points.add(new PointIndex2D_F64(
+						Double.parseDouble(words[1]), Double.parseDouble(words[2]), Integer.parseInt(words[0])));
+			}
+			results.observation = obs;
+		}
+	}
+
+	private static String[] readWords( BufferedReader reader , String name , int expected ) throws IOException {
+		String line = reader.readLine();
+		if( line == null )
+			throw new IOException("Unexpected end of file");
+		String[] words = line.split(" ");
+		if( words.length != expected || !words[0].equals(name) )
+			throw new IOException("Expected '"+name+"' line");
+		return words;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.distort;
+
+import boofcv.alg.distort.spherical.EquirectangularBakedMap;
+import boofcv.struct.distort.RemapTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Functions for saving and loading precomputed distortion maps from/to disk.  Maps are stored in a simple
+ * binary little endian format which starts with a magic string, followed by the shape, followed by the raw arrays.
+ * Maps are written and read through a {@link FileChannel} and a direct buffer, which makes loading a large map
+ * much faster than computing it.
+ * </p>
+ *
+ * <p>
+ * Each load reads the arrays into a new map on the heap.  To share a map between threads or algorithms, load it
+ * once and pass around the same instance.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DistortMapIO {
+
+	public static final String MAGIC_EQUIRECTANGULAR = "BOOFEQUI";
+	public static final String MAGIC_REMAP = "BOOFRMAP";
+	public static final int VERSION = 1;
+
+	/**
+	 * Suffix used for remap tables which are stored next to a calibration file
+	 */
+	public static final String SUFFIX_REMAP = ".remap";
+
+	/**
+	 * Creates the name of a file for storing a remap table next to a calibration file.  For example,
+	 * "stereo.yaml" and "left" becomes "stereo_left.remap" in the same directory.
+	 *
+	 * @param calibration Path to the calibration file, e.g. one saved by CalibrationIO
+	 * @param name Name which identifies the table.  Can be null.
+	 * @return Path to the table
+	 */
+	public static File remapFileFor( File calibration , String name ) {
+		String base = calibration.getName();
+		int dot = base.lastIndexOf('.');
+		if( dot > 0 )
+			base = base.substring(0,dot);
+		if( name != null )
+			base += "_"+name;
+		return new File(calibration.getAbsoluteFile().getParentFile(), base+SUFFIX_REMAP);
+	}
+
+	/**
+	 * Saves a remap table
+	 *
+	 * @param table The table being saved
+	 * @param file Where it should be saved
+	 */
+	public static void save( RemapTable table , File file ) throws IOException {
+		int N = table.width*table.height;
+		try( Writer out = new Writer(file) ) {
+			out.putMagic(MAGIC_REMAP);
+			out.putInt(table.width);
+			out.putInt(table.height);
+			out.put(table.srcX, N);
+			out.put(table.srcY, N);
+		}
+	}
+
+	/**
+	 * Loads a remap table
+	 *
+	 * @param file The file it's stored in
+	 * @return The table
+	 */
+	public static RemapTable loadRemapTable( File file ) throws IOException {
+		try( Reader in = new Reader(file) ) {
+			in.checkMagic(MAGIC_REMAP);
+			int width = in.getInt();
+			int height = in.getInt();
+			if( width < 0 || height < 0 )
+				throw new IOException("Bad shape");
+
+			RemapTable table = new RemapTable(width,height);
+			in.get(table.srcX);
+			in.get(table.srcY);
+			return table;
+		}
+	}
+
+	/**
+	 * Saves a baked equirectangular map
+	 *
+	 * @param map The map being saved
+	 * @param file Where it should be saved
+	 */
+	public static void save( EquirectangularBakedMap map , File file ) throws IOException {
+		try( Writer out = new Writer(file) ) {
+			out.putMagic(MAGIC_EQUIRECTANGULAR);
+			out.putInt(map.equiWidth);
+			out.putInt(map.equiHeight);
+			out.putInt(map.getTotalCameras());
+			out.putInt(map.getTotalEntries());
+			out.put(map.cameraWidth);
+			out.put(map.cameraHeight);
+			out.put(map.offsets);
+			out.put(map.x0);
+			out.put(map.y0);
+			out.put(map.fracX);
+			out.put(map.fracY);
+			out.put(map.weight);
+			out.put(map.camera);
+		}
+	}
+
+	/**
+	 * Loads a baked equirectangular map
+	 *
+	 * @param file The file it's stored in
+	 * @return The map
+	 */
+	public static EquirectangularBakedMap loadEquirectangular( File file ) throws IOException {
+		try( Reader in = new Reader(file) ) {
+			in.checkMagic(MAGIC_EQUIRECTANGULAR);
+			int equiWidth = in.getInt();
+			int equiHeight = in.getInt();
+			int numCameras = in.getInt();
+			int numEntries = in.getInt();
+			if( equiWidth <= 0 || equiHeight <= 0 || numCameras < 0 || numEntries < 0 )
+				throw new IOException("Bad shape");
+
+			EquirectangularBakedMap map = new EquirectangularBakedMap(equiWidth,equiHeight,numCameras,numEntries);
+			in.get(map.cameraWidth);
+			in.get(map.cameraHeight);
+			in.get(map.offsets);
+			in.get(map.x0);
+			in.get(map.y0);
+			in.get(map.fracX);
+			in.get(map.fracY);
+			in.get(map.weight);
+			in.get(map.camera);
+			return map;
+		}
+	}
+
+	/**
+	 * Writes primitive arrays to a file using a direct buffer
+	 */
+	static class Writer implements AutoCloseable {
+		FileChannel channel;
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024*1024).order(ByteOrder.LITTLE_ENDIAN);
+
+		Writer( File file ) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void putMagic( String magic ) throws IOException {
+			ensureSpace(magic.length());
+			buffer.put(magic.getBytes(StandardCharsets.US_ASCII));
+			putInt(VERSION);
+		}
+
+		void putInt( int value ) throws IOException {
+			ensureSpace(4);
+			buffer.putInt(value);
+		}
+
+		void put( int[] array ) throws IOException {
+			putInt(array.length);
+			for (int i = 0; i < array.length; ) {
+				ensureSpace(4);
+				int n = Math.min(buffer.remaining()/4, array.length-i);
+				buffer.asIntBuffer().put(array, i, n);
+				buffer.position(buffer.position()+n*4);
+				i += n;
+			}
+		}
+
+		void put( float[] array , int length ) throws IOException {
+			putInt(length);
+			for (int i = 0; i < length; ) {
+				ensureSpace(4);
+				int n = Math.min(buffer.remaining()/4, length-i);
+				buffer.asFloatBuffer().put(array, i, n);
+				buffer.position(buffer.position()+n*4);
+				i += n;
+			}
+		}
+
+		void put( short[] array ) throws IOException {
+			putInt(array.length);
+			for (int i = 0; i < array.length; ) {
+				ensureSpace(2);
+				int n = Math.min(buffer.remaining()/2, array.length-i);
+				buffer.asShortBuffer().put(array, i, n);
+				buffer.position(buffer.position()+n*2);
+				i += n;
+			}
+		}
+
+		void put( byte[] array ) throws IOException {
+			putInt(array.length);
+			for (int i = 0; i < array.length; ) {
+				ensureSpace(1);
+				int n = Math.min(buffer.remaining(), array.length-i);
+				buffer.put(array, i, n);
+				i += n;
+			}
+		}
+
+		void ensureSpace( int bytes ) throws IOException {
+			if( buffer.remaining() < bytes )
+				flush();
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while( buffer.hasRemaining() )
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads primitive arrays from a file using a direct buffer
+	 */
+	static class Reader implements AutoCloseable {
+		FileChannel channel;
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024*1024).order(ByteOrder.LITTLE_ENDIAN);
+
+		Reader( File file ) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		}
+
+		void checkMagic( String magic ) throws IOException {
+			byte[] found = new byte[magic.length()];
+			read(found.length).get(found);
+			if( !Arrays.equals(found, magic.getBytes(StandardCharsets.US_ASCII)) )
+				throw new IOException("Unexpected file type");
+			int version = getInt();
+			if( version != VERSION )
+				throw new IOException("Unsupported version "+version);
+		}
+
+		int getInt() throws IOException {
+			return read(4).getInt();
+		}
+
+		void get( int[] array ) throws IOException {
+			checkLength(array.length);
+			for (int i = 0; i < array.length; ) {
+				int n = Math.min(buffer.capacity()/4, array.length-i);
+				read(n*4).asIntBuffer().get(array, i, n);
+				i += n;
+			}
+		}
+
+		void get( float[] array ) throws IOException {
+			checkLength(array.length);
+			for (int i = 0; i < array.length; ) {
+				int n = Math.min(buffer.capacity()/4, array.length-i);
+				read(n*4).asFloatBuffer().get(array, i, n);
+				i += n;
+			}
+		}
+
+		void get( short[] array ) throws IOException {
+			checkLength(array.length);
+			for (int i = 0; i < array.length; ) {
+				int n = Math.min(buffer.capacity()/2, array.length-i);
+				read(n*2).asShortBuffer().get(array, i, n);
+				i += n;
+			}
+		}
+
+		void get( byte[] array ) throws IOException {
+			checkLength(array.length);
+			for (int i = 0; i < array.length; ) {
+				int n = Math.min(buffer.capacity(), array.length-i);
+				read(n).get(array, i, n);
+				i += n;
+			}
+		}
+
+		void checkLength( int expected ) throws IOException {
+			int found = getInt();
+			if( found != expected )
+				throw new IOException("Array length doesn't match. Expected "+expected+" found "+found);
+		}
+
+		/**
+		 * Reads the next bytes in the file into the buffer.  Must not be more than the buffer's capacity.
+		 */
+		ByteBuffer read( int length ) throws IOException {
+			buffer.clear();
+			buffer.limit(length);
+			while( buffer.hasRemaining() ) {
+				if( channel.read(buffer) < 0 )
+					throw new IOException("Unexpected end of file");
+			}
+			buffer.flip();
+			return buffer;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
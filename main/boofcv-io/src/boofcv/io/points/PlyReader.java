@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads the vertices in a binary PLY file as a stream of points.  Points are read from disk in blocks through a
+ * {@link FileChannel} using a direct buffer, so clouds which are larger than the heap can be processed.
+ * Only the x,y,z and red,green,blue properties are read, all others are skipped.  The vertex element must be the
+ * first element in the file.  Any elements which follow it, e.g. faces, are ignored.
+ * </p>
+ *
+ * <p>
+ * Both little and big endian binary files are supported.  ASCII files are not.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PlyReader implements Closeable {
+
+	// largest header which will be read
+	private static final int MAX_HEADER = 64*1024;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+
+	// number of vertexes in the file
+	private long totalPoints;
+	// number of vertexes which have been read
+	private long pointsRead;
+	// number of bytes in each vertex
+	private int vertexSize;
+
+	// type and location of each property which is read. null if it doesn't exist
+	private Property propX, propY, propZ;
+	private Property propR, propG, propB;
+
+	/**
+	 * Opens the file and parses the header.
+	 *
+	 * @param file The PLY file
+	 * @param bufferSize Size of the read buffer in bytes.  Try 1 MB.
+	 */
+	public PlyReader( File file , int bufferSize ) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MAX_HEADER));
+			readHeader();
+		} catch( IOException | RuntimeException e ) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public PlyReader( File file ) throws IOException {
+		this(file, 1024*1024);
+	}
+
+	/**
+	 * Reads the header and leaves the buffer positioned at the first vertex
+	 */
+	private void readHeader() throws IOException {
+		while( buffer.hasRemaining() && channel.read(buffer) >= 0 ) {}
+		buffer.flip();
+
+		List<String> lines = new ArrayList<>();
+		StringBuilder line = new StringBuilder();
+		boolean foundEnd = false;
+		while( buffer.hasRemaining() ) {
+			char c = (char)(buffer.get() & 0xFF);
+			if( c == '\n' ) {
+				String s = line.toString().trim();
+				line.setLength(0);
+				if( s.equals("end_header") ) {
+					foundEnd = true;
+					break;
+				}
+				lines.add(s);
+			} else {
+				line.append(c);
+			}
+		}
+		if( !foundEnd )
+			throw new IOException("Couldn't find the end of the header");
+		if( lines.isEmpty() || !lines.get(0).equals("ply") )
+			throw new IOException("Not a PLY file");
+
+		ByteOrder order = null;
+		boolean inVertex = false;
+		boolean foundVertex = false;
+		for (int i = 1; i < lines.size(); i++) {
+			String[] words = lines.get(i).split("\\s+");
+			switch( words[0] ) {
+				case "format":
+					if( words.length < 2 )
+						throw new IOException("Bad format line");
+					if( words[1].equals("binary_little_endian") )
+						order = ByteOrder.LITTLE_ENDIAN;
+					else if( words[1].equals("binary_big_endian") )
+						order = ByteOrder.BIG_ENDIAN;
+					else
+						throw new IOException("Only binary PLY files are supported. Found "+words[1]);
+					break;
+
+				case "element":
+					if( words.length < 3 )
+						throw new IOException("Bad element line");
+					if( words[1].equals("vertex") ) {
+						if( foundVertex )
+							throw new IOException("Multiple vertex elements");
+						try {
+							totalPoints = Long.parseLong(words[2]);
+						} catch( NumberFormatException e ) {
+							throw new IOException("Bad vertex count "+words[2]);
+						}
+						inVertex = foundVertex = true;
+					} else {
+						if( !foundVertex )
+							throw new IOException("The vertex element must come first");
+						inVertex = false;
+					}
+					break;
+
+				case "property":
+					if( inVertex )
+						addProperty(words);
+					break;
+
+				default:
+					// comments and obj_info are ignored
+					break;
+			}
+		}
+
+		if( order == null )
+			throw new IOException("No format specified");
+		if( !foundVertex )
+			throw new IOException("No vertex element");
+		if( propX == null || propY == null || propZ == null )
+			throw new IOException("Vertex is missing x, y, or z");
+		if( (propR == null || propG == null || propB == null) ) {
+			propR = propG = propB = null;
+		}
+
+		// switch the buffer into the mode used to read the vertexes
+		buffer.order(order);
+		buffer.compact();
+		buffer.flip();
+	}
+
+	private void addProperty( String[] words ) throws IOException {
+		if( words.length < 3 )
+			throw new IOException("Bad property line");
+		if( words[1].equals("list") )
+			throw new IOException("List properties in vertexes are not supported");
+
+		Property p = new Property();
+		p.type = lookupType(words[1]);
+		p.offset = vertexSize;
+		vertexSize += p.type.size;
+
+		switch( words[2] ) {
+			case "x": propX = p; break;
+			case "y": propY = p; break;
+			case "z": propZ = p; break;
+			case "red": propR = p; break;
+			case "green": propG = p; break;
+			case "blue": propB = p; break;
+			default: break;
+		}
+	}
+
+	private static Type lookupType( String name ) throws IOException {
+		switch( name ) {
+			case "char": case "int8": return Type.INT8;
+			case "uchar": case "uint8": return Type.UINT8;
+			case "short": case "int16": return Type.INT16;
+			case "ushort": case "uint16": return Type.UINT16;
+			case "int": case "int32": return Type.INT32;
+			case "uint": case "uint32": return Type.UINT32;
+			case "float": case "float32": return Type.FLOAT32;
+			case "double": case "float64": return Type.FLOAT64;
+			default: throw new IOException("Unknown property type "+name);
+		}
+	}
+
+	/**
+	 * Reads the next block of points.
+	 *
+	 * @param xyz (Output) Storage for points interleaved as x,y,z.  Must have a length of at least 3*maxPoints
+	 * @param rgb (Output) Storage for colors as 0xRRGGBB.  If the file has no color it's filled with zeros.
+	 *            Can be null.
+	 * @param maxPoints Maximum number of points which will be read
+	 * @return Number of points read.  Zero if there are no more points.
+	 */
+	public int read( float[] xyz , int[] rgb , int maxPoints ) throws IOException {
+		int total = (int)Math.min(maxPoints, totalPoints-pointsRead);
+
+		for (int i = 0; i < total; i++) {
+			if( buffer.remaining() < vertexSize )
+				fill();
+
+			int start = buffer.position();
+			xyz[i*3  ] = (float)propX.read(buffer, start);
+			xyz[i*3+1] = (float)propY.read(buffer, start);
+			xyz[i*3+2] = (float)propZ.read(buffer, start);
+			if( rgb != null ) {
+				if( propR != null ) {
+					int r = (int)propR.read(buffer, start) & 0xFF;
+					int g = (int)propG.read(buffer, start) & 0xFF;
+					int b = (int)propB.read(buffer, start) & 0xFF;
+					rgb[i] = r << 16 | g << 8 | b;
+				} else {
+					rgb[i] = 0;
+				}
+			}
+			buffer.position(start+vertexSize);
+		}
+
+		pointsRead += total;
+		return total;
+	}
+
+	/**
+	 * Reads more data from the file into the buffer while keeping what hasn't been consumed yet
+	 */
+	private void fill() throws IOException {
+		buffer.compact();
+		while( buffer.position() < vertexSize ) {
+			if( channel.read(buffer) < 0 )
+				throw new IOException("Unexpected end of file");
+		}
+		while( buffer.hasRemaining() && channel.read(buffer) > 0 ) {}
+		buffer.flip();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if( channel != null ) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Number of points in the file
+	 */
+	public long getTotalPoints() {
+		return totalPoints;
+	}
+
+	/**
+	 * Number of points which have been read so far
+	 */
+	public long getPointsRead() {
+		return pointsRead;
+	}
+
+	/**
+	 * True if the points have a color
+	 */
+	public boolean isColor() {
+		return propR != null;
+	}
+
+	private enum Type {
+		INT8(1), UINT8(1), INT16(2), UINT16(2), INT32(4), UINT32(4), FLOAT32(4), FLOAT64(8);
+
+		final int size;
+
+		Type(int size) {
+			this.size = size;
+		}
+	}
+
+	private static class Property {
+		Type type;
+		int offset;
+
+		double read( ByteBuffer buffer , int vertexStart ) {
+			int index = vertexStart + offset;
+			switch( type ) {
+				case INT8: return buffer.get(index);
+				case UINT8: return buffer.get(index) & 0xFF;
+				case INT16: return buffer.getShort(index);
+				case UINT16: return buffer.getShort(index) & 0xFFFF;
+				case INT32: return buffer.getInt(index);
+				case UINT32: return buffer.getInt(index) & 0xFFFFFFFFL;
+				case FLOAT32: return buffer.getFloat(index);
+				case FLOAT64: return buffer.getDouble(index);
+				default: throw new RuntimeException("Unknown type");
+			}
+		}
+	}
+}
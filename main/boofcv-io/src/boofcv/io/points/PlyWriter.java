@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import georegression.struct.point.Point3D_F64;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Writes a point cloud to disk in the binary little endian PLY format.  Each vertex has a float x,y,z and,
+ * optionally, a uchar red, green, and blue.  Points are streamed to disk through a {@link FileChannel} using a
+ * direct buffer, so the entire cloud never needs to be in memory at once.
+ * </p>
+ *
+ * <p>
+ * The number of points isn't known until the writer is closed.  A fixed width count is written into the header
+ * when the file is opened and it's overwritten with the actual count by {@link #close()}.  The file is not
+ * valid until it has been closed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PlyWriter implements Closeable {
+
+	// number of digits used to store the vertex count in the header. Big enough for any positive long
+	private static final int COUNT_DIGITS = 19;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+
+	// if true then each point has a color
+	private boolean color;
+	// number of bytes in each vertex
+	private int vertexSize;
+
+	// location of the vertex count in the file
+	private long countLocation;
+	// total number of points written
+	private long totalPoints;
+
+	/**
+	 * Creates the file and writes the header.
+	 *
+	 * @param file Where the point cloud will be written.  If it already exists it's overwritten.
+	 * @param color If true then each point will have an RGB color
+	 * @param bufferSize Size of the write buffer in bytes.  Try 1 MB.
+	 */
+	public PlyWriter( File file , boolean color , int bufferSize ) throws IOException {
+		this.color = color;
+		this.vertexSize = color ? 15 : 12;
+		if( bufferSize < vertexSize )
+			throw new IllegalArgumentException("Buffer must be able to hold at least one point");
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+
+		String before = "ply\nformat binary_little_endian 1.0\ncomment Created by BoofCV\nelement vertex ";
+		StringBuilder after = new StringBuilder();
+		after.append("\nproperty float x\nproperty float y\nproperty float z\n");
+		if( color ) {
+			after.append("property uchar red\nproperty uchar green\nproperty uchar blue\n");
+		}
+		after.append("end_header\n");
+
+		byte[] header0 = before.getBytes(StandardCharsets.US_ASCII);
+		countLocation = header0.length;
+		writeFully(ByteBuffer.wrap(header0));
+		writeFully(ByteBuffer.wrap(formatCount(0)));
+		writeFully(ByteBuffer.wrap(after.toString().getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	public PlyWriter( File file , boolean color ) throws IOException {
+		this(file, color, 1024*1024);
+	}
+
+	/**
+	 * Adds a point without color.  Can only be called if color is false.
+	 */
+	public void add( float x , float y , float z ) throws IOException {
+		if( color )
+			throw new IllegalArgumentException("A color must be specified");
+		ensureSpace();
+		buffer.putFloat(x).putFloat(y).putFloat(z);
+		totalPoints++;
+	}
+
+	/**
+	 * Adds a point with color.  If the file has no color then the color is ignored.
+	 *
+	 * @param rgb Color encoded as 0xRRGGBB
+	 */
+	public void add( float x , float y , float z , int rgb ) throws IOException {
+		ensureSpace();
+		buffer.putFloat(x).putFloat(y).putFloat(z);
+		if( color ) {
+			putColor(rgb);
+		}
+		totalPoints++;
+	}
+
+	/**
+	 * Adds a point.  If the file has color then it's black.
+	 */
+	public void add( Point3D_F64 p ) throws IOException {
+		add((float)p.x, (float)p.y, (float)p.z, 0);
+	}
+
+	/**
+	 * Adds a point with color.
+	 *
+	 * @param rgb Color stored in an array as red, green, blue.  Same format as VisualDepthOps.
+	 */
+	public void add( Point3D_F64 p , int[] rgb ) throws IOException {
+		add((float)p.x, (float)p.y, (float)p.z, rgb[0] << 16 | rgb[1] << 8 | rgb[2]);
+	}
+
+	/**
+	 * Adds a block of points which are stored in arrays.
+	 *
+	 * @param xyz Points stored interleaved as x,y,z
+	 * @param rgb Colors stored as 0xRRGGBB.  Can be null if the file has no color.
+	 * @param offset Index of the first point
+	 * @param length Number of points
+	 */
+	public void add( float[] xyz , int[] rgb , int offset , int length ) throws IOException {
+		if( color && rgb == null )
+			throw new IllegalArgumentException("A color must be specified");
+
+		for (int i = offset; i < offset+length; i++) {
+			ensureSpace();
+			int index = i*3;
+			buffer.putFloat(xyz[index]).putFloat(xyz[index+1]).putFloat(xyz[index+2]);
+			if( color ) {
+				putColor(rgb[i]);
+			}
+		}
+		totalPoints += length;
+	}
+
+	private void putColor( int rgb ) {
+		buffer.put((byte)(rgb >> 16));
+		buffer.put((byte)(rgb >> 8));
+		buffer.put((byte)rgb);
+	}
+
+	/**
+	 * Writes the buffer to disk if there isn't enough space for another point
+	 */
+	private void ensureSpace() throws IOException {
+		if( buffer.remaining() < vertexSize )
+			flush();
+	}
+
+	/**
+	 * Writes all buffered points to disk
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully( ByteBuffer data ) throws IOException {
+		while( data.hasRemaining() )
+			channel.write(data);
+	}
+
+	/**
+	 * Writes any remaining points, updates the vertex count in the header, and closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		if( channel == null )
+			return;
+		try {
+			flush();
+			ByteBuffer count = ByteBuffer.wrap(formatCount(totalPoints));
+			long location = countLocation;
+			while( count.hasRemaining() )
+				location += channel.write(count, location);
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * The count is padded with leading zeros so that it always takes up the same number of bytes
+	 */
+	private static byte[] formatCount( long count ) {
+		return String.format("%0"+COUNT_DIGITS+"d",count).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	public boolean isColor() {
+		return color;
+	}
+
+	public long getTotalPoints() {
+		return totalPoints;
+	}
+}
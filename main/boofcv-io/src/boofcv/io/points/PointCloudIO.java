@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import boofcv.struct.FastQueueArray_I32;
+import georegression.struct.point.Point3D_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Functions for loading and saving point clouds from/to disk.  Clouds are stored in the same format as
+ * the output of VisualDepthOps and DepthSparse3D, a list of points with an optional array of colors.
+ * To process clouds which are too large to fit in memory use {@link PlyWriter} and {@link PlyReader} directly.
+ *
+ * @author Peter Abeles
+ */
+public class PointCloudIO {
+
+	// number of points read at once when loading
+	private static final int BLOCK_SIZE = 4096;
+
+	/**
+	 * Saves the point cloud in the binary PLY format.
+	 *
+	 * @param cloud Points in the cloud
+	 * @param colors Color of each point, stored as red, green, blue.  If null then no color is saved.
+	 * @param file Where the cloud is saved
+	 */
+	public static void savePlyBinary( List<Point3D_F64> cloud , FastQueueArray_I32 colors , File file )
+			throws IOException
+	{
+		if( colors != null && colors.size() != cloud.size() )
+			throw new IllegalArgumentException("Number of colors and points must be the same");
+
+		try( PlyWriter writer = new PlyWriter(file, colors != null) ) {
+			if( colors == null ) {
+				for (int i = 0; i < cloud.size(); i++) {
+					writer.add(cloud.get(i));
+				}
+			} else {
+				for (int i = 0; i < cloud.size(); i++) {
+					writer.add(cloud.get(i), colors.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads the point cloud from a binary PLY file.
+	 *
+	 * @param file The PLY file
+	 * @param cloud (Output) Storage for points.  Is reset.
+	 * @param colors (Output) Storage for colors, stored as red, green, blue.  If the file has no color then it will
+	 *               be empty.  If null then color is not read.
+	 */
+	public static void loadPly( File file , FastQueue<Point3D_F64> cloud , FastQueueArray_I32 colors )
+			throws IOException
+	{
+		cloud.reset();
+		if( colors != null )
+			colors.reset();
+
+		float[] xyz = new float[BLOCK_SIZE*3];
+		int[] rgb = new int[BLOCK_SIZE];
+
+		try( PlyReader reader = new PlyReader(file) ) {
+			boolean readColor = colors != null && reader.isColor();
+			int total;
+			while( (total = reader.read(xyz, rgb, BLOCK_SIZE)) > 0 ) {
+				for (int i = 0; i < total; i++) {
+					cloud.grow().set(xyz[i*3], xyz[i*3+1], xyz[i*3+2]);
+					if( readColor ) {
+						int[] c = colors.grow();
+						c[0] = (rgb[i] >> 16) & 0xFF;
+						c[1] = (rgb[i] >> 8) & 0xFF;
+						c[2] = rgb[i] & 0xFF;
+					}
+				}
+			}
+		}
+	}
+}
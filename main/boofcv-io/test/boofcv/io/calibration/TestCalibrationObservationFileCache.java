@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.calibration;
+
+import boofcv.abst.geo.calibration.ConcurrentCalibrationDetector;
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.io.UtilIO;
+import georegression.struct.point.Point2D_F64;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibrationObservationFileCache {
+
+	File directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = File.createTempFile("boofcv", "cache");
+		directory.delete();
+	}
+
+	@After
+	public void after() {
+		UtilIO.deleteRecursive(directory);
+	}
+
+	@Test
+	public void saveLoad_detected() {
+		CalibrationObservationFileCache alg = new CalibrationObservationFileCache(directory);
+
+		ConcurrentCalibrationDetector.Results expected = new ConcurrentCalibrationDetector.Results();
+		expected.detected = true;
+		expected.width = 640;
+		expected.height = 480;
+		expected.observation = new CalibrationObservation();
+		expected.observation.add(new Point2D_F64(1.1234567890123, 2.5), 3);
+		expected.observation.add(new Point2D_F64(-5, 1e-30), 7);
+
+		ConcurrentCalibrationDetector.Results found = new ConcurrentCalibrationDetector.Results();
+		assertFalse(alg.load("foo", found));
+
+		alg.save("foo", expected);
+		assertTrue(alg.load("foo", found));
+
+		assertTrue(found.detected);
+		assertEquals(640, found.width);
+		assertEquals(480, found.height);
+		assertEquals(2, found.observation.size());
+		for (int i = 0; i < 2; i++) {
+			assertEquals(expected.observation.get(i).index, found.observation.get(i).index);
+			assertEquals(expected.observation.get(i).x, found.observation.get(i).x, 0);
+			assertEquals(expected.observation.get(i).y, found.observation.get(i).y, 0);
+		}
+	}
+
+	@Test
+	public void saveLoad_notDetected() {
+		CalibrationObservationFileCache alg = new CalibrationObservationFileCache(directory);
+
+		ConcurrentCalibrationDetector.Results expected = new ConcurrentCalibrationDetector.Results();
+		expected.width = 20;
+		expected.height = 30;
+
+		alg.save("bar", expected);
+
+		ConcurrentCalibrationDetector.Results found = new ConcurrentCalibrationDetector.Results();
+		found.detected = true;
+		assertTrue(alg.load("bar", found));
+		assertFalse(found.detected);
+		assertEquals(20, found.width);
+		assertEquals(30, found.height);
+		assertNull(found.observation);
+	}
+
+	/**
+	 * A corrupted file should be treated as a cache miss
+	 */
+	@Test
+	public void load_corrupted() throws IOException {
+		CalibrationObservationFileCache alg = new CalibrationObservationFileCache(directory);
+
+		PrintWriter out = new PrintWriter(new File(directory, "bad" + CalibrationObservationFileCache.SUFFIX));
+		out.println(CalibrationObservationFileCache.HEADER);
+		out.println("detected true");
+		out.close();
+
+		assertFalse(alg.load("bad", new ConcurrentCalibrationDetector.Results()));
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.distort;
+
+import boofcv.alg.distort.spherical.EquirectangularBakedMap;
+import boofcv.struct.distort.RemapTable;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDistortMapIO {
+	Random rand = new Random(234);
+
+	@Test
+	public void remapTable() throws IOException {
+		// large enough that it has to be read in more than one chunk
+		RemapTable expected = new RemapTable(640,480);
+		for (int i = 0; i < expected.srcX.length; i++) {
+			expected.srcX[i] = rand.nextFloat()*100-10;
+			expected.srcY[i] = rand.nextFloat()*100-10;
+		}
+
+		File file = File.createTempFile("table", DistortMapIO.SUFFIX_REMAP);
+		try {
+			DistortMapIO.save(expected,file);
+			RemapTable found = DistortMapIO.loadRemapTable(file);
+
+			assertEquals(expected.width, found.width);
+			assertEquals(expected.height, found.height);
+			assertArrayEquals(expected.srcX, found.srcX, 0f);
+			assertArrayEquals(expected.srcY, found.srcY, 0f);
+
+			// the wrong type of file
+			try {
+				DistortMapIO.loadEquirectangular(file);
+				fail("Should have thrown an exception");
+			} catch( IOException ignore ) {}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void remapFileFor() {
+		File calibration = new File("foo/bar/stereo.yaml");
+		File found = DistortMapIO.remapFileFor(calibration,"left");
+		assertEquals("stereo_left.remap", found.getName());
+		assertEquals(calibration.getAbsoluteFile().getParentFile(), found.getParentFile());
+
+		assertEquals("stereo.remap", DistortMapIO.remapFileFor(calibration,null).getName());
+	}
+
+	@Test
+	public void equirectangular() throws IOException {
+		int numEntries = 300;
+		EquirectangularBakedMap expected = new EquirectangularBakedMap(20,10,3,numEntries);
+		for (int i = 0; i < 3; i++) {
+			expected.cameraWidth[i] = 100+i;
+			expected.cameraHeight[i] = 50+i;
+		}
+		for (int i = 0; i < expected.offsets.length; i++) {
+			expected.offsets[i] = Math.min(numEntries,i*2);
+		}
+		for (int i = 0; i < numEntries; i++) {
+			expected.setEntry(i,rand.nextInt(3),rand.nextFloat()*99,rand.nextFloat()*49,rand.nextFloat());
+		}
+
+		File file = File.createTempFile("equi", ".bin");
+		try {
+			DistortMapIO.save(expected,file);
+			EquirectangularBakedMap found = DistortMapIO.loadEquirectangular(file);
+
+			assertEquals(expected.equiWidth, found.equiWidth);
+			assertEquals(expected.equiHeight, found.equiHeight);
+			assertArrayEquals(expected.cameraWidth, found.cameraWidth);
+			assertArrayEquals(expected.cameraHeight, found.cameraHeight);
+			assertArrayEquals(expected.offsets, found.offsets);
+			assertArrayEquals(expected.x0, found.x0);
+			assertArrayEquals(expected.y0, found.y0);
+			assertArrayEquals(expected.fracX, found.fracX);
+			assertArrayEquals(expected.fracY, found.fracY);
+			assertArrayEquals(expected.weight, found.weight);
+			assertArrayEquals(expected.camera, found.camera);
+
+			// a truncated file should be detected
+			try( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+				raf.setLength(raf.length()-10);
+			}
+			try {
+				DistortMapIO.loadEquirectangular(file);
+				fail("Should have thrown an exception");
+			} catch( IOException ignore ) {}
+		} finally {
+			file.delete();
+		}
+	}
+}
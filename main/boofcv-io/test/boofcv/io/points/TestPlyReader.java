@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPlyReader {
+	Random rand = new Random(234);
+
+	/**
+	 * Big endian file with properties in a different order and type, extra properties, and a face element.
+	 * The file is larger than the read buffer so it needs to be refilled.
+	 */
+	@Test
+	public void foreignFile() throws IOException {
+		int N = 5000;
+		String header = "ply\nformat binary_big_endian 1.0\ncomment made by something else\n" +
+				"element vertex "+N+"\nproperty uchar red\nproperty double x\nproperty int confidence\n" +
+				"property double y\nproperty uchar green\nproperty double z\nproperty uchar blue\n" +
+				"element face 0\nproperty list uchar int vertex_indices\nend_header\n";
+
+		double[] xyz = new double[N*3];
+		int[] rgb = new int[N];
+		ByteBuffer data = ByteBuffer.allocate(N*(8*3+3+4)).order(ByteOrder.BIG_ENDIAN);
+		for (int i = 0; i < N; i++) {
+			for (int j = 0; j < 3; j++) {
+				xyz[i*3+j] = rand.nextGaussian();
+			}
+			rgb[i] = rand.nextInt(0xFFFFFF);
+			data.put((byte)(rgb[i] >> 16)).putDouble(xyz[i*3]).putInt(rand.nextInt());
+			data.putDouble(xyz[i*3+1]).put((byte)(rgb[i] >> 8)).putDouble(xyz[i*3+2]).put((byte)rgb[i]);
+		}
+
+		File file = File.createTempFile("foreign", ".ply");
+		try {
+			try( FileOutputStream out = new FileOutputStream(file) ) {
+				out.write(header.getBytes(StandardCharsets.US_ASCII));
+				out.write(data.array());
+			}
+
+			float[] foundXyz = new float[N*3];
+			int[] foundRgb = new int[N];
+			try( PlyReader reader = new PlyReader(file, 1000) ) {
+				assertEquals(N, reader.getTotalPoints());
+				assertTrue(reader.isColor());
+
+				int total = 0;
+				while( true ) {
+					float[] tmpXyz = new float[7*3];
+					int[] tmpRgb = new int[7];
+					int found = reader.read(tmpXyz, tmpRgb, 7);
+					if( found == 0 )
+						break;
+					System.arraycopy(tmpXyz, 0, foundXyz, total*3, found*3);
+					System.arraycopy(tmpRgb, 0, foundRgb, total, found);
+					total += found;
+				}
+				assertEquals(N, total);
+				assertEquals(N, reader.getPointsRead());
+			}
+
+			for (int i = 0; i < N; i++) {
+				for (int j = 0; j < 3; j++) {
+					assertEquals(xyz[i*3+j], foundXyz[i*3+j], 1e-6);
+				}
+				assertEquals(rgb[i], foundRgb[i]);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void ascii() throws IOException {
+		String text = "ply\nformat ascii 1.0\nelement vertex 1\nproperty float x\nproperty float y\n" +
+				"property float z\nend_header\n1 2 3\n";
+
+		File file = File.createTempFile("ascii", ".ply");
+		try {
+			try( FileOutputStream out = new FileOutputStream(file) ) {
+				out.write(text.getBytes(StandardCharsets.US_ASCII));
+			}
+			try {
+				new PlyReader(file).close();
+				fail("Should have thrown an exception");
+			} catch( IOException ignore ) {}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void truncated() throws IOException {
+		File file = File.createTempFile("truncated", ".ply");
+		try {
+			try( PlyWriter writer = new PlyWriter(file, false) ) {
+				for (int i = 0; i < 10; i++) {
+					writer.add(i, i, i);
+				}
+			}
+			// chop off the last point
+			try( RandomAccessFile raf = new RandomAccessFile(file, "rw") ) {
+				raf.setLength(raf.length()-5);
+			}
+
+			try( PlyReader reader = new PlyReader(file) ) {
+				reader.read(new float[30], null, 10);
+				fail("Should have thrown an exception");
+			} catch( IOException ignore ) {}
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPlyWriter {
+	Random rand = new Random(234);
+
+	/**
+	 * Writes points in blocks with a buffer which is smaller than the cloud, so it's flushed many times
+	 */
+	@Test
+	public void streamBlocks() throws IOException {
+		int N = 1000;
+		float[] xyz = new float[N*3];
+		int[] rgb = new int[N];
+		for (int i = 0; i < N; i++) {
+			xyz[i*3  ] = (float)rand.nextGaussian();
+			xyz[i*3+1] = (float)rand.nextGaussian();
+			xyz[i*3+2] = (float)rand.nextGaussian();
+			rgb[i] = rand.nextInt(0xFFFFFF);
+		}
+
+		File file = File.createTempFile("stream", ".ply");
+		try {
+			try( PlyWriter writer = new PlyWriter(file, true, 100) ) {
+				for (int i = 0; i < N; i += 90) {
+					writer.add(xyz, rgb, i, Math.min(90, N-i));
+				}
+				assertEquals(N, writer.getTotalPoints());
+			}
+
+			float[] foundXyz = new float[N*3];
+			int[] foundRgb = new int[N];
+			try( PlyReader reader = new PlyReader(file) ) {
+				assertEquals(N, reader.getTotalPoints());
+				assertTrue(reader.isColor());
+				assertEquals(N, reader.read(foundXyz, foundRgb, N+10));
+				assertEquals(0, reader.read(foundXyz, foundRgb, N));
+			}
+
+			assertArrayEquals(xyz, foundXyz, 0.0f);
+			assertArrayEquals(rgb, foundRgb);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void empty() throws IOException {
+		File file = File.createTempFile("empty", ".ply");
+		try {
+			new PlyWriter(file, false).close();
+
+			try( PlyReader reader = new PlyReader(file) ) {
+				assertEquals(0, reader.getTotalPoints());
+				assertFalse(reader.isColor());
+				assertEquals(0, reader.read(new float[3], null, 1));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingColor() throws IOException {
+		File file = File.createTempFile("color", ".ply");
+		try( PlyWriter writer = new PlyWriter(file, true) ) {
+			writer.add(1, 2, 3);
+		} finally {
+			file.delete();
+		}
+	}
+}
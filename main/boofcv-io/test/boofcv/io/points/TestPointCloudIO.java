@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import boofcv.struct.FastQueueArray_I32;
+import georegression.struct.point.Point3D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPointCloudIO {
+	Random rand = new Random(234);
+
+	@Test
+	public void savePlyBinary_loadPly_color() throws IOException {
+		List<Point3D_F64> cloud = createCloud(10000);
+		FastQueueArray_I32 colors = new FastQueueArray_I32(3);
+		for (int i = 0; i < cloud.size(); i++) {
+			int[] c = colors.grow();
+			c[0] = rand.nextInt(256);
+			c[1] = rand.nextInt(256);
+			c[2] = rand.nextInt(256);
+		}
+
+		File file = File.createTempFile("cloud", ".ply");
+		try {
+			PointCloudIO.savePlyBinary(cloud, colors, file);
+			// 15 bytes for each point plus the header
+			assertTrue(file.length() > 15*cloud.size());
+
+			FastQueue<Point3D_F64> found = new FastQueue<>(Point3D_F64.class, true);
+			FastQueueArray_I32 foundColors = new FastQueueArray_I32(3);
+			PointCloudIO.loadPly(file, found, foundColors);
+
+			compare(cloud, found);
+			assertEquals(colors.size(), foundColors.size());
+			for (int i = 0; i < colors.size(); i++) {
+				for (int j = 0; j < 3; j++) {
+					assertEquals(colors.get(i)[j], foundColors.get(i)[j]);
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void savePlyBinary_loadPly_noColor() throws IOException {
+		List<Point3D_F64> cloud = createCloud(500);
+
+		File file = File.createTempFile("cloud", ".ply");
+		try {
+			PointCloudIO.savePlyBinary(cloud, null, file);
+
+			FastQueue<Point3D_F64> found = new FastQueue<>(Point3D_F64.class, true);
+			FastQueueArray_I32 foundColors = new FastQueueArray_I32(3);
+			// make sure it's reset
+			found.grow();
+			foundColors.grow();
+			PointCloudIO.loadPly(file, found, foundColors);
+
+			compare(cloud, found);
+			assertEquals(0, foundColors.size());
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Check the header against what other software expects
+	 */
+	@Test
+	public void header() throws IOException {
+		File file = File.createTempFile("cloud", ".ply");
+		try {
+			PointCloudIO.savePlyBinary(createCloud(123), null, file);
+
+			byte[] data = Files.readAllBytes(file.toPath());
+			String text = new String(data, StandardCharsets.US_ASCII);
+			String header = text.substring(0, text.indexOf("end_header\n")+11);
+
+			assertTrue(header.startsWith("ply\nformat binary_little_endian 1.0\n"));
+			assertTrue(header.contains("\nelement vertex 0000000000000000123\n"));
+			assertTrue(header.contains("property float x\nproperty float y\nproperty float z\n"));
+			assertEquals(header.length()+123*12, data.length);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private List<Point3D_F64> createCloud( int N ) {
+		List<Point3D_F64> cloud = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			cloud.add(new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()*10));
+		}
+		return cloud;
+	}
+
+	private void compare( List<Point3D_F64> expected , FastQueue<Point3D_F64> found ) {
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			// points are saved as floats
+			assertEquals(0, expected.get(i).distance(found.get(i)), 1e-5);
+		}
+	}
+}
@@ -32,6 +32,7 @@ import boofcv.struct.distort.PixelTransform2_F64;
 import boofcv.struct.distort.Point2Transform2_F32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
 import georegression.struct.affine.Affine2D_F32;
 import georegression.struct.shapes.RectangleLength2D_F32;
@@ -112,9 +113,9 @@ public class DistortImageOps {
 
 		Class<Input> inputType = (Class<Input>)input.getClass();
 		Class<Output> outputType = (Class<Output>)input.getClass();
-		InterpolatePixelS<Input> interp = FactoryInterpolation.createPixelS(0, 255, interpType, borderType, inputType);
 
-		ImageDistort<Input,Output> distorter = FactoryDistort.distortSB(false, interp, outputType);
+		ImageDistort<Input,Output> distorter = FactoryDistort.distortConcurrent(interpType, borderType,
+				ImageType.single(inputType), ImageType.single(outputType));
 		distorter.setRenderAll(!skip);
 		distorter.setModel(transform);
 		distorter.apply(input,output);
@@ -162,9 +163,9 @@ public class DistortImageOps {
 	{
 		Class<Input> inputBandType = input.getBandType();
 		Class<Output> outputBandType = output.getBandType();
-		InterpolatePixelS<Input> interp = FactoryInterpolation.createPixelS(0, 255, interpType, borderType, inputBandType);
 
-		ImageDistort<Input,Output> distorter = FactoryDistort.distortSB(false, interp, outputBandType);
+		ImageDistort<Input,Output> distorter = FactoryDistort.distortConcurrent(interpType, borderType,
+				ImageType.single(inputBandType), ImageType.single(outputBandType));
 		distorter.setModel(transform);
 
 		distortPL(input,output,distorter);
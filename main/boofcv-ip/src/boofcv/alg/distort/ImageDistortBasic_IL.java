@@ -32,7 +32,7 @@ public abstract class ImageDistortBasic_IL
 		extends ImageDistortBasic<Input,Output,InterpolatePixelMB<Input>> {
 
 	// storage for interpolated pixel values
-	float values[] = new float[0];
+	protected float values[] = new float[0];
 
 	/**
 	 * Specifies configuration parameters
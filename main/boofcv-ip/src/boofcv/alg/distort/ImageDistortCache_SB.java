@@ -20,22 +20,22 @@ package boofcv.alg.distort;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.distort.RemapTable;
 import boofcv.struct.image.ImageGray;
-import georegression.struct.point.Point2D_F32;
 
 /**
  * Except for very simple functions, computing the per pixel distortion is an expensive operation.
  * To overcome this problem the distortion is computed once and cached.  Then when the image is distorted
- * again the save results are simply recalled and not computed again.
+ * again the save results are simply recalled and not computed again.  The cache is stored in a {@link RemapTable},
+ * which can be shared with other instances or loaded from disk by calling {@link #setRemapTable}.
  *
  * @author Peter Abeles
  */
 public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output extends ImageGray<Output>>
 		implements ImageDistort<Input,Output> {
 
-	// size of output image
-	private int width=-1,height=-1;
-	private Point2D_F32 map[];
+	// location of each destination pixel in the source image
+	private RemapTable map = new RemapTable();
 	// sub pixel interpolation
 	private InterpolatePixelS<Input> interp;
 
@@ -67,6 +67,24 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 		this.dstToSrc = dstToSrc;
 	}
 
+	/**
+	 * Specifies a precomputed table instead of a transform.  The table isn't modified and can be shared.
+	 *
+	 * @param table Location of each destination pixel in the source image.
+	 */
+	public void setRemapTable( RemapTable table ) {
+		this.map = table;
+		this.dstToSrc = null;
+		this.dirty = false;
+	}
+
+	/**
+	 * Returns the table used to cache the transform.  Only valid after the first call to apply.
+	 */
+	public RemapTable getRemapTable() {
+		return map;
+	}
+
 	@Override
 	public void apply(Input srcImg, Output dstImg) {
 		init(srcImg, dstImg);
@@ -92,23 +110,12 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 	}
 
 	private void init(Input srcImg, Output dstImg) {
-		if( dirty || width != dstImg.width || height != dstImg.height) {
-			width = dstImg.width;
-			height = dstImg.height;
-			map = new Point2D_F32[width*height];
-			for( int i = 0; i < map.length; i++ ) {
-				map[i] = new Point2D_F32();
-			}
-
-			int index = 0;
-			for( int y = 0; y < height; y++ ) {
-				for( int x = 0; x < width; x++ ) {
-					dstToSrc.compute(x,y);
-					map[index++].set(dstToSrc.distX,dstToSrc.distY);
-				}
-			}
+		if( dstToSrc != null && (dirty || map.width != dstImg.width || map.height != dstImg.height) ) {
+			// the table might be shared, so don't modify it
+			map = new RemapTable(dstImg.width,dstImg.height);
+			map.compute(dstToSrc);
 			dirty = false;
-		} else if( dstImg.width != width || dstImg.height != height )
+		} else if( dstImg.width != map.width || dstImg.height != map.height )
 			throw new IllegalArgumentException("Unexpected dstImg dimension");
 
 		this.srcImg = srcImg;
@@ -122,10 +129,9 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 		// then do the slower border thingy
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
-
-				assign(indexDst,interp.get(s.x, s.y));
+			int indexMap = map.getIndex(x0,y);
+			for( int x = x0; x < x1; x++ , indexDst++, indexMap++ ) {
+				assign(indexDst,interp.get(map.srcX[indexMap], map.srcY[indexMap]));
 			}
 		}
 	}
@@ -136,11 +142,13 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
+			int indexMap = map.getIndex(x0,y);
+			for( int x = x0; x < x1; x++ , indexDst++, indexMap++ ) {
+				float sx = map.srcX[indexMap];
+				float sy = map.srcY[indexMap];
 
-				if( s.x >= 0 && s.x <= maxWidth && s.y >= 0 && s.y <= maxHeight ) {
-					assign(indexDst,interp.get(s.x, s.y));
+				if( sx >= 0 && sx <= maxWidth && sy >= 0 && sy <= maxHeight ) {
+					assign(indexDst,interp.get(sx, sy));
 				}
 			}
 		}
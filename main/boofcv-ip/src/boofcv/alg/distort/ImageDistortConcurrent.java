@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.InstanceFactory;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.ImageBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Applies an {@link ImageDistort} using multiple threads.  Rows in the output image are split into blocks
+ * and each block is rendered by its own {@link ImageDistort}, which has its own interpolation and its own copy
+ * of the {@link PixelTransform2_F32}, see {@link PixelTransform2_F32#copyConcurrent()}.  A new copy of the
+ * transform is made each time apply is called so that changes to the model are always used.
+ * </p>
+ *
+ * <p>
+ * The output is identical to the output of a single {@link ImageDistort}.  If the transform can't be copied
+ * then everything is rendered in the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImageDistortConcurrent<Input extends ImageBase<Input>,Output extends ImageBase<Output>>
+		implements ImageDistort<Input,Output> {
+
+	// creates the distortion used by each thread
+	private InstanceFactory<ImageDistort<Input,Output>> factory;
+	// one distortion for each block
+	private List<ImageDistort<Input,Output>> workers = new ArrayList<>();
+
+	private PixelTransform2_F32 dstToSrc;
+	private boolean renderAll = true;
+
+	// references to the images being processed
+	private Input srcImg;
+	private Output dstImg;
+	private int x0,x1;
+
+	private IntRangeObjectConsumer<ImageDistort<Input,Output>> consumer =
+			new IntRangeObjectConsumer<ImageDistort<Input,Output>>() {
+		@Override
+		public void accept(ImageDistort<Input,Output> worker, int minInclusive, int maxExclusive) {
+			worker.apply(srcImg, dstImg, x0, minInclusive, x1, maxExclusive);
+		}
+	};
+
+	/**
+	 * Specifies how the distortion used by each thread is created
+	 *
+	 * @param factory Creates a new non-concurrent {@link ImageDistort}. Interpolation must not be shared.
+	 */
+	public ImageDistortConcurrent(InstanceFactory<ImageDistort<Input,Output>> factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public void setModel(PixelTransform2_F32 dstToSrc) {
+		this.dstToSrc = dstToSrc;
+	}
+
+	@Override
+	public void apply(Input srcImg, Output dstImg) {
+		apply(srcImg, dstImg, 0, 0, dstImg.width, dstImg.height);
+	}
+
+	@Override
+	public void apply(Input srcImg, Output dstImg, int dstX0, int dstY0, int dstX1, int dstY1) {
+		int numBlocks = Math.max(1,BoofConcurrency.computeNumberOfBlocks(
+				dstY1-dstY0, BoofConcurrency.MIN_BLOCK_ROWS, BoofConcurrency.getMaxThreads()));
+
+		// the transform has internal state and can only be used by multiple threads if it can be copied
+		PixelTransform2_F32 copy = numBlocks > 1 ? dstToSrc.copyConcurrent() : null;
+		if( copy == null )
+			numBlocks = 1;
+
+		while( workers.size() < numBlocks ) {
+			workers.add(factory.newInstance());
+		}
+
+		for (int i = 0; i < numBlocks; i++) {
+			ImageDistort<Input,Output> worker = workers.get(i);
+			if( i == 0 )
+				worker.setModel(dstToSrc);
+			else if( i == 1 )
+				worker.setModel(copy);
+			else
+				worker.setModel(dstToSrc.copyConcurrent());
+			worker.setRenderAll(renderAll);
+		}
+
+		this.srcImg = srcImg;
+		this.dstImg = dstImg;
+		this.x0 = dstX0;
+		this.x1 = dstX1;
+
+		BoofConcurrency.loopBlocks(dstY0, dstY1, workers.subList(0, numBlocks), consumer);
+
+		this.srcImg = null;
+		this.dstImg = null;
+	}
+
+	@Override
+	public void setRenderAll(boolean renderAll) {
+		this.renderAll = renderAll;
+	}
+
+	@Override
+	public boolean getRenderAll() {
+		return renderAll;
+	}
+}
@@ -53,6 +53,11 @@ public class PixelTransformAffine_F32 extends PixelTransform2_F32 {
 		distY = tran.y;
 	}
 
+	@Override
+	public PixelTransform2_F32 copyConcurrent() {
+		return new PixelTransformAffine_F32(affine);
+	}
+
 	public Affine2D_F32 getModel() {
 		return affine;
 	}
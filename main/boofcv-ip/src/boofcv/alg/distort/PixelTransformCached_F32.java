@@ -37,6 +37,12 @@ public class PixelTransformCached_F32 extends PixelTransform2_F32 {
 		this(width,height, new PointToPixelTransform_F32(transform));
 	}
 
+	private PixelTransformCached_F32( PixelTransformCached_F32 original ) {
+		this.map = original.map;
+		this.width = original.width;
+		this.height = original.height;
+	}
+
 	public PixelTransformCached_F32(int width, int height, PixelTransform2_F32 transform ) {
 		this.width = width+1; // add one to the width since some stuff checks the outside border
 		this.height = height+1;
@@ -60,4 +66,12 @@ public class PixelTransformCached_F32 extends PixelTransform2_F32 {
 		distX = p.x;
 		distY = p.y;
 	}
+
+	/**
+	 * The precomputed map is shared with the copy
+	 */
+	@Override
+	public PixelTransform2_F32 copyConcurrent() {
+		return new PixelTransformCached_F32(this);
+	}
 }
@@ -68,6 +68,11 @@ public class PixelTransformHomography_F32 extends PixelTransform2_F32 {
 		distY = tran.y;
 	}
 
+	@Override
+	public PixelTransform2_F32 copyConcurrent() {
+		return new PixelTransformHomography_F32(homo);
+	}
+
 	public Homography2D_F32 getModel() {
 		return homo;
 	}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.PixelTransform2_F32;
+
+/**
+ * Applies a transform to a sub-region of an image using the sub-region's local coordinate system.  The input
+ * pixel is shifted into the global frame by the offset, the original transform applied, and the output is
+ * shifted back into the local frame.  This allows algorithms that process a sub-image to make use of a transform,
+ * e.g. lens distortion, which was specified for the full image.
+ *
+ * @author Peter Abeles
+ */
+public class PixelTransformOffset_F32 extends PixelTransform2_F32 {
+
+	// transform in the full image's coordinate system
+	PixelTransform2_F32 transform;
+
+	// location of the local frame's origin in the full image
+	int offsetX,offsetY;
+
+	public PixelTransformOffset_F32(PixelTransform2_F32 transform) {
+		this.transform = transform;
+	}
+
+	public PixelTransformOffset_F32() {
+	}
+
+	/**
+	 * Specifies the location of the local frame's origin in the full image
+	 */
+	public void setOffset( int offsetX , int offsetY ) {
+		this.offsetX = offsetX;
+		this.offsetY = offsetY;
+	}
+
+	@Override
+	public void compute(int x, int y) {
+		transform.compute(x+offsetX,y+offsetY);
+		distX = transform.distX - offsetX;
+		distY = transform.distY - offsetY;
+	}
+
+	@Override
+	public PixelTransform2_F32 copyConcurrent() {
+		PixelTransform2_F32 copy = transform.copyConcurrent();
+		if( copy == null )
+			return null;
+		PixelTransformOffset_F32 ret = new PixelTransformOffset_F32(copy);
+		ret.setOffset(offsetX, offsetY);
+		return ret;
+	}
+
+	public PixelTransform2_F32 getTransform() {
+		return transform;
+	}
+
+	public void setTransform(PixelTransform2_F32 transform) {
+		this.transform = transform;
+	}
+
+	public int getOffsetX() {
+		return offsetX;
+	}
+
+	public int getOffsetY() {
+		return offsetY;
+	}
+}
@@ -49,4 +49,15 @@ public class PointToPixelTransform_F32 extends PixelTransform2_F32 {
 		distX = point.x;
 		distY = point.y;
 	}
+
+	/**
+	 * Not supported.  Many {@link Point2Transform2_F32}, such as lens distortion, write to internal work space
+	 * inside of compute and can't be shared between threads, and there's no general way to copy them.
+	 *
+	 * @return null
+	 */
+	@Override
+	public PixelTransform2_F32 copyConcurrent() {
+		return null;
+	}
 }
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.distort.RemapTable;
+import boofcv.struct.image.*;
+
+/**
+ * <p>
+ * Renders a distorted image using a precomputed {@link RemapTable} and bilinear interpolation.  The table is only
+ * read, so a single table can be shared by several renderers in different threads.  Rows of the output image can
+ * optionally be rendered concurrently.
+ * </p>
+ *
+ * <p>
+ * Output pixels which map to a location outside the source image are set to the border value if render all is
+ * true, otherwise they are not modified.  Pixels on the last row or column of the source image are interpolated
+ * by repeating the border pixel.
+ * </p>
+ *
+ * <p>
+ * Supported images: {@link GrayU8}, {@link GrayF32}, {@link Planar} composed of those, {@link InterleavedU8},
+ * and {@link InterleavedF32}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RemapTableRender<T extends ImageBase<T>> {
+
+	// U8 images are interpolated with fixed point math.  Weights have 8-bits of precision and sum up to 2^16
+	private static final int ROUND = 1 << 15;
+
+	// location of each output pixel in the input image
+	private RemapTable table;
+
+	// if true pixels outside the source image are set to the border value
+	private boolean renderAll = true;
+	private float borderValue = 0;
+
+	// if true rows will be rendered by multiple threads
+	private boolean concurrent;
+
+	// references to images being processed
+	private ImageBase src, dst;
+
+	public RemapTableRender(RemapTable table) {
+		this.table = table;
+	}
+
+	public RemapTableRender() {
+	}
+
+	/**
+	 * Renders the output image.
+	 *
+	 * @param src Input image
+	 * @param dst (Output) Rendered image.  Must have the same shape as the table.
+	 */
+	public void apply( T src , T dst ) {
+		if( dst.width != table.width || dst.height != table.height )
+			throw new IllegalArgumentException("Output image doesn't have the same shape as the table");
+
+		if( src instanceof Planar ) {
+			Planar<?> s = (Planar)src;
+			Planar<?> d = (Planar)dst;
+			if( s.getNumBands() != d.getNumBands() )
+				throw new IllegalArgumentException("Number of bands must be the same");
+			for (int band = 0; band < s.getNumBands(); band++) {
+				render(s.getBand(band), d.getBand(band));
+			}
+		} else {
+			if( src instanceof ImageInterleaved &&
+					((ImageInterleaved)src).numBands != ((ImageInterleaved)dst).numBands )
+				throw new IllegalArgumentException("Number of bands must be the same");
+			render(src, dst);
+		}
+	}
+
+	private void render( ImageBase src , ImageBase dst ) {
+		if( src.getClass() != dst.getClass() )
+			throw new IllegalArgumentException("Input and output must be the same type");
+		if( !(src instanceof GrayU8 || src instanceof GrayF32 ||
+				src instanceof InterleavedU8 || src instanceof InterleavedF32) )
+			throw new IllegalArgumentException("Unsupported image type "+src.getClass().getSimpleName());
+
+		this.src = src;
+		this.dst = dst;
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, table.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					renderRows(minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			renderRows(0, table.height);
+		}
+
+		this.src = null;
+		this.dst = null;
+	}
+
+	private void renderRows( int y0 , int y1 ) {
+		if( src instanceof GrayU8 ) {
+			renderRows((GrayU8)src, (GrayU8)dst, y0, y1);
+		} else if( src instanceof GrayF32 ) {
+			renderRows((GrayF32)src, (GrayF32)dst, y0, y1);
+		} else if( src instanceof InterleavedU8 ) {
+			renderRows((InterleavedU8)src, (InterleavedU8)dst, y0, y1);
+		} else {
+			renderRows((InterleavedF32)src, (InterleavedF32)dst, y0, y1);
+		}
+	}
+
+	private void renderRows( GrayU8 src , GrayU8 dst , int y0 , int y1 ) {
+		float maxX = src.width-1, maxY = src.height-1;
+		byte border = (byte)(int)(borderValue+0.5f);
+
+		for (int y = y0; y < y1; y++) {
+			int indexDst = dst.startIndex + y*dst.stride;
+			int indexTable = table.getIndex(0,y);
+			for (int x = 0; x < table.width; x++, indexDst++, indexTable++) {
+				float sx = table.srcX[indexTable];
+				float sy = table.srcY[indexTable];
+
+				if( sx >= 0 && sx <= maxX && sy >= 0 && sy <= maxY ) {
+					int px = (int)sx, py = (int)sy;
+					int ax = (int)((sx-px)*256), ay = (int)((sy-py)*256);
+					int dx = px < maxX ? 1 : 0;
+					int dy = py < maxY ? src.stride : 0;
+
+					int index = src.startIndex + py*src.stride + px;
+					byte[] data = src.data;
+					int top = (256-ax)*(data[index] & 0xFF) + ax*(data[index+dx] & 0xFF);
+					int bottom = (256-ax)*(data[index+dy] & 0xFF) + ax*(data[index+dy+dx] & 0xFF);
+					dst.data[indexDst] = (byte)(((256-ay)*top + ay*bottom + ROUND) >> 16);
+				} else if( renderAll ) {
+					dst.data[indexDst] = border;
+				}
+			}
+		}
+	}
+
+	private void renderRows( GrayF32 src , GrayF32 dst , int y0 , int y1 ) {
+		float maxX = src.width-1, maxY = src.height-1;
+
+		for (int y = y0; y < y1; y++) {
+			int indexDst = dst.startIndex + y*dst.stride;
+			int indexTable = table.getIndex(0,y);
+			for (int x = 0; x < table.width; x++, indexDst++, indexTable++) {
+				float sx = table.srcX[indexTable];
+				float sy = table.srcY[indexTable];
+
+				if( sx >= 0 && sx <= maxX && sy >= 0 && sy <= maxY ) {
+					int px = (int)sx, py = (int)sy;
+					float ax = sx-px, ay = sy-py;
+					int dx = px < maxX ? 1 : 0;
+					int dy = py < maxY ? src.stride : 0;
+
+					int index = src.startIndex + py*src.stride + px;
+					float[] data = src.data;
+					dst.data[indexDst] = (1f-ay)*((1f-ax)*data[index] + ax*data[index+dx]) +
+							ay*((1f-ax)*data[index+dy] + ax*data[index+dy+dx]);
+				} else if( renderAll ) {
+					dst.data[indexDst] = borderValue;
+				}
+			}
+		}
+	}
+
+	private void renderRows( InterleavedU8 src , InterleavedU8 dst , int y0 , int y1 ) {
+		float maxX = src.width-1, maxY = src.height-1;
+		int numBands = src.numBands;
+		byte border = (byte)(int)(borderValue+0.5f);
+
+		for (int y = y0; y < y1; y++) {
+			int indexDst = dst.startIndex + y*dst.stride;
+			int indexTable = table.getIndex(0,y);
+			for (int x = 0; x < table.width; x++, indexTable++) {
+				float sx = table.srcX[indexTable];
+				float sy = table.srcY[indexTable];
+
+				if( sx >= 0 && sx <= maxX && sy >= 0 && sy <= maxY ) {
+					int px = (int)sx, py = (int)sy;
+					int ax = (int)((sx-px)*256), ay = (int)((sy-py)*256);
+					int a00 = (256-ax)*(256-ay), a10 = ax*(256-ay);
+					int a01 = (256-ax)*ay, a11 = ax*ay;
+					int dx = px < maxX ? numBands : 0;
+					int dy = py < maxY ? src.stride : 0;
+
+					int index = src.startIndex + py*src.stride + px*numBands;
+					byte[] data = src.data;
+					for (int band = 0; band < numBands; band++, index++) {
+						int v = a00*(data[index] & 0xFF) + a10*(data[index+dx] & 0xFF) +
+								a01*(data[index+dy] & 0xFF) + a11*(data[index+dy+dx] & 0xFF);
+						dst.data[indexDst++] = (byte)((v + ROUND) >> 16);
+					}
+				} else if( renderAll ) {
+					for (int band = 0; band < numBands; band++) {
+						dst.data[indexDst++] = border;
+					}
+				} else {
+					indexDst += numBands;
+				}
+			}
+		}
+	}
+
+	private void renderRows( InterleavedF32 src , InterleavedF32 dst , int y0 , int y1 ) {
+		float maxX = src.width-1, maxY = src.height-1;
+		int numBands = src.numBands;
+
+		for (int y = y0; y < y1; y++) {
+			int indexDst = dst.startIndex + y*dst.stride;
+			int indexTable = table.getIndex(0,y);
+			for (int x = 0; x < table.width; x++, indexTable++) {
+				float sx = table.srcX[indexTable];
+				float sy = table.srcY[indexTable];
+
+				if( sx >= 0 && sx <= maxX && sy >= 0 && sy <= maxY ) {
+					int px = (int)sx, py = (int)sy;
+					float ax = sx-px, ay = sy-py;
+					int dx = px < maxX ? numBands : 0;
+					int dy = py < maxY ? src.stride : 0;
+
+					int index = src.startIndex + py*src.stride + px*numBands;
+					float[] data = src.data;
+					for (int band = 0; band < numBands; band++, index++) {
+						dst.data[indexDst++] = (1f-ay)*((1f-ax)*data[index] + ax*data[index+dx]) +
+								ay*((1f-ax)*data[index+dy] + ax*data[index+dy+dx]);
+					}
+				} else if( renderAll ) {
+					for (int band = 0; band < numBands; band++) {
+						dst.data[indexDst++] = borderValue;
+					}
+				} else {
+					indexDst += numBands;
+				}
+			}
+		}
+	}
+
+	public RemapTable getTable() {
+		return table;
+	}
+
+	public void setTable(RemapTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * If true then pixels which are outside the source image are set to the border value.  If false they
+	 * are not modified.
+	 */
+	public void setRenderAll(boolean renderAll) {
+		this.renderAll = renderAll;
+	}
+
+	public boolean isRenderAll() {
+		return renderAll;
+	}
+
+	public float getBorderValue() {
+		return borderValue;
+	}
+
+	public void setBorderValue(float borderValue) {
+		this.borderValue = borderValue;
+	}
+
+	/**
+	 * If true then rows will be rendered using multiple threads
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.impl;
+
+import boofcv.alg.distort.ImageDistortBasic_IL;
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.struct.image.InterleavedU8;
+
+/**
+ * <p>
+ * Implementation of {@link ImageDistortBasic_IL} for {@link InterleavedU8} which is specialized for bilinear
+ * interpolation.  Pixels which are inside the image are interpolated using fixed point integer math with 8-bit
+ * sub-pixel weights and flat index arithmetic, avoiding a call to the interpolation class.  Pixels along the
+ * image border are passed to the interpolation class, which handles the border.
+ * </p>
+ *
+ * <p>
+ * Interpolated values are rounded to the nearest integer, the same as {@link boofcv.alg.distort.RemapTableRender},
+ * while {@link ImplImageDistort_IL_U8} truncates them.  The output is within one of the floating point
+ * interpolated value after it has been rounded.  Create using
+ * {@link boofcv.factory.distort.FactoryDistort#distortFixedPoint_IL_U8}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplImageDistortBilinear_IL_U8 extends ImageDistortBasic_IL<InterleavedU8,InterleavedU8> {
+
+	// weights have 8-bits of precision and sum up to 2^16.  Added before shifting to round the results
+	private static final int ROUND = 1 << 15;
+
+	/**
+	 * @param interp Bilinear interpolation.  Used for pixels along the image border.
+	 */
+	public ImplImageDistortBilinear_IL_U8(InterpolatePixelMB<InterleavedU8> interp) {
+		super(interp);
+	}
+
+	@Override
+	public void applyAll() {
+		final float fastX = srcImg.width-2, fastY = srcImg.height-2;
+		final int numBands = dstImg.numBands;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0*numBands;
+			for( int x = x0; x < x1; x++ , indexDst += numBands ) {
+				dstToSrc.compute(x,y);
+				float sx = dstToSrc.distX, sy = dstToSrc.distY;
+
+				if( sx >= 0 && sy >= 0 && sx <= fastX && sy <= fastY ) {
+					interpolate(sx,sy,indexDst);
+				} else {
+					interp.get(sx,sy,values);
+					assign(indexDst,values);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void applyOnlyInside() {
+		final float fastX = srcImg.width-2, fastY = srcImg.height-2;
+		final float maxWidth = srcImg.width-1, maxHeight = srcImg.height-1;
+		final int numBands = dstImg.numBands;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0*numBands;
+			for( int x = x0; x < x1; x++ , indexDst += numBands ) {
+				dstToSrc.compute(x,y);
+				float sx = dstToSrc.distX, sy = dstToSrc.distY;
+
+				if( sx < 0 || sy < 0 || sx > maxWidth || sy > maxHeight )
+					continue;
+
+				if( sx <= fastX && sy <= fastY ) {
+					interpolate(sx,sy,indexDst);
+				} else {
+					interp.get(sx,sy,values);
+					assign(indexDst,values);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bilinear interpolation using fixed point math and writes the results into the output image.  The point
+	 * must be at least one pixel away from the right and bottom image border.
+	 */
+	private void interpolate( float x , float y , int indexDst ) {
+		int xt = (int)x;
+		int yt = (int)y;
+		int ax = (int)((x-xt)*256);
+		int ay = (int)((y-yt)*256);
+
+		// weights sum up to 2^16
+		int a00 = (256-ax)*(256-ay);
+		int a10 = ax*(256-ay);
+		int a01 = (256-ax)*ay;
+		int a11 = ax*ay;
+
+		final int numBands = srcImg.numBands;
+		final int stride = srcImg.stride;
+		final byte[] data = srcImg.data;
+		int index = srcImg.startIndex + yt*stride + xt*numBands;
+
+		for( int i = 0; i < numBands; i++ , index++ ) {
+			int val = a00*(data[index] & 0xFF) + a10*(data[index+numBands] & 0xFF) +
+					a01*(data[index+stride] & 0xFF) + a11*(data[index+stride+numBands] & 0xFF);
+			dstImg.data[indexDst+i] = (byte)((val + ROUND) >> 16);
+		}
+	}
+
+	@Override
+	protected void assign(int indexDst, float[] value) {
+		for( int i = 0; i < dstImg.numBands; i++ ) {
+			dstImg.data[indexDst+i] = (byte)(value[i] + 0.5f);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.impl;
+
+import boofcv.alg.distort.ImageDistortBasic_SB;
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.struct.image.GrayU8;
+
+/**
+ * <p>
+ * Implementation of {@link ImageDistortBasic_SB} for {@link GrayU8} which is specialized for bilinear
+ * interpolation.  Pixels which are inside the image are interpolated using fixed point integer math with 8-bit
+ * sub-pixel weights and flat index arithmetic, avoiding a call to the interpolation class.  Pixels along the
+ * image border are passed to the interpolation class, which handles the border.
+ * </p>
+ *
+ * <p>
+ * Interpolated values are rounded to the nearest integer, the same as {@link boofcv.alg.distort.RemapTableRender},
+ * while {@link ImplImageDistort_I8} truncates them.  The output is within one of the floating point interpolated
+ * value after it has been rounded.  Create using
+ * {@link boofcv.factory.distort.FactoryDistort#distortFixedPoint_U8}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplImageDistortBilinear_U8 extends ImageDistortBasic_SB<GrayU8,GrayU8> {
+
+	// weights have 8-bits of precision and sum up to 2^16.  Added before shifting to round the results
+	private static final int ROUND = 1 << 15;
+
+	/**
+	 * @param interp Bilinear interpolation.  Used for pixels along the image border.
+	 */
+	public ImplImageDistortBilinear_U8(InterpolatePixelS<GrayU8> interp) {
+		super(interp);
+	}
+
+	@Override
+	public void applyAll() {
+		final float fastX = srcImg.width-2, fastY = srcImg.height-2;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			for( int x = x0; x < x1; x++ , indexDst++ ) {
+				dstToSrc.compute(x,y);
+				float sx = dstToSrc.distX, sy = dstToSrc.distY;
+
+				if( sx >= 0 && sy >= 0 && sx <= fastX && sy <= fastY ) {
+					dstImg.data[indexDst] = (byte)interpolate(sx,sy);
+				} else {
+					assign(indexDst,interp.get(sx,sy));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void applyOnlyInside() {
+		final float fastX = srcImg.width-2, fastY = srcImg.height-2;
+		final float maxWidth = srcImg.width-1, maxHeight = srcImg.height-1;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			for( int x = x0; x < x1; x++ , indexDst++ ) {
+				dstToSrc.compute(x,y);
+				float sx = dstToSrc.distX, sy = dstToSrc.distY;
+
+				if( sx < 0 || sy < 0 || sx > maxWidth || sy > maxHeight )
+					continue;
+
+				if( sx <= fastX && sy <= fastY ) {
+					dstImg.data[indexDst] = (byte)interpolate(sx,sy);
+				} else {
+					assign(indexDst,interp.get(sx,sy));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bilinear interpolation using fixed point math.  The point must be at least one pixel away from the
+	 * right and bottom image border.
+	 */
+	private int interpolate( float x , float y ) {
+		int xt = (int)x;
+		int yt = (int)y;
+		int ax = (int)((x-xt)*256);
+		int ay = (int)((y-yt)*256);
+
+		final int stride = srcImg.stride;
+		final byte[] data = srcImg.data;
+		int index = srcImg.startIndex + yt*stride + xt;
+
+		// weights sum up to 2^16
+		int top = (256-ax)*(data[index] & 0xFF) + ax*(data[index+1] & 0xFF);
+		index += stride;
+		int bottom = (256-ax)*(data[index] & 0xFF) + ax*(data[index+1] & 0xFF);
+
+		return ((256-ay)*top + ay*bottom + ROUND) >> 16;
+	}
+
+	@Override
+	protected void assign(int indexDst, float value) {
+		dstImg.data[indexDst] = (byte)(value + 0.5f);
+	}
+}
@@ -52,5 +52,13 @@ public interface InterpolateRectangle<T extends ImageGray<T>> {
 	 * @param dest Where the interpolated region is to be copied into
 	 */
 	public void region(float tl_x, float tl_y, GrayF32 dest );
+
+	/**
+	 * Creates a new instance of this interpolation method with the same configuration.  The image is not
+	 * copied.  Used to create independent instances for use in different threads.
+	 *
+	 * @return New instance which is not attached to any image
+	 */
+	public InterpolateRectangle<T> copy();
 //	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight);
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Functions for running loops concurrently.  All work is done inside a shared {@link ForkJoinPool} whose size
+ * is specified by {@link #setMaxThreads}.  Loops can be nested without dead locking since threads which are
+ * waiting on a task will help process other tasks.  If the maximum number of threads is one or there is only
+ * a single block of work then everything is run in the calling thread.
+ * </p>
+ *
+ * <p>
+ * Algorithms which have internal state, which is most of them, can't be shared across threads.  The
+ * {@link #loopBlocks(int, int, List, IntRangeObjectConsumer)} function is provided for this situation. It
+ * gives each block its own workspace from a list which is owned by the caller.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	/**
+	 * Suggested minimum number of rows in a block when an image is split up by rows.  Avoids the threading
+	 * overhead on small images
+	 */
+	public static final int MIN_BLOCK_ROWS = 8;
+
+	// maximum number of threads which can be used at once
+	private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+	// thread pool which all the work is done in.  Lazily created
+	private static ForkJoinPool pool;
+
+	/**
+	 * Specifies the maximum number of threads which can be used at once.  The thread pool is recreated.
+	 *
+	 * @param maxThreads Maximum number of threads. Must be &ge; 1
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Must be at least one thread");
+		BoofConcurrency.maxThreads = maxThreads;
+		if( pool != null ) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	public static synchronized int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Returns the thread pool which all concurrent work is done in
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if( pool == null ) {
+			pool = new ForkJoinPool(maxThreads);
+		}
+		return pool;
+	}
+
+	/**
+	 * Invokes the consumer once for each value from start to end.  Each value is a separate task, which
+	 * makes this best suited for a few large units of work with unpredictable cost.
+	 *
+	 * @param start first value, inclusive
+	 * @param end last value, exclusive
+	 * @param consumer The operation which is invoked for each value
+	 */
+	public static void loopFor( int start , int end , final IntConsumer consumer ) {
+		if( end - start <= 1 || getMaxThreads() == 1 ) {
+			for (int i = start; i < end; i++) {
+				consumer.accept(i);
+			}
+			return;
+		}
+
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int i = start; i < end; i++) {
+			final int value = i;
+			tasks.add(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					consumer.accept(value);
+				}
+			});
+		}
+		invokeAll(tasks);
+	}
+
+	/**
+	 * Splits the range into one block for each thread and processes the blocks concurrently
+	 *
+	 * @param start first value, inclusive
+	 * @param end last value, exclusive
+	 * @param consumer The operation which processes a block
+	 */
+	public static void loopBlocks( int start , int end , IntRangeConsumer consumer ) {
+		loopBlocks(start, end, 1, consumer);
+	}
+
+	/**
+	 * Splits the range into one block for each thread and processes the blocks concurrently.  Blocks will not
+	 * be made smaller than the specified minimum size, unless it's the whole range.
+	 *
+	 * @param start first value, inclusive
+	 * @param end last value, exclusive
+	 * @param minBlock Minimum number of values in each block
+	 * @param consumer The operation which processes a block
+	 */
+	public static void loopBlocks( int start , int end , int minBlock , final IntRangeConsumer consumer ) {
+		int numBlocks = computeNumberOfBlocks(end - start, minBlock, getMaxThreads());
+
+		if( numBlocks <= 1 ) {
+			if( end > start )
+				consumer.accept(start, end);
+			return;
+		}
+
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int i = 0; i < numBlocks; i++) {
+			final int blockStart = blockBoundary(start, end, numBlocks, i);
+			final int blockEnd = blockBoundary(start, end, numBlocks, i+1);
+			tasks.add(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					consumer.accept(blockStart, blockEnd);
+				}
+			});
+		}
+		invokeAll(tasks);
+	}
+
+	/**
+	 * Splits the range into one block for each workspace and processes the blocks concurrently.  Block 'i'
+	 * is always given workspace 'i', which makes results deterministic if the workspaces are combined in order.
+	 * If the range is smaller than the number of workspaces then the extra workspaces are not used.
+	 *
+	 * @param start first value, inclusive
+	 * @param end last value, exclusive
+	 * @param workspaces One workspace for each block.  Typically one for each thread.
+	 * @param consumer The operation which processes a block
+	 */
+	public static <T> void loopBlocks( int start , int end ,
+									   final List<T> workspaces , final IntRangeObjectConsumer<T> consumer ) {
+		if( workspaces.isEmpty() )
+			throw new IllegalArgumentException("There must be at least one workspace");
+
+		int numBlocks = Math.min(workspaces.size(), end - start);
+
+		if( numBlocks <= 1 ) {
+			if( end > start )
+				consumer.accept(workspaces.get(0), start, end);
+			return;
+		}
+
+		List<RecursiveAction> tasks = new ArrayList<>();
+		for (int i = 0; i < numBlocks; i++) {
+			final T workspace = workspaces.get(i);
+			final int blockStart = blockBoundary(start, end, numBlocks, i);
+			final int blockEnd = blockBoundary(start, end, numBlocks, i+1);
+			tasks.add(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					consumer.accept(workspace, blockStart, blockEnd);
+				}
+			});
+		}
+		invokeAll(tasks);
+	}
+
+	/**
+	 * Computes how many blocks a range should be split into
+	 *
+	 * @param range Number of elements in the range
+	 * @param minBlock Minimum number of elements in a block
+	 * @param maxBlocks Maximum number of blocks
+	 * @return number of blocks
+	 */
+	public static int computeNumberOfBlocks( int range , int minBlock , int maxBlocks ) {
+		if( range <= 0 )
+			return 0;
+		return Math.max(1, Math.min(maxBlocks, range/Math.max(1, minBlock)));
+	}
+
+	/**
+	 * Returns the start of the specified block when a range is split up into nearly equal sized blocks
+	 */
+	public static int blockBoundary( int start , int end , int numBlocks , int block ) {
+		return start + (int)((end - start)*(long)block/numBlocks);
+	}
+
+	/**
+	 * Runs all the tasks and waits for them to finish.  If already inside of a fork join pool then
+	 * the tasks are run inside of that pool.
+	 */
+	private static void invokeAll( final List<RecursiveAction> tasks ) {
+		if( ForkJoinTask.inForkJoinPool() ) {
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			getPool().invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					ForkJoinTask.invokeAll(tasks);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+/**
+ * Processes a contiguous range of integers using a workspace which is owned by the caller.  No two blocks
+ * which are being processed at the same time will be given the same workspace, allowing algorithms which have
+ * internal state to be used concurrently.
+ *
+ * @author Peter Abeles
+ */
+public interface IntRangeObjectConsumer<T> {
+	/**
+	 * Processes indexes in the specified range
+	 *
+	 * @param workspace Data which is exclusive to this block
+	 * @param minInclusive first index, inclusive
+	 * @param maxExclusive last index, exclusive
+	 */
+	void accept( T workspace , int minInclusive , int maxExclusive );
+}
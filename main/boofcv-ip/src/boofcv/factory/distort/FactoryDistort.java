@@ -22,12 +22,14 @@ import boofcv.abst.distort.ConfigDeformPointMLS;
 import boofcv.abst.distort.PointDeformKeyPoints;
 import boofcv.abst.distort.PointDeform_MLS;
 import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.distort.ImageDistortConcurrent;
 import boofcv.alg.distort.impl.*;
 import boofcv.alg.distort.mls.ImageDeformPointMLS_F32;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.interpolate.InterpolationType;
+import boofcv.concurrency.InstanceFactory;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.image.*;
@@ -157,6 +159,140 @@ public class FactoryDistort {
 		}
 	}
 
+	/**
+	 * Creates a {@link ImageDistort} for {@link GrayU8} images which performs bilinear interpolation using fixed
+	 * point math.  Faster than what {@link #distortSB} returns, but the output isn't identical.  Values are rounded
+	 * instead of truncated and sub-pixel weights only have 8-bits of precision.
+	 *
+	 * @see ImplImageDistortBilinear_U8
+	 *
+	 * @param borderType How pixels outside the image border are handled
+	 * @return ImageDistort
+	 */
+	public static ImageDistort<GrayU8,GrayU8> distortFixedPoint_U8( BorderType borderType ) {
+		return new ImplImageDistortBilinear_U8(FactoryInterpolation.bilinearPixelS(GrayU8.class, borderType));
+	}
+
+	/**
+	 * Creates a {@link ImageDistort} for {@link InterleavedU8} images which performs bilinear interpolation using
+	 * fixed point math.  Faster than what {@link #distortIL} returns, but the output isn't identical.  Values are
+	 * rounded instead of truncated and sub-pixel weights only have 8-bits of precision.
+	 *
+	 * @see ImplImageDistortBilinear_IL_U8
+	 *
+	 * @param numBands Number of bands in the images
+	 * @param borderType How pixels outside the image border are handled
+	 * @return ImageDistort
+	 */
+	public static ImageDistort<InterleavedU8,InterleavedU8> distortFixedPoint_IL_U8( int numBands ,
+																					  BorderType borderType ) {
+		ImageType<InterleavedU8> type = ImageType.il(numBands, InterleavedU8.class);
+		return new ImplImageDistortBilinear_IL_U8(FactoryInterpolation.bilinearPixelMB(type, borderType));
+	}
+
+	/**
+	 * Creates a {@link ImageDistort} which renders the output image using multiple threads.  The output is
+	 * identical to what the single threaded version produces.  Min and max pixel values are assumed to be
+	 * 0 and 255, respectively.  Cached distortions are not supported.
+	 *
+	 * @see ImageDistortConcurrent
+	 *
+	 * @param interpolationType  Which interpolation method it should use
+	 * @param borderType How pixels outside the image border are handled
+	 * @param inputType Type of input image
+	 * @param outputType Type of output image
+	 * @return ImageDistort
+	 */
+	public static <Input extends ImageBase<Input>, Output extends ImageBase<Output>>
+	ImageDistort<Input, Output> distortConcurrent(final InterpolationType interpolationType,
+												  final BorderType borderType,
+												  final ImageType<Input> inputType, ImageType<Output> outputType) {
+		InstanceFactory<InterpolatePixel<Input>> interp = new InstanceFactory<InterpolatePixel<Input>>() {
+			@Override
+			public InterpolatePixel<Input> newInstance() {
+				return FactoryInterpolation.createPixel(0,255, interpolationType,borderType,inputType);
+			}
+		};
+
+		// The image family is only known at runtime, so the interpolation factory's type has to be cast
+		switch( outputType.getFamily() ) {
+			case GRAY: {
+				@SuppressWarnings({"unchecked", "rawtypes"})
+				ImageDistort<Input, Output> ret = distortSB((InstanceFactory)interp, outputType.getImageClass());
+				return ret;
+			}
+			case PLANAR: {
+				@SuppressWarnings({"unchecked", "rawtypes"})
+				ImageDistort<Input, Output> ret = distortPL((InstanceFactory)interp, outputType.getImageClass());
+				return ret;
+			}
+			case INTERLEAVED: {
+				@SuppressWarnings({"unchecked", "rawtypes"})
+				ImageDistort<Input, Output> ret = distortIL((InstanceFactory)interp, (ImageType)outputType);
+				return ret;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown image family "+outputType.getFamily());
+		}
+	}
+
+	/**
+	 * Creates a {@link ImageDistort} for {@link ImageGray} which renders the output image using multiple threads.
+	 *
+	 * @see ImageDistortConcurrent
+	 *
+	 * @param interp Creates the interpolation used by each thread.
+	 * @param outputType Type of output image.
+	 */
+	public static <Input extends ImageGray<Input>, Output extends ImageGray<Output>>
+	ImageDistort<Input, Output> distortSB(final InstanceFactory<InterpolatePixelS<Input>> interp,
+										  final Class<Output> outputType)
+	{
+		return new ImageDistortConcurrent<>(new InstanceFactory<ImageDistort<Input, Output>>() {
+			@Override
+			public ImageDistort<Input, Output> newInstance() {
+				return distortSB(false, interp.newInstance(), outputType);
+			}
+		});
+	}
+
+	/**
+	 * Creates a {@link ImageDistort} for {@link Planar} images which renders each band using multiple threads.
+	 *
+	 * @see ImageDistortConcurrent
+	 *
+	 * @param interp Creates the interpolation used by each thread.
+	 * @param outputType Type of output image.
+	 */
+	public static <Input extends ImageGray<Input>,Output extends ImageGray<Output>>
+	ImageDistort<Planar<Input>,Planar<Output>>
+	distortPL(InstanceFactory<InterpolatePixelS<Input>> interp, Class<Output> outputType)
+	{
+		ImageDistort<Input, Output> distortSingle = distortSB(interp, outputType);
+		return new ImplImageDistort_PL<>(distortSingle);
+	}
+
+	/**
+	 * Creates a {@link ImageDistort} for {@link ImageInterleaved} which renders the output image using
+	 * multiple threads.
+	 *
+	 * @see ImageDistortConcurrent
+	 *
+	 * @param interp Creates the interpolation used by each thread.
+	 * @param outputType Type of output image.
+	 */
+	public static <Input extends ImageInterleaved<Input>, Output extends ImageInterleaved<Output>>
+	ImageDistort<Input, Output>
+	distortIL(final InstanceFactory<InterpolatePixelMB<Input>> interp, final ImageType<Output> outputType)
+	{
+		return new ImageDistortConcurrent<>(new InstanceFactory<ImageDistort<Input, Output>>() {
+			@Override
+			public ImageDistort<Input, Output> newInstance() {
+				return distortIL(false, interp.newInstance(), outputType);
+			}
+		});
+	}
+
 	public static PointDeformKeyPoints deformMls(ConfigDeformPointMLS config ) {
 		if( config == null )
 			config = new ConfigDeformPointMLS();
@@ -37,4 +37,15 @@ public abstract class PixelTransform2_F32 implements PixelTransform {
 	public float getDistY() {
 		return distY;
 	}
+
+	/**
+	 * Creates a copy which can be used in a different thread at the same time as this instance.  Data which
+	 * is only read, such as the model, can be shared by the two.  If the model is modified then a new
+	 * copy should be created.
+	 *
+	 * @return The copy or null if not supported
+	 */
+	public PixelTransform2_F32 copyConcurrent() {
+		return null;
+	}
 }
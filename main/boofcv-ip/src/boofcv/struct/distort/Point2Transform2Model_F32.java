@@ -42,4 +42,14 @@ public interface Point2Transform2Model_F32<Model> extends Point2Transform2_F32 {
 	 * @return new instance
 	 */
 	Model newInstanceModel();
+
+	/**
+	 * Creates a new instance of this transform with its own copy of the model.  The copy starts with the same
+	 * model, but changing the model in one doesn't change it in the other, so the two can be used in different
+	 * threads at the same time.  Unlike {@link PixelTransform2_F32#copyConcurrent()}, which shares the model
+	 * and can return null, this must always return a copy.
+	 *
+	 * @return new instance of this transform.  Never null.
+	 */
+	Point2Transform2Model_F32<Model> copyWithModel();
 }
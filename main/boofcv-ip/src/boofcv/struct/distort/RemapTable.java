@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.distort;
+
+/**
+ * <p>
+ * Precomputed look up table which specifies the location in the source image of every pixel in the destination
+ * image.  Typically created from a {@link PixelTransform2_F32} for lens undistortion or rectification, which
+ * is expensive to compute.  Coordinates are stored in two float arrays in row-major order.
+ * </p>
+ *
+ * <p>
+ * Once computed the table is only read from, so a single instance can be shared between threads and between
+ * multiple distortion algorithms.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RemapTable {
+	/** Shape of the destination image */
+	public int width, height;
+
+	/** Location of each destination pixel in the source image. index = y*width + x */
+	public float[] srcX, srcY;
+
+	public RemapTable(int width, int height) {
+		reshape(width, height);
+	}
+
+	public RemapTable() {
+		srcX = srcY = new float[0];
+	}
+
+	/**
+	 * Changes the shape of the table.  Storage is only reallocated if it needs to grow.
+	 */
+	public void reshape( int width , int height ) {
+		this.width = width;
+		this.height = height;
+		int N = width*height;
+		if( srcX == null || srcX.length < N ) {
+			srcX = new float[N];
+			srcY = new float[N];
+		}
+	}
+
+	/**
+	 * Computes the table from a transform from destination to source pixels
+	 *
+	 * @param dstToSrc Transform from destination to source pixels
+	 */
+	public void compute( PixelTransform2_F32 dstToSrc ) {
+		int index = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++, index++) {
+				dstToSrc.compute(x, y);
+				srcX[index] = dstToSrc.distX;
+				srcY[index] = dstToSrc.distY;
+			}
+		}
+	}
+
+	/**
+	 * Creates a table from the transform
+	 *
+	 * @param dstToSrc Transform from destination to source pixels
+	 * @param width Width of the destination image
+	 * @param height Height of the destination image
+	 * @return The table
+	 */
+	public static RemapTable create( PixelTransform2_F32 dstToSrc , int width , int height ) {
+		RemapTable table = new RemapTable(width, height);
+		table.compute(dstToSrc);
+		return table;
+	}
+
+	public int getIndex( int x , int y ) {
+		return y*width + x;
+	}
+
+	/**
+	 * Number of bytes used to store the table
+	 */
+	public long getBytes() {
+		return 8L*width*height;
+	}
+}
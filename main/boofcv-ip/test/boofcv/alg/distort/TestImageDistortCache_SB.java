@@ -20,11 +20,11 @@ package boofcv.alg.distort;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.distort.RemapTable;
 import boofcv.struct.image.GrayF32;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -92,6 +92,45 @@ public class TestImageDistortCache_SB {
 		assertEquals(9*14,alg.getTotal());
 	}
 
+	/**
+	 * A table computed by one instance should be usable by another without being modified
+	 */
+	@Test
+	public void setRemapTable() {
+		Helper a = new Helper(interp);
+		offX=offY=0.1f;
+		a.setRenderAll(false);
+		a.setModel(tran);
+		a.apply(new GrayF32(10, 15), new GrayF32(10, 15));
+		RemapTable table = a.getRemapTable();
+		assertEquals(10,table.width);
+		assertEquals(15,table.height);
+		assertEquals(3.1f,table.srcX[table.getIndex(3,4)],1e-6f);
+		assertEquals(4.1f,table.srcY[table.getIndex(3,4)],1e-6f);
+
+		// the transform changes but the shared table doesn't
+		offX=offY=-0.1f;
+		Helper b = new Helper(interp);
+		b.setRenderAll(false);
+		b.setRemapTable(table);
+		b.apply(new GrayF32(10, 15), new GrayF32(10, 15));
+		assertEquals(9*14,b.getTotal());
+		assertSame(table,b.getRemapTable());
+
+		// applying a new model shouldn't modify the shared table
+		b.setModel(tran);
+		b.apply(new GrayF32(10, 15), new GrayF32(10, 15));
+		assertNotSame(table,b.getRemapTable());
+		assertEquals(3.1f,table.srcX[table.getIndex(3,4)],1e-6f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setRemapTable_wrongShape() {
+		Helper alg = new Helper(interp);
+		alg.setRemapTable(new RemapTable(10,14));
+		alg.apply(new GrayF32(10, 15), new GrayF32(10, 15));
+	}
+
 	private static class Helper extends ImageDistortCache_SB {
 
 		int total = 0;
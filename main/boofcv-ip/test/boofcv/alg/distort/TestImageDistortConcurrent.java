@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageDistortConcurrent {
+	Random rand = new Random(234);
+	int width = 60, height = 70;
+
+	int maxThreads;
+
+	// rotates and scales the image so that some pixels are outside the source image
+	PixelTransformAffine_F32 transform = new PixelTransformAffine_F32(
+			new Affine2D_F32(0.9f,0.15f,-0.1f,1.05f,-2.2f,1.7f));
+
+	@Before
+	public void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * Output should be identical to the single threaded version
+	 */
+	@Test
+	public void compareToSingleThread() {
+		compareToSingleThread(ImageType.single(GrayU8.class));
+		compareToSingleThread(ImageType.single(GrayF32.class));
+		compareToSingleThread(ImageType.pl(2,GrayF32.class));
+		compareToSingleThread(ImageType.il(3,InterleavedU8.class));
+		compareToSingleThread(ImageType.il(2,InterleavedF32.class));
+	}
+
+	private <T extends ImageBase<T>> void compareToSingleThread( ImageType<T> type ) {
+		T src = type.createImage(width, height);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+
+		for( boolean renderAll : new boolean[]{true,false}) {
+			T expected = type.createImage(width, height);
+			T found = type.createImage(width, height);
+			GImageMiscOps.fill(expected, 5);
+			GImageMiscOps.fill(found, 5);
+
+			ImageDistort<T,T> single = FactoryDistort.distort(false, InterpolationType.BILINEAR,
+					BorderType.ZERO, type, type);
+			single.setModel(transform);
+			single.setRenderAll(renderAll);
+			single.apply(src, expected);
+
+			ImageDistort<T,T> alg = FactoryDistort.distortConcurrent(InterpolationType.BILINEAR,
+					BorderType.ZERO, type, type);
+			alg.setModel(transform);
+			alg.setRenderAll(renderAll);
+			alg.apply(src, found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+
+			// only render inside a region
+			GImageMiscOps.fill(expected, 5);
+			GImageMiscOps.fill(found, 5);
+			single.apply(src, expected, 3, 4, width-5, height-2);
+			alg.apply(src, found, 3, 4, width-5, height-2);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
+	/**
+	 * Changes to the model after setModel() should be used
+	 */
+	@Test
+	public void modelChanged() {
+		GrayF32 src = new GrayF32(width, height);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+		GrayF32 expected = src.createSameShape();
+		GrayF32 found = src.createSameShape();
+
+		ImageType<GrayF32> type = ImageType.single(GrayF32.class);
+		ImageDistort<GrayF32,GrayF32> single = FactoryDistort.distort(false, InterpolationType.BILINEAR,
+				BorderType.EXTENDED, type, type);
+		ImageDistort<GrayF32,GrayF32> alg = FactoryDistort.distortConcurrent(InterpolationType.BILINEAR,
+				BorderType.EXTENDED, type, type);
+		single.setModel(transform);
+		alg.setModel(transform);
+		alg.apply(src, found);
+
+		transform.getModel().tx = 4.5f;
+		single.apply(src, expected);
+		alg.apply(src, found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	/**
+	 * Transforms which can't be copied are processed in a single thread
+	 */
+	@Test
+	public void transformNotCopied() {
+		GrayF32 src = new GrayF32(width, height);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+		GrayF32 found = src.createSameShape();
+
+		ImageType<GrayF32> type = ImageType.single(GrayF32.class);
+		ImageDistort<GrayF32,GrayF32> alg = FactoryDistort.distortConcurrent(InterpolationType.BILINEAR,
+				BorderType.EXTENDED, type, type);
+		alg.setModel(new PixelTransform2_F32() {
+			@Override
+			public void compute(int x, int y) {
+				distX = x;
+				distY = y;
+			}
+		});
+		alg.apply(src, found);
+
+		BoofTesting.assertEquals(src, found, 0);
+	}
+
+	/**
+	 * Scale and rotate in DistortImageOps should produce the same results as before
+	 */
+	@Test
+	public void distortImageOps() {
+		GrayU8 src = new GrayU8(width, height);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+		GrayU8 expected = new GrayU8(width+20, height-10);
+		GrayU8 found = expected.createSameShape();
+
+		BoofConcurrency.setMaxThreads(1);
+		DistortImageOps.rotate(src, expected, BorderType.EXTENDED, InterpolationType.BILINEAR, 0.3f);
+		BoofConcurrency.setMaxThreads(4);
+		DistortImageOps.rotate(src, found, BorderType.EXTENDED, InterpolationType.BILINEAR, 0.3f);
+		BoofTesting.assertEquals(expected, found, 0);
+
+		BoofConcurrency.setMaxThreads(1);
+		DistortImageOps.scale(src, expected, BorderType.EXTENDED, InterpolationType.BILINEAR);
+		BoofConcurrency.setMaxThreads(4);
+		DistortImageOps.scale(src, found, BorderType.EXTENDED, InterpolationType.BILINEAR);
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+}
@@ -22,6 +22,7 @@ import georegression.struct.affine.Affine2D_F32;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author Peter Abeles
@@ -48,4 +49,21 @@ public class TestPixelTransformCached_F32 {
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void copyConcurrent() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(width,height,orig);
+		PixelTransformCached_F32 copy = (PixelTransformCached_F32)alg.copyConcurrent();
+
+		// the map is read only and should be shared
+		assertSame(alg.map,copy.map);
+
+		copy.compute(3,4);
+		orig.compute(3,4);
+		assertEquals(orig.distX,copy.distX,1e-8);
+		assertEquals(orig.distY,copy.distY,1e-8);
+	}
+}
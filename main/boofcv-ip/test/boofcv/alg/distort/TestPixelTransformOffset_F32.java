@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.PixelTransform2_F32;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPixelTransformOffset_F32 {
+
+	@Test
+	public void compareToOrig() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformOffset_F32 alg = new PixelTransformOffset_F32(orig);
+		alg.setOffset(7,-3);
+
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 12; x++) {
+				alg.compute(x,y);
+				orig.compute(x+7,y-3);
+				assertEquals(orig.distX-7,alg.distX,1e-4f);
+				assertEquals(orig.distY+3,alg.distY,1e-4f);
+			}
+		}
+	}
+
+	@Test
+	public void zeroOffset() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformOffset_F32 alg = new PixelTransformOffset_F32(orig);
+
+		alg.compute(4,5);
+		orig.compute(4,5);
+		assertEquals(orig.distX,alg.distX,1e-8f);
+		assertEquals(orig.distY,alg.distY,1e-8f);
+	}
+
+	@Test
+	public void copyConcurrent() {
+		PixelTransformAffine_F32 orig = new PixelTransformAffine_F32();
+		orig.set(new Affine2D_F32(1f,0.1f,0.05f,2f,5f,6f));
+
+		PixelTransformOffset_F32 alg = new PixelTransformOffset_F32(orig);
+		alg.setOffset(7,-3);
+
+		PixelTransform2_F32 copy = alg.copyConcurrent();
+		assertTrue(copy != alg);
+
+		alg.compute(4,5);
+		copy.compute(4,5);
+		assertEquals(alg.distX,copy.distX,1e-8f);
+		assertEquals(alg.distY,copy.distY,1e-8f);
+
+		// transforms which can't be copied
+		alg.setTransform(new PixelTransform2_F32() {
+			@Override
+			public void compute(int x, int y) {}
+		});
+		assertNull(alg.copyConcurrent());
+	}
+}
@@ -23,6 +23,7 @@ import georegression.struct.point.Point2D_F32;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author Peter Abeles
@@ -42,6 +43,14 @@ public class TestPointToPixelTransform_F32 {
 		assertEquals(expected.y,alg.distY,1e-6);
 	}
 
+	/**
+	 * The wrapped transform can't be copied, so it can't be used by multiple threads
+	 */
+	@Test
+	public void copyConcurrent() {
+		assertNull(new PointToPixelTransform_F32(new Dummy()).copyConcurrent());
+	}
+
 	private static class Dummy implements Point2Transform2_F32 {
 
 		@Override
@@ -24,6 +24,7 @@ import georegression.transform.homography.HomographyPointOps_F32;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 /**
  * @author Peter Abeles
@@ -49,4 +50,20 @@ public class TestPointTransformHomography_F32 {
 		assertEquals(expected.x,output.x,1e-4);
 		assertEquals(expected.y, output.y, 1e-4);
 	}
+
+	/**
+	 * The copy should start with the same model but not share it
+	 */
+	@Test
+	public void copyWithModel() {
+		Homography2D_F32 H = new Homography2D_F32(1,2,3,4,5,6,7,8,9);
+		PointTransformHomography_F32 alg = new PointTransformHomography_F32(H);
+
+		PointTransformHomography_F32 copy = alg.copyWithModel();
+		assertNotSame(alg.getModel(), copy.getModel());
+		assertEquals(H.a13, copy.getModel().a13, 0);
+
+		copy.getModel().a13 = 10;
+		assertEquals(H.a13, alg.getModel().a13, 0);
+	}
 }
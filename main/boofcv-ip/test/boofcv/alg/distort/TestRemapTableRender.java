@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.FactoryGImageMultiBand;
+import boofcv.core.image.GImageMultiBand;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.struct.distort.RemapTable;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRemapTableRender {
+	Random rand = new Random(234);
+	int srcWidth = 40, srcHeight = 35;
+	int dstWidth = 45, dstHeight = 30;
+
+	// rotates and scales the image so that some pixels are outside the source image
+	PixelTransformAffine_F32 transform = new PixelTransformAffine_F32(
+			new Affine2D_F32(0.9f,0.15f,-0.1f,1.05f,-2.2f,1.7f));
+
+	@Test
+	public void compareToImageDistort() {
+		compareToImageDistort(ImageType.single(GrayU8.class), 1);
+		compareToImageDistort(ImageType.single(GrayF32.class), 1e-4);
+		compareToImageDistort(ImageType.pl(2,GrayU8.class), 1);
+		compareToImageDistort(ImageType.pl(3,GrayF32.class), 1e-4);
+		compareToImageDistort(ImageType.il(2,InterleavedU8.class), 1);
+		compareToImageDistort(ImageType.il(3,InterleavedF32.class), 1e-4);
+	}
+
+	/**
+	 * Compares against ImageDistort using floating point images.  Integer images are rendered using fixed point
+	 * math and rounded, so the expected value is rounded too.
+	 */
+	private <T extends ImageBase<T>> void compareToImageDistort( ImageType<T> type , double tol ) {
+		ImageType typeF = new ImageType(type.getFamily(), ImageDataType.F32, type.getNumBands());
+		boolean round = type.getDataType().isInteger();
+
+		T src = type.createImage(srcWidth, srcHeight);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+		ImageBase srcF = typeF.createImage(srcWidth, srcHeight);
+		copy(src, srcF);
+
+		ImageBase expected = typeF.createImage(dstWidth, dstHeight);
+		T found = type.createImage(dstWidth, dstHeight);
+		// pixels outside the image should not be modified
+		GImageMiscOps.fill(expected, 5);
+		GImageMiscOps.fill(found, 5);
+
+		ImageDistort distort = FactoryDistort.distort(false, InterpolationType.BILINEAR,
+				BorderType.ZERO, typeF, typeF);
+		distort.setModel(transform);
+		distort.setRenderAll(false);
+		distort.apply(srcF, expected);
+
+		RemapTableRender<T> alg = new RemapTableRender<>(RemapTable.create(transform, dstWidth, dstHeight));
+		alg.setRenderAll(false);
+		alg.apply(src, found);
+
+		GImageMultiBand e = FactoryGImageMultiBand.wrap(expected);
+		GImageMultiBand f = FactoryGImageMultiBand.wrap(found);
+		float[] valueE = new float[type.getNumBands()];
+		float[] valueF = new float[type.getNumBands()];
+		for (int y = 0; y < dstHeight; y++) {
+			for (int x = 0; x < dstWidth; x++) {
+				e.get(x, y, valueE);
+				f.get(x, y, valueF);
+				for (int band = 0; band < valueE.length; band++) {
+					double expectedValue = round ? (int)(valueE[band] + 0.5f) : valueE[band];
+					assertEquals(expectedValue, valueF[band], tol);
+				}
+			}
+		}
+	}
+
+	private static void copy( ImageBase src , ImageBase dst ) {
+		GImageMultiBand s = FactoryGImageMultiBand.wrap(src);
+		GImageMultiBand d = FactoryGImageMultiBand.wrap(dst);
+		float[] value = new float[s.getNumberOfBands()];
+		for (int y = 0; y < src.height; y++) {
+			for (int x = 0; x < src.width; x++) {
+				s.get(x, y, value);
+				d.set(x, y, value);
+			}
+		}
+	}
+
+	@Test
+	public void renderAll() {
+		GrayF32 src = new GrayF32(srcWidth, srcHeight);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+		GrayF32 dst = new GrayF32(dstWidth, dstHeight);
+		GImageMiscOps.fill(dst, 5);
+
+		RemapTable table = RemapTable.create(transform, dstWidth, dstHeight);
+		RemapTableRender<GrayF32> alg = new RemapTableRender<>(table);
+		alg.setBorderValue(-1);
+		alg.apply(src, dst);
+
+		int totalOutside = 0;
+		for (int y = 0; y < dstHeight; y++) {
+			for (int x = 0; x < dstWidth; x++) {
+				int i = table.getIndex(x, y);
+				boolean inside = table.srcX[i] >= 0 && table.srcX[i] <= srcWidth-1 &&
+						table.srcY[i] >= 0 && table.srcY[i] <= srcHeight-1;
+				if( !inside ) {
+					assertEquals(-1, dst.get(x, y), 0);
+					totalOutside++;
+				}
+			}
+		}
+		// make sure the test is meaningful
+		assertEquals(true, totalOutside > 0);
+	}
+
+	/**
+	 * The same table is shared by multiple threads.  The results should be identical.
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			InterleavedU8 src = new InterleavedU8(srcWidth, srcHeight, 3);
+			GImageMiscOps.fillUniform(src, rand, 0, 255);
+			InterleavedU8 expected = new InterleavedU8(dstWidth, dstHeight, 3);
+			InterleavedU8 found = new InterleavedU8(dstWidth, dstHeight, 3);
+
+			RemapTable table = RemapTable.create(transform, dstWidth, dstHeight);
+			new RemapTableRender<InterleavedU8>(table).apply(src, expected);
+
+			RemapTableRender<InterleavedU8> alg = new RemapTableRender<>(table);
+			alg.setConcurrent(true);
+			alg.apply(src, found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongShape() {
+		RemapTableRender<GrayF32> alg = new RemapTableRender<>(new RemapTable(dstWidth, dstHeight));
+		alg.apply(new GrayF32(srcWidth, srcHeight), new GrayF32(dstWidth+1, dstHeight));
+	}
+}
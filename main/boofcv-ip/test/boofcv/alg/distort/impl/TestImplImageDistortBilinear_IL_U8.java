@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.impl;
+
+import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplImageDistortBilinear_IL_U8 extends GeneralImageDistortTests<InterleavedU8> {
+
+	public TestImplImageDistortBilinear_IL_U8() {
+		super(ImageType.il(2,InterleavedU8.class));
+	}
+
+	@Override
+	public ImageDistort<InterleavedU8, InterleavedU8>
+	createDistort(PixelTransform2_F32 dstToSrc, InterpolatePixel<InterleavedU8> interp) {
+		ImageDistort<InterleavedU8,InterleavedU8> ret = new ImplImageDistortBilinear_IL_U8((InterpolatePixelMB)interp);
+		ret.setModel(dstToSrc);
+		return ret;
+	}
+
+	/**
+	 * Compare against the generic implementation using floating point bilinear interpolation.  The generic
+	 * implementation truncates, so it's modified to round.
+	 */
+	@Test
+	public void compareToGeneric() {
+		compareToGeneric(true);
+		compareToGeneric(false);
+	}
+
+	private void compareToGeneric( boolean renderAll ) {
+		ImageType<InterleavedU8> type = ImageType.il(3,InterleavedU8.class);
+		InterleavedU8 src = type.createImage(width,height);
+		GImageMiscOps.fillUniform(src,rand,0,256);
+
+		PixelTransform2_F32 tran = new PixelTransformAffine_F32(
+				new Affine2D_F32(0.9f,0.15f,-0.1f,1.05f,-2.2f,1.7f));
+
+		InterleavedU8 expected = type.createImage(width+5,height+4);
+		InterleavedU8 found = expected.createSameShape();
+		GImageMiscOps.fill(expected,7);
+		GImageMiscOps.fill(found,7);
+
+		ImageDistort<InterleavedU8,InterleavedU8> alg = new ImplImageDistort_IL_U8(createBilinear(type)) {
+			@Override
+			protected void assign(int indexDst, float[] value) {
+				for( int i = 0; i < dstImg.numBands; i++ ) {
+					dstImg.data[indexDst+i] = (byte)(value[i] + 0.5f);
+				}
+			}
+		};
+		alg.setModel(tran);
+		alg.setRenderAll(renderAll);
+		alg.apply(src,expected);
+
+		alg = new ImplImageDistortBilinear_IL_U8(createBilinear(type));
+		alg.setModel(tran);
+		alg.setRenderAll(renderAll);
+		alg.apply(src,found);
+
+		BoofTesting.assertEquals(expected,found,1);
+	}
+
+	private static InterpolatePixelMB<InterleavedU8> createBilinear( ImageType<InterleavedU8> type ) {
+		return (InterpolatePixelMB)FactoryInterpolation.createPixel(0,255,
+				InterpolationType.BILINEAR,BorderType.EXTENDED,type);
+	}
+
+	/**
+	 * The fixed point implementation should only be used when explicitly requested
+	 */
+	@Test
+	public void factory() {
+		ImageType<InterleavedU8> type = ImageType.il(3,InterleavedU8.class);
+		ImageDistort<InterleavedU8,InterleavedU8> alg = FactoryDistort.distort(false,
+				InterpolationType.BILINEAR,BorderType.ZERO,type,type);
+		assertTrue(alg instanceof ImplImageDistort_IL_U8);
+
+		alg = FactoryDistort.distortFixedPoint_IL_U8(3,BorderType.ZERO);
+		assertTrue(alg instanceof ImplImageDistortBilinear_IL_U8);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort.impl;
+
+import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplImageDistortBilinear_U8 extends GeneralImageDistortTests<GrayU8> {
+
+	public TestImplImageDistortBilinear_U8() {
+		super(ImageType.single(GrayU8.class));
+	}
+
+	@Override
+	public ImageDistort<GrayU8,GrayU8> createDistort(PixelTransform2_F32 dstToSrc,
+													 InterpolatePixel<GrayU8> interp) {
+		ImageDistort<GrayU8,GrayU8> ret = new ImplImageDistortBilinear_U8((InterpolatePixelS) interp);
+		ret.setModel(dstToSrc);
+		return ret;
+	}
+
+	/**
+	 * Compare against the generic implementation using floating point bilinear interpolation.  The generic
+	 * implementation truncates, so it's modified to round.
+	 */
+	@Test
+	public void compareToGeneric() {
+		compareToGeneric(true);
+		compareToGeneric(false);
+	}
+
+	private void compareToGeneric( boolean renderAll ) {
+		GrayU8 src = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(src,rand,0,256);
+
+		PixelTransform2_F32 tran = new PixelTransformAffine_F32(
+				new Affine2D_F32(0.9f,0.15f,-0.1f,1.05f,-2.2f,1.7f));
+		GrayU8 expected = new GrayU8(width+5,height+4);
+		GrayU8 found = expected.createSameShape();
+		ImageMiscOps.fill(expected,7);
+		ImageMiscOps.fill(found,7);
+
+		ImageDistort<GrayU8,GrayU8> alg = new ImplImageDistort_I8<GrayU8,GrayU8>(createBilinear()) {
+			@Override
+			protected void assign(int indexDst, float value) {
+				dstImg.data[indexDst] = (byte)(value + 0.5f);
+			}
+		};
+		alg.setModel(tran);
+		alg.setRenderAll(renderAll);
+		alg.apply(src,expected);
+
+		alg = new ImplImageDistortBilinear_U8(createBilinear());
+		alg.setModel(tran);
+		alg.setRenderAll(renderAll);
+		alg.apply(src,found);
+
+		BoofTesting.assertEquals(expected,found,1);
+	}
+
+	private static InterpolatePixelS<GrayU8> createBilinear() {
+		return FactoryInterpolation.bilinearPixelS(GrayU8.class, BorderType.EXTENDED);
+	}
+
+	/**
+	 * The fixed point implementation should only be used when explicitly requested
+	 */
+	@Test
+	public void factory() {
+		ImageDistort<GrayU8,GrayU8> alg = FactoryDistort.distort(false,
+				InterpolationType.BILINEAR,BorderType.ZERO,ImageType.single(GrayU8.class),ImageType.single(GrayU8.class));
+		assertTrue(alg instanceof ImplImageDistort_I8);
+
+		alg = FactoryDistort.distortFixedPoint_U8(BorderType.ZERO);
+		assertTrue(alg instanceof ImplImageDistortBilinear_U8);
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoofConcurrency {
+
+	static int originalThreads;
+
+	/**
+	 * Make sure multiple threads are used even if the test machine has a single core
+	 */
+	@BeforeClass
+	public static void before() {
+		originalThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+	}
+
+	@AfterClass
+	public static void after() {
+		BoofConcurrency.setMaxThreads(originalThreads);
+	}
+
+	@Test
+	public void loopFor() {
+		final AtomicIntegerArray counts = new AtomicIntegerArray(50);
+		BoofConcurrency.loopFor(5, 45, new IntConsumer() {
+			@Override
+			public void accept(int value) {
+				counts.incrementAndGet(value);
+			}
+		});
+
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(i >= 5 && i < 45 ? 1 : 0, counts.get(i));
+		}
+	}
+
+	@Test
+	public void loopBlocks() {
+		final AtomicIntegerArray counts = new AtomicIntegerArray(103);
+		BoofConcurrency.loopBlocks(2, 101, new IntRangeConsumer() {
+			@Override
+			public void accept(int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					counts.incrementAndGet(i);
+				}
+			}
+		});
+
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(i >= 2 && i < 101 ? 1 : 0, counts.get(i));
+		}
+	}
+
+	@Test
+	public void loopBlocks_empty() {
+		BoofConcurrency.loopBlocks(5, 5, new IntRangeConsumer() {
+			@Override
+			public void accept(int minInclusive, int maxExclusive) {
+				fail("Should not be called");
+			}
+		});
+	}
+
+	/**
+	 * Each block should be given its own workspace and the blocks should be in order
+	 */
+	@Test
+	public void loopBlocks_workspace() {
+		List<int[]> workspaces = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			workspaces.add(new int[3]);
+		}
+
+		BoofConcurrency.loopBlocks(10, 30, workspaces, new IntRangeObjectConsumer<int[]>() {
+			@Override
+			public void accept(int[] workspace, int minInclusive, int maxExclusive) {
+				workspace[0]++;
+				workspace[1] = minInclusive;
+				workspace[2] = maxExclusive;
+			}
+		});
+
+		for (int i = 0; i < 4; i++) {
+			int[] w = workspaces.get(i);
+			assertEquals(1, w[0]);
+			assertEquals(10 + i*5, w[1]);
+			assertEquals(15 + i*5, w[2]);
+		}
+
+		// fewer elements than workspaces
+		BoofConcurrency.loopBlocks(0, 2, workspaces, new IntRangeObjectConsumer<int[]>() {
+			@Override
+			public void accept(int[] workspace, int minInclusive, int maxExclusive) {
+				workspace[0]++;
+			}
+		});
+		assertEquals(2, workspaces.get(0)[0]);
+		assertEquals(2, workspaces.get(1)[0]);
+		assertEquals(1, workspaces.get(2)[0]);
+		assertEquals(1, workspaces.get(3)[0]);
+	}
+
+	/**
+	 * Loops inside of loops should not dead lock
+	 */
+	@Test
+	public void nested() {
+		final AtomicIntegerArray counts = new AtomicIntegerArray(20*20);
+		BoofConcurrency.loopFor(0, 20, new IntConsumer() {
+			@Override
+			public void accept(final int y) {
+				BoofConcurrency.loopBlocks(0, 20, new IntRangeConsumer() {
+					@Override
+					public void accept(int minInclusive, int maxExclusive) {
+						for (int x = minInclusive; x < maxExclusive; x++) {
+							counts.incrementAndGet(y*20+x);
+						}
+					}
+				});
+			}
+		});
+
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	@Test
+	public void exceptionPropagated() {
+		try {
+			BoofConcurrency.loopFor(0, 10, new IntConsumer() {
+				@Override
+				public void accept(int value) {
+					if( value == 7 )
+						throw new IllegalArgumentException("Expected");
+				}
+			});
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException ignore ){}
+	}
+
+	@Test
+	public void computeNumberOfBlocks() {
+		assertEquals(0, BoofConcurrency.computeNumberOfBlocks(0, 1, 4));
+		assertEquals(4, BoofConcurrency.computeNumberOfBlocks(100, 1, 4));
+		assertEquals(2, BoofConcurrency.computeNumberOfBlocks(100, 50, 4));
+		assertEquals(1, BoofConcurrency.computeNumberOfBlocks(10, 50, 4));
+	}
+}
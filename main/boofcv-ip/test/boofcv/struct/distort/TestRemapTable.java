@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.distort;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRemapTable {
+
+	PixelTransform2_F32 transform = new PixelTransform2_F32() {
+		@Override
+		public void compute(int x, int y) {
+			distX = x*2+0.5f;
+			distY = y-1.5f;
+		}
+	};
+
+	@Test
+	public void create() {
+		RemapTable table = RemapTable.create(transform, 7, 5);
+
+		assertEquals(7, table.width);
+		assertEquals(5, table.height);
+		assertEquals(8*7*5, table.getBytes());
+		for (int y = 0; y < 5; y++) {
+			for (int x = 0; x < 7; x++) {
+				int index = table.getIndex(x, y);
+				assertEquals(x*2+0.5f, table.srcX[index], 0);
+				assertEquals(y-1.5f, table.srcY[index], 0);
+			}
+		}
+	}
+
+	@Test
+	public void reshape() {
+		RemapTable table = new RemapTable(7, 5);
+		float[] original = table.srcX;
+
+		// smaller shouldn't reallocate
+		table.reshape(5, 6);
+		assertSame(original, table.srcX);
+		assertEquals(5, table.width);
+		assertEquals(6, table.height);
+
+		table.reshape(8, 6);
+		assertEquals(8*6, table.srcX.length);
+		assertEquals(8*6, table.srcY.length);
+	}
+}
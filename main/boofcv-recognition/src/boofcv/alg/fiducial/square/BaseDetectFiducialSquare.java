@@ -23,6 +23,7 @@ import boofcv.abst.geo.RefineEpipolar;
 import boofcv.alg.distort.*;
 import boofcv.alg.geo.h.HomographyLinear4;
 import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
 import boofcv.core.image.border.BorderType;
 import boofcv.core.image.border.FactoryImageBorder;
@@ -31,6 +32,7 @@ import boofcv.factory.geo.EpipolarError;
 import boofcv.factory.geo.FactoryMultiView;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.distort.*;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
@@ -65,6 +67,14 @@ import java.util.List;
  * Target orientation. Corner 0 = (-r,r), 1 = (r,r) , 2 = (r,-r) , 3 = (-r,-r).
  * </p>
  *
+ * <p>
+ * Tracking Mode: When enabled, the previously found fiducials are used to select regions of interest in the
+ * next image.  Only those regions are thresholded and searched for squares, which is much faster when the markers
+ * take up a small portion of the image.  A full scan of the image is performed every {@link #setFullScanPeriod N}
+ * frames, when nothing was previously found, or when a previously found fiducial could not be found inside
+ * the regions.  Call {@link #isFullScan()} after processing to see which approach was used.
+ * </p>
+ *
  * @author Peter Abeles
  */
 // TODO create unit test for bright object
@@ -110,6 +120,26 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	// verbose debugging output
 	protected boolean verbose = false;
 
+	// Region of interest tracking mode.  If true it will only search around previously found fiducials
+	private boolean tracking = false;
+	// A full scan of the image is forced after this many frames have been processed in tracking mode
+	private int fullScanPeriod = 10;
+	// How much each side of a fiducial's bounding box is inflated by, relative to the box's largest side
+	private double regionInflate = 0.5;
+	// number of frames processed since the last full scan
+	private int framesSinceFullScan;
+	// true if the most recently processed image was scanned in its entirety
+	private boolean fullScan;
+
+	// location of fiducials in the previous image.  distorted pixels
+	private FastQueue<Quadrilateral_F64> previous = new FastQueue<>(Quadrilateral_F64.class, true);
+	// regions of interest which are searched in tracking mode
+	private FastQueue<ImageRectangle> regions = new FastQueue<>(ImageRectangle.class, true);
+
+	// Lens distortion transforms adjusted to operate in a region's local coordinate system
+	private PixelTransformOffset_F32 offsetDistToUndist;
+	private PixelTransformOffset_F32 offsetUndistToDist;
+
 	/**
 	 * Configures the detector.
 	 *
@@ -179,7 +209,11 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 			undistToDist = new PixelTransformCached_F32(width, height, undistToDist);
 		}
 
-		squareDetector.setLensDistortion(width, height,distToUndist,undistToDist);
+		// allows the square detector to process a sub-image using the full image's lens distortion model
+		offsetDistToUndist = new PixelTransformOffset_F32(distToUndist);
+		offsetUndistToDist = new PixelTransformOffset_F32(undistToDist);
+
+		squareDetector.setLensDistortion(width, height,offsetDistToUndist,offsetUndistToDist);
 
 		pointSquareToInput = new SequencePoint2Transform2_F32(transformHomography,pointUndistToDist);
 
@@ -199,13 +233,131 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	 */
 	public void process( T gray ) {
 		binary.reshape(gray.width,gray.height);
+		found.reset();
+
+		// regions are sub-images.  Size thresholds need to be relative to the full image, like in a full scan
+		squareDetector.setFullImageShape(gray.width,gray.height);
+
+		fullScan = !tracking || previous.size == 0 || framesSinceFullScan >= fullScanPeriod;
+
+		if( !fullScan ) {
+			// only the regions will be thresholded.  Clear the rest so that old results aren't left behind
+			ImageMiscOps.fill(binary,0);
+
+			selectRegions(gray.width, gray.height);
+			for (int i = 0; i < regions.size; i++) {
+				ImageRectangle r = regions.get(i);
+				processRegion(gray, r.x0, r.y0, r.x1, r.y1);
+			}
+
+			// If a fiducial was lost fall back to searching the entire image
+			if( found.size < previous.size ) {
+				if( verbose ) System.out.println("lost track. found "+found.size+" expected "+previous.size);
+				found.reset();
+				fullScan = true;
+			}
+		}
+
+		if( fullScan ) {
+			processRegion(gray, 0, 0, gray.width, gray.height);
+			framesSinceFullScan = 0;
+		} else {
+			framesSinceFullScan++;
+		}
+
+		// save the found locations for the next image
+		previous.reset();
+		for (int i = 0; i < found.size; i++) {
+			previous.grow().set(found.get(i).distortedPixels);
+		}
+	}
+
+	/**
+	 * Computes the regions which are to be searched in tracking mode.  Each previously found fiducial's bounding
+	 * box is inflated and clipped to the image.  Regions which overlap are merged together so that the same
+	 * fiducial can't be detected twice.
+	 */
+	void selectRegions( int width , int height ) {
+		regions.reset();
+
+		for (int i = 0; i < previous.size; i++) {
+			Quadrilateral_F64 q = previous.get(i);
+
+			double x0 = Math.min(Math.min(q.a.x, q.b.x), Math.min(q.c.x, q.d.x));
+			double y0 = Math.min(Math.min(q.a.y, q.b.y), Math.min(q.c.y, q.d.y));
+			double x1 = Math.max(Math.max(q.a.x, q.b.x), Math.max(q.c.x, q.d.x));
+			double y1 = Math.max(Math.max(q.a.y, q.b.y), Math.max(q.c.y, q.d.y));
+
+			double pad = regionInflate*Math.max(x1-x0,y1-y0);
+
+			ImageRectangle r = regions.grow();
+			r.x0 = Math.max(0, (int)(x0 - pad));
+			r.y0 = Math.max(0, (int)(y0 - pad));
+			r.x1 = Math.min(width, (int)(x1 + pad + 1));
+			r.y1 = Math.min(height, (int)(y1 + pad + 1));
+
+			if( r.x0 >= r.x1 || r.y0 >= r.y1 )
+				regions.removeTail();
+		}
+
+		// merge overlapping regions until none of them overlap
+		boolean merged = true;
+		while( merged ) {
+			merged = false;
+			for (int i = 0; i < regions.size && !merged; i++) {
+				ImageRectangle a = regions.get(i);
+				for (int j = i+1; j < regions.size; j++) {
+					ImageRectangle b = regions.get(j);
+					if( a.x0 < b.x1 && b.x0 < a.x1 && a.y0 < b.y1 && b.y0 < a.y1 ) {
+						a.x0 = Math.min(a.x0, b.x0);
+						a.y0 = Math.min(a.y0, b.y0);
+						a.x1 = Math.max(a.x1, b.x1);
+						a.y1 = Math.max(a.y1, b.y1);
+						// copy the last element into this position and discard it
+						b.set(regions.getTail());
+						regions.removeTail();
+						merged = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Searches for fiducials inside the specified rectangular region.  Found fiducials are added to the list.
+	 */
+	private void processRegion( T gray , int x0 , int y0 , int x1 , int y1 ) {
+		T graySub;
+		GrayU8 binarySub;
+		if( x0 == 0 && y0 == 0 && x1 == gray.width && y1 == gray.height ) {
+			graySub = gray;
+			binarySub = binary;
+		} else {
+			graySub = gray.subimage(x0, y0, x1, y1);
+			binarySub = binary.subimage(x0, y0, x1, y1);
+		}
+
+		if( offsetDistToUndist != null ) {
+			offsetDistToUndist.setOffset(x0, y0);
+			offsetUndistToDist.setOffset(x0, y0);
+		}
 
-		inputToBinary.process(gray,binary);
-		squareDetector.process(gray,binary);
-		// These are in undistorted pixels
+		inputToBinary.process(graySub,binarySub);
+		squareDetector.process(graySub,binarySub);
+		// These are in undistorted pixels and in the region's coordinate system
 		FastQueue<Polygon2D_F64> candidates = squareDetector.getFoundPolygons();
 
-		found.reset();
+		// the rest of the processing is done in the full image's coordinate system
+		if( x0 != 0 || y0 != 0 ) {
+			for (int i = 0; i < candidates.size; i++) {
+				Polygon2D_F64 p = candidates.get(i);
+				for (int j = 0; j < p.size(); j++) {
+					p.get(j).x += x0;
+					p.get(j).y += y0;
+				}
+			}
+		}
 
 		if( verbose ) System.out.println("---------- Got Polygons! "+candidates.size);
 
@@ -402,6 +554,67 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		return borderWidthFraction;
 	}
 
+	/**
+	 * Turns on or off region of interest tracking mode.  When turned on the next image will be fully scanned.
+	 *
+	 * @param tracking true to turn on tracking mode
+	 */
+	public void setTracking(boolean tracking) {
+		this.tracking = tracking;
+		this.framesSinceFullScan = 0;
+		this.previous.reset();
+	}
+
+	public boolean isTracking() {
+		return tracking;
+	}
+
+	/**
+	 * Specifies how often a full scan of the image is done while in tracking mode
+	 *
+	 * @param fullScanPeriod A full scan is performed after this many frames. Must be &ge; 1
+	 */
+	public void setFullScanPeriod(int fullScanPeriod) {
+		if( fullScanPeriod < 1 )
+			throw new IllegalArgumentException("Full scan period must be at least 1");
+		this.fullScanPeriod = fullScanPeriod;
+	}
+
+	public int getFullScanPeriod() {
+		return fullScanPeriod;
+	}
+
+	/**
+	 * Specifies how much each side of a fiducial's bounding box is expanded by when computing the region
+	 * of interest.  The amount is relative to the length of the bounding box's largest side.
+	 *
+	 * @param regionInflate Fraction the bounding box is inflated by. Try 0.5
+	 */
+	public void setRegionInflate(double regionInflate) {
+		if( regionInflate < 0 )
+			throw new IllegalArgumentException("Must be non-negative");
+		this.regionInflate = regionInflate;
+	}
+
+	public double getRegionInflate() {
+		return regionInflate;
+	}
+
+	/**
+	 * Returns true if the most recently processed image was scanned in its entirety and false if only the
+	 * regions around previously found fiducials were searched.
+	 */
+	public boolean isFullScan() {
+		return fullScan;
+	}
+
+	/**
+	 * Regions of interest which were searched when processing the most recent image in tracking mode
+	 */
+	public FastQueue<ImageRectangle> getRegions() {
+		return regions;
+	}
+
 	public static class Result {
 		int which;
 		// length of one of the sides in world units
@@ -33,6 +33,7 @@ import boofcv.factory.geo.FactoryMultiView;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.factory.shape.ConfigPolygonDetector;
 import boofcv.factory.shape.FactoryShapeDetector;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.distort.PixelTransform2_F32;
 import boofcv.struct.distort.Point2Transform2_F32;
@@ -177,6 +178,157 @@ public class TestBaseDetectFiducialSquare {
 		// The check to see if square is correctly undistorted is inside the processing function itself
 	}
 
+	/**
+	 * In tracking mode the previous detections should be used to select regions of interest, with
+	 * a full scan when the fiducial is lost or the full scan period has been reached
+	 */
+	@Test
+	public void trackingMode() {
+		GrayU8 pattern = createPattern(6*20, true);
+		GrayU8 image = new GrayU8(width,height);
+
+		DetectCorner detector = new DetectCorner();
+		detector.setTracking(true);
+		detector.setFullScanPeriod(3);
+
+		// first image has nothing to track so it must scan everything
+		renderAt(pattern, image, 200, 300);
+		detector.process(image);
+		assertTrue(detector.isFullScan());
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 expected = detector.getFound().get(0).distortedPixels.copy();
+
+		// move the pattern a bit and it should be found using a region
+		renderAt(pattern, image, 205, 297);
+		detector.process(image);
+		assertFalse(detector.isFullScan());
+		assertEquals(1, detector.getRegions().size());
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 found = detector.getFound().get(0).distortedPixels;
+		for (int i = 0; i < 4; i++) {
+			assertEquals(expected.get(i).x+5, found.get(i).x, 1e-6);
+			assertEquals(expected.get(i).y-3, found.get(i).y, 1e-6);
+		}
+
+		// move it far away.  It should be lost and a full scan performed
+		renderAt(pattern, image, 400, 50);
+		detector.process(image);
+		assertTrue(detector.isFullScan());
+		assertEquals(1, detector.getFound().size());
+		assertEquals(400, detector.getFound().get(0).distortedPixels.get(3).x, 1e-6);
+
+		// full scan should be forced after the specified number of frames
+		detector.process(image);
+		assertFalse(detector.isFullScan());
+		detector.process(image);
+		assertFalse(detector.isFullScan());
+		detector.process(image);
+		assertFalse(detector.isFullScan());
+		detector.process(image);
+		assertTrue(detector.isFullScan());
+		assertEquals(1, detector.getFound().size());
+	}
+
+	/**
+	 * Regions are processed in their own coordinate system.  See if lens distortion is correctly handled
+	 */
+	@Test
+	public void trackingMode_lens() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500,500,0,320,240,width,height).fsetRadial(-0.1,-0.05);
+
+		GrayU8 pattern = createPattern(6*20, true);
+		GrayU8 image = new GrayU8(width,height);
+		renderAt(pattern, image, 60, 300);
+
+		DetectCorner detector = new DetectCorner();
+		detector.configure(new LensDistortionRadialTangential(intrinsic),width,height, false);
+		detector.setTracking(true);
+
+		detector.process(image);
+		assertTrue(detector.isFullScan());
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 expected = detector.getFound().get(0).distortedPixels.copy();
+
+		detector.process(image);
+		assertFalse(detector.isFullScan());
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 found = detector.getFound().get(0).distortedPixels;
+		for (int i = 0; i < 4; i++) {
+			assertTrue(expected.get(i).distance(found.get(i)) <= 1e-4);
+		}
+	}
+
+	/**
+	 * Size thresholds are relative to the full image.  A fiducial which is too small to be found in a full scan
+	 * should also not be found when it's inside a region in tracking mode.
+	 */
+	@Test
+	public void trackingMode_sameAsFullScan() {
+		ConfigPolygonDetector config = new ConfigPolygonDetector(false, 4,4);
+		config.minContourImageWidthFraction = 0.3;
+
+		GrayU8 image = new GrayU8(width,height);
+		renderAt(createPattern(6*20, false), image, 200, 200);
+		// small enough to be rejected relative to the full image but not relative to the region
+		image.subimage(330, 330, 330+36, 330+36, null).setTo(createPattern(36, false));
+
+		Dummy fullScan = new Dummy(config);
+		fullScan.process(image);
+		assertEquals(1, fullScan.getFound().size());
+
+		Dummy tracking = new Dummy(config);
+		tracking.setTracking(true);
+		tracking.process(image);
+		tracking.process(image);
+		assertFalse(tracking.isFullScan());
+		assertTrue(tracking.getRegions().get(0).x1 >= 330+36);
+		assertTrue(tracking.getRegions().get(0).y1 >= 330+36);
+
+		assertEquals(1, tracking.getFound().size());
+		Quadrilateral_F64 expected = fullScan.getFound().get(0).distortedPixels;
+		Quadrilateral_F64 found = tracking.getFound().get(0).distortedPixels;
+		for (int i = 0; i < 4; i++) {
+			assertTrue(expected.get(i).distance(found.get(i)) <= 1e-6);
+		}
+	}
+
+	@Test
+	public void selectRegions() {
+		Dummy alg = new Dummy();
+		alg.setTracking(true);
+		alg.setRegionInflate(0.5);
+
+		GrayU8 pattern = createPattern(6*10, false);
+		GrayU8 image = new GrayU8(width,height);
+		ImageMiscOps.fill(image, 255);
+		image.subimage(100, 100, 100 + pattern.width, 100 + pattern.height, null).setTo(pattern);
+		image.subimage(130, 200, 130 + pattern.width, 200 + pattern.height, null).setTo(pattern);
+		image.subimage(500, 100, 500 + pattern.width, 100 + pattern.height, null).setTo(pattern);
+
+		alg.process(image);
+		assertEquals(3, alg.getFound().size());
+		alg.process(image);
+		assertFalse(alg.isFullScan());
+		assertEquals(3, alg.getFound().size());
+
+		// the first two are close enough that their regions should be merged
+		assertEquals(2, alg.getRegions().size());
+		for (int i = 0; i < alg.getRegions().size(); i++) {
+			ImageRectangle r = alg.getRegions().get(i);
+			assertTrue(r.x0 >= 0 && r.y0 >= 0 && r.x1 <= width && r.y1 <= height);
+			for (int j = i+1; j < alg.getRegions().size(); j++) {
+				ImageRectangle b = alg.getRegions().get(j);
+				boolean overlap = r.x0 < b.x1 && b.x0 < r.x1 && r.y0 < b.y1 && b.y0 < r.y1;
+				assertFalse(overlap);
+			}
+		}
+	}
+
+	private static void renderAt( GrayU8 pattern , GrayU8 image , int x0 , int y0 ) {
+		ImageMiscOps.fill(image, 255);
+		image.subimage(x0, y0, x0 + pattern.width, y0 + pattern.height, null).setTo(pattern);
+	}
+
 	@Test
 	public void computeFractionBoundary() {
 		Dummy alg = new Dummy();
@@ -335,8 +487,12 @@ public class TestBaseDetectFiducialSquare {
 		public List<GrayF32> detected = new ArrayList<>();
 
 		protected Dummy() {
+			this(new ConfigPolygonDetector(false, 4,4));
+		}
+
+		protected Dummy( ConfigPolygonDetector config ) {
 			super(FactoryThresholdBinary.globalFixed(50,true,GrayU8.class),
-					FactoryShapeDetector.polygon(new ConfigPolygonDetector(false, 4,4),GrayU8.class),0.25,0.65,100, GrayU8.class);
+					FactoryShapeDetector.polygon(config,GrayU8.class),0.25,0.65,100, GrayU8.class);
 		}
 
 		@Override
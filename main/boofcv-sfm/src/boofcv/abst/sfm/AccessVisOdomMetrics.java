@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+/**
+ * Visual odometry algorithms which can publish {@link VisOdomMetrics performance metrics} after each frame.
+ * Metrics are only computed when a listener has been set, so there is almost no overhead otherwise.
+ *
+ * @see VisOdomMetricsCollector
+ *
+ * @author Peter Abeles
+ */
+public interface AccessVisOdomMetrics {
+	/**
+	 * Specifies the listener which receives the metrics after each frame.
+	 *
+	 * @param listener The listener.  If null then metrics are no longer computed.
+	 */
+	void setMetricsListener( VisOdomMetricsListener listener );
+
+	VisOdomMetricsListener getMetricsListener();
+}
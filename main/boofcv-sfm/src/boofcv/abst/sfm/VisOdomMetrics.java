@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+import boofcv.alg.geo.robust.ModelMatcherConcurrent;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+import org.ddogleg.struct.GrowQueue_F64;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Performance metrics for a single frame processed by a visual odometry algorithm.  Which metrics are available
+ * depends on the algorithm.  Counts which are not known are set to -1.  Times are in milliseconds of wall clock time.
+ * </p>
+ *
+ * <p>
+ * Allocated bytes is the memory allocated by the thread which called process, as reported by the JVM. Memory
+ * allocated by other threads, e.g. in concurrent mode, is not included.  If the JVM doesn't support this
+ * feature then it's -1.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VisOdomMetrics {
+	/** Number of frames processed before this one since the listener was set */
+	public long frame;
+	/** If the motion was successfully estimated */
+	public boolean success;
+	/** Time to process the entire frame */
+	public double timeTotal;
+	/** Bytes allocated while processing the frame */
+	public long allocatedBytes;
+	/** Number of tracks or features that motion was estimated from */
+	public int totalTracks;
+	/** Number of inliers in the motion estimate */
+	public int totalInliers;
+	/** Number of iterations performed by RANSAC or a similar algorithm.  -1 if unknown */
+	public int ransacIterations;
+
+	// name and time of each processing stage
+	protected List<String> stageNames = new ArrayList<>();
+	protected GrowQueue_F64 stageTimes = new GrowQueue_F64();
+
+	// time and allocations when start was called
+	private long startTime;
+	private long startBytes;
+
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	public VisOdomMetrics() {
+		reset();
+	}
+
+	/**
+	 * Clears all the metrics
+	 */
+	public void reset() {
+		success = false;
+		timeTotal = 0;
+		allocatedBytes = -1;
+		totalTracks = totalInliers = ransacIterations = -1;
+		stageNames.clear();
+		stageTimes.reset();
+	}
+
+	/**
+	 * Resets the metrics and records the time and memory usage before processing starts
+	 */
+	public void start() {
+		reset();
+		startBytes = allocatedBytesThread();
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Computes the total time and memory allocated since {@link #start()}.
+	 *
+	 * @param success If the frame was successfully processed
+	 */
+	public void stop( boolean success ) {
+		timeTotal = (System.nanoTime()-startTime)*1e-6;
+		long bytes = allocatedBytesThread();
+		allocatedBytes = bytes < 0 || startBytes < 0 ? -1 : bytes-startBytes;
+		this.success = success;
+	}
+
+	/**
+	 * Adds the time it took to process a stage
+	 *
+	 * @param name Name of the stage
+	 * @param milliseconds How long the stage took
+	 */
+	public void addStage( String name , double milliseconds ) {
+		stageNames.add(name);
+		stageTimes.add(milliseconds);
+	}
+
+	/**
+	 * Extracts the number of inliers and iterations from a robust model matcher.  The number of iterations is
+	 * only known for {@link ModelMatcherConcurrent}.  ddogleg's Ransac doesn't expose how many iterations it
+	 * performed, so it's left as -1.
+	 */
+	public void setMatcher( ModelMatcher matcher ) {
+		totalInliers = matcher.getMatchSet().size();
+		if( matcher instanceof ModelMatcherConcurrent ) {
+			ransacIterations = ((ModelMatcherConcurrent)matcher).getIterations();
+		}
+	}
+
+	public int getStageCount() {
+		return stageNames.size();
+	}
+
+	public String getStageName( int index ) {
+		return stageNames.get(index);
+	}
+
+	public double getStageTime( int index ) {
+		return stageTimes.get(index);
+	}
+
+	/**
+	 * Total number of bytes allocated by the current thread, or -1 if not supported
+	 */
+	public static long allocatedBytesThread() {
+		if( threadBean instanceof com.sun.management.ThreadMXBean ) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threadBean;
+			if( bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() )
+				return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
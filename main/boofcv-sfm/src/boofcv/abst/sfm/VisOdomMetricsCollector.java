@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Collects the {@link VisOdomMetrics} from every frame and computes summary statistics, such as percentiles,
+ * for each metric.  Each stage is saved using its name.  The other metrics are saved using the names defined
+ * in this class, e.g. {@link #TIME_TOTAL}.  Metrics which are unknown (-1) are skipped.
+ * </p>
+ *
+ * <p>
+ * Only the most recent samples of each metric are saved in a fixed size ring buffer, so memory usage and the cost
+ * of computing statistics don't grow when run for a long time.  All statistics are computed from these
+ * samples.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VisOdomMetricsCollector implements VisOdomMetricsListener {
+
+	public static final String TIME_TOTAL = "total";
+	public static final String TRACKS = "tracks";
+	public static final String INLIERS = "inliers";
+	public static final String RANSAC_ITERATIONS = "ransac_iterations";
+	public static final String ALLOCATED_BYTES = "allocated_bytes";
+
+	// maximum number of samples saved for each metric
+	protected int maxSamples;
+
+	// samples of each metric
+	protected Map<String,Samples> samples = new HashMap<>();
+	// name of each metric in the order they were first seen
+	protected List<String> names = new ArrayList<>();
+
+	// number of frames which have been processed and how many failed
+	protected int totalFrames;
+	protected int totalFailed;
+
+	// work space for sorting
+	private double[] sorted = new double[0];
+
+	/**
+	 * @param maxSamples Maximum number of samples saved for each metric.  Older samples are discarded. Try 10000
+	 */
+	public VisOdomMetricsCollector( int maxSamples ) {
+		if( maxSamples <= 0 )
+			throw new IllegalArgumentException("maxSamples must be more than zero");
+		this.maxSamples = maxSamples;
+	}
+
+	/**
+	 * Saves the 10,000 most recent samples of each metric
+	 */
+	public VisOdomMetricsCollector() {
+		this(10000);
+	}
+
+	@Override
+	public void processedFrame(VisOdomMetrics metrics) {
+		totalFrames++;
+		if( !metrics.success )
+			totalFailed++;
+
+		add(TIME_TOTAL, metrics.timeTotal);
+		for (int i = 0; i < metrics.getStageCount(); i++) {
+			add(metrics.getStageName(i),metrics.getStageTime(i));
+		}
+		if( metrics.totalTracks >= 0 )
+			add(TRACKS, metrics.totalTracks);
+		if( metrics.totalInliers >= 0 )
+			add(INLIERS, metrics.totalInliers);
+		if( metrics.ransacIterations >= 0 )
+			add(RANSAC_ITERATIONS, metrics.ransacIterations);
+		if( metrics.allocatedBytes >= 0 )
+			add(ALLOCATED_BYTES, metrics.allocatedBytes);
+	}
+
+	/**
+	 * Adds a sample for the specified metric.  If the maximum number of samples has been reached the oldest
+	 * sample is discarded.
+	 */
+	public void add( String name , double value ) {
+		Samples values = samples.get(name);
+		if( values == null ) {
+			values = new Samples(maxSamples);
+			samples.put(name,values);
+			names.add(name);
+		}
+		values.add(value);
+	}
+
+	/**
+	 * Discards all the samples
+	 */
+	public void reset() {
+		samples.clear();
+		names.clear();
+		totalFrames = 0;
+		totalFailed = 0;
+	}
+
+	/**
+	 * Computes the percentile of a metric using the nearest rank method.
+	 *
+	 * @param name Name of the metric
+	 * @param fraction Fraction from 0 to 1.0, e.g. 0.5 is the median and 1.0 is the maximum
+	 * @return value of the percentile or NaN if there are no samples
+	 */
+	public double getPercentile( String name , double fraction ) {
+		if( fraction < 0 || fraction > 1 )
+			throw new IllegalArgumentException("Fraction must be from 0 to 1");
+		Samples values = samples.get(name);
+		if( values == null || values.size == 0 )
+			return Double.NaN;
+
+		if( sorted.length < values.size )
+			sorted = new double[values.size];
+		System.arraycopy(values.data,0,sorted,0,values.size);
+		Arrays.sort(sorted,0,values.size);
+
+		int index = (int)Math.ceil(fraction*values.size)-1;
+		return sorted[Math.max(0,index)];
+	}
+
+	/**
+	 * Computes the mean of a metric
+	 *
+	 * @return the mean or NaN if there are no samples
+	 */
+	public double getMean( String name ) {
+		Samples values = samples.get(name);
+		if( values == null || values.size == 0 )
+			return Double.NaN;
+
+		double total = 0;
+		for (int i = 0; i < values.size; i++) {
+			total += values.data[i];
+		}
+		return total/values.size;
+	}
+
+	/**
+	 * Number of saved samples for the metric.  Never more than the maximum number of samples.
+	 */
+	public int getCount( String name ) {
+		Samples values = samples.get(name);
+		return values == null ? 0 : values.size;
+	}
+
+	/**
+	 * Prints the mean, median, 90%, 99%, and maximum of each metric
+	 */
+	public void printSummary( PrintStream out ) {
+		out.printf("Frames %d failed %d\n",totalFrames,totalFailed);
+		out.printf("%-20s %12s %12s %12s %12s %12s\n","metric","mean","50%","90%","99%","max");
+		for( String name : names ) {
+			out.printf("%-20s %12.3f %12.3f %12.3f %12.3f %12.3f\n",name,getMean(name),
+					getPercentile(name,0.5),getPercentile(name,0.9),getPercentile(name,0.99),
+					getPercentile(name,1.0));
+		}
+	}
+
+	/**
+	 * Names of all the metrics in the order they were first seen
+	 */
+	public List<String> getNames() {
+		return names;
+	}
+
+	public int getTotalFrames() {
+		return totalFrames;
+	}
+
+	public int getTotalFailed() {
+		return totalFailed;
+	}
+
+	public int getMaxSamples() {
+		return maxSamples;
+	}
+
+	/**
+	 * Ring buffer which saves the most recent samples of a metric.  The order of samples is not maintained.
+	 */
+	protected static class Samples {
+		double[] data;
+		// number of samples in the buffer
+		int size;
+		// index the next sample is written to once the buffer is full
+		int next;
+		// maximum number of samples in the buffer
+		int maxSamples;
+
+		Samples( int maxSamples ) {
+			// start small and grow up to the maximum, since some metrics will only see a few samples
+			this.data = new double[Math.min(maxSamples,100)];
+			this.maxSamples = maxSamples;
+		}
+
+		void add( double value ) {
+			if( size < maxSamples ) {
+				if( size == data.length )
+					data = Arrays.copyOf(data, Math.min(maxSamples, data.length*2));
+				data[size++] = value;
+			} else {
+				data[next] = value;
+				next = (next+1) % maxSamples;
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+/**
+ * Receives the {@link VisOdomMetrics} from a visual odometry algorithm after each frame has been processed.
+ *
+ * @author Peter Abeles
+ */
+public interface VisOdomMetricsListener {
+	/**
+	 * Called after a frame has been processed.  The metrics are recycled, so copy anything that needs to be
+	 * saved.  This is called from the thread which invoked process and should return quickly.
+	 *
+	 * @param metrics Metrics from the frame which was just processed
+	 */
+	void processedFrame( VisOdomMetrics metrics );
+}
@@ -19,6 +19,7 @@
 package boofcv.abst.sfm.d2;
 
 import boofcv.abst.feature.tracker.PointTrack;
+import boofcv.abst.feature.tracker.PointTracker;
 import boofcv.abst.sfm.AccessPointTracks;
 import boofcv.alg.sfm.d2.AssociatedPairTrack;
 import boofcv.alg.sfm.d2.ImageMotionPtkSmartRespawn;
@@ -95,15 +96,16 @@ public class WrapImageMotionPtkSmartRespawn<T extends ImageBase<T>, IT extends I
 		if( !inliersMarked ) {
 			inliersMarked = true;
 
-			List<PointTrack> active = alg.getMotion().getTracker().getActiveTracks(null);
+			PointTracker<T> tracker = alg.getMotion().getTracker();
 
 			allTracks.clear();
 
 			long tick = alg.getMotion().getTotalFramesProcessed();
-			inliers.resize(active.size());
+			int totalActive = tracker.getTotalActive();
+			inliers.resize(totalActive);
 
-			for( int i = 0; i < active.size(); i++ ) {
-				PointTrack t = active.get(i);
+			for( int i = 0; i < totalActive; i++ ) {
+				PointTrack t = tracker.getActive(i);
 				AssociatedPairTrack info = t.getCookie();
 				allTracks.add(t);
 				// if it was used in the previous update then it is in the inlier set
@@ -20,6 +20,9 @@ package boofcv.abst.sfm.d3;
 
 import boofcv.abst.sfm.AccessPointTracks;
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.distort.LensDistortionOps;
 import boofcv.alg.sfm.d3.VisOdomMonoOverheadMotion2D;
 import boofcv.alg.sfm.overhead.OverheadView;
@@ -41,11 +44,15 @@ import java.util.List;
  * @author Peter Abeles
  */
 public class MonoOverhead_to_MonocularPlaneVisualOdometry<T extends ImageBase<T>>
-		implements MonocularPlaneVisualOdometry<T> , AccessPointTracks3D
+		implements MonocularPlaneVisualOdometry<T> , AccessPointTracks3D, AccessVisOdomMetrics
 {
 	// motion estimation algorithm
 	VisOdomMonoOverheadMotion2D<T> alg;
 
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 
 	ImageType<T> imageType;
 
@@ -73,8 +80,17 @@ public class MonoOverhead_to_MonocularPlaneVisualOdometry<T extends ImageBase<T>
 
 	@Override
 	public boolean process(T input) {
+		if( metricsListener != null )
+			metrics.start();
+
 		computed = false;
 		fault = alg.process(input);
+
+		if( metricsListener != null ) {
+			metrics.stop(fault);
+			metricsListener.processedFrame(metrics);
+			metrics.frame++;
+		}
 		return fault;
 	}
 
@@ -168,4 +184,15 @@ public class MonoOverhead_to_MonocularPlaneVisualOdometry<T extends ImageBase<T>
 
 		computed = true;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+}
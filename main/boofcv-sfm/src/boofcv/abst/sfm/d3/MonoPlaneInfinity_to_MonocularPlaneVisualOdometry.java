@@ -20,6 +20,9 @@ package boofcv.abst.sfm.d3;
 
 import boofcv.abst.feature.tracker.PointTrack;
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.sfm.d3.VisOdomMonoPlaneInfinity;
 import boofcv.alg.sfm.robust.DistancePlane2DToPixelSq;
 import boofcv.alg.sfm.robust.GenerateSe2_PlanePtPixel;
@@ -30,6 +33,7 @@ import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,9 +42,14 @@ import java.util.List;
  * @author Peter Abeles
  */
 public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBase<T>>
-		implements MonocularPlaneVisualOdometry<T> , AccessPointTracks3D
+		implements MonocularPlaneVisualOdometry<T> , AccessPointTracks3D, AccessVisOdomMetrics
 {
 	VisOdomMonoPlaneInfinity<T> alg;
+
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	DistancePlane2DToPixelSq distance;
 	GenerateSe2_PlanePtPixel generator;
 
@@ -50,7 +59,9 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 	Se3_F64 cameraToWorld = new Se3_F64();
 
 	// list of active tracks
-	List<PointTrack> active = null;
+	List<PointTrack> active = new ArrayList<>();
+	// true if the list of active tracks is up to date
+	boolean activeUpdated = false;
 
 	Point3D_F64 point3D = new Point3D_F64();
 
@@ -77,9 +88,19 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 	@Override
 	public boolean process(T input) {
 
-		active = null;
+		if( metricsListener != null )
+			metrics.start();
+
+		activeUpdated = false;
 		fault = alg.process(input);
 
+		if( metricsListener != null ) {
+			metrics.stop(fault);
+			metrics.totalTracks = alg.getTracker().getTotalActive();
+			metricsListener.processedFrame(metrics);
+			metrics.frame++;
+		}
+
 		return fault;
 	}
 
@@ -90,7 +111,7 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 
 	@Override
 	public void reset() {
-		active = null;
+		activeUpdated = false;
 		alg.reset();
 		cameraToWorld.reset();
 	}
@@ -108,12 +129,17 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 		return cameraToWorld;
 	}
 
+	private void updateActive() {
+		if( !activeUpdated ) {
+			activeUpdated = true;
+			active.clear();
+			alg.getTracker().getActiveTracks(active);
+		}
+	}
+
 	@Override
 	public Point3D_F64 getTrackLocation(int index) {
-		if( active == null )
-			active = alg.getTracker().getActiveTracks(null);
-
-		active.get(index);
+		updateActive();
 
 		VisOdomMonoPlaneInfinity.VoTrack track = active.get(index).getCookie();
 
@@ -136,8 +162,7 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 
 	@Override
 	public long getTrackId(int index) {
-		if( active == null )
-			active = alg.getTracker().getActiveTracks(null);
+		updateActive();
 
 		PointTrack t = active.get(index);
 		return t.featureId;
@@ -145,16 +170,14 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 
 	@Override
 	public List<Point2D_F64> getAllTracks() {
-		if( active == null )
-			active = alg.getTracker().getActiveTracks(null);
+		updateActive();
 
 		return (List)active;
 	}
 
 	@Override
 	public boolean isInlier(int index) {
-		if( active == null )
-			active = alg.getTracker().getActiveTracks(null);
+		updateActive();
 
 		PointTrack t = active.get(index);
 		VisOdomMonoPlaneInfinity.VoTrack v = t.getCookie();
@@ -168,4 +191,14 @@ public class MonoPlaneInfinity_to_MonocularPlaneVisualOdometry<T extends ImageBa
 		return false;
 	}
 
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
@@ -18,7 +18,10 @@
 
 package boofcv.abst.sfm.d3;
 
+import boofcv.abst.sfm.AccessVisOdomMetrics;
 import boofcv.abst.sfm.DepthSparse3D_to_PixelTo3D;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.distort.AdjustmentType;
 import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.LensDistortionOps;
@@ -46,7 +49,7 @@ import georegression.struct.se.Se3_F64;
  * @author Peter Abeles
  */
 public class PyramidDirectColorDepth_to_DepthVisualOdometry<T extends ImageBase<T>, Depth extends ImageGray<Depth>>
-	implements DepthVisualOdometry<T,Depth>
+	implements DepthVisualOdometry<T,Depth>, AccessVisOdomMetrics
 {
 	ImageType<T> inputType;
 	Class<Depth> depthType;
@@ -59,6 +62,10 @@ public class PyramidDirectColorDepth_to_DepthVisualOdometry<T extends ImageBase<
 
 	PyramidDirectColorDepth alg;
 
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	ImageDistort<Planar,Planar> adjustImage;
 	Planar undistorted;
 
@@ -149,6 +156,19 @@ public class PyramidDirectColorDepth_to_DepthVisualOdometry<T extends ImageBase<
 
 	@Override
 	public boolean process(T visual, Depth depth) {
+		if( metricsListener == null )
+			return processImage(visual, depth);
+
+		metrics.start();
+		boolean success = processImage(visual, depth);
+		metrics.stop(success);
+		metricsListener.processedFrame(metrics);
+		metrics.frame++;
+
+		return success;
+	}
+
+	private boolean processImage(T visual, Depth depth) {
 		if( convertInput != null ) {
 			convertInput.process(visual,inputConverted);
 			adjustImage.apply(inputConverted, undistorted);
@@ -178,4 +198,15 @@ public class PyramidDirectColorDepth_to_DepthVisualOdometry<T extends ImageBase<
 	public Planar getUndistorted() {
 		return undistorted;
 	}
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
@@ -19,7 +19,11 @@
 package boofcv.abst.sfm.d3;
 
 import boofcv.abst.feature.tracker.PointTrack;
+import boofcv.abst.feature.tracker.PointTracker;
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.distort.LensDistortionOps;
 import boofcv.alg.distort.PointToPixelTransform_F32;
 import boofcv.alg.geo.DistanceModelMonoPixels;
@@ -50,11 +54,16 @@ import static boofcv.alg.distort.LensDistortionOps.narrow;
 // TODO WARNING! active list has been modified by dropping and adding tracks
 // this is probably true of other SFM algorithms
 public class VisOdomPixelDepthPnP_to_DepthVisualOdometry<Vis extends ImageBase<Vis>, Depth extends ImageGray<Depth>>
-	implements DepthVisualOdometry<Vis,Depth> , AccessPointTracks3D
+	implements DepthVisualOdometry<Vis,Depth> , AccessPointTracks3D, AccessVisOdomMetrics
 {
 	// low level algorithm
 	DepthSparse3D<Depth> sparse3D;
 	VisOdomPixelDepthPnP<Vis> alg;
+
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	DistanceModelMonoPixels<Se3_F64,Point2D3D> distance;
 	ImageType<Vis> visualType;
 	Class<Depth> depthType;
@@ -76,7 +85,7 @@ public class VisOdomPixelDepthPnP_to_DepthVisualOdometry<Vis extends ImageBase<V
 	public Point3D_F64 getTrackLocation(int index) {
 		// TODO see comment above
 		try {
-			PointTrack t = alg.getTracker().getActiveTracks(null).get(index);
+			PointTrack t = alg.getTracker().getActive(index);
 			return ((Point2D3D)t.getCookie()).getLocation();
 		} catch( IndexOutOfBoundsException e ) {
 			return new Point3D_F64();
@@ -101,8 +110,15 @@ public class VisOdomPixelDepthPnP_to_DepthVisualOdometry<Vis extends ImageBase<V
 
 	@Override
 	public boolean isNew(int index) {
-		PointTrack t = alg.getTracker().getActiveTracks(null).get(index);
-		return alg.getTracker().getNewTracks(null).contains(t);
+		PointTracker<?> tracker = alg.getTracker();
+		PointTrack t = tracker.getActive(index);
+
+		int totalNew = tracker.getTotalNew();
+		for( int i = 0; i < totalNew; i++ ) {
+			if( tracker.getNew(i) == t )
+				return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -121,12 +137,26 @@ public class VisOdomPixelDepthPnP_to_DepthVisualOdometry<Vis extends ImageBase<V
 
 	@Override
 	public boolean process(Vis visual, Depth depth) {
+		if( metricsListener != null )
+			metrics.start();
+
 		sparse3D.setDepthImage(depth);
 		success = alg.process(visual);
 
 		active.clear();
 		alg.getTracker().getActiveTracks(active);
 
+		if( metricsListener != null ) {
+			metrics.stop(success);
+			metrics.addStage("tracking",alg.getTimeTracking());
+			metrics.addStage("motion",alg.getTimeMotion());
+			metrics.addStage("spawn",alg.getTimeSpawn());
+			metrics.totalTracks = alg.getTracker().getTotalActive();
+			metrics.setMatcher(alg.getMotionEstimator());
+			metricsListener.processedFrame(metrics);
+			metrics.frame++;
+		}
+
 		return success;
 	}
 
@@ -154,4 +184,15 @@ public class VisOdomPixelDepthPnP_to_DepthVisualOdometry<Vis extends ImageBase<V
 	public Class<Depth> getDepthType() {
 		return depthType;
 	}
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
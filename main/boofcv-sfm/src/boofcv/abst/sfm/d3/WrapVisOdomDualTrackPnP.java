@@ -20,6 +20,9 @@ package boofcv.abst.sfm.d3;
 
 import boofcv.abst.feature.tracker.PointTrack;
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.feature.associate.AssociateStereo2D;
 import boofcv.alg.geo.DistanceModelMonoPixels;
 import boofcv.alg.geo.pose.PnPStereoDistanceReprojectionSq;
@@ -44,7 +47,7 @@ import java.util.List;
  * @author Peter Abeles
  */
 public class WrapVisOdomDualTrackPnP<T extends ImageGray<T>>
-		implements StereoVisualOdometry<T>, AccessPointTracks3D
+		implements StereoVisualOdometry<T>, AccessPointTracks3D, AccessVisOdomMetrics
 {
 	RefinePnPStereo refine;
 	PnPStereoEstimator pnp;
@@ -54,6 +57,10 @@ public class WrapVisOdomDualTrackPnP<T extends ImageGray<T>>
 
 	VisOdomDualTrackPnP<T,?> alg;
 
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	Class<T> imageType;
 
 	boolean success;
@@ -135,7 +142,25 @@ public class WrapVisOdomDualTrackPnP<T extends ImageGray<T>>
 
 	@Override
 	public boolean process(T leftImage, T rightImage) {
-		return success = alg.process(leftImage,rightImage);
+		if( metricsListener == null )
+			return success = alg.process(leftImage,rightImage);
+
+		metrics.start();
+		success = alg.process(leftImage,rightImage);
+		metrics.stop(success);
+		metrics.addStage("tracking",alg.getTimeTracking());
+		metrics.addStage("consistency",alg.getTimeConsistency());
+		metrics.addStage("motion",alg.getTimeMotion());
+		metrics.addStage("spawn",alg.getTimeSpawn());
+		metrics.addStage("associate",alg.getTimeAssociate());
+		if( alg.getBundleAdjustment() != null )
+			metrics.addStage("bundle",alg.getTimeBundle());
+		metrics.totalTracks = alg.getCandidates().size();
+		metrics.setMatcher(alg.getMatcher());
+		metricsListener.processedFrame(metrics);
+		metrics.frame++;
+
+		return success;
 	}
 
 	@Override
@@ -150,4 +175,22 @@ public class WrapVisOdomDualTrackPnP<T extends ImageGray<T>>
 	public ImageType<T> getImageType() {
 		return ImageType.single(imageType);
 	}
+
+	/**
+	 * Provides access to the algorithm, e.g. to turn on concurrent processing or read the time of each stage
+	 */
+	public VisOdomDualTrackPnP<T, ?> getAlgorithm() {
+		return alg;
+	}
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
@@ -19,7 +19,11 @@
 package boofcv.abst.sfm.d3;
 
 import boofcv.abst.feature.tracker.PointTrack;
+import boofcv.abst.feature.tracker.PointTracker;
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.geo.DistanceModelMonoPixels;
 import boofcv.alg.sfm.StereoSparse3D;
 import boofcv.alg.sfm.d3.VisOdomPixelDepthPnP;
@@ -45,10 +49,15 @@ import static boofcv.alg.distort.LensDistortionOps.narrow;
 // TODO WARNING! active list has been modified by dropping and adding tracks
 // this is probably true of other SFM algorithms
 public class WrapVisOdomPixelDepthPnP<T extends ImageGray<T>>
-		implements StereoVisualOdometry<T>, AccessPointTracks3D {
+		implements StereoVisualOdometry<T>, AccessPointTracks3D, AccessVisOdomMetrics {
 
 	// low level algorithm
 	VisOdomPixelDepthPnP<T> alg;
+
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	StereoSparse3D<T> stereo;
 	DistanceModelMonoPixels<Se3_F64,Point2D3D> distance;
 	Class<T> imageType;
@@ -69,7 +78,7 @@ public class WrapVisOdomPixelDepthPnP<T extends ImageGray<T>>
 	@Override
 	public Point3D_F64 getTrackLocation(int index) {
 		// TODO see comment above
-		PointTrack t = alg.getTracker().getActiveTracks(null).get(index);
+		PointTrack t = alg.getTracker().getActive(index);
 		return ((Point2D3D)t.getCookie()).getLocation();
 	}
 
@@ -91,8 +100,15 @@ public class WrapVisOdomPixelDepthPnP<T extends ImageGray<T>>
 
 	@Override
 	public boolean isNew(int index) {
-		PointTrack t = alg.getTracker().getActiveTracks(null).get(index);
-		return alg.getTracker().getNewTracks(null).contains(t);
+		PointTracker<?> tracker = alg.getTracker();
+		PointTrack t = tracker.getActive(index);
+
+		int totalNew = tracker.getTotalNew();
+		for( int i = 0; i < totalNew; i++ ) {
+			if( tracker.getNew(i) == t )
+				return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -111,12 +127,26 @@ public class WrapVisOdomPixelDepthPnP<T extends ImageGray<T>>
 
 	@Override
 	public boolean process(T leftImage, T rightImage) {
+		if( metricsListener != null )
+			metrics.start();
+
 		stereo.setImages(leftImage,rightImage);
 		success = alg.process(leftImage);
 
 		active.clear();
 		alg.getTracker().getActiveTracks(active);
 
+		if( metricsListener != null ) {
+			metrics.stop(success);
+			metrics.addStage("tracking",alg.getTimeTracking());
+			metrics.addStage("motion",alg.getTimeMotion());
+			metrics.addStage("spawn",alg.getTimeSpawn());
+			metrics.totalTracks = alg.getTracker().getTotalActive();
+			metrics.setMatcher(alg.getMotionEstimator());
+			metricsListener.processedFrame(metrics);
+			metrics.frame++;
+		}
+
 		return success;
 	}
 
@@ -139,4 +169,15 @@ public class WrapVisOdomPixelDepthPnP<T extends ImageGray<T>>
 	public Se3_F64 getCameraToWorld() {
 		return alg.getCurrToWorld();
 	}
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
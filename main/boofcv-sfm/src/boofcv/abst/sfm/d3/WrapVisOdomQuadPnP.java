@@ -19,6 +19,9 @@
 package boofcv.abst.sfm.d3;
 
 import boofcv.abst.sfm.AccessPointTracks3D;
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsListener;
 import boofcv.alg.feature.associate.AssociateStereo2D;
 import boofcv.alg.geo.DistanceModelMonoPixels;
 import boofcv.alg.geo.pose.PnPStereoDistanceReprojectionSq;
@@ -46,9 +49,14 @@ import java.util.List;
  * @author Peter Abeles
  */
 public class WrapVisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc>
-		implements StereoVisualOdometry<T>, AccessPointTracks3D
+		implements StereoVisualOdometry<T>, AccessPointTracks3D, AccessVisOdomMetrics
 {
 	VisOdomQuadPnP<T,TD> alg;
+
+	// optional performance metrics
+	VisOdomMetricsListener metricsListener;
+	VisOdomMetrics metrics = new VisOdomMetrics();
+
 	RefinePnPStereo refine;
 	AssociateStereo2D<TD> associateStereo;
 	PnPStereoDistanceReprojectionSq distance;
@@ -136,7 +144,22 @@ public class WrapVisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc>
 
 	@Override
 	public boolean process(T leftImage, T rightImage) {
-		return alg.process(leftImage,rightImage);
+		if( metricsListener == null )
+			return alg.process(leftImage,rightImage);
+
+		metrics.start();
+		boolean success = alg.process(leftImage,rightImage);
+		metrics.stop(success);
+		metrics.addStage("associateL2R",alg.getTimeL2R());
+		metrics.addStage("associateF2F",alg.getTimeF2F());
+		metrics.addStage("consistency",alg.getTimeConsistency());
+		metrics.addStage("motion",alg.getTimeMotion());
+		metrics.totalTracks = alg.getQuadViews().size;
+		metrics.setMatcher(alg.getMatcher());
+		metricsListener.processedFrame(metrics);
+		metrics.frame++;
+
+		return success;
 	}
 
 	@Override
@@ -148,4 +171,15 @@ public class WrapVisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc>
 	public ImageType<T> getImageType() {
 		return ImageType.single(imageType);
 	}
+
+	@Override
+	public void setMetricsListener(VisOdomMetricsListener listener) {
+		this.metricsListener = listener;
+		metrics.frame = 0;
+	}
+
+	@Override
+	public VisOdomMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.depth;
+
+import org.ddogleg.struct.GrowQueue_F32;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * Saves every point it receives into compact arrays.  Use this when the entire cloud is needed at once.
+ *
+ * @author Peter Abeles
+ */
+public class PointCloudBuffer implements PointCloudChunkListener {
+	/** Location of each point, interleaved as x,y,z */
+	public GrowQueue_F32 xyz = new GrowQueue_F32();
+	/** Color of each point encoded as 0xRRGGBB.  Empty if there was no color information. */
+	public GrowQueue_I32 rgb = new GrowQueue_I32();
+
+	/**
+	 * Appends the chunk.  Arrays grow by doubling, since resizing a GrowQueue discards its contents.
+	 */
+	@Override
+	public void processChunk(PointCloudChunk chunk) {
+		int offset = xyz.size;
+		if( xyz.data.length < offset + chunk.size*3 ) {
+			float[] tmp = new float[Math.max(xyz.data.length*2, offset + chunk.size*3)];
+			System.arraycopy(xyz.data, 0, tmp, 0, offset);
+			xyz.data = tmp;
+		}
+		System.arraycopy(chunk.xyz, 0, xyz.data, offset, chunk.size*3);
+		xyz.size = offset + chunk.size*3;
+
+		if( chunk.color ) {
+			offset = rgb.size;
+			if( rgb.data.length < offset + chunk.size ) {
+				int[] tmp = new int[Math.max(rgb.data.length*2, offset + chunk.size)];
+				System.arraycopy(rgb.data, 0, tmp, 0, offset);
+				rgb.data = tmp;
+			}
+			System.arraycopy(chunk.rgb, 0, rgb.data, offset, chunk.size);
+			rgb.size = offset + chunk.size;
+		}
+	}
+
+	/**
+	 * Number of points saved
+	 */
+	public int size() {
+		return xyz.size/3;
+	}
+
+	public void reset() {
+		xyz.reset();
+		rgb.reset();
+	}
+}
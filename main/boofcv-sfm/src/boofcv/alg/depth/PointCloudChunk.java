@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.depth;
+
+/**
+ * A fixed size block of points from a point cloud.  Points are stored in compact arrays instead of individual
+ * objects.  The same instance is recycled by {@link PointCloudStreamer}, so copy the data if it needs to be saved.
+ *
+ * @author Peter Abeles
+ */
+public class PointCloudChunk {
+	/** Location of each point, interleaved as x,y,z */
+	public float[] xyz;
+	/** Color of each point encoded as 0xRRGGBB.  Only filled in if {@link #color} is true */
+	public int[] rgb;
+	/** Number of points in the chunk */
+	public int size;
+	/** true if color information is available */
+	public boolean color;
+
+	/**
+	 * Creates a chunk which can hold the specified number of points
+	 *
+	 * @param capacity Maximum number of points
+	 */
+	public PointCloudChunk( int capacity ) {
+		xyz = new float[capacity*3];
+		rgb = new int[capacity];
+	}
+
+	/**
+	 * Maximum number of points the chunk can contain
+	 */
+	public int getCapacity() {
+		return rgb.length;
+	}
+
+	public boolean isFull() {
+		return size == rgb.length;
+	}
+
+	public void reset() {
+		size = 0;
+	}
+}
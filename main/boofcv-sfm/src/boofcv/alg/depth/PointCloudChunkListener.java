@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.depth;
+
+/**
+ * Receives point clouds one {@link PointCloudChunk chunk} at a time.
+ *
+ * @author Peter Abeles
+ */
+public interface PointCloudChunkListener {
+	/**
+	 * Passes in the next chunk of points.  The chunk will be modified after this function returns.
+	 *
+	 * @param chunk Points in the chunk
+	 */
+	void processChunk( PointCloudChunk chunk );
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.depth;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.distort.LensDistortionOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.calib.CameraPinholeRadial;
+import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.image.*;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Converts disparity and depth images into 3D point clouds which are passed to a {@link PointCloudChunkListener}
+ * in chunks of a fixed size.  Unlike {@link VisualDepthOps} the cloud is never stored in its entirety, no objects
+ * are created for each point, and each pixel is visited once.  Pixels without valid depth are skipped.  Optionally,
+ * the color of each point can be saved too.
+ * </p>
+ *
+ * <p>
+ * The image is processed a block of rows at a time.  In concurrent mode, see {@link #setConcurrent}, several
+ * blocks are converted in parallel and then passed to the listener in order from the calling thread.  The output
+ * is identical to the sequential mode.  Memory is bounded by the number of threads, the number of rows in a block,
+ * and the image width.
+ * </p>
+ *
+ * <ul>
+ * <li>Disparity: see {@link #configureDisparity}.  Points are in the rectified left camera's reference frame,
+ * or the original left camera's frame if the rectification rotation is provided.</li>
+ * <li>Depth: see {@link #configureDepth}.  Points are in the depth camera's reference frame.</li>
+ * </ul>
+ *
+ * Every chunk is full except for the last one from each image.
+ *
+ * @author Peter Abeles
+ */
+public class PointCloudStreamer {
+
+	// storage for the points which are passed to the listener
+	private PointCloudChunk chunk;
+
+	// number of rows processed by each block
+	private int blockRows = 8;
+
+	private boolean concurrent = false;
+
+	//---------------- Disparity parameters
+	private double baseline;
+	private double fx,fy,cx,cy;
+	private int minDisparity, rangeDisparity;
+	// rotation from rectified to original camera.  null if not used
+	private DMatrixRMaj rectR;
+
+	//---------------- Depth parameters
+	// normalized image coordinate of each pixel
+	private float[] normX = new float[0], normY = new float[0];
+	private int depthWidth, depthHeight;
+	private double depthScale;
+
+	// image being processed
+	private ImageGray input;
+	private boolean disparityMode;
+	// color image being processed.  Only one is not null, if any
+	private GrayU8 colorGray;
+	private GrayU8 colorR, colorG, colorB;
+	private boolean useColor;
+
+	// rows in the pass currently being processed
+	private int passY0, passY1;
+
+	// storage for each block
+	private List<Block> blocks = new ArrayList<>();
+	private IntRangeObjectConsumer<Block> task;
+
+	/**
+	 * Specifies the size of the chunks
+	 *
+	 * @param chunkSize Number of points in each chunk
+	 */
+	public PointCloudStreamer( int chunkSize ) {
+		chunk = new PointCloudChunk(chunkSize);
+
+		task = new IntRangeObjectConsumer<Block>() {
+			@Override
+			public void accept(Block block, int minInclusive, int maxExclusive) {
+				int y0 = passY0 + minInclusive*blockRows;
+				int y1 = Math.min(passY1, passY0 + maxExclusive*blockRows);
+				block.process(y0, y1);
+			}
+		};
+	}
+
+	/**
+	 * Specifies the rectified stereo geometry used to convert disparity into 3D points.  Disparity values which are
+	 * &ge; the range of disparity are invalid, the same convention as {@link boofcv.abst.feature.disparity.StereoDisparity}.
+	 *
+	 * @param rectK Intrinsic calibration matrix of rectified left camera
+	 * @param rectR Rotation from the original left camera to the rectified left camera.  If null then points are
+	 *              in the rectified frame.
+	 * @param baseline Distance between the two cameras
+	 * @param minDisparity Minimum disparity which was searched
+	 * @param maxDisparity Maximum disparity which was searched
+	 */
+	public void configureDisparity( DMatrixRMaj rectK , DMatrixRMaj rectR , double baseline ,
+									int minDisparity , int maxDisparity ) {
+		this.fx = rectK.get(0,0);
+		this.fy = rectK.get(1,1);
+		this.cx = rectK.get(0,2);
+		this.cy = rectK.get(1,2);
+		this.rectR = rectR == null ? null : rectR.copy();
+		this.baseline = baseline;
+		this.minDisparity = minDisparity;
+		this.rangeDisparity = maxDisparity-minDisparity;
+	}
+
+	/**
+	 * Specifies the intrinsic parameters of the depth camera.  The normalized image coordinate of every pixel is
+	 * computed here so that lens distortion doesn't need to be removed when an image is processed.
+	 *
+	 * @param param Intrinsic parameters of the depth camera
+	 * @param depthScale Each depth value is multiplied by this number, e.g. 1 to leave it as millimeters
+	 */
+	public void configureDepth( CameraPinholeRadial param , double depthScale ) {
+		this.depthScale = depthScale;
+		this.depthWidth = param.width;
+		this.depthHeight = param.height;
+
+		int N = param.width*param.height;
+		if( normX.length < N ) {
+			normX = new float[N];
+			normY = new float[N];
+		}
+
+		Point2Transform2_F64 p2n = LensDistortionOps.narrow(param).undistort_F64(true,false);
+		Point2D_F64 n = new Point2D_F64();
+		for (int y = 0, i = 0; y < param.height; y++) {
+			for (int x = 0; x < param.width; x++, i++) {
+				p2n.compute(x,y,n);
+				normX[i] = (float)n.x;
+				normY[i] = (float)n.y;
+			}
+		}
+	}
+
+	/**
+	 * Converts a disparity image into a point cloud.
+	 *
+	 * @param disparity Disparity image. {@link GrayU8} or {@link GrayF32}
+	 * @param color Optional color image which is aligned with the disparity image.  {@link GrayU8} or a
+	 *              {@link Planar} {@link GrayU8} with 3 bands.  Can be null.
+	 * @param listener Receives the points
+	 */
+	public void processDisparity( ImageGray disparity , ImageBase color , PointCloudChunkListener listener ) {
+		if( !(disparity instanceof GrayU8 || disparity instanceof GrayF32) )
+			throw new IllegalArgumentException("Unsupported disparity image type");
+		disparityMode = true;
+		process(disparity, color, listener);
+	}
+
+	/**
+	 * Converts a depth image into a point cloud.  Pixels with a value of zero have no depth.
+	 *
+	 * @param depth Depth image
+	 * @param color Optional color image which is aligned with the depth image.  {@link GrayU8} or a
+	 *              {@link Planar} {@link GrayU8} with 3 bands.  Can be null.
+	 * @param listener Receives the points
+	 */
+	public void processDepth( GrayU16 depth , ImageBase color , PointCloudChunkListener listener ) {
+		if( depth.width != depthWidth || depth.height != depthHeight )
+			throw new IllegalArgumentException("Depth image doesn't match the calibration");
+		disparityMode = false;
+		process(depth, color, listener);
+	}
+
+	private void process( ImageGray input , ImageBase color , PointCloudChunkListener listener ) {
+		if( color != null ) {
+			InputSanityCheck.checkSameShape(input, color);
+			if( !(color instanceof GrayU8) &&
+					!(color instanceof Planar && ((Planar)color).getBandType() == GrayU8.class &&
+							((Planar)color).getNumBands() == 3) )
+				throw new IllegalArgumentException("Unsupported color image type");
+		}
+		this.input = input;
+		useColor = color != null;
+		if( color instanceof GrayU8 ) {
+			colorGray = (GrayU8)color;
+		} else if( color != null ) {
+			Planar<GrayU8> planar = (Planar<GrayU8>)color;
+			colorR = planar.getBand(0);
+			colorG = planar.getBand(1);
+			colorB = planar.getBand(2);
+		}
+
+		int numBlocks = concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		while( blocks.size() < numBlocks )
+			blocks.add( new Block());
+		while( blocks.size() > numBlocks )
+			blocks.remove( blocks.size()-1 );
+
+		chunk.reset();
+		chunk.color = color != null;
+
+		try {
+			// each pass converts up to one block of rows for each thread
+			int rowsPerPass = blockRows*numBlocks;
+			for (int y0 = 0; y0 < input.height; y0 += rowsPerPass) {
+				int y1 = Math.min(input.height, y0+rowsPerPass);
+				int passBlocks = (y1-y0+blockRows-1)/blockRows;
+				for (int i = 0; i < passBlocks; i++) {
+					blocks.get(i).reserve(blockRows*input.width);
+				}
+
+				if( passBlocks == 1 ) {
+					blocks.get(0).process(y0, y1);
+				} else {
+					// there's one workspace for each block, so each workspace is given a single block index
+					passY0 = y0;
+					passY1 = y1;
+					BoofConcurrency.loopBlocks(0, passBlocks, blocks.subList(0,passBlocks), task);
+				}
+
+				for (int i = 0; i < passBlocks; i++) {
+					send(blocks.get(i), listener);
+				}
+			}
+
+			if( chunk.size > 0 ) {
+				listener.processChunk(chunk);
+				chunk.reset();
+			}
+		} finally {
+			this.input = null;
+			colorGray = colorR = colorG = colorB = null;
+		}
+	}
+
+	/**
+	 * Copies the points from the block into the chunk.  Every time the chunk is full it's passed to the listener.
+	 */
+	private void send( Block block , PointCloudChunkListener listener ) {
+		int capacity = chunk.getCapacity();
+		int offset = 0;
+		while( offset < block.size ) {
+			int amount = Math.min(capacity-chunk.size, block.size-offset);
+			System.arraycopy(block.xyz, offset*3, chunk.xyz, chunk.size*3, amount*3);
+			if( chunk.color )
+				System.arraycopy(block.rgb, offset, chunk.rgb, chunk.size, amount);
+			chunk.size += amount;
+			offset += amount;
+
+			if( chunk.isFull() ) {
+				listener.processChunk(chunk);
+				chunk.reset();
+			}
+		}
+	}
+
+	/**
+	 * If true then blocks of rows are processed in parallel.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Number of rows processed at once by a single thread
+	 */
+	public int getBlockRows() {
+		return blockRows;
+	}
+
+	public void setBlockRows(int blockRows) {
+		if( blockRows <= 0 )
+			throw new IllegalArgumentException("Must be at least one row");
+		this.blockRows = blockRows;
+	}
+
+	public int getChunkSize() {
+		return chunk.getCapacity();
+	}
+
+	/**
+	 * Points from a block of rows
+	 */
+	private class Block {
+		float[] xyz = new float[0];
+		int[] rgb = new int[0];
+		int size;
+
+		void reserve( int points ) {
+			if( rgb.length < points ) {
+				xyz = new float[points*3];
+				rgb = new int[points];
+			}
+			size = 0;
+		}
+
+		void process( int y0 , int y1 ) {
+			for (int y = y0; y < y1; y++) {
+				if( disparityMode ) {
+					if( input instanceof GrayU8 )
+						rowDisparity((GrayU8)input, y);
+					else
+						rowDisparity((GrayF32)input, y);
+				} else {
+					rowDepth((GrayU16)input, y);
+				}
+			}
+		}
+
+		void rowDisparity( GrayU8 disparity , int y ) {
+			int index = disparity.startIndex + y*disparity.stride;
+			for (int x = 0; x < disparity.width; x++) {
+				int d = disparity.data[index++] & 0xFF;
+				if( d >= rangeDisparity )
+					continue;
+				addDisparity(x, y, d + minDisparity);
+			}
+		}
+
+		void rowDisparity( GrayF32 disparity , int y ) {
+			int index = disparity.startIndex + y*disparity.stride;
+			for (int x = 0; x < disparity.width; x++) {
+				float d = disparity.data[index++];
+				if( d >= rangeDisparity )
+					continue;
+				addDisparity(x, y, d + minDisparity);
+			}
+		}
+
+		void addDisparity( int x , int y , double d ) {
+			// zero disparity is at infinity
+			if( d <= 0 )
+				return;
+
+			double Z = baseline*fx/d;
+			double X = Z*(x - cx)/fx;
+			double Y = Z*(y - cy)/fy;
+
+			int i = size*3;
+			if( rectR == null ) {
+				xyz[i  ] = (float)X;
+				xyz[i+1] = (float)Y;
+				xyz[i+2] = (float)Z;
+			} else {
+				// rotate back into the original camera frame.  R'*X
+				double[] r = rectR.data;
+				xyz[i  ] = (float)(r[0]*X + r[3]*Y + r[6]*Z);
+				xyz[i+1] = (float)(r[1]*X + r[4]*Y + r[7]*Z);
+				xyz[i+2] = (float)(r[2]*X + r[5]*Y + r[8]*Z);
+			}
+			addColor(x, y);
+			size++;
+		}
+
+		void rowDepth( GrayU16 depth , int y ) {
+			int index = depth.startIndex + y*depth.stride;
+			int indexNorm = y*depth.width;
+			for (int x = 0; x < depth.width; x++, indexNorm++) {
+				int mm = depth.data[index++] & 0xFFFF;
+
+				// skip pixels with no depth information
+				if( mm == 0 )
+					continue;
+
+				float Z = (float)(mm*depthScale);
+				int i = size*3;
+				xyz[i  ] = normX[indexNorm]*Z;
+				xyz[i+1] = normY[indexNorm]*Z;
+				xyz[i+2] = Z;
+				addColor(x, y);
+				size++;
+			}
+		}
+
+		void addColor( int x , int y ) {
+			if( !useColor )
+				return;
+			if( colorGray != null ) {
+				int v = colorGray.unsafe_get(x,y);
+				rgb[size] = v << 16 | v << 8 | v;
+			} else {
+				int r = colorR.unsafe_get(x,y);
+				int g = colorG.unsafe_get(x,y);
+				int b = colorB.unsafe_get(x,y);
+				rgb[size] = r << 16 | g << 8 | b;
+			}
+		}
+	}
+}
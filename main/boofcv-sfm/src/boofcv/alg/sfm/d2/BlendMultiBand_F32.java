@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayF32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Blends two images together using Laplacian pyramids [1].  Each level in the Laplacian pyramid is blended using
+ * the same level in a Gaussian pyramid of the mask.  Low frequencies are blended across a wide region and high
+ * frequencies across a narrow region, which hides seams without blurring fine details.
+ * </p>
+ *
+ * <p>
+ * Each level is half the size of the previous level.  Levels are computed using a 5-tap binomial kernel and
+ * expanded using bilinear interpolation.  Rows can optionally be processed using multiple threads.
+ * </p>
+ *
+ * <p>
+ * [1] Burt, Peter J., and Edward H. Adelson. "A multiresolution spline with application to image mosaics."
+ * ACM Transactions on Graphics 2.4 (1983): 217-236.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BlendMultiBand_F32 {
+	// maximum number of levels in the pyramid
+	private int numLevels;
+
+	// Gaussian and then Laplacian pyramids of each input image and the Gaussian pyramid of the mask
+	private List<GrayF32> pyrA = new ArrayList<>();
+	private List<GrayF32> pyrB = new ArrayList<>();
+	private List<GrayF32> pyrMask = new ArrayList<>();
+	// work space
+	private GrayF32 work = new GrayF32(1,1);
+
+	// number of levels used for the current image
+	private int levels;
+
+	// if true rows are processed by multiple threads
+	private boolean concurrent;
+
+	/**
+	 * Configures the blending
+	 *
+	 * @param numLevels Maximum number of levels in the pyramid.  Fewer are used if the image is too small.
+	 */
+	public BlendMultiBand_F32(int numLevels) {
+		if( numLevels < 1 )
+			throw new IllegalArgumentException("Must have at least one level");
+		this.numLevels = numLevels;
+	}
+
+	/**
+	 * Blends the two images together.  If there is only a single level then output = mask*a + (1-mask)*b.
+	 *
+	 * @param a First image. Not modified.
+	 * @param b Second image. Not modified.
+	 * @param mask Weight of the first image for each pixel, from 0 to 1. Not modified.
+	 * @param output (Output) Blended image.  Can be the same instance as a or b.
+	 */
+	public void blend( GrayF32 a , GrayF32 b , GrayF32 mask , GrayF32 output ) {
+		if( a.width != b.width || a.width != mask.width || a.height != b.height || a.height != mask.height )
+			throw new IllegalArgumentException("Input images must have the same shape");
+
+		declarePyramids(a.width, a.height);
+
+		pyrA.get(0).setTo(a);
+		pyrB.get(0).setTo(b);
+		pyrMask.get(0).setTo(mask);
+
+		// Gaussian pyramids
+		for (int level = 1; level < levels; level++) {
+			reduce(pyrA.get(level-1), pyrA.get(level));
+			reduce(pyrB.get(level-1), pyrB.get(level));
+			reduce(pyrMask.get(level-1), pyrMask.get(level));
+		}
+
+		// Convert to Laplacian pyramids.  Fine to coarse so that the next level is still Gaussian
+		for (int level = 0; level < levels-1; level++) {
+			work.reshape(pyrA.get(level).width, pyrA.get(level).height);
+			expand(pyrA.get(level+1), work);
+			subtract(pyrA.get(level), work);
+			expand(pyrB.get(level+1), work);
+			subtract(pyrB.get(level), work);
+		}
+
+		// blend each level and save the results in pyrA
+		for (int level = 0; level < levels; level++) {
+			blendLevel(pyrA.get(level), pyrB.get(level), pyrMask.get(level));
+		}
+
+		// collapse the pyramid
+		for (int level = levels-2; level >= 0; level--) {
+			work.reshape(pyrA.get(level).width, pyrA.get(level).height);
+			expand(pyrA.get(level+1), work);
+			add(pyrA.get(level), work);
+		}
+
+		output.setTo(pyrA.get(0));
+	}
+
+	private void declarePyramids( int width , int height ) {
+		levels = 0;
+		while( levels < numLevels ) {
+			if( pyrA.size() <= levels ) {
+				pyrA.add(new GrayF32(1,1));
+				pyrB.add(new GrayF32(1,1));
+				pyrMask.add(new GrayF32(1,1));
+			}
+			pyrA.get(levels).reshape(width, height);
+			pyrB.get(levels).reshape(width, height);
+			pyrMask.get(levels).reshape(width, height);
+			levels++;
+
+			// there's no point in going smaller than the kernel
+			if( width < 5 || height < 5 )
+				break;
+			width = (width+1)/2;
+			height = (height+1)/2;
+		}
+	}
+
+	/**
+	 * Blurs the image with a 5-tap binomial kernel and samples every other pixel.  Borders are extended.
+	 */
+	void reduce( final GrayF32 input , final GrayF32 output ) {
+		// blur along the x-axis and down sample
+		work.reshape(output.width, input.height);
+		rows(0, input.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				int w = input.width;
+				for (int y = y0; y < y1; y++) {
+					int indexIn = input.startIndex + y*input.stride;
+					int indexOut = work.startIndex + y*work.stride;
+					for (int x = 0; x < work.width; x++) {
+						int c = 2*x;
+						float v0 = input.data[indexIn + Math.max(c-2,0)];
+						float v1 = input.data[indexIn + Math.max(c-1,0)];
+						float v2 = input.data[indexIn + c];
+						float v3 = input.data[indexIn + Math.min(c+1,w-1)];
+						float v4 = input.data[indexIn + Math.min(c+2,w-1)];
+						work.data[indexOut+x] = (v0 + 4*v1 + 6*v2 + 4*v3 + v4)/16f;
+					}
+				}
+			}
+		});
+
+		// blur along the y-axis and down sample
+		rows(0, output.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				int h = work.height;
+				for (int y = y0; y < y1; y++) {
+					int c = 2*y;
+					int row0 = work.startIndex + Math.max(c-2,0)*work.stride;
+					int row1 = work.startIndex + Math.max(c-1,0)*work.stride;
+					int row2 = work.startIndex + c*work.stride;
+					int row3 = work.startIndex + Math.min(c+1,h-1)*work.stride;
+					int row4 = work.startIndex + Math.min(c+2,h-1)*work.stride;
+					int indexOut = output.startIndex + y*output.stride;
+					for (int x = 0; x < output.width; x++) {
+						output.data[indexOut+x] = (work.data[row0+x] + 4*work.data[row1+x] + 6*work.data[row2+x] +
+								4*work.data[row3+x] + work.data[row4+x])/16f;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Up samples the coarse image into the larger output image using bilinear interpolation.  Pixel (x,y)
+	 * in the output image is at (x/2,y/2) in the coarse image.
+	 */
+	void expand( final GrayF32 coarse , final GrayF32 output ) {
+		rows(0, output.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				for (int y = y0; y < y1; y++) {
+					int cy = y/2;
+					int cy1 = Math.min(cy+1, coarse.height-1);
+					float ay = (y%2)*0.5f;
+					int row0 = coarse.startIndex + cy*coarse.stride;
+					int row1 = coarse.startIndex + cy1*coarse.stride;
+					int indexOut = output.startIndex + y*output.stride;
+					for (int x = 0; x < output.width; x++) {
+						int cx = x/2;
+						int cx1 = Math.min(cx+1, coarse.width-1);
+						float ax = (x%2)*0.5f;
+
+						float top = (1f-ax)*coarse.data[row0+cx] + ax*coarse.data[row0+cx1];
+						float bottom = (1f-ax)*coarse.data[row1+cx] + ax*coarse.data[row1+cx1];
+						output.data[indexOut+x] = (1f-ay)*top + ay*bottom;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * image = image - other
+	 */
+	private void subtract( final GrayF32 image , final GrayF32 other ) {
+		rows(0, image.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				for (int y = y0; y < y1; y++) {
+					int index = image.startIndex + y*image.stride;
+					int indexOther = other.startIndex + y*other.stride;
+					for (int x = 0; x < image.width; x++) {
+						image.data[index++] -= other.data[indexOther++];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * image = image + other
+	 */
+	private void add( final GrayF32 image , final GrayF32 other ) {
+		rows(0, image.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				for (int y = y0; y < y1; y++) {
+					int index = image.startIndex + y*image.stride;
+					int indexOther = other.startIndex + y*other.stride;
+					for (int x = 0; x < image.width; x++) {
+						image.data[index++] += other.data[indexOther++];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * a = mask*a + (1-mask)*b
+	 */
+	private void blendLevel( final GrayF32 a , final GrayF32 b , final GrayF32 mask ) {
+		rows(0, a.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				for (int y = y0; y < y1; y++) {
+					int indexA = a.startIndex + y*a.stride;
+					int indexB = b.startIndex + y*b.stride;
+					int indexM = mask.startIndex + y*mask.stride;
+					for (int x = 0; x < a.width; x++, indexA++, indexB++, indexM++) {
+						float m = mask.data[indexM];
+						a.data[indexA] = m*a.data[indexA] + (1f-m)*b.data[indexB];
+					}
+				}
+			}
+		});
+	}
+
+	private void rows( int y0 , int y1 , IntRangeConsumer consumer ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, consumer);
+		} else {
+			consumer.accept(y0, y1);
+		}
+	}
+
+	/**
+	 * Returns the number of levels used in the most recent call to blend
+	 */
+	public int getLevels() {
+		return levels;
+	}
+
+	public int getNumLevels() {
+		return numLevels;
+	}
+
+	/**
+	 * If true then rows will be processed using multiple threads
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
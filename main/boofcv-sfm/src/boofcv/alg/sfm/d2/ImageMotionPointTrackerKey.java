@@ -63,6 +63,9 @@ public class ImageMotionPointTrackerKey<I extends ImageBase<I>, IT extends Inver
 	// if the current frame is a keyframe or not
 	protected boolean keyFrame;
 
+	// list of pairs passed to the model matcher.  Recycled between frames
+	protected List<AssociatedPair> pairs = new ArrayList<>();
+
 	/**
 	 * Specify algorithms to use internally.  Each of these classes must work with
 	 * compatible data structures.
@@ -115,14 +118,14 @@ public class ImageMotionPointTrackerKey<I extends ImageBase<I>, IT extends Inver
 
 		totalFramesProcessed++;
 
-		List<PointTrack> tracks = tracker.getActiveTracks(null);
+		int totalActive = tracker.getTotalActive();
 
-		if( tracks.size() == 0 )
+		if( totalActive == 0 )
 			return false;
 
-		List<AssociatedPair> pairs = new ArrayList<>();
-		for( PointTrack t : tracks ) {
-			pairs.add((AssociatedPair)t.getCookie());
+		pairs.clear();
+		for( int i = 0; i < totalActive; i++ ) {
+			pairs.add((AssociatedPair)tracker.getActive(i).getCookie());
 		}
 
 		// fit the motion model to the feature tracks
@@ -152,8 +155,9 @@ public class ImageMotionPointTrackerKey<I extends ImageBase<I>, IT extends Inver
 	}
 
 	private void pruneUnusedTracks() {
-		List<PointTrack> all = tracker.getAllTracks(null);
-		for( PointTrack t : all ) {
+		// go through the list backwards since dropping a track only changes the index of tracks after it
+		for( int i = tracker.getTotalAll()-1; i >= 0; i-- ) {
+			PointTrack t = tracker.getAll(i);
 			AssociatedPairTrack p = t.getCookie();
 
 			if( totalFramesProcessed - p.lastUsed >= outlierPrune) {
@@ -169,22 +173,23 @@ public class ImageMotionPointTrackerKey<I extends ImageBase<I>, IT extends Inver
 	 */
 	public void changeKeyFrame() {
 		// drop all inactive tracks since their location is unknown in the current frame
-		List<PointTrack> inactive = tracker.getInactiveTracks(null);
-		for( PointTrack l : inactive ) {
-			tracker.dropTrack(l);
+		for( int i = tracker.getTotalInactive()-1; i >= 0; i-- ) {
+			tracker.dropTrack(tracker.getInactive(i));
 		}
 
 		// set the keyframe for active tracks as their current location
-		List<PointTrack> active = tracker.getActiveTracks(null);
-		for( PointTrack l : active ) {
+		int totalActive = tracker.getTotalActive();
+		for( int i = 0; i < totalActive; i++ ) {
+			PointTrack l = tracker.getActive(i);
 			AssociatedPairTrack p = l.getCookie();
 			p.p1.set(l);
 			p.lastUsed = totalFramesProcessed;
 		}
 
 		tracker.spawnTracks();
-		List<PointTrack> spawned = tracker.getNewTracks(null);
-		for( PointTrack l : spawned ) {
+		int totalNew = tracker.getTotalNew();
+		for( int i = 0; i < totalNew; i++ ) {
+			PointTrack l = tracker.getNew(i);
 			AssociatedPairTrack p = l.getCookie();
 			if( p == null ) {
 				l.cookie = p = new AssociatedPairTrack();
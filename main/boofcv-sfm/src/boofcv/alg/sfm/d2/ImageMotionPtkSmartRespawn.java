@@ -47,6 +47,8 @@ public class ImageMotionPtkSmartRespawn<I extends ImageBase<I>, IT extends Inver
 
 	// stores list of tracks to prune
 	private List<PointTrack> prune = new ArrayList<>();
+	// storage for active tracks
+	private List<PointTrack> active = new ArrayList<>();
 
 	// change the keyframe is the number of inliers drops below this number
 	private int absoluteMinimumTracks;
@@ -134,9 +136,10 @@ public class ImageMotionPtkSmartRespawn<I extends ImageBase<I>, IT extends Inver
 		pruneClose.resize(width,height);
 		// prune some of the ones which are too close
 		prune.clear();
-		pruneClose.process(tracker.getActiveTracks(null),prune);
-		for( PointTrack t : prune ) {
-			tracker.dropTrack(t);
+		active.clear();
+		pruneClose.process(tracker.getActiveTracks(active),prune);
+		for( int i = 0; i < prune.size(); i++ ) {
+			tracker.dropTrack(prune.get(i));
 		}
 	}
 
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntConsumer;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.core.image.GConvertImage;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Blends a new image into the stitched image used by {@link StitchingFromMotion2D}, instead of overwriting it.
+ * Only the region in the stitched image which is touched by the new image is updated.  The weight of the new image
+ * increases linearly with distance from its border, reaching one at the feather radius.  Pixels in the stitched image
+ * which have never been rendered are always set to the new image, which avoids dark borders.
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link Blend#FEATHER}: Each pixel is a weighted average of the new and stitched image.</li>
+ *     <li>{@link Blend#MULTI_BAND}: The same weights are used as a mask for {@link BlendMultiBand_F32}, which
+ *     hides seams caused by differences in exposure better.</li>
+ * </ul>
+ *
+ * <p>
+ * Gray and {@link Planar} images are supported.  Blending is done on a floating point copy of the updated region.
+ * If concurrent, rows are processed using multiple threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class StitchingCompositor<I extends ImageBase<I>> {
+
+	/**
+	 * How the new image is blended into the stitched image
+	 */
+	public enum Blend {
+		FEATHER,
+		MULTI_BAND
+	}
+
+	private Blend blend;
+
+	// distance from the image border, in pixels, at which the new image has a weight of one
+	private float featherRadius = 20;
+
+	private boolean concurrent;
+
+	// 1 for pixels in the stitched image which have been rendered
+	private GrayU8 coverage = new GrayU8(1,1);
+	private GrayU8 coverageWork = new GrayU8(1,1);
+	private ImageDistort<GrayU8,GrayU8> coverageDistort;
+
+	// weight of the new image inside the region being updated
+	private GrayF32 alpha = new GrayF32(1,1);
+	// floating point copy of each band inside the region being updated
+	private List<GrayF32> patchStitch = new ArrayList<>();
+	private List<GrayF32> patchNew = new ArrayList<>();
+	// multi-band blending for each band
+	private List<BlendMultiBand_F32> multiBand = new ArrayList<>();
+	private int numLevels;
+
+	// references to data being processed
+	private PixelTransform2_F32 worldToCurr;
+	private int frameWidth, frameHeight;
+	private int x0,y0;
+
+	/**
+	 * Configures the compositor
+	 *
+	 * @param blend How images are blended together
+	 * @param numLevels Number of levels in the pyramid for {@link Blend#MULTI_BAND}.  Try 4.
+	 */
+	public StitchingCompositor(Blend blend, int numLevels) {
+		this.blend = blend;
+		this.numLevels = numLevels;
+
+		// pixels outside the old stitched image have not been rendered
+		coverageDistort = FactoryDistort.distortSB(false, FactoryInterpolation.createPixelS(0, 1,
+				InterpolationType.NEAREST_NEIGHBOR, BorderType.ZERO, GrayU8.class), GrayU8.class);
+	}
+
+	/**
+	 * Discards all previous results and specifies the stitched image's shape
+	 */
+	public void initialize( int width , int height ) {
+		coverage.reshape(width, height);
+		ImageMiscOps.fill(coverage, 0);
+	}
+
+	/**
+	 * The stitched image has been distorted.  Apply the same distortion to internal data structures.
+	 *
+	 * @param newToOld Transform from pixels in the new stitched image to the old stitched image
+	 * @param width Width of the new stitched image
+	 * @param height Height of the new stitched image
+	 */
+	public void transform( PixelTransform2_F32 newToOld , int width , int height ) {
+		coverageWork.reshape(width, height);
+		coverageDistort.setModel(newToOld);
+		coverageDistort.apply(coverage, coverageWork);
+
+		GrayU8 tmp = coverage;
+		coverage = coverageWork;
+		coverageWork = tmp;
+	}
+
+	/**
+	 * The stitched image has been resized without a transform.  The old image is in the top left corner
+	 *
+	 * @param width Width of the new stitched image
+	 * @param height Height of the new stitched image
+	 */
+	public void resize( int width , int height ) {
+		coverageWork.reshape(width, height);
+		ImageMiscOps.fill(coverageWork, 0);
+		int overlapWidth = Math.min(width, coverage.width);
+		int overlapHeight = Math.min(height, coverage.height);
+		ImageMiscOps.copy(0, 0, 0, 0, overlapWidth, overlapHeight, coverage, coverageWork);
+
+		GrayU8 tmp = coverage;
+		coverage = coverageWork;
+		coverageWork = tmp;
+	}
+
+	/**
+	 * Blends the new image into the stitched image inside the specified region.
+	 *
+	 * @param rendered The new image rendered into the stitched image's coordinate system.  Only the
+	 *                 region being updated is read.
+	 * @param stitched (Output) The stitched image. Only pixels inside the region are modified.
+	 * @param worldToCurr Transform from stitched image pixels to new image pixels
+	 * @param frameWidth Width of the new image
+	 * @param frameHeight Height of the new image
+	 * @param x0 Region being updated. Lower x-coordinate, inclusive.
+	 * @param y0 Region being updated. Lower y-coordinate, inclusive.
+	 * @param x1 Region being updated. Upper x-coordinate, exclusive.
+	 * @param y1 Region being updated. Upper y-coordinate, exclusive.
+	 */
+	public void composite( I rendered , I stitched , PixelTransform2_F32 worldToCurr ,
+						   int frameWidth , int frameHeight ,
+						   int x0 , int y0 , int x1 , int y1 ) {
+		if( stitched.width != coverage.width || stitched.height != coverage.height )
+			throw new IllegalArgumentException("Stitched image has an unexpected shape. initialize() not called?");
+
+		x0 = Math.max(0, x0); y0 = Math.max(0, y0);
+		x1 = Math.min(stitched.width, x1); y1 = Math.min(stitched.height, y1);
+		if( x1 <= x0 || y1 <= y0 )
+			return;
+
+		this.worldToCurr = worldToCurr;
+		this.frameWidth = frameWidth;
+		this.frameHeight = frameHeight;
+		this.x0 = x0;
+		this.y0 = y0;
+
+		computeAlpha(x1-x0, y1-y0);
+
+		final int numBands = stitched.getImageType().getNumBands();
+		declareWork(numBands, x1-x0, y1-y0);
+
+		for (int band = 0; band < numBands; band++) {
+			GConvertImage.convert(band(stitched, band).subimage(x0, y0, x1, y1), patchStitch.get(band));
+			GConvertImage.convert(band(rendered, band).subimage(x0, y0, x1, y1), patchNew.get(band));
+		}
+
+		if( blend == Blend.FEATHER ) {
+			rows(0, alpha.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					for (int band = 0; band < numBands; band++) {
+						feather(patchStitch.get(band), patchNew.get(band), minInclusive, maxExclusive);
+					}
+				}
+			});
+		} else {
+			IntConsumer consumer = new IntConsumer() {
+				@Override
+				public void accept(int band) {
+					multiBand(band);
+				}
+			};
+			if( concurrent ) {
+				BoofConcurrency.loopFor(0, numBands, consumer);
+			} else {
+				for (int band = 0; band < numBands; band++) {
+					consumer.accept(band);
+				}
+			}
+		}
+
+		for (int band = 0; band < numBands; band++) {
+			GConvertImage.convert(patchStitch.get(band), band(stitched, band).subimage(x0, y0, x1, y1));
+		}
+
+		// update which pixels have been rendered
+		for (int y = 0; y < alpha.height; y++) {
+			int indexAlpha = alpha.startIndex + y*alpha.stride;
+			int indexCover = coverage.startIndex + (y+y0)*coverage.stride + x0;
+			for (int x = 0; x < alpha.width; x++) {
+				if( alpha.data[indexAlpha++] > 0 )
+					coverage.data[indexCover] = 1;
+				indexCover++;
+			}
+		}
+
+		this.worldToCurr = null;
+	}
+
+	/**
+	 * Computes the weight of the new image inside the region being updated
+	 */
+	private void computeAlpha( int width , int height ) {
+		alpha.reshape(width, height);
+
+		if( concurrent && worldToCurr.copyConcurrent() != null ) {
+			BoofConcurrency.loopBlocks(0, height, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					computeAlpha(worldToCurr.copyConcurrent(), minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			computeAlpha(worldToCurr, 0, height);
+		}
+	}
+
+	private void computeAlpha( PixelTransform2_F32 worldToCurr , int row0 , int row1 ) {
+		float maxX = frameWidth-1, maxY = frameHeight-1;
+
+		for (int y = row0; y < row1; y++) {
+			int indexAlpha = alpha.startIndex + y*alpha.stride;
+			int indexCover = coverage.startIndex + (y+y0)*coverage.stride + x0;
+			for (int x = 0; x < alpha.width; x++, indexAlpha++, indexCover++) {
+				worldToCurr.compute(x+x0, y+y0);
+				float sx = worldToCurr.distX, sy = worldToCurr.distY;
+
+				if( sx < 0 || sy < 0 || sx > maxX || sy > maxY ) {
+					alpha.data[indexAlpha] = 0;
+				} else if( coverage.data[indexCover] == 0 ) {
+					alpha.data[indexAlpha] = 1;
+				} else {
+					// weight must be more than zero along the border so that the pixel is marked as rendered
+					float d = Math.min(Math.min(sx, maxX-sx), Math.min(sy, maxY-sy));
+					alpha.data[indexAlpha] = Math.max(Float.MIN_VALUE, Math.min(1f, d/featherRadius));
+				}
+			}
+		}
+	}
+
+	/**
+	 * stitch = alpha*new + (1-alpha)*stitch
+	 */
+	private void feather( GrayF32 stitch , GrayF32 rendered , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexS = stitch.startIndex + y*stitch.stride;
+			int indexR = rendered.startIndex + y*rendered.stride;
+			int indexA = alpha.startIndex + y*alpha.stride;
+			for (int x = 0; x < stitch.width; x++, indexS++, indexR++) {
+				float a = alpha.data[indexA++];
+				if( a > 0 )
+					stitch.data[indexS] += a*(rendered.data[indexR] - stitch.data[indexS]);
+			}
+		}
+	}
+
+	private void multiBand( int band ) {
+		GrayF32 stitch = patchStitch.get(band);
+		GrayF32 rendered = patchNew.get(band);
+
+		// Where only one image is valid make the other image the same.  Otherwise invalid pixels will
+		// leak into the coarse levels of the pyramid
+		for (int y = 0; y < stitch.height; y++) {
+			int indexS = stitch.startIndex + y*stitch.stride;
+			int indexR = rendered.startIndex + y*rendered.stride;
+			int indexA = alpha.startIndex + y*alpha.stride;
+			int indexCover = coverage.startIndex + (y+y0)*coverage.stride + x0;
+			for (int x = 0; x < stitch.width; x++, indexS++, indexR++, indexA++, indexCover++) {
+				if( alpha.data[indexA] == 0 ) {
+					rendered.data[indexR] = stitch.data[indexS];
+				} else if( coverage.data[indexCover] == 0 ) {
+					stitch.data[indexS] = rendered.data[indexR];
+				}
+			}
+		}
+
+		multiBand.get(band).blend(rendered, stitch, alpha, stitch);
+	}
+
+	private void declareWork( int numBands , int width , int height ) {
+		while( patchStitch.size() < numBands ) {
+			patchStitch.add(new GrayF32(1,1));
+			patchNew.add(new GrayF32(1,1));
+			multiBand.add(new BlendMultiBand_F32(numLevels));
+		}
+		for (int band = 0; band < numBands; band++) {
+			patchStitch.get(band).reshape(width, height);
+			patchNew.get(band).reshape(width, height);
+			// bands are already processed concurrently
+			multiBand.get(band).setConcurrent(concurrent && numBands == 1);
+		}
+	}
+
+	private void rows( int row0 , int row1 , IntRangeConsumer consumer ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(row0, row1, consumer);
+		} else {
+			consumer.accept(row0, row1);
+		}
+	}
+
+	private static ImageGray band( ImageBase image , int band ) {
+		if( image instanceof ImageGray )
+			return (ImageGray)image;
+		else if( image instanceof Planar )
+			return ((Planar)image).getBand(band);
+		else
+			throw new IllegalArgumentException("Only gray and planar images are supported");
+	}
+
+	/**
+	 * Returns 1 for pixels in the stitched image which have been rendered and 0 for ones which have not
+	 */
+	public GrayU8 getCoverage() {
+		return coverage;
+	}
+
+	public Blend getBlend() {
+		return blend;
+	}
+
+	public float getFeatherRadius() {
+		return featherRadius;
+	}
+
+	/**
+	 * Distance from the new image's border, in pixels, at which it has a weight of one.
+	 */
+	public void setFeatherRadius(float featherRadius) {
+		this.featherRadius = featherRadius;
+	}
+
+	/**
+	 * If true then rows and bands will be processed using multiple threads
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
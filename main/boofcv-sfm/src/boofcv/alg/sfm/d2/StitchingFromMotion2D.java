@@ -43,6 +43,9 @@ import georegression.struct.shapes.RectangleLength2D_I32;
  * jump larger than the user specified threshold is detected then {@link #process(boofcv.struct.image.ImageBase)}
  * will return false.
  *
+ * By default each new image overwrites the stitched image.  A {@link StitchingCompositor} can be specified to blend
+ * the new image in instead, see {@link #setCompositor(StitchingCompositor)}.
+ *
  * @author Peter Abeles
  */
 
@@ -86,6 +89,9 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 	// first time that it has been called
 	private boolean first = true;
 
+	// (Optional) blends new images into the stitched image.  If null they are overwritten.
+	private StitchingCompositor<I> compositor;
+
 	/**
 	 * Provides internal algorithms and tuning parameters.
 	 *
@@ -135,6 +141,8 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 		if( stitchedImage == null ) {
 			stitchedImage = (I)image.createNew(widthStitch, heightStitch);
 			workImage = (I)image.createNew(widthStitch, heightStitch);
+			if( compositor != null )
+				compositor.initialize(widthStitch, heightStitch);
 		}
 
 		if( motion.process(image) ) {
@@ -151,8 +159,11 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 	 * Throws away current results and starts over again
 	 */
 	public void reset() {
-		if( stitchedImage != null )
+		if( stitchedImage != null ) {
 			GImageMiscOps.fill(stitchedImage, 0);
+			if( compositor != null )
+				compositor.initialize(stitchedImage.width, stitchedImage.height);
+		}
 		motion.reset();
 		worldToCurr.reset();
 		first = true;
@@ -208,7 +219,13 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 		int y1 = box.y0 + box.height;
 
 		distorter.setModel(tranWorldToCurr);
-		distorter.apply(image, stitchedImage,x0,y0,x1,y1);
+		if( compositor == null ) {
+			distorter.apply(image, stitchedImage,x0,y0,x1,y1);
+		} else {
+			distorter.apply(image, workImage,x0,y0,x1,y1);
+			compositor.composite(workImage, stitchedImage, tranWorldToCurr,
+					image.width, image.height, x0, y0, x1, y1);
+		}
 	}
 
 	private void computeCurrToInit_PixelTran() {
@@ -244,6 +261,9 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 		workImage = stitchedImage;
 		stitchedImage = s;
 
+		if( compositor != null )
+			compositor.transform(newToOld, stitchedImage.width, stitchedImage.height);
+
 		// have motion estimates be relative to this frame
 		motion.setToFirst();
 		first = true;
@@ -268,6 +288,8 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 			PixelTransform2_F32 newToOld = converter.convertPixel(newToOldStitch,null);
 			distorter.setModel(newToOld);
 			distorter.apply(stitchedImage, workImage);
+			if( compositor != null )
+				compositor.transform(newToOld, widthStitch, heightStitch);
 
 			// update the transforms
 			IT tmp = (IT)worldToCurr.createInstance();
@@ -279,6 +301,8 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 			int overlapWidth = Math.min(widthStitch,stitchedImage.width);
 			int overlapHeight = Math.min(heightStitch,stitchedImage.height);
 			GImageMiscOps.copy(0,0,0,0,overlapWidth,overlapHeight,stitchedImage,workImage);
+			if( compositor != null )
+				compositor.resize(widthStitch, heightStitch);
 		}
 		stitchedImage.reshape(widthStitch,heightStitch);
 		I tmp = stitchedImage;
@@ -331,6 +355,22 @@ public class StitchingFromMotion2D<I extends ImageBase<I>, IT extends Invertible
 		return motion;
 	}
 
+	public StitchingCompositor<I> getCompositor() {
+		return compositor;
+	}
+
+	/**
+	 * Specifies how new images are blended into the stitched image.  Must be called before any images are processed
+	 * or after {@link #reset()}.
+	 *
+	 * @param compositor Blends images together.  If null then new images overwrite the stitched image.
+	 */
+	public void setCompositor(StitchingCompositor<I> compositor) {
+		this.compositor = compositor;
+		if( compositor != null && stitchedImage != null )
+			compositor.initialize(stitchedImage.width, stitchedImage.height);
+	}
+
 	public static class Corners {
 		public Point2D_F64 p0 = new Point2D_F64();
 		public Point2D_F64 p1 = new Point2D_F64();
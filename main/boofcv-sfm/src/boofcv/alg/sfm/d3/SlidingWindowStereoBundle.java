@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.alg.geo.bundle.CalibPoseAndPointSchurLM;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Local bundle adjustment for stereo visual odometry.  The poses of the most recent key frames and the location of
+ * every point they observe are refined together using {@link CalibPoseAndPointSchurLM}, which takes advantage of
+ * the problem's sparse structure.  Observations from the left and right cameras are both used, which allows
+ * the scale to be estimated.
+ * </p>
+ *
+ * <p>
+ * <b>Window:</b> At most maxKeyFrames key frames are kept.  When a new key frame pushes the window past that limit
+ * the oldest key frame is removed along with its observations, and points which are no longer observed by any
+ * key frame are removed too.  The pose of the oldest remaining key frame is held fixed, which removes the
+ * gauge freedom.  Information from removed key frames is discarded instead of being converted into a prior.
+ * Memory is bounded by the window size and the number of tracks, and storage is recycled.
+ * </p>
+ *
+ * <p>
+ * <b>Time Budget:</b> Optimization stops after maxIterations or when the time budget has been exceeded, whichever
+ * comes first.  Time is only checked between iterations.
+ * </p>
+ *
+ * Usage:
+ * <ol>
+ * <li>Call {@link #addKeyFrame}</li>
+ * <li>Call {@link #addObservation} for each feature observed in the key frame</li>
+ * <li>Call {@link #optimize}</li>
+ * <li>Read the refined pose and point locations</li>
+ * </ol>
+ *
+ * @author Peter Abeles
+ */
+public class SlidingWindowStereoBundle {
+
+	// maximum number of key frames in the window
+	private int maxKeyFrames;
+	// maximum number of optimization iterations
+	private int maxIterations;
+	// maximum amount of time optimization can take in milliseconds
+	private double maxTime;
+
+	// convergence tolerance
+	private double ftol = 1e-12;
+	private double gtol = 1e-12;
+
+	// key frames in the window, from oldest to newest
+	private List<KeyFrame> keyFrames = new ArrayList<>();
+	// points observed by key frames in the window
+	private List<WindowPoint> points = new ArrayList<>();
+	private Map<Long,WindowPoint> featureToPoint = new HashMap<>();
+
+	// recycled data
+	private ArrayDeque<KeyFrame> unusedFrames = new ArrayDeque<>();
+	private ArrayDeque<WindowPoint> unusedPoints = new ArrayDeque<>();
+
+	// the optimization problem
+	private CalibPoseAndPointSchurLM sba = new CalibPoseAndPointSchurLM();
+	private CalibratedPoseAndPoint model = new CalibratedPoseAndPoint();
+	private List<ViewPointObservations> observations = new ArrayList<>();
+	private List<ViewPointObservations> viewWork = new ArrayList<>();
+
+	// transform from the left to the right camera
+	private List<Se3_F64> leftToRight = new ArrayList<>();
+
+	// time to run the most recent optimization, in milliseconds
+	private double timeOptimize;
+	// true if the most recent optimization converged
+	private boolean converged;
+
+	/**
+	 * Configures the window and stopping conditions
+	 *
+	 * @param maxKeyFrames Maximum number of key frames in the window. Must be &ge; 2.
+	 * @param maxIterations Maximum number of iterations the optimization will run for.
+	 * @param maxTime Time budget for each optimization in milliseconds. If &le; 0 then there is no limit.
+	 */
+	public SlidingWindowStereoBundle(int maxKeyFrames, int maxIterations, double maxTime) {
+		if( maxKeyFrames < 2 )
+			throw new IllegalArgumentException("The window must contain at least two key frames");
+		this.maxKeyFrames = maxKeyFrames;
+		this.maxIterations = maxIterations;
+		this.maxTime = maxTime;
+		leftToRight.add(new Se3_F64());
+	}
+
+	/**
+	 * Specifies the stereo baseline
+	 *
+	 * @param leftToRight Transform from the left camera to the right camera
+	 */
+	public void setCalibration( Se3_F64 leftToRight ) {
+		this.leftToRight.get(0).set(leftToRight);
+	}
+
+	/**
+	 * Removes all key frames and points
+	 */
+	public void reset() {
+		while( !keyFrames.isEmpty() ) {
+			unusedFrames.add(keyFrames.remove(keyFrames.size()-1));
+		}
+		for (int i = 0; i < points.size(); i++) {
+			unusedPoints.add(points.get(i));
+		}
+		points.clear();
+		featureToPoint.clear();
+	}
+
+	/**
+	 * Adds a new key frame to the window.  If the window is full then the oldest key frame is removed.
+	 *
+	 * @param leftToWorld Initial estimate of the left camera's pose.
+	 */
+	public void addKeyFrame( Se3_F64 leftToWorld ) {
+		if( keyFrames.size() == maxKeyFrames ) {
+			removeOldestKeyFrame();
+		}
+
+		KeyFrame frame = unusedFrames.isEmpty() ? new KeyFrame() : unusedFrames.remove();
+		frame.leftToWorld.set(leftToWorld);
+		frame.observations.reset();
+		keyFrames.add(frame);
+	}
+
+	/**
+	 * Adds an observation of a feature to the most recently added key frame.
+	 *
+	 * @param featureId Unique ID of the feature
+	 * @param leftObs Observation in the left camera.  Normalized image coordinates.
+	 * @param rightObs Observation in the right camera.  Normalized image coordinates.
+	 * @param worldLocation Estimated location of the feature in the world frame.  Only used if the feature
+	 *                      isn't already in the window.
+	 */
+	public void addObservation( long featureId , Point2D_F64 leftObs , Point2D_F64 rightObs ,
+								Point3D_F64 worldLocation ) {
+		if( keyFrames.isEmpty() )
+			throw new IllegalArgumentException("Add a key frame first");
+
+		WindowPoint p = featureToPoint.get(featureId);
+		if( p == null ) {
+			p = unusedPoints.isEmpty() ? new WindowPoint() : unusedPoints.remove();
+			p.featureId = featureId;
+			p.world.set(worldLocation);
+			p.totalObservations = 0;
+			featureToPoint.put(featureId,p);
+			points.add(p);
+		}
+		p.totalObservations++;
+
+		Observation o = keyFrames.get(keyFrames.size()-1).observations.grow();
+		o.point = p;
+		o.left.set(leftObs);
+		o.right.set(rightObs);
+	}
+
+	/**
+	 * Refines all the key frames in the window, except for the oldest, and all points.
+	 *
+	 * @return true if the window was optimized.  false if there is nothing to optimize or it failed.  The
+	 * window is updated even if the iteration or time limit was reached first, see {@link #isConverged()}.
+	 */
+	public boolean optimize() {
+		long time0 = System.nanoTime();
+		timeOptimize = 0;
+		converged = false;
+		if( keyFrames.size() < 2 || points.isEmpty() )
+			return false;
+
+		int numViews = keyFrames.size();
+		int numPoints = points.size();
+		model.configure(numViews,numPoints);
+
+		for (int i = 0; i < numPoints; i++) {
+			WindowPoint p = points.get(i);
+			p.index = i;
+			model.getPoint(i).set(p.world);
+		}
+
+		while( viewWork.size() < numViews )
+			viewWork.add( new ViewPointObservations());
+		observations.clear();
+
+		for (int view = 0; view < numViews; view++) {
+			KeyFrame frame = keyFrames.get(view);
+			frame.leftToWorld.invert(model.getWorldToCamera(view));
+			model.setViewKnown(view, view == 0);
+
+			ViewPointObservations v = viewWork.get(view);
+			v.getPoints().reset();
+			for (int i = 0; i < frame.observations.size; i++) {
+				Observation o = frame.observations.get(i);
+				v.getPoints().grow().set(o.point.index,0,o.left);
+				v.getPoints().grow().set(o.point.index,1,o.right);
+			}
+			observations.add(v);
+		}
+
+		sba.setViewToCamera(leftToRight);
+		sba.configure(model,observations);
+
+		// whatever time is left after setting up the problem goes to the optimization
+		if( maxTime > 0 ) {
+			double remaining = maxTime - (System.nanoTime()-time0)*1e-6;
+			sba.setMaxTime(Math.max(remaining,1e-6));
+		} else {
+			sba.setMaxTime(0);
+		}
+
+		converged = sba.process(maxIterations,ftol,gtol);
+
+		// If it didn't converge the model still contains the best estimate found, unless it failed to start
+		double fx = sba.getFunctionValue();
+		boolean success = !Double.isNaN(fx) && !Double.isInfinite(fx);
+		if( success ) {
+			for (int view = 1; view < numViews; view++) {
+				model.getWorldToCamera(view).invert(keyFrames.get(view).leftToWorld);
+			}
+			for (int i = 0; i < numPoints; i++) {
+				points.get(i).world.set(model.getPoint(i));
+			}
+		}
+
+		timeOptimize = (System.nanoTime()-time0)*1e-6;
+		return success;
+	}
+
+	/**
+	 * Removes the oldest key frame and all the points which are only observed by it
+	 */
+	private void removeOldestKeyFrame() {
+		KeyFrame oldest = keyFrames.remove(0);
+		unusedFrames.add(oldest);
+
+		boolean orphans = false;
+		for (int i = 0; i < oldest.observations.size; i++) {
+			WindowPoint p = oldest.observations.get(i).point;
+			if( --p.totalObservations == 0 )
+				orphans = true;
+		}
+		if( !orphans )
+			return;
+
+		int dst = 0;
+		for (int i = 0; i < points.size(); i++) {
+			WindowPoint p = points.get(i);
+			if( p.totalObservations == 0 ) {
+				featureToPoint.remove(p.featureId);
+				unusedPoints.add(p);
+			} else {
+				points.set(dst++,p);
+			}
+		}
+		while( points.size() > dst )
+			points.remove(points.size()-1);
+	}
+
+	/**
+	 * Returns the location of a feature in the world frame
+	 *
+	 * @param featureId Unique ID of the feature
+	 * @return Its location or null if the feature isn't observed by any key frame in the window
+	 */
+	public Point3D_F64 lookupPoint( long featureId ) {
+		WindowPoint p = featureToPoint.get(featureId);
+		return p == null ? null : p.world;
+	}
+
+	/**
+	 * Returns the pose of a key frame's left camera
+	 *
+	 * @param index Index of the key frame. 0 is the oldest.
+	 */
+	public Se3_F64 getKeyFrameToWorld( int index ) {
+		return keyFrames.get(index).leftToWorld;
+	}
+
+	public int getTotalKeyFrames() {
+		return keyFrames.size();
+	}
+
+	public int getTotalPoints() {
+		return points.size();
+	}
+
+	public int getMaxKeyFrames() {
+		return maxKeyFrames;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public double getMaxTime() {
+		return maxTime;
+	}
+
+	public void setMaxTime(double maxTime) {
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * Time in milliseconds the most recent call to {@link #optimize} took
+	 */
+	public double getTimeOptimize() {
+		return timeOptimize;
+	}
+
+	/**
+	 * True if the most recent optimization converged.  False if it stopped because the iteration limit or
+	 * time budget was reached first, or if it failed.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * Number of iterations the most recent optimization ran for
+	 */
+	public int getIterations() {
+		return sba.getIterations();
+	}
+
+	/**
+	 * Sum of squared residuals, in normalized image coordinates, after the most recent optimization
+	 */
+	public double getFunctionValue() {
+		return sba.getFunctionValue();
+	}
+
+	/**
+	 * If true the optimization will use multiple threads
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		sba.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return sba.isConcurrent();
+	}
+
+	private static class KeyFrame {
+		Se3_F64 leftToWorld = new Se3_F64();
+		FastQueue<Observation> observations = new FastQueue<>(Observation.class,true);
+	}
+
+	private static class WindowPoint {
+		long featureId;
+		Point3D_F64 world = new Point3D_F64();
+		// number of key frames in the window which observe the point
+		int totalObservations;
+		// index in the optimization
+		int index;
+	}
+
+	public static class Observation {
+		WindowPoint point;
+		Point2D_F64 left = new Point2D_F64();
+		Point2D_F64 right = new Point2D_F64();
+	}
+}
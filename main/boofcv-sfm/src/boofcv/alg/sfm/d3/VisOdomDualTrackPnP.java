@@ -25,6 +25,8 @@ import boofcv.abst.feature.tracker.PointTracker;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
 import boofcv.alg.distort.LensDistortionOps;
 import boofcv.alg.feature.associate.StereoConsistencyCheck;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntConsumer;
 import boofcv.struct.calib.StereoParameters;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.feature.AssociatedIndex;
@@ -52,6 +54,15 @@ import java.util.List;
  *
  * Estimated motion is relative to left camera.
  *
+ * In concurrent mode, see {@link #setConcurrent}, the left and right trackers are updated at the same time and
+ * new tracks are spawned and described at the same time.  Both cameras are independent until their tracks are
+ * associated, so the results are identical to the sequential mode.  The time spent in each stage of the most
+ * recent update is recorded in milliseconds, e.g. {@link #getTimeTracking()}.
+ *
+ * Optionally, every time a key frame is created the most recent key frames can be refined using sliding window
+ * bundle adjustment, see {@link #setBundleAdjustment}.  The refined pose and 3D locations of the features are then
+ * used to estimate the motion of the following frames.
+ *
  * @author Peter Abeles
  */
 public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc> {
@@ -74,6 +85,23 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	private PointTracker<T> trackerLeft;
 	private PointTracker<T> trackerRight;
 	private DescribeRegionPoint<T,Desc> describe;
+	// Optional describer for the right camera.  Needed to describe both images at the same time
+	private DescribeRegionPoint<T,Desc> describeRight;
+
+	// if true the left and right cameras are processed at the same time
+	private boolean concurrent = false;
+	// tasks for processing the left (0) and right (1) cameras at the same time
+	private IntConsumer taskTrack, taskSpawn;
+	// if true then new tracks are described in the spawn task
+	private boolean describeInSpawn;
+
+	// wall clock time in milliseconds for each stage of the most recent call to process
+	private double timeTracking, timeConsistency, timeMotion, timeSpawn, timeAssociate, timeBundle;
+
+	// optional local bundle adjustment which is run on key frames
+	private SlidingWindowStereoBundle bundle;
+	private Se3_F64 worldToKey = new Se3_F64();
+	private Point3D_F64 worldP3 = new Point3D_F64();
 
 	// Data structures used when associating left and right cameras
 	private FastQueue<Point2D_F64> pointsLeft = new FastQueue<>(Point2D_F64.class, false);
@@ -105,6 +133,12 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	// transform from the current camera view to the world frame
 	private Se3_F64 currToWorld = new Se3_F64();
 
+	// storage which is recycled between frames to avoid creating new objects
+	private List<Stereo2D3D> data = new ArrayList<>();
+	private Se3_F64 keyToCurrWork = new Se3_F64();
+	private Se3_F64 found = new Se3_F64();
+	private Point3D_F64 cameraP3 = new Point3D_F64();
+
 	// number of frames that have been processed
 	private int tick;
 	// is this the first frame
@@ -149,6 +183,69 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		descRight = new DescriptorQueue();
 
 		stereoCheck = new StereoConsistencyCheck(epilolarTol,epilolarTol);
+
+		taskTrack = new IntConsumer() {
+			@Override
+			public void accept(int value) {
+				if( value == 0 )
+					VisOdomDualTrackPnP.this.trackerLeft.process(inputLeft);
+				else
+					VisOdomDualTrackPnP.this.trackerRight.process(inputRight);
+			}
+		};
+		taskSpawn = new IntConsumer() {
+			@Override
+			public void accept(int value) {
+				if( value == 0 )
+					VisOdomDualTrackPnP.this.trackerLeft.spawnTracks();
+				else
+					VisOdomDualTrackPnP.this.trackerRight.spawnTracks();
+				if( describeInSpawn )
+					describeNewTracks(value == 0);
+			}
+		};
+	}
+
+	/**
+	 * Specifies a second describer which is used for the right camera.  It must be configured the same as
+	 * the describer for the left camera.  This is only needed in concurrent mode, where it allows new tracks in
+	 * both images to be described at the same time.
+	 *
+	 * @param describeRight Describer for the right camera.  If null the left describer is used for both.
+	 */
+	public void setDescribeRight( DescribeRegionPoint<T,Desc> describeRight ) {
+		this.describeRight = describeRight;
+	}
+
+	/**
+	 * If true then the left and right trackers will be run in separate threads.  Only use this if the two
+	 * trackers don't share any data structures.
+	 *
+	 * @param concurrent true to process the two cameras at the same time
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Specifies the bundle adjustment which refines the most recent key frames.  Its window is reset.
+	 *
+	 * @param bundle Sliding window bundle adjustment.  If null then bundle adjustment is turned off.
+	 */
+	public void setBundleAdjustment( SlidingWindowStereoBundle bundle ) {
+		this.bundle = bundle;
+		if( bundle != null ) {
+			bundle.reset();
+			bundle.setCalibration(leftToRight);
+		}
+	}
+
+	public SlidingWindowStereoBundle getBundleAdjustment() {
+		return bundle;
 	}
 
 	public void setCalibration(StereoParameters param) {
@@ -157,6 +254,8 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		leftImageToNorm = LensDistortionOps.narrow(param.left).undistort_F64(true,false);
 		rightImageToNorm = LensDistortionOps.narrow(param.right).undistort_F64(true,false);
 		stereoCheck.setCalibration(param);
+		if( bundle != null )
+			bundle.setCalibration(leftToRight);
 	}
 
 	/**
@@ -167,6 +266,8 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		trackerRight.reset();
 		keyToWorld.reset();
 		currToKey.reset();
+		if( bundle != null )
+			bundle.reset();
 		first = true;
 		tick = 0;
 	}
@@ -185,29 +286,46 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		this.inputRight = right;
 
 		tick++;
-		trackerLeft.process(left);
-		trackerRight.process(right);
+		timeTracking = timeConsistency = timeMotion = timeSpawn = timeAssociate = timeBundle = 0;
+
+		long time0 = System.nanoTime();
+		if( concurrent ) {
+			BoofConcurrency.loopFor(0, 2, taskTrack);
+		} else {
+			trackerLeft.process(left);
+			trackerRight.process(right);
+		}
+		long time1 = System.nanoTime();
+		timeTracking = (time1-time0)*1e-6;
 
 		if( first ) {
 			addNewTracks();
+			updateBundle();
 			first = false;
 		} else {
 			mutualTrackDrop();
 			selectCandidateTracks();
+			long time2 = System.nanoTime();
+			timeConsistency = (time2-time1)*1e-6;
+
 			boolean failed = !estimateMotion();
 			dropUnusedTracks();
 
-			if( failed )
+			if( failed ) {
+				timeMotion = (System.nanoTime()-time2)*1e-6;
 				return false;
+			}
 
 			int N = matcher.getMatchSet().size();
 
 			if( modelRefiner != null )
 				refineMotionEstimate();
+			timeMotion = (System.nanoTime()-time2)*1e-6;
 
 			if( thresholdAdd <= 0 || N < thresholdAdd ) {
 				changePoseToReference();
 				addNewTracks();
+				updateBundle();
 			}
 		}
 		return true;
@@ -219,7 +337,7 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	private void refineMotionEstimate() {
 
 		// use observations from the inlier set
-		List<Stereo2D3D> data = new ArrayList<>();
+		data.clear();
 
 		int N = matcher.getMatchSet().size();
 		for( int i = 0; i < N; i++ ) {
@@ -238,8 +356,7 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		}
 
 		// refine the motion estimate using non-linear optimization
-		Se3_F64 keyToCurr = currToKey.invert(null);
-		Se3_F64 found = new Se3_F64();
+		Se3_F64 keyToCurr = currToKey.invert(keyToCurrWork);
 		if( modelRefiner.fitModel(data,keyToCurr,found) ) {
 			found.invert(currToKey);
 		}
@@ -251,9 +368,10 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	 */
 	private boolean estimateMotion() {
 		// organize the data
-		List<Stereo2D3D> data = new ArrayList<>();
+		data.clear();
 
-		for( PointTrack l : candidates ) {
+		for( int i = 0; i < candidates.size(); i++ ) {
+			PointTrack l = candidates.get(i);
 			LeftTrackInfo info = l.getCookie();
 			PointTrack r = info.right;
 
@@ -289,12 +407,14 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	 * If a track was dropped in one image make sure it was dropped in the other image
 	 */
 	private void mutualTrackDrop() {
-		for( PointTrack t : trackerLeft.getDroppedTracks(null) ) {
-			LeftTrackInfo info = t.getCookie();
+		int totalLeft = trackerLeft.getTotalDropped();
+		for( int i = 0; i < totalLeft; i++ ) {
+			LeftTrackInfo info = trackerLeft.getDropped(i).getCookie();
 			trackerRight.dropTrack(info.right);
 		}
-		for( PointTrack t : trackerRight.getDroppedTracks(null) ) {
-			RightTrackInfo info = t.getCookie();
+		int totalRight = trackerRight.getTotalDropped();
+		for( int i = 0; i < totalRight; i++ ) {
+			RightTrackInfo info = trackerRight.getDropped(i).getCookie();
 			// a track could be dropped twice here, such requests are ignored by the tracker
 			trackerLeft.dropTrack(info.left);
 		}
@@ -306,16 +426,17 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	 */
 	private void selectCandidateTracks() {
 		// mark tracks in right frame that are active
-		List<PointTrack> activeRight = trackerRight.getActiveTracks(null);
-		for( PointTrack t : activeRight ) {
-			RightTrackInfo info = t.getCookie();
+		int totalRight = trackerRight.getTotalActive();
+		for( int i = 0; i < totalRight; i++ ) {
+			RightTrackInfo info = trackerRight.getActive(i).getCookie();
 			info.lastActiveList = tick;
 		}
 
 		int mutualActive = 0;
-		List<PointTrack> activeLeft = trackerLeft.getActiveTracks(null);
+		int totalLeft = trackerLeft.getTotalActive();
 		candidates.clear();
-		for( PointTrack left : activeLeft ) {
+		for( int i = 0; i < totalLeft; i++ ) {
+			PointTrack left = trackerLeft.getActive(i);
 			LeftTrackInfo info = left.getCookie();
 
 //			if( info == null || info.right == null ) {
@@ -351,10 +472,11 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	 */
 	private int dropUnusedTracks() {
 
-		List<PointTrack> all = trackerLeft.getAllTracks(null);
 		int num = 0;
 
-		for( PointTrack t : all ) {
+		// go through the list backwards since dropping a track only changes the index of tracks after it
+		for( int i = trackerLeft.getTotalAll()-1; i >= 0; i-- ) {
+			PointTrack t = trackerLeft.getAll(i);
 			LeftTrackInfo info = t.getCookie();
 			if( tick - info.lastInlier > thresholdRetire ) {
 				if( !trackerLeft.dropTrack(t) )
@@ -374,31 +496,78 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 	 * this is not needed, but should help keep numbers from getting too large.
 	 */
 	private void changePoseToReference() {
-		Se3_F64 keyToCurr = currToKey.invert(null);
+		Se3_F64 keyToCurr = currToKey.invert(keyToCurrWork);
 
-		List<PointTrack> all = trackerLeft.getAllTracks(null);
-
-		for( PointTrack t : all ) {
-			LeftTrackInfo p = t.getCookie();
+		int totalAll = trackerLeft.getTotalAll();
+		for( int i = 0; i < totalAll; i++ ) {
+			LeftTrackInfo p = trackerLeft.getAll(i).getCookie();
 			SePointOps_F64.transform(keyToCurr, p.location.location, p.location.location);
 		}
 
 		concatMotion();
 	}
 
+	/**
+	 * Adds the current frame, which must be a key frame, to the bundle adjustment along with the tracks which
+	 * were inliers or just spawned.  After optimization the key frame's pose and the location of those
+	 * tracks are replaced with the refined estimates.
+	 */
+	private void updateBundle() {
+		if( bundle == null )
+			return;
+		long time0 = System.nanoTime();
+
+		bundle.addKeyFrame(keyToWorld);
+		int totalAll = trackerLeft.getTotalAll();
+		for( int i = 0; i < totalAll; i++ ) {
+			PointTrack t = trackerLeft.getAll(i);
+			LeftTrackInfo info = t.getCookie();
+			if( info.lastInlier != tick )
+				continue;
+			SePointOps_F64.transform(keyToWorld, info.location.location, worldP3);
+			bundle.addObservation(t.featureId, info.location.leftObs, info.location.rightObs, worldP3);
+		}
+
+		if( bundle.optimize() ) {
+			keyToWorld.set(bundle.getKeyFrameToWorld(bundle.getTotalKeyFrames()-1));
+			keyToWorld.invert(worldToKey);
+
+			for( int i = 0; i < totalAll; i++ ) {
+				PointTrack t = trackerLeft.getAll(i);
+				LeftTrackInfo info = t.getCookie();
+				if( info.lastInlier != tick )
+					continue;
+				Point3D_F64 p = bundle.lookupPoint(t.featureId);
+				if( p != null )
+					SePointOps_F64.transform(worldToKey, p, info.location.location);
+			}
+		}
+		timeBundle = (System.nanoTime()-time0)*1e-6;
+	}
+
 	/**
 	 * Spawns tracks in each image and associates features together.
 	 */
 	private void addNewTracks() {
-		trackerLeft.spawnTracks();
-		trackerRight.spawnTracks();
-
-		List<PointTrack> newLeft = trackerLeft.getNewTracks(null);
-		List<PointTrack> newRight = trackerRight.getNewTracks(null);
+		long time0 = System.nanoTime();
+		// spawn new tracks and describe them
+		if( concurrent ) {
+			// the describer can only be used by one thread at a time
+			describeInSpawn = describeRight != null;
+			BoofConcurrency.loopFor(0, 2, taskSpawn);
+			if( !describeInSpawn ) {
+				describeNewTracks(true);
+				describeNewTracks(false);
+			}
+		} else {
+			trackerLeft.spawnTracks();
+			trackerRight.spawnTracks();
 
-		// get a list of new tracks and their descriptions
-		addNewToList(inputLeft, newLeft, pointsLeft, descLeft);
-		addNewToList(inputRight,newRight,pointsRight,descRight);
+			addNewToList(inputLeft, trackerLeft, describe, pointsLeft, descLeft);
+			addNewToList(inputRight,trackerRight,describe,pointsRight,descRight);
+		}
+		long time1 = System.nanoTime();
+		timeSpawn = (time1-time0)*1e-6;
 
 		// associate using L2R
 		assocL2R.setSource(pointsLeft,descLeft);
@@ -406,14 +575,12 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		assocL2R.associate();
 		FastQueue<AssociatedIndex> matches = assocL2R.getMatches();
 
-		// storage for the triangulated location in the camera frame
-		Point3D_F64 cameraP3 = new Point3D_F64();
-
 		for( int i = 0; i < matches.size; i++ ) {
 			AssociatedIndex m = matches.get(i);
 
-			PointTrack trackL = newLeft.get(m.src);
-			PointTrack trackR = newRight.get(m.dst);
+			// dropping a track does not modify the list of new tracks, so indexes remain valid
+			PointTrack trackL = trackerLeft.getNew(m.src);
+			PointTrack trackR = trackerRight.getNew(m.dst);
 
 			// declare additional track information stored in each track.  Tracks can be recycled so it
 			// might not always need to be declared
@@ -452,15 +619,16 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		GrowQueue_I32 unassignedRight = assocL2R.getUnassociatedDestination();
 		for( int i = 0; i < unassignedRight.size; i++ ) {
 			int index = unassignedRight.get(i);
-//			System.out.println(" unassigned right "+newRight.get(index).x+" "+newRight.get(index).y);
-			trackerRight.dropTrack(newRight.get(index));
+			trackerRight.dropTrack(trackerRight.getNew(index));
 		}
 		GrowQueue_I32 unassignedLeft = assocL2R.getUnassociatedSource();
 		for( int i = 0; i < unassignedLeft.size; i++ ) {
 			int index = unassignedLeft.get(i);
-			trackerLeft.dropTrack(newLeft.get(index));
+			trackerLeft.dropTrack(trackerLeft.getNew(index));
 		}
 
+		timeAssociate = (System.nanoTime()-time1)*1e-6;
+
 //		System.out.println("Total left "+trackerLeft.getAllTracks(null).size()+"  right "+trackerRight.getAllTracks(null).size());
 
 //		System.out.println("Associated: "+matches.size+" new left "+newLeft.size()+" new right "+newRight.size());
@@ -479,15 +647,31 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 //		}
 	}
 
+	/**
+	 * Describes the new tracks in one of the cameras
+	 *
+	 * @param left true for the left camera and false for the right
+	 */
+	private void describeNewTracks( boolean left ) {
+		if( left ) {
+			addNewToList(inputLeft, trackerLeft, describe, pointsLeft, descLeft);
+		} else {
+			addNewToList(inputRight, trackerRight, describeRight == null ? describe : describeRight,
+					pointsRight, descRight);
+		}
+	}
+
 	private void addNewToList( T image,
-							   List<PointTrack> tracks ,
+							   PointTracker<T> tracker ,
+							   DescribeRegionPoint<T,Desc> describe ,
 							   FastQueue<Point2D_F64> points , FastQueue<Desc> descs )
 	{
 		describe.setImage(image);
 		points.reset(); descs.reset();
 
-		for( int i = 0; i < tracks.size(); i++ ) {
-			PointTrack t = tracks.get(i);
+		int totalNew = tracker.getTotalNew();
+		for( int i = 0; i < totalNew; i++ ) {
+			PointTrack t = tracker.getNew(i);
 			// ignoring the return value.  most descriptors never return false and the ones that due will rarely do so
 			describe.process(t.x,t.y,0,2,descs.grow());
 
@@ -531,6 +715,48 @@ public class VisOdomDualTrackPnP<T extends ImageBase<T>,Desc extends TupleDesc>
 		return matcher;
 	}
 
+	/**
+	 * Time in milliseconds to update the left and right trackers
+	 */
+	public double getTimeTracking() {
+		return timeTracking;
+	}
+
+	/**
+	 * Time in milliseconds to drop tracks lost in one camera and apply the stereo consistency check
+	 */
+	public double getTimeConsistency() {
+		return timeConsistency;
+	}
+
+	/**
+	 * Time in milliseconds to robustly estimate and refine the motion and drop unused tracks
+	 */
+	public double getTimeMotion() {
+		return timeMotion;
+	}
+
+	/**
+	 * Time in milliseconds to spawn new tracks and describe them
+	 */
+	public double getTimeSpawn() {
+		return timeSpawn;
+	}
+
+	/**
+	 * Time in milliseconds to associate new tracks between the left and right cameras and triangulate them
+	 */
+	public double getTimeAssociate() {
+		return timeAssociate;
+	}
+
+	/**
+	 * Time in milliseconds to run bundle adjustment.  Zero if the frame isn't a key frame.
+	 */
+	public double getTimeBundle() {
+		return timeBundle;
+	}
+
 	public static class LeftTrackInfo
 	{
 		public Stereo2D3D location = new Stereo2D3D();
@@ -129,6 +129,8 @@ public class VisOdomMonoPlaneInfinity<T extends ImageBase<T>> {
 
 	// local variable used in concating transforms
 	private Se2_F64 temp = new Se2_F64();
+	// storage for the inverse of currToKey
+	private Se2_F64 keyToCurrWork = new Se2_F64();
 
 	// angles of rotation computed from points far away
 	private GrowQueue_F64 farAngles = new GrowQueue_F64();
@@ -260,10 +262,11 @@ public class VisOdomMonoPlaneInfinity<T extends ImageBase<T>> {
 	 */
 	private void addNewTracks() {
 		tracker.spawnTracks();
-		List<PointTrack> spawned = tracker.getNewTracks(null);
 
 		// estimate 3D coordinate using stereo vision
-		for (PointTrack t : spawned) {
+		int totalNew = tracker.getTotalNew();
+		for (int i = 0; i < totalNew; i++) {
+			PointTrack t = tracker.getNew(i);
 //			System.out.println("track spawn "+t.x+" "+t.y);
 			VoTrack p = t.getCookie();
 			if (p == null) {
@@ -313,10 +316,11 @@ public class VisOdomMonoPlaneInfinity<T extends ImageBase<T>> {
 	 */
 	private int dropUnusedTracks() {
 
-		List<PointTrack> all = tracker.getAllTracks(null);
 		int num = 0;
 
-		for (PointTrack t : all) {
+		// go through the list backwards since dropping a track only changes the index of tracks after it
+		for (int i = tracker.getTotalAll() - 1; i >= 0; i--) {
+			PointTrack t = tracker.getAll(i);
 			VoTrack p = t.getCookie();
 			if (tick - p.lastInlier > thresholdRetire) {
 				tracker.dropTrack(t);
@@ -339,10 +343,10 @@ public class VisOdomMonoPlaneInfinity<T extends ImageBase<T>> {
 		tracksOnPlane.clear();
 		tracksFar.clear();
 
-		// list of active tracks
-		List<PointTrack> active = tracker.getActiveTracks(null);
-
-		for (PointTrack t : active) {
+		// go through the list of active tracks
+		int totalActive = tracker.getTotalActive();
+		for (int i = 0; i < totalActive; i++) {
+			PointTrack t = tracker.getActive(i);
 			VoTrack p = t.getCookie();
 
 			// compute normalized image coordinate
@@ -515,12 +519,11 @@ public class VisOdomMonoPlaneInfinity<T extends ImageBase<T>> {
 	 * this is not needed, but should help keep numbers from getting too large.
 	 */
 	private void changeCurrToReference() {
-		Se2_F64 keyToCurr = currToKey.invert(null);
-
-		List<PointTrack> all = tracker.getAllTracks(null);
+		Se2_F64 keyToCurr = currToKey.invert(keyToCurrWork);
 
-		for (PointTrack t : all) {
-			VoTrack p = t.getCookie();
+		int totalAll = tracker.getTotalAll();
+		for (int i = 0; i < totalAll; i++) {
+			VoTrack p = tracker.getAll(i).getCookie();
 
 			if (p.onPlane) {
 				SePointOps_F64.transform(keyToCurr, p.ground, p.ground);
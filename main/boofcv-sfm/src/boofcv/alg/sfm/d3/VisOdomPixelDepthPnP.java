@@ -91,12 +91,23 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 
 	// is this the first camera view being processed?
 	private boolean first = true;
+
+	// wall clock time in milliseconds for each stage of the most recent call to process
+	private double timeTracking, timeMotion, timeSpawn;
 	// number of frames processed.
 	private long tick;
 
 	// used when concating motion
 	private Se3_F64 temp = new Se3_F64();
 
+	// storage which is recycled between frames to avoid creating new objects
+	private List<PointTrack> active = new ArrayList<>();
+	private List<Point2D3D> obs = new ArrayList<>();
+	private Se3_F64 keyToCurrWork = new Se3_F64();
+	private Se3_F64 refined = new Se3_F64();
+	private Point3D_F64 cameraPt = new Point3D_F64();
+	private Point2D_F64 predicted = new Point2D_F64();
+
 	/**
 	 * Configures magic numbers and estimation algorithms.
 	 *
@@ -152,7 +163,12 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 	 * @return true if successful or false if it failed
 	 */
 	public boolean process( T image ) {
+		timeTracking = timeMotion = timeSpawn = 0;
+
+		long time0 = System.nanoTime();
 		tracker.process(image);
+		long time1 = System.nanoTime();
+		timeTracking = (time1-time0)*1e-6;
 
 		tick++;
 		inlierTracks.clear();
@@ -160,8 +176,12 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 		if( first ) {
 			addNewTracks();
 			first = false;
+			timeSpawn = (System.nanoTime()-time1)*1e-6;
 		} else {
-			if( !estimateMotion() ) {
+			boolean success = estimateMotion();
+			long time2 = System.nanoTime();
+			timeMotion = (time2-time1)*1e-6;
+			if( !success ) {
 				return false;
 			}
 
@@ -172,6 +192,7 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 				changePoseToReference();
 				addNewTracks();
 			}
+			timeSpawn = (System.nanoTime()-time2)*1e-6;
 
 //			System.out.println("  num inliers = "+N+"  num dropped "+numDropped+" total active "+tracker.getActivePairs().size());
 		}
@@ -185,12 +206,11 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 	 * this is not needed, but should help keep numbers from getting too large.
 	 */
 	private void changePoseToReference() {
-		Se3_F64 keyToCurr = currToKey.invert(null);
+		Se3_F64 keyToCurr = currToKey.invert(keyToCurrWork);
 
-		List<PointTrack> all = tracker.getAllTracks(null);
-
-		for( PointTrack t : all ) {
-			Point2D3DTrack p = t.getCookie();
+		int totalAll = tracker.getTotalAll();
+		for( int i = 0; i < totalAll; i++ ) {
+			Point2D3DTrack p = tracker.getAll(i).getCookie();
 			SePointOps_F64.transform(keyToCurr,p.location,p.location);
 		}
 
@@ -204,10 +224,11 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 	 */
 	private int dropUnusedTracks() {
 
-		List<PointTrack> all = tracker.getAllTracks(null);
 		int num = 0;
 
-		for( PointTrack t : all ) {
+		// go through the list backwards since dropping a track only changes the index of tracks after it
+		for( int i = tracker.getTotalAll()-1; i >= 0; i-- ) {
+			PointTrack t = tracker.getAll(i);
 			Point2D3DTrack p = t.getCookie();
 			if( tick - p.lastInlier > thresholdRetire ) {
 				tracker.dropTrack(t);
@@ -225,10 +246,11 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 //		System.out.println("----------- Adding new tracks ---------------");
 
 		tracker.spawnTracks();
-		List<PointTrack> spawned = tracker.getNewTracks(null);
 
 		// estimate 3D coordinate using stereo vision
-		for( PointTrack t : spawned ) {
+		int totalNew = tracker.getTotalNew();
+		for( int i = 0; i < totalNew; i++ ) {
+			PointTrack t = tracker.getNew(i);
 			Point2D3DTrack p = t.getCookie();
 			if( p == null) {
 				t.cookie = p = new Point2D3DTrack();
@@ -259,10 +281,13 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 	 * @return true if successful.
 	 */
 	private boolean estimateMotion() {
-		List<PointTrack> active = tracker.getActiveTracks(null);
-		List<Point2D3D> obs = new ArrayList<>();
+		// The list of active tracks is saved since finishTracking() can modify the tracker's list
+		active.clear();
+		tracker.getActiveTracks(active);
+		obs.clear();
 
-		for( PointTrack t : active ) {
+		for( int i = 0; i < active.size(); i++ ) {
+			PointTrack t = active.get(i);
 			Point2D3D p = t.getCookie();
 			pixelToNorm.compute( t.x , t.y , p.observation );
 			obs.add( p );
@@ -273,7 +298,7 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 			return false;
 
 		if( doublePass ) {
-			if (!performSecondPass(active, obs))
+			if (!performSecondPass())
 				return false;
 		}
 		tracker.finishTracking();
@@ -281,7 +306,7 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 		Se3_F64 keyToCurr;
 
 		if( refine != null ) {
-			keyToCurr = new Se3_F64();
+			keyToCurr = refined;
 			refine.fitModel(motionEstimator.getMatchSet(), motionEstimator.getModelParameters(), keyToCurr);
 		} else {
 			keyToCurr = motionEstimator.getModelParameters();
@@ -301,15 +326,13 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 		return true;
 	}
 
-	private boolean performSecondPass(List<PointTrack> active, List<Point2D3D> obs) {
+	private boolean performSecondPass() {
 		Se3_F64 keyToCurr = motionEstimator.getModelParameters();
 
-		Point3D_F64 cameraPt = new Point3D_F64();
-		Point2D_F64 predicted = new Point2D_F64();
-
 		// predict where each track should be given the just estimated motion
-		List<PointTrack> all = tracker.getAllTracks(null);
-		for( PointTrack t : all ) {
+		int totalAll = tracker.getTotalAll();
+		for( int i = 0; i < totalAll; i++ ) {
+			PointTrack t = tracker.getAll(i);
 			Point2D3D p = t.getCookie();
 
 			SePointOps_F64.transform(keyToCurr, p.location, cameraPt);
@@ -324,7 +347,8 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 		obs.clear();
 		tracker.getActiveTracks(active);
 
-		for( PointTrack t : active ) {
+		for( int i = 0; i < active.size(); i++ ) {
+			PointTrack t = active.get(i);
 			Point2D3D p = t.getCookie();
 			pixelToNorm.compute( t.x , t.y , p.observation );
 			obs.add( p );
@@ -344,6 +368,27 @@ public class VisOdomPixelDepthPnP<T extends ImageBase<T>> {
 		return currToWorld;
 	}
 
+	/**
+	 * Time in milliseconds to update the tracker
+	 */
+	public double getTimeTracking() {
+		return timeTracking;
+	}
+
+	/**
+	 * Time in milliseconds to estimate and refine the motion
+	 */
+	public double getTimeMotion() {
+		return timeMotion;
+	}
+
+	/**
+	 * Time in milliseconds to drop unused tracks and spawn new ones
+	 */
+	public double getTimeSpawn() {
+		return timeSpawn;
+	}
+
 	public PointTracker<T> getTracker() {
 		return tracker;
 	}
@@ -102,6 +102,9 @@ public class VisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc> {
 	// is this the first frame
 	private boolean first = true;
 
+	// wall clock time in milliseconds for each stage of the most recent call to process
+	private double timeL2R, timeF2F, timeConsistency, timeMotion;
+
 	// used to indicate which image features are being used
 	private boolean usedLeft[] = new boolean[ 1 ];
 	private boolean usedRight[] = new boolean[ 1];
@@ -172,23 +175,30 @@ public class VisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc> {
 	 */
 	public boolean process( T left , T right ) {
 
+		timeL2R = timeF2F = timeConsistency = timeMotion = 0;
+
+		long time0 = System.nanoTime();
 		if( first ) {
 			associateL2R(left, right);
 			first = false;
+			timeL2R = (System.nanoTime()-time0)*1e-6;
 		} else {
-//			long time0 = System.currentTimeMillis();
 			associateL2R(left, right);
-//			long time1 = System.currentTimeMillis();
+			long time1 = System.nanoTime();
 			associateF2F();
-//			long time2 = System.currentTimeMillis();
+			long time2 = System.nanoTime();
 			cyclicConsistency();
-//			long time3 = System.currentTimeMillis();
-			if( !estimateMotion() )
-				return false;
-//			long time4 = System.currentTimeMillis();
+			long time3 = System.nanoTime();
+			boolean success = estimateMotion();
+			long time4 = System.nanoTime();
 
-//			System.out.println("timing: "+(time1-time0)+" "+(time2-time1)+" "+(time3-time2)+" "+(time4-time3));
+			timeL2R = (time1-time0)*1e-6;
+			timeF2F = (time2-time1)*1e-6;
+			timeConsistency = (time3-time2)*1e-6;
+			timeMotion = (time4-time3)*1e-6;
 
+			if( !success )
+				return false;
 		}
 
 		return true;
@@ -455,6 +465,34 @@ public class VisOdomQuadPnP<T extends ImageGray<T>,TD extends TupleDesc> {
 		return String.format("%5e %5e %5e",euler[0],euler[1],euler[2]);
 	}
 
+	/**
+	 * Time in milliseconds to detect and describe features, then associate them between the left and right cameras
+	 */
+	public double getTimeL2R() {
+		return timeL2R;
+	}
+
+	/**
+	 * Time in milliseconds to associate features between the previous and current frames
+	 */
+	public double getTimeF2F() {
+		return timeF2F;
+	}
+
+	/**
+	 * Time in milliseconds to apply the cyclic consistency check
+	 */
+	public double getTimeConsistency() {
+		return timeConsistency;
+	}
+
+	/**
+	 * Time in milliseconds to estimate and refine the motion
+	 */
+	public double getTimeMotion() {
+		return timeMotion;
+	}
+
 	public ModelMatcher<Se3_F64, Stereo2D3D> getMatcher() {
 		return matcher;
 	}
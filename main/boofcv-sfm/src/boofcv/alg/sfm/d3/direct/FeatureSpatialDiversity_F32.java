@@ -18,14 +18,27 @@
 
 package boofcv.alg.sfm.d3.direct;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import georegression.struct.point.Point2D_F32;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
 import org.ejml.data.FMatrix2x2;
 import org.ejml.dense.fixed.CommonOps_FDF2;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Checks to see if the features being tracked form
  *
+ * <p>
+ * Points can be added one at a time using {@link #addPoint} or, so that they can be filled in by multiple threads,
+ * by first specifying an index for each point with {@link #addIndex} and then setting its value with
+ * {@link #setPoint}.  In concurrent mode the mean and covariance are computed by summing blocks of points
+ * in parallel.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class FeatureSpatialDiversity_F32 {
@@ -40,8 +53,84 @@ public class FeatureSpatialDiversity_F32 {
 	// Approximate number of radians the points are spread out over  along the smallest axis
 	double spread;
 
+	// user specified index for each point
+	GrowQueue_I32 indexes = new GrowQueue_I32();
+
+	boolean concurrent = false;
+	List<double[]> blockSums = new ArrayList<>();
+	IntRangeObjectConsumer<double[]> taskMean, taskVariance;
+
+	public FeatureSpatialDiversity_F32() {
+		taskMean = new IntRangeObjectConsumer<double[]>() {
+			@Override
+			public void accept(double[] sums, int minInclusive, int maxExclusive) {
+				sums[0] = sums[1] = 0;
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					Point2D_F32 p = norm.data[i];
+					sums[0] += p.x;
+					sums[1] += p.y;
+				}
+			}
+		};
+		taskVariance = new IntRangeObjectConsumer<double[]>() {
+			@Override
+			public void accept(double[] sums, int minInclusive, int maxExclusive) {
+				sums[0] = sums[1] = sums[2] = 0;
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					Point2D_F32 p = norm.data[i];
+					float dx = p.x-meanX;
+					float dy = p.y-meanY;
+					sums[0] += dx*dx;
+					sums[1] += dx*dy;
+					sums[2] += dy*dy;
+				}
+			}
+		};
+	}
+
 	public void reset() {
 		norm.reset();
+		indexes.reset();
+	}
+
+	/**
+	 * Adds a point whose value will be specified later using {@link #setPoint}.
+	 *
+	 * @param index User specified index which is associated with the point.
+	 */
+	public void addIndex( int index ) {
+		indexes.add(index);
+		norm.grow();
+	}
+
+	/**
+	 * Returns the user specified index of a point added using {@link #addIndex}
+	 */
+	public int getIndex( int which ) {
+		return indexes.get(which);
+	}
+
+	/**
+	 * Sets the estimated 3D location of a point previously added with {@link #addIndex}.  Points can be set
+	 * by different threads at the same time.
+	 */
+	public void setPoint( int which , float x , float y , float z ) {
+		norm.data[which].set(x/z, y/z);
+	}
+
+	public int getTotalPoints() {
+		return norm.size;
+	}
+
+	/**
+	 * If true then multiple threads are used to compute the covariance.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	/**
@@ -72,6 +161,10 @@ public class FeatureSpatialDiversity_F32 {
 	}
 
 	private void computeCovarince() {
+		if( concurrent ) {
+			computeCovarinceConcurrent();
+			return;
+		}
 		meanX=0;
 		meanY=0;
 
@@ -102,6 +195,44 @@ public class FeatureSpatialDiversity_F32 {
 //		System.out.printf("  covar  %5.2f %5.2f %5.4f\n",var.a11,var.a22, var.a12);
 	}
 
+	/**
+	 * Mean and covariance are computed for blocks of points in parallel then the blocks are added together in order
+	 */
+	private void computeCovarinceConcurrent() {
+		int numThreads = BoofConcurrency.getMaxThreads();
+		while( blockSums.size() < numThreads )
+			blockSums.add( new double[3] );
+		while( blockSums.size() > numThreads )
+			blockSums.remove( blockSums.size()-1 );
+		for (int i = 0; i < blockSums.size(); i++) {
+			double[] sums = blockSums.get(i);
+			sums[0] = sums[1] = sums[2] = 0;
+		}
+
+		BoofConcurrency.loopBlocks(0, norm.size, blockSums, taskMean);
+		double sumX = 0, sumY = 0;
+		for (int i = 0; i < blockSums.size(); i++) {
+			sumX += blockSums.get(i)[0];
+			sumY += blockSums.get(i)[1];
+		}
+		meanX = (float)(sumX/norm.size);
+		meanY = (float)(sumY/norm.size);
+
+		BoofConcurrency.loopBlocks(0, norm.size, blockSums, taskVariance);
+		double a11 = 0, a12 = 0, a22 = 0;
+		for (int i = 0; i < blockSums.size(); i++) {
+			double[] sums = blockSums.get(i);
+			a11 += sums[0];
+			a12 += sums[1];
+			a22 += sums[2];
+		}
+		var.a11 = (float)a11;
+		var.a12 = (float)a12;
+		var.a22 = (float)a22;
+
+		CommonOps_FDF2.divide(var, norm.size-1);
+	}
+
 	/**
 	 * Number of radians in view that the smallest features lie along
 	 */
@@ -192,6 +192,20 @@ public class PyramidDirectColorDepth<T extends ImageGray<T>> {
 		worldToCurrent.reset();
 	}
 
+	/**
+	 * If true then each layer will estimate motion using multiple threads.  See
+	 * {@link VisOdomDirectColorDepth#setConcurrent(boolean)}
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		for (int i = 0; i < layersOdom.length; i++) {
+			layersOdom[i].setConcurrent(concurrent);
+		}
+	}
+
+	public boolean isConcurrent() {
+		return layersOdom[0].isConcurrent();
+	}
+
 	public void setDiversityThreshold(double diversityThreshold) {
 		this.diversityThreshold = diversityThreshold;
 	}
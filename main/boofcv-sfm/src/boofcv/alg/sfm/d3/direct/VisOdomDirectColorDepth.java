@@ -24,6 +24,9 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.derivative.DerivativeType;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.interpolate.InterpolationType;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.core.image.border.BorderType;
@@ -43,9 +46,19 @@ import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
 import org.ejml.interfaces.linsol.LinearSolver;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * TODO Fill in
  *
+ * <p>
+ * In concurrent mode, see {@link #setConcurrent}, the gradient of each band is computed in its own thread and
+ * the key frame pixels are split into blocks which are processed in parallel.  Instead of building the full
+ * linear system and solving it with QR, each block accumulates its own 6x6 normal equations which are then added
+ * together, in order, and solved using Cholesky.  The solution is the same up to numerical precision.
+ * </p>
+ *
  * @author Peter Abeles
  */
 // TODO Handle pathological situations that will basically never happen in real life
@@ -64,10 +77,6 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 
 	private ImageGradient<Planar<I>,Planar<D>> computeD;
 
-	private InterpolatePixelS<I> interpI;
-	private InterpolatePixelS<D> interpDX;
-	private InterpolatePixelS<D> interpDY;
-
 	private GImageMultiBand wrapI;
 
 	// gradient of the current frame
@@ -105,6 +114,31 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 	// used to compute spatial diveresity of tracked features
 	FeatureSpatialDiversity_F32 diversity = new FeatureSpatialDiversity_F32();
 
+	//------------------ Concurrent specific data structures
+	private boolean concurrent = false;
+	// computes the gradient of a single band
+	private ImageGradient<I,D> bandGradient[];
+	private Planar<I> gradientInput;
+	private IntConsumer taskGradient;
+	// storage for each block of pixels
+	private List<BlockWork> blocks = new ArrayList<>();
+	// storage used when the entire linear system is computed by a single thread
+	private BlockWork serialWork;
+	private IntRangeObjectConsumer<BlockWork> taskLinear;
+	private IntRangeObjectConsumer<BlockWork> taskDiversity;
+	// normal equations and the solver for them
+	private DMatrixRMaj AA = new DMatrixRMaj(6,6);
+	private DMatrixRMaj Ay = new DMatrixRMaj(6,1);
+	private LinearSolver<DMatrixRMaj> solverNormal = LinearSolverFactory_DDRM.chol(6);
+	// parameters used to create interpolation for each block
+	private double inputMin, inputMax, derivMin, derivMax;
+	private InterpolationType interpType;
+	// the motion being evaluated and the input image
+	private Se3_F32 linearMotion;
+	private Planar<I> linearInput;
+	// motion used to compute feature diversity
+	private Se3_F32 diversityMotion;
+
 	/**
 	 * Declares internal data structures and specifies the type of input images to expect
 	 * @param imageType Input image type
@@ -129,6 +163,45 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 			}
 		};
 		computeD = FactoryDerivative.gradient(DerivativeType.THREE, this.imageType, this.derivType);
+
+		declareConcurrentTasks();
+	}
+
+	private void declareConcurrentTasks() {
+		taskGradient = new IntConsumer() {
+			@Override
+			public void accept(int band) {
+				bandGradient[band].process(gradientInput.getBand(band), derivX.getBand(band), derivY.getBand(band));
+			}
+		};
+		taskLinear = new IntRangeObjectConsumer<BlockWork>() {
+			@Override
+			public void accept(BlockWork work, int minInclusive, int maxExclusive) {
+				work.construct(linearInput, linearMotion, minInclusive, maxExclusive, null, null);
+			}
+		};
+		taskDiversity = new IntRangeObjectConsumer<BlockWork>() {
+			@Override
+			public void accept(BlockWork work, int minInclusive, int maxExclusive) {
+				for (int i = minInclusive; i < maxExclusive; i++) {
+					Pixel p = keypixels.data[diversity.getIndex(i)];
+					SePointOps_F32.transform(diversityMotion, p.p3, work.S);
+					diversity.setPoint(i, work.S.x, work.S.y, work.S.z);
+				}
+			}
+		};
+	}
+
+	/**
+	 * If true then multiple threads are used to estimate the motion.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		diversity.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	/**
@@ -166,9 +239,12 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 	 */
 	public void setInterpolation( double inputMin , double inputMax, double derivMin , double derivMax ,
 								  InterpolationType type) {
-		interpI = FactoryInterpolation.createPixelS(inputMin,inputMax,type, BorderType.EXTENDED, imageType.getImageClass());
-		interpDX = FactoryInterpolation.createPixelS(derivMin,derivMax,type, BorderType.EXTENDED, derivType.getImageClass());
-		interpDY = FactoryInterpolation.createPixelS(derivMin,derivMax,type, BorderType.EXTENDED, derivType.getImageClass());
+		this.inputMin = inputMin; this.inputMax = inputMax;
+		this.derivMin = derivMin; this.derivMax = derivMax;
+		this.interpType = type;
+		// each block has its own copy which needs to be recreated
+		blocks.clear();
+		serialWork = null;
 	}
 
 	/**
@@ -229,6 +305,19 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 	public double computeFeatureDiversity(Se3_F32 keyToCurrent ) {
 
 		diversity.reset();
+		if( concurrent ) {
+			// pixels are transformed in parallel.  Decide which pixels go where first
+			for (int i = 0; i < keypixels.size(); i++) {
+				if( keypixels.data[i].valid )
+					diversity.addIndex(i);
+			}
+			diversityMotion = keyToCurrent;
+			declareBlocks();
+			BoofConcurrency.loopBlocks(0, diversity.getTotalPoints(), blocks, taskDiversity);
+			diversity.process();
+			return diversity.getSpread();
+		}
+
 		for (int i = 0; i < keypixels.size(); i++) {
 			Pixel p = keypixels.data[i];
 
@@ -284,7 +373,32 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 		}
 
 		// compute image derivative and setup interpolation functions
-		computeD.process(input,derivX,derivY);
+		if( concurrent ) {
+			int numBands = imageType.getNumBands();
+			if( bandGradient == null ) {
+				bandGradient = new ImageGradient[numBands];
+				for (int i = 0; i < numBands; i++) {
+					bandGradient[i] = FactoryDerivative.gradient(DerivativeType.THREE,
+							ImageType.single(imageType.getImageClass()), ImageType.single(derivType.getImageClass()));
+				}
+			}
+			gradientInput = input;
+			BoofConcurrency.loopFor(0, numBands, taskGradient);
+			gradientInput = null;
+		} else {
+			computeD.process(input,derivX,derivY);
+		}
+	}
+
+	/**
+	 * Creates one block of storage for each thread
+	 */
+	private void declareBlocks() {
+		int numThreads = BoofConcurrency.getMaxThreads();
+		while( blocks.size() < numThreads )
+			blocks.add( new BlockWork());
+		while( blocks.size() > numThreads )
+			blocks.remove( blocks.size()-1 );
 	}
 
 	/**
@@ -292,101 +406,77 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 	 * @param g initial transform applied to pixel locations.  keyframe to current frame
 	 */
 	void constructLinearSystem(Planar<I> input , Se3_F32 g ) {
-		int numBands = imageType.getNumBands();
+		if( concurrent ) {
+			constructNormalConcurrent(input, g);
+			return;
+		}
 
-		// first precompute everything that does not depend on pixel values
-		inboundsPixels = 0;
-		for (int i = 0; i < keypixels.size(); i++) {
-			Pixel p = keypixels.data[i];
+		// the full linear system is computed as a single block
+		if( serialWork == null )
+			serialWork = new BlockWork();
+		serialWork.reset();
+		serialWork.construct(input, g, 0, keypixels.size(), A, y);
 
-			// Apply the known warp
-			SePointOps_F32.transform(g, p.p3, S);
+		inboundsPixels = serialWork.inbounds;
+		errorOptical = (float)(serialWork.sumError/serialWork.rows);
 
-			if( S.z <= 0 ) {
-				p.valid = false;
-				continue;
-			}
+		A.numRows = serialWork.rows;
+		y.numRows = serialWork.rows;
+	}
 
-			// Compute projected warped pixel coordinate on image I_1
-			p.proj.x = (S.x / S.z) * fx + cx;
-			p.proj.y = (S.y / S.z) * fy + cy;
+	/**
+	 * Computes the normal equations in parallel.  Each block of pixels has its own 6x6 system which are
+	 * added up in the same order every time.
+	 */
+	void constructNormalConcurrent(Planar<I> input , Se3_F32 g ) {
+		declareBlocks();
+		linearInput = input;
+		linearMotion = g;
+		for (int i = 0; i < blocks.size(); i++) {
+			blocks.get(i).reset();
+		}
+		BoofConcurrency.loopBlocks(0, keypixels.size(), blocks, taskLinear);
+		linearInput = null;
+		linearMotion = null;
 
-			// make sure it's in the bounds
-			if (p.proj.x < 0 || p.proj.x > input.width - 1 || p.proj.y < 0 || p.proj.y > input.height - 1) {
-				p.valid = false;
-				continue;
-			} else {
-				p.valid = true;
+		AA.zero();
+		Ay.zero();
+		inboundsPixels = 0;
+		int rows = 0;
+		double sumError = 0;
+		for (int i = 0; i < blocks.size(); i++) {
+			BlockWork b = blocks.get(i);
+			for (int j = 0; j < 36; j++) {
+				AA.data[j] += b.AA[j];
 			}
-			inboundsPixels++;
-
-			// pi matrix derivative relative to t at S
-			float ZZ = S.z * S.z;
-
-			p.dP11 = fx / S.z;
-			p.dP13 = -S.x * fx / ZZ;
-			p.dP22 = fy / S.z;
-			p.dP23 = -S.y * fy / ZZ;
+			for (int j = 0; j < 6; j++) {
+				Ay.data[j] += b.Ay[j];
+			}
+			inboundsPixels += b.inbounds;
+			rows += b.rows;
+			sumError += b.sumError;
 		}
 
-		// how compute the components which require
-		errorOptical = 0;
-		int row = 0;
-		for (int band = 0; band < numBands; band++) {
-			interpDX.setImage(derivX.getBand(band));
-			interpDY.setImage(derivY.getBand(band));
-			interpI.setImage(input.getBand(band));
-
-			for (int i = 0; i < keypixels.size(); i++) {
-				Pixel p = keypixels.data[i];
-
-				if( !p.valid )
-					continue;
-
-				// Apply the known warp
-				// TODO precompute?
-				SePointOps_F32.transform(g, p.p3, S);
-
-				// sample pixel values at warped location in I_1
-				// NOTE: This could be highly optimized.  Compute and save interpolation weights once per input
-				//       instead of for each band and image (current,dx,dy)
-				// TODO create a special bilinear class for this?
-				float current = interpI.get( p.proj.x, p.proj.y);
-				float dx      = interpDX.get(p.proj.x, p.proj.y);
-				float dy      = interpDY.get(p.proj.x, p.proj.y);
-
-				// B = grad^T * dPI/dt = shape(1,3)
-				float b1 = dx*p.dP11;
-				float b2 = dy*p.dP22;
-				float b3 = dx*p.dP13 + dy*p.dP23;
-
-				// C * A(S'(x)) = shape(1,6)
-				int indexA = row * 6;
-				A.data[indexA++] = -b2*S.z + b3*S.y;
-				A.data[indexA++] =  b1*S.z - b3*S.x;
-				A.data[indexA++] = -b1*S.y + b2*S.x;
-				A.data[indexA++] = b1;
-				A.data[indexA++] = b2;
-				A.data[indexA]   = b3;
-
-				float error = -(current - p.bands[band]);
-				y.data[row] = error;
-
-				errorOptical += Math.abs(error);
-				row += 1;
+		// only the upper triangle was computed
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < i; j++) {
+				AA.data[i*6+j] = AA.data[j*6+i];
 			}
 		}
-		errorOptical /= row;
-
-		A.numRows = row;
-		y.numRows = row;
+		errorOptical = (float)(sumError/rows);
 	}
 
 	boolean solveSystem() {
-		if( !solver.setA(A))
-			return false;
-
-		solver.solve(y,twistMatrix);
+		if( concurrent ) {
+			if( !solverNormal.setA(AA) )
+				return false;
+			solverNormal.solve(Ay,twistMatrix);
+		} else {
+			if( !solver.setA(A))
+				return false;
+
+			solver.solve(y,twistMatrix);
+		}
 
 		twist.set((float)twistMatrix.data[0], (float)twistMatrix.data[1], (float)twistMatrix.data[2],
 				(float)twistMatrix.data[3], (float)twistMatrix.data[4], (float)twistMatrix.data[5]);
@@ -409,6 +499,151 @@ public class VisOdomDirectColorDepth<I extends ImageGray<I>, D extends ImageGray
 		return keypixels.size;
 	}
 
+	/**
+	 * Storage for a block of pixels which is processed by a single thread.  In sequential mode a single block
+	 * covers every pixel.
+	 */
+	private class BlockWork {
+		InterpolatePixelS<I> interpI;
+		InterpolatePixelS<D> interpDX;
+		InterpolatePixelS<D> interpDY;
+
+		Point3D_F32 S = new Point3D_F32();
+
+		// upper triangle of A'*A and A'*y
+		double[] AA = new double[36];
+		double[] Ay = new double[6];
+		float[] a = new float[6];
+		double sumError;
+		int inbounds;
+		// number of rows in the linear system
+		int rows;
+
+		BlockWork() {
+			Class<I> imageClass = imageType.getImageClass();
+			Class<D> derivClass = derivType.getImageClass();
+			interpI = FactoryInterpolation.createPixelS(inputMin,inputMax,interpType, BorderType.EXTENDED, imageClass);
+			interpDX = FactoryInterpolation.createPixelS(derivMin,derivMax,interpType, BorderType.EXTENDED, derivClass);
+			interpDY = FactoryInterpolation.createPixelS(derivMin,derivMax,interpType, BorderType.EXTENDED, derivClass);
+		}
+
+		void reset() {
+			for (int i = 0; i < 36; i++) {
+				AA[i] = 0;
+			}
+			for (int i = 0; i < 6; i++) {
+				Ay[i] = 0;
+			}
+			sumError = 0;
+			inbounds = 0;
+			rows = 0;
+		}
+
+		/**
+		 * Computes the linear system for a block of pixels.  If A and y are provided then each row is saved
+		 * into them, otherwise the normal equations are accumulated.
+		 *
+		 * @param A (Output) Storage for rows in the linear system or null.
+		 * @param y (Output) Storage for the error in each row or null.
+		 */
+		void construct( Planar<I> input , Se3_F32 g , int pixel0 , int pixel1 , DMatrixRMaj A , DMatrixRMaj y ) {
+			int numBands = imageType.getNumBands();
+
+			// first precompute everything that does not depend on pixel values
+			for (int i = pixel0; i < pixel1; i++) {
+				Pixel p = keypixels.data[i];
+
+				// Apply the known warp
+				SePointOps_F32.transform(g, p.p3, S);
+
+				if( S.z <= 0 ) {
+					p.valid = false;
+					continue;
+				}
+
+				// Compute projected warped pixel coordinate on image I_1
+				p.proj.x = (S.x / S.z) * fx + cx;
+				p.proj.y = (S.y / S.z) * fy + cy;
+
+				// make sure it's in the bounds
+				if (p.proj.x < 0 || p.proj.x > input.width - 1 || p.proj.y < 0 || p.proj.y > input.height - 1) {
+					p.valid = false;
+					continue;
+				} else {
+					p.valid = true;
+				}
+				inbounds++;
+
+				// pi matrix derivative relative to t at S
+				float ZZ = S.z * S.z;
+
+				p.dP11 = fx / S.z;
+				p.dP13 = -S.x * fx / ZZ;
+				p.dP22 = fy / S.z;
+				p.dP23 = -S.y * fy / ZZ;
+			}
+
+			// how compute the components which require
+			for (int band = 0; band < numBands; band++) {
+				interpDX.setImage(derivX.getBand(band));
+				interpDY.setImage(derivY.getBand(band));
+				interpI.setImage(input.getBand(band));
+
+				for (int i = pixel0; i < pixel1; i++) {
+					Pixel p = keypixels.data[i];
+
+					if( !p.valid )
+						continue;
+
+					// Apply the known warp
+					// TODO precompute?
+					SePointOps_F32.transform(g, p.p3, S);
+
+					// sample pixel values at warped location in I_1
+					// NOTE: This could be highly optimized.  Compute and save interpolation weights once per input
+					//       instead of for each band and image (current,dx,dy)
+					// TODO create a special bilinear class for this?
+					float current = interpI.get( p.proj.x, p.proj.y);
+					float dx      = interpDX.get(p.proj.x, p.proj.y);
+					float dy      = interpDY.get(p.proj.x, p.proj.y);
+
+					// B = grad^T * dPI/dt = shape(1,3)
+					float b1 = dx*p.dP11;
+					float b2 = dy*p.dP22;
+					float b3 = dx*p.dP13 + dy*p.dP23;
+
+					// C * A(S'(x)) = shape(1,6)
+					a[0] = -b2*S.z + b3*S.y;
+					a[1] =  b1*S.z - b3*S.x;
+					a[2] = -b1*S.y + b2*S.x;
+					a[3] = b1;
+					a[4] = b2;
+					a[5] = b3;
+
+					float error = -(current - p.bands[band]);
+
+					if( A != null ) {
+						int indexA = rows * 6;
+						for (int col = 0; col < 6; col++) {
+							A.data[indexA++] = a[col];
+						}
+						y.data[rows] = error;
+					} else {
+						for (int row = 0; row < 6; row++) {
+							double v = a[row];
+							for (int col = row; col < 6; col++) {
+								AA[row*6+col] += v*a[col];
+							}
+							Ay[row] += v*error;
+						}
+					}
+					sumError += Math.abs(error);
+					rows++;
+				}
+			}
+		}
+	}
+
 	static class Pixel {
 		float bands[]; // pixel intensity in each band
 		int x,y; // pixel coordinate
@@ -23,12 +23,10 @@ import boofcv.abst.sfm.d2.ImageMotion2D;
 import boofcv.abst.sfm.d2.WrapImageMotionPtkSmartRespawn;
 import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.geo.robust.*;
-import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.sfm.d2.*;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.distort.FactoryDistort;
-import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -143,16 +141,13 @@ public class FactoryMotion2D {
 			transform = (StitchingTransform)FactoryStitchingTransform.createHomography_F64();
 		}
 
-		InterpolatePixel<I> interp;
-
-		if( imageType.getFamily() == ImageType.Family.GRAY || imageType.getFamily() == ImageType.Family.PLANAR ) {
-			interp = FactoryInterpolation.createPixelS(0, 255, InterpolationType.BILINEAR, BorderType.EXTENDED,
-					imageType.getImageClass());
-		} else {
+		if( imageType.getFamily() != ImageType.Family.GRAY && imageType.getFamily() != ImageType.Family.PLANAR ) {
 			throw new IllegalArgumentException("Unsupported image type");
 		}
 
-		ImageDistort<I,I> distorter = FactoryDistort.distort(false, interp, imageType);
+		// new images are rendered using multiple threads
+		ImageDistort<I,I> distorter = FactoryDistort.distortConcurrent(InterpolationType.BILINEAR,
+				BorderType.EXTENDED, imageType, imageType);
 		distorter.setRenderAll(false);
 
 		return new StitchingFromMotion2D<>(motion2D, distorter, transform, maxJumpFraction);
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVisOdomMetricsCollector {
+
+	@Test
+	public void processedFrame() {
+		VisOdomMetricsCollector alg = new VisOdomMetricsCollector();
+
+		VisOdomMetrics metrics = new VisOdomMetrics();
+		for (int i = 0; i < 10; i++) {
+			metrics.reset();
+			metrics.success = i != 3;
+			metrics.timeTotal = i;
+			metrics.totalInliers = i*2;
+			metrics.addStage("foo",i+1);
+			alg.processedFrame(metrics);
+		}
+
+		assertEquals(10,alg.getTotalFrames());
+		assertEquals(1,alg.getTotalFailed());
+		assertEquals(10,alg.getCount(VisOdomMetricsCollector.TIME_TOTAL));
+		assertEquals(10,alg.getCount(VisOdomMetricsCollector.INLIERS));
+		assertEquals(10,alg.getCount("foo"));
+		// unknown values should be skipped
+		assertEquals(0,alg.getCount(VisOdomMetricsCollector.TRACKS));
+		assertEquals(0,alg.getCount(VisOdomMetricsCollector.ALLOCATED_BYTES));
+
+		assertEquals(4.5,alg.getMean(VisOdomMetricsCollector.TIME_TOTAL),1e-8);
+		assertEquals(10,alg.getPercentile("foo",1.0),1e-8);
+		assertEquals(18,alg.getPercentile(VisOdomMetricsCollector.INLIERS,1.0),1e-8);
+
+		alg.reset();
+		assertEquals(0,alg.getTotalFrames());
+		assertEquals(0,alg.getNames().size());
+	}
+
+	@Test
+	public void getPercentile() {
+		VisOdomMetricsCollector alg = new VisOdomMetricsCollector();
+
+		assertTrue(Double.isNaN(alg.getPercentile("a",0.5)));
+
+		// add them out of order
+		for (int i = 100; i >= 1; i--) {
+			alg.add("a",i);
+		}
+
+		assertEquals(1,alg.getPercentile("a",0),1e-8);
+		assertEquals(1,alg.getPercentile("a",0.01),1e-8);
+		assertEquals(50,alg.getPercentile("a",0.5),1e-8);
+		assertEquals(90,alg.getPercentile("a",0.9),1e-8);
+		assertEquals(99,alg.getPercentile("a",0.99),1e-8);
+		assertEquals(100,alg.getPercentile("a",1.0),1e-8);
+	}
+
+	/**
+	 * Only the most recent samples should be saved
+	 */
+	@Test
+	public void maxSamples() {
+		VisOdomMetricsCollector alg = new VisOdomMetricsCollector(150);
+
+		for (int i = 0; i < 1000; i++) {
+			alg.add("a",i);
+		}
+
+		assertEquals(150,alg.getCount("a"));
+		assertEquals(850,alg.getPercentile("a",0),1e-8);
+		assertEquals(999,alg.getPercentile("a",1.0),1e-8);
+		assertEquals((850+999)/2.0,alg.getMean("a"),1e-8);
+	}
+
+	@Test
+	public void start_stop() {
+		VisOdomMetrics metrics = new VisOdomMetrics();
+		metrics.totalTracks = 5;
+		metrics.start();
+		assertEquals(-1,metrics.totalTracks);
+		double[] junk = new double[1000];
+		metrics.stop(true);
+
+		assertTrue(metrics.success);
+		assertTrue(metrics.timeTotal >= 0);
+		// if supported some memory should have been allocated
+		if( metrics.allocatedBytes != -1 )
+			assertTrue(metrics.allocatedBytes >= junk.length*8);
+	}
+}
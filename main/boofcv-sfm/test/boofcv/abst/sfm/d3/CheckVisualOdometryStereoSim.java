@@ -18,6 +18,8 @@
 
 package boofcv.abst.sfm.d3;
 
+import boofcv.abst.sfm.AccessVisOdomMetrics;
+import boofcv.abst.sfm.VisOdomMetricsCollector;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.calib.CameraPinholeRadial;
@@ -29,6 +31,7 @@ import georegression.struct.se.Se3_F64;
 import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -132,6 +135,46 @@ public abstract class CheckVisualOdometryStereoSim<I extends ImageGray<I>>
 		}
 	}
 
+	/**
+	 * If metrics are supported see if they are published for every frame
+	 */
+	@Test
+	public void metrics() {
+		StereoVisualOdometry<I> algorithm = createAlgorithm();
+		if( !(algorithm instanceof AccessVisOdomMetrics) )
+			return;
+
+		VisOdomMetricsCollector collector = new VisOdomMetricsCollector();
+		((AccessVisOdomMetrics)algorithm).setMetricsListener(collector);
+		assertTrue(collector == ((AccessVisOdomMetrics)algorithm).getMetricsListener());
+		algorithm.setCalibration(param);
+
+		Se3_F64 worldToLeft = new Se3_F64();
+		Se3_F64 worldToRight = new Se3_F64();
+		Se3_F64 leftToRight = param.getRightToLeft().invert(null);
+
+		for( int i = 0; i < 4; i++ ) {
+			worldToLeft.getT().z = i*0.05;
+			worldToLeft.concat(leftToRight,worldToRight);
+
+			setIntrinsic(param.getLeft());
+			left.setTo(render(worldToLeft));
+			setIntrinsic(param.getRight());
+			right.setTo(render(worldToRight));
+
+			algorithm.process(left,right);
+		}
+
+		assertEquals(4,collector.getTotalFrames());
+		assertEquals(4,collector.getCount(VisOdomMetricsCollector.TIME_TOTAL));
+		assertTrue(collector.getPercentile(VisOdomMetricsCollector.TIME_TOTAL,1.0) > 0);
+		assertTrue(collector.getCount(VisOdomMetricsCollector.INLIERS) > 0);
+
+		// turn it off and metrics should no longer be collected
+		((AccessVisOdomMetrics)algorithm).setMetricsListener(null);
+		algorithm.process(left,right);
+		assertEquals(4,collector.getTotalFrames());
+	}
 
 	public StereoParameters createStereoParam() {
 		StereoParameters ret = new StereoParameters();
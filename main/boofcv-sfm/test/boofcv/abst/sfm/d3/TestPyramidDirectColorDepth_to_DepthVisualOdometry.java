@@ -45,6 +45,7 @@ public class TestPyramidDirectColorDepth_to_DepthVisualOdometry extends CheckVis
 				-1,2,false, ImageType.pl(1,GrayU8.class));
 
 		PyramidDirectColorDepth<GrayU8> alg = new PyramidDirectColorDepth<>(pyramid);
+		alg.setConcurrent(isConcurrent());
 
 		ConvertImageFilter<GrayU8,Planar<GrayU8>> convertInput = new ConvertImageFilter<>(
 				ImageType.single(GrayU8.class), ImageType.pl(1,GrayU8.class));
@@ -53,4 +54,11 @@ public class TestPyramidDirectColorDepth_to_DepthVisualOdometry extends CheckVis
 
 		return new PyramidDirectColorDepth_to_DepthVisualOdometry<>(sparse3D,convertInput,alg,GrayU16.class);
 	}
+
+	/**
+	 * If true then the algorithm will be run using multiple threads
+	 */
+	protected boolean isConcurrent() {
+		return false;
+	}
 }
@@ -21,11 +21,19 @@ package boofcv.abst.sfm.d3;
 import boofcv.abst.feature.describe.DescribeRegionPoint;
 import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
 import boofcv.abst.feature.tracker.PointTracker;
+import boofcv.alg.sfm.d3.SlidingWindowStereoBundle;
+import boofcv.alg.sfm.d3.VisOdomDualTrackPnP;
 import boofcv.alg.tracker.klt.PkltConfig;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.feature.describe.FactoryDescribeRegionPoint;
 import boofcv.factory.feature.tracker.FactoryPointTracker;
 import boofcv.factory.sfm.FactoryVisualOdometry;
 import boofcv.struct.image.GrayF32;
+import georegression.struct.se.Se3_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -38,6 +46,10 @@ public class TestWrapVisOdomDualTrackPnP extends CheckVisualOdometryStereoSim<Gr
 
 	@Override
 	public StereoVisualOdometry<GrayF32> createAlgorithm() {
+		return createAlgorithm(90);
+	}
+
+	private StereoVisualOdometry<GrayF32> createAlgorithm( int thresholdAdd ) {
 		ConfigGeneralDetector configDetector = new ConfigGeneralDetector(600,2,1);
 
 		PkltConfig kltConfig = new PkltConfig();
@@ -51,7 +63,96 @@ public class TestWrapVisOdomDualTrackPnP extends CheckVisualOdometryStereoSim<Gr
 
 		DescribeRegionPoint describe = FactoryDescribeRegionPoint.surfFast(null, GrayF32.class);
 
-		return FactoryVisualOdometry.stereoDualTrackerPnP(90, 2, 1.5, 1.5, 200, 50,
+		return FactoryVisualOdometry.stereoDualTrackerPnP(thresholdAdd, 2, 1.5, 1.5, 200, 50,
 				trackerLeft, trackerRight, describe,GrayF32.class);
 	}
+
+	/**
+	 * Processing the two cameras at the same time should produce the same results as processing them one at a time
+	 */
+	@Test
+	public void concurrent_compareToSequential() {
+		int numThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			WrapVisOdomDualTrackPnP<GrayF32> sequential = (WrapVisOdomDualTrackPnP<GrayF32>)createAlgorithm();
+			WrapVisOdomDualTrackPnP<GrayF32> concurrent = (WrapVisOdomDualTrackPnP<GrayF32>)createAlgorithm();
+			VisOdomDualTrackPnP alg = concurrent.getAlgorithm();
+			alg.setConcurrent(true);
+			alg.setDescribeRight(FactoryDescribeRegionPoint.surfFast(null, GrayF32.class));
+			assertTrue(alg.isConcurrent());
+
+			sequential.setCalibration(param);
+			concurrent.setCalibration(param);
+
+			Se3_F64 worldToLeft = new Se3_F64();
+			Se3_F64 worldToRight = new Se3_F64();
+			Se3_F64 leftToRight = param.getRightToLeft().invert(null);
+
+			for( int i = 0; i < 8; i++ ) {
+				worldToLeft.getT().z = i*0.05;
+				worldToLeft.concat(leftToRight,worldToRight);
+
+				setIntrinsic(param.getLeft());
+				left.setTo(render(worldToLeft));
+				setIntrinsic(param.getRight());
+				right.setTo(render(worldToRight));
+
+				assertEquals(sequential.process(left,right),concurrent.process(left,right));
+
+				Se3_F64 expected = sequential.getCameraToWorld();
+				Se3_F64 found = concurrent.getCameraToWorld();
+				assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getR(),found.getR(),1e-12));
+				assertEquals(0,expected.getT().distance(found.getT()),1e-12);
+				assertEquals(sequential.getAllTracks().size(),concurrent.getAllTracks().size());
+
+				assertTrue(alg.getTimeTracking() > 0);
+				assertTrue(alg.getTimeSpawn() >= 0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(numThreads);
+		}
+	}
+
+	/**
+	 * Every frame is a key frame and is refined with bundle adjustment.  The estimated motion should still be
+	 * accurate and the window should never grow past its maximum size.
+	 */
+	@Test
+	public void bundleAdjustment() {
+		WrapVisOdomDualTrackPnP<GrayF32> algorithm = (WrapVisOdomDualTrackPnP<GrayF32>)createAlgorithm(100000);
+		SlidingWindowStereoBundle bundle = new SlidingWindowStereoBundle(3,20,0);
+		VisOdomDualTrackPnP alg = algorithm.getAlgorithm();
+		alg.setBundleAdjustment(bundle);
+		assertTrue(bundle == alg.getBundleAdjustment());
+
+		algorithm.setCalibration(param);
+
+		Se3_F64 worldToLeft = new Se3_F64();
+		Se3_F64 worldToRight = new Se3_F64();
+		Se3_F64 leftToRight = param.getRightToLeft().invert(null);
+
+		for( int i = 0; i < 8; i++ ) {
+			worldToLeft.getT().z = i*0.05;
+			worldToLeft.concat(leftToRight,worldToRight);
+
+			setIntrinsic(param.getLeft());
+			left.setTo(render(worldToLeft));
+			setIntrinsic(param.getRight());
+			right.setTo(render(worldToRight));
+
+			assertTrue(algorithm.process(left,right));
+			assertEquals(Math.min(i+1,3),bundle.getTotalKeyFrames());
+			if( i > 0 )
+				assertTrue(bundle.getTotalPoints() > 0);
+
+			Se3_F64 foundWorldToLeft = algorithm.getCameraToWorld().invert(null);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(foundWorldToLeft.getR(),worldToLeft.getR(),0.1));
+			assertTrue(foundWorldToLeft.getT().distance(worldToLeft.getT()) < tolerance );
+		}
+
+		algorithm.reset();
+		assertEquals(0,bundle.getTotalKeyFrames());
+	}
 }
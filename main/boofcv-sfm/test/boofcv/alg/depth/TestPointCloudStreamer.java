@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.depth;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.FastQueueArray_I32;
+import boofcv.struct.calib.CameraPinholeRadial;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.Planar;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPointCloudStreamer {
+	Random rand = new Random(234);
+	int width = 64;
+	int height = 50;
+
+	CameraPinholeRadial param = new CameraPinholeRadial(200,201,0,width/2,height/2,width,height).
+			fsetRadial(0.01,-0.005);
+
+	DMatrixRMaj rectK = new DMatrixRMaj(3,3,true,150,0,30,0,152,24,0,0,1);
+	double baseline = 0.1;
+	int minDisparity = 2;
+	int maxDisparity = 40;
+
+	/**
+	 * Compare against the function which creates the entire point cloud
+	 */
+	@Test
+	public void depth() {
+		GrayU16 depth = new GrayU16(width,height);
+		ImageMiscOps.fillUniform(depth, rand, 0, 5000);
+		// make a bunch of pixels invalid
+		for (int i = 0; i < 500; i++) {
+			depth.set(rand.nextInt(width),rand.nextInt(height),0);
+		}
+		Planar<GrayU8> rgb = new Planar<>(GrayU8.class,width,height,3);
+		GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+
+		FastQueue<Point3D_F64> expected = new FastQueue<>(Point3D_F64.class, true);
+		FastQueueArray_I32 expectedColor = new FastQueueArray_I32(3);
+		VisualDepthOps.depthTo3D(param,rgb,depth,expected,expectedColor);
+
+		PointCloudStreamer alg = new PointCloudStreamer(100);
+		alg.configureDepth(param, 1.0);
+
+		ChunkCheck check = new ChunkCheck(100);
+		alg.processDepth(depth, rgb, check);
+		check.checkSizes();
+
+		PointCloudBuffer found = check.buffer;
+		assertEquals(expected.size,found.size());
+		assertEquals(expected.size,found.rgb.size);
+		for (int i = 0; i < expected.size; i++) {
+			Point3D_F64 e = expected.get(i);
+			assertEquals(e.x, found.xyz.get(i*3  ), Math.abs(e.x)*1e-5);
+			assertEquals(e.y, found.xyz.get(i*3+1), Math.abs(e.y)*1e-5);
+			assertEquals(e.z, found.xyz.get(i*3+2), 1e-8);
+
+			int[] c = expectedColor.get(i);
+			assertEquals(c[0] << 16 | c[1] << 8 | c[2], found.rgb.get(i));
+		}
+
+		// no color
+		check = new ChunkCheck(100);
+		alg.processDepth(depth, null, check);
+		assertEquals(expected.size,check.buffer.size());
+		assertEquals(0,check.buffer.rgb.size);
+	}
+
+	@Test
+	public void disparity_U8() {
+		GrayU8 disparity = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(disparity, rand, 0, 60);
+		checkDisparity(disparity, null);
+	}
+
+	@Test
+	public void disparity_F32() {
+		GrayF32 disparity = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(disparity, rand, 0, 60);
+
+		DMatrixRMaj rectR = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,0.01,-0.02,0.05,null);
+		checkDisparity(disparity, rectR);
+	}
+
+	private void checkDisparity( GrayU8 disparity , DMatrixRMaj rectR ) {
+		List<Point3D_F64> expected = new ArrayList<>();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				addExpected(expected,x,y,disparity.get(x,y),rectR);
+			}
+		}
+		checkDisparity(disparity, rectR, expected);
+	}
+
+	private void checkDisparity( GrayF32 disparity , DMatrixRMaj rectR ) {
+		List<Point3D_F64> expected = new ArrayList<>();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				addExpected(expected,x,y,disparity.get(x,y),rectR);
+			}
+		}
+		checkDisparity(disparity, rectR, expected);
+	}
+
+	private void checkDisparity( ImageGray disparity , DMatrixRMaj rectR ,
+								 List<Point3D_F64> expected ) {
+		GrayU8 gray = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(gray, rand, 0, 255);
+
+		PointCloudStreamer alg = new PointCloudStreamer(77);
+		alg.configureDisparity(rectK, rectR, baseline, minDisparity, maxDisparity);
+
+		ChunkCheck check = new ChunkCheck(77);
+		alg.processDisparity(disparity, gray, check);
+		check.checkSizes();
+
+		PointCloudBuffer found = check.buffer;
+		assertTrue(expected.size() > 0);
+		assertTrue(expected.size() < width*height);
+		assertEquals(expected.size(),found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Point3D_F64 e = expected.get(i);
+			assertEquals(e.x, found.xyz.get(i*3  ), 1e-4);
+			assertEquals(e.y, found.xyz.get(i*3+1), 1e-4);
+			assertEquals(e.z, found.xyz.get(i*3+2), 1e-4);
+		}
+		assertEquals(found.rgb.size,found.size());
+	}
+
+	private void addExpected( List<Point3D_F64> expected , int x , int y , double d , DMatrixRMaj rectR ) {
+		if( d >= maxDisparity-minDisparity )
+			return;
+		d += minDisparity;
+
+		double fx = rectK.get(0,0), fy = rectK.get(1,1);
+		Point3D_F64 p = new Point3D_F64();
+		p.z = baseline*fx/d;
+		p.x = p.z*(x - rectK.get(0,2))/fx;
+		p.y = p.z*(y - rectK.get(1,2))/fy;
+
+		if( rectR != null )
+			GeometryMath_F64.multTran(rectR,p,p);
+		expected.add(p);
+	}
+
+	/**
+	 * The output should be identical when rows are processed by multiple threads
+	 */
+	@Test
+	public void concurrent_compareToSequential() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			GrayU16 depth = new GrayU16(width,height);
+			ImageMiscOps.fillUniform(depth, rand, 0, 5000);
+			for (int i = 0; i < 500; i++) {
+				depth.set(rand.nextInt(width),rand.nextInt(height),0);
+			}
+			GrayU8 gray = new GrayU8(width,height);
+			ImageMiscOps.fillUniform(gray, rand, 0, 255);
+
+			PointCloudStreamer sequential = new PointCloudStreamer(50);
+			PointCloudStreamer concurrent = new PointCloudStreamer(50);
+			concurrent.setConcurrent(true);
+			assertTrue(concurrent.isConcurrent());
+			// make sure there are multiple passes with a partial pass at the end
+			concurrent.setBlockRows(3);
+			sequential.configureDepth(param, 0.001);
+			concurrent.configureDepth(param, 0.001);
+
+			ChunkCheck expected = new ChunkCheck(50);
+			ChunkCheck found = new ChunkCheck(50);
+			sequential.processDepth(depth, gray, expected);
+			concurrent.processDepth(depth, gray, found);
+			found.checkSizes();
+
+			assertEquals(expected.chunkSizes,found.chunkSizes);
+			assertEquals(expected.buffer.xyz.size,found.buffer.xyz.size);
+			for (int i = 0; i < expected.buffer.xyz.size; i++) {
+				assertEquals(expected.buffer.xyz.get(i),found.buffer.xyz.get(i),0.0f);
+			}
+			for (int i = 0; i < expected.buffer.rgb.size; i++) {
+				assertEquals(expected.buffer.rgb.get(i),found.buffer.rgb.get(i));
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void depth_wrongShape() {
+		PointCloudStreamer alg = new PointCloudStreamer(50);
+		alg.configureDepth(param, 1);
+		alg.processDepth(new GrayU16(width+1,height), null, new PointCloudBuffer());
+	}
+
+	/**
+	 * Saves the points and makes sure every chunk but the last one is full
+	 */
+	private static class ChunkCheck implements PointCloudChunkListener {
+		int chunkSize;
+		List<Integer> chunkSizes = new ArrayList<>();
+		PointCloudBuffer buffer = new PointCloudBuffer();
+
+		ChunkCheck(int chunkSize) {
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		public void processChunk(PointCloudChunk chunk) {
+			assertEquals(chunkSize, chunk.getCapacity());
+			assertTrue(chunk.size > 0);
+			chunkSizes.add(chunk.size);
+			buffer.processChunk(chunk);
+		}
+
+		void checkSizes() {
+			assertTrue(chunkSizes.size() > 1);
+			for (int i = 0; i < chunkSizes.size()-1; i++) {
+				assertEquals(chunkSize, (int)chunkSizes.get(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBlendMultiBand_F32 {
+	Random rand = new Random(234);
+	int width = 45, height = 37;
+
+	/**
+	 * If the mask is all one or all zero then one of the input images should be returned
+	 */
+	@Test
+	public void constantMask() {
+		GrayF32 a = new GrayF32(width,height);
+		GrayF32 b = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(a,rand,0,100);
+		ImageMiscOps.fillUniform(b,rand,0,100);
+		GrayF32 mask = new GrayF32(width,height);
+		GrayF32 found = new GrayF32(width,height);
+
+		BlendMultiBand_F32 alg = new BlendMultiBand_F32(4);
+
+		ImageMiscOps.fill(mask,1);
+		alg.blend(a,b,mask,found);
+		assertEquals(4,alg.getLevels());
+		BoofTesting.assertEquals(a,found,1e-3);
+
+		ImageMiscOps.fill(mask,0);
+		alg.blend(a,b,mask,found);
+		BoofTesting.assertEquals(b,found,1e-3);
+	}
+
+	/**
+	 * With one level it should be a weighted average
+	 */
+	@Test
+	public void singleLevel() {
+		GrayF32 a = new GrayF32(width,height);
+		GrayF32 b = new GrayF32(width,height);
+		GrayF32 mask = new GrayF32(width,height);
+		ImageMiscOps.fillUniform(a,rand,0,100);
+		ImageMiscOps.fillUniform(b,rand,0,100);
+		ImageMiscOps.fillUniform(mask,rand,0,1);
+
+		GrayF32 found = new GrayF32(width,height);
+		new BlendMultiBand_F32(1).blend(a,b,mask,found);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				float m = mask.get(x,y);
+				assertEquals(m*a.get(x,y)+(1-m)*b.get(x,y),found.get(x,y),1e-4f);
+			}
+		}
+	}
+
+	/**
+	 * Step change in the mask between two constant images.  Far from the step the images should be unmodified
+	 * and near the step the transition should be smooth
+	 */
+	@Test
+	public void stepMask() {
+		GrayF32 a = new GrayF32(width,height);
+		GrayF32 b = new GrayF32(width,height);
+		GrayF32 mask = new GrayF32(width,height);
+		ImageMiscOps.fill(a,100);
+		ImageMiscOps.fill(b,20);
+		ImageMiscOps.fill(mask.subimage(0,0,width/2,height),1);
+
+		GrayF32 found = new GrayF32(width,height);
+		BlendMultiBand_F32 alg = new BlendMultiBand_F32(3);
+		// input and output are the same image
+		alg.blend(a,b,mask,a);
+		found.setTo(a);
+
+		for (int y = 0; y < height; y++) {
+			assertEquals(100,found.get(0,y),1e-3f);
+			assertEquals(20,found.get(width-1,y),1e-3f);
+			for (int x = 1; x < width; x++) {
+				// values should never increase moving from a to b
+				assertTrue(found.get(x,y) <= found.get(x-1,y)+1e-3f);
+			}
+		}
+		// there should be values in between
+		float middle = found.get(width/2,height/2);
+		assertTrue(middle > 20.5f && middle < 99.5f);
+	}
+
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+
+			GrayF32 a = new GrayF32(width,height);
+			GrayF32 b = new GrayF32(width,height);
+			GrayF32 mask = new GrayF32(width,height);
+			ImageMiscOps.fillUniform(a,rand,0,100);
+			ImageMiscOps.fillUniform(b,rand,0,100);
+			ImageMiscOps.fillUniform(mask,rand,0,1);
+
+			GrayF32 expected = new GrayF32(width,height);
+			GrayF32 found = new GrayF32(width,height);
+			new BlendMultiBand_F32(4).blend(a,b,mask,expected);
+
+			BlendMultiBand_F32 alg = new BlendMultiBand_F32(4);
+			alg.setConcurrent(true);
+			alg.blend(a,b,mask,found);
+
+			BoofTesting.assertEquals(expected,found,0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+}
@@ -217,6 +217,17 @@ public class TestImageMotionPointTrackerKey {
 			list.addAll(this.listSpawned);
 			return list;
 		}
+
+		@Override public int getTotalAll() {return list.size();}
+		@Override public PointTrack getAll(int index) {return list.get(index);}
+		@Override public int getTotalActive() {return list.size();}
+		@Override public PointTrack getActive(int index) {return list.get(index);}
+		@Override public int getTotalInactive() {return 0;}
+		@Override public PointTrack getInactive(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalDropped() {return 0;}
+		@Override public PointTrack getDropped(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalNew() {return listSpawned.size();}
+		@Override public PointTrack getNew(int index) {return listSpawned.get(index);}
 	}
 
 	public static class DummyModelMatcher<T extends InvertibleTransform> implements ModelMatcher<T,AssociatedPair> {
@@ -323,6 +323,17 @@ public class TestImageMotionPtkSmartRespawn {
 			return new ArrayList<>();
 		}
 
+		@Override public int getTotalAll() {return 0;}
+		@Override public PointTrack getAll(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalActive() {return 0;}
+		@Override public PointTrack getActive(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalInactive() {return 0;}
+		@Override public PointTrack getInactive(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalDropped() {return 0;}
+		@Override public PointTrack getDropped(int index) {throw new IndexOutOfBoundsException();}
+		@Override public int getTotalNew() {return 0;}
+		@Override public PointTrack getNew(int index) {throw new IndexOutOfBoundsException();}
+
 		@Override
 		public void spawnTracks() {}
 	}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.Planar;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestStitchingCompositor {
+	Random rand = new Random(234);
+
+	int width = 80, height = 60;
+	int frameWidth = 40, frameHeight = 30;
+	int offX = 10, offY = 5;
+
+	// translates the frame into the stitched image
+	PixelTransformAffine_F32 worldToCurr = new PixelTransformAffine_F32(
+			new Affine2D_F32(1,0,0,1,-offX,-offY));
+
+	/**
+	 * Pixels which have not been rendered before should be copied exactly
+	 */
+	@Test
+	public void firstImageCopied() {
+		for( StitchingCompositor.Blend blend : StitchingCompositor.Blend.values() ) {
+			GrayF32 stitched = new GrayF32(width, height);
+			GrayF32 rendered = stitched.createSameShape();
+			ImageMiscOps.fillUniform(rendered, rand, 0, 200);
+
+			StitchingCompositor<GrayF32> alg = new StitchingCompositor<>(blend, 4);
+			alg.initialize(width, height);
+			alg.composite(rendered, stitched, worldToCurr, frameWidth, frameHeight, 0, 0, width, height);
+
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					if( inside(x,y) ) {
+						assertEquals(rendered.get(x, y), stitched.get(x, y), 1e-4f);
+						assertEquals(1, alg.getCoverage().get(x, y));
+					} else {
+						assertEquals(0, stitched.get(x, y), 1e-4f);
+						assertEquals(0, alg.getCoverage().get(x, y));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The second image should be blended in near its border and replace the image away from its border
+	 */
+	@Test
+	public void blended() {
+		for( StitchingCompositor.Blend blend : StitchingCompositor.Blend.values() ) {
+			GrayU8 stitched = new GrayU8(width, height);
+			GrayU8 rendered = stitched.createSameShape();
+
+			StitchingCompositor<GrayU8> alg = new StitchingCompositor<>(blend, 3);
+			alg.setFeatherRadius(5);
+			alg.initialize(width, height);
+			ImageMiscOps.fill(stitched, 20);
+			ImageMiscOps.fill(alg.getCoverage(), 1);
+
+			ImageMiscOps.fill(rendered, 200);
+			alg.composite(rendered, stitched, worldToCurr, frameWidth, frameHeight, 0, 0, width, height);
+
+			// center of the new frame
+			assertEquals(200, stitched.get(offX+frameWidth/2, offY+frameHeight/2), 1);
+			// far outside the frame it should not be modified
+			assertEquals(20, stitched.get(width-1, height-1));
+			// border of the new frame is mostly the old image
+			int border = stitched.get(offX, offY+frameHeight/2);
+			assertTrue(border >= 20 && border < 110);
+			// should be in between
+			int middle = stitched.get(offX+2, offY+frameHeight/2);
+			assertTrue(middle > border && middle < 200);
+		}
+	}
+
+	/**
+	 * Only the specified region should be modified
+	 */
+	@Test
+	public void region() {
+		GrayF32 stitched = new GrayF32(width, height);
+		GrayF32 rendered = stitched.createSameShape();
+		ImageMiscOps.fill(rendered, 100);
+
+		StitchingCompositor<GrayF32> alg = new StitchingCompositor<>(StitchingCompositor.Blend.FEATHER, 4);
+		alg.initialize(width, height);
+		alg.composite(rendered, stitched, worldToCurr, frameWidth, frameHeight, 20, 10, 30, 25);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				boolean modified = x >= 20 && x < 30 && y >= 10 && y < 25;
+				assertEquals(modified ? 100 : 0, stitched.get(x, y), 1e-4f);
+			}
+		}
+	}
+
+	@Test
+	public void transform() {
+		StitchingCompositor<GrayF32> alg = new StitchingCompositor<>(StitchingCompositor.Blend.FEATHER, 4);
+		alg.initialize(width, height);
+		ImageMiscOps.fill(alg.getCoverage().subimage(5,6,10,12), 1);
+
+		alg.transform(new PixelTransformAffine_F32(new Affine2D_F32(1,0,0,1,2,3)), width+5, height);
+		assertEquals(width+5, alg.getCoverage().width);
+		assertEquals(1, alg.getCoverage().get(3, 3));
+		assertEquals(0, alg.getCoverage().get(8, 3));
+		assertEquals(1, alg.getCoverage().get(7, 8));
+		assertEquals(0, alg.getCoverage().get(3, 9));
+
+		alg.resize(4, 5);
+		assertEquals(4, alg.getCoverage().width);
+		assertEquals(1, alg.getCoverage().get(3, 3));
+	}
+
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			ImageType<Planar<GrayU8>> type = ImageType.pl(3, GrayU8.class);
+
+			for( StitchingCompositor.Blend blend : StitchingCompositor.Blend.values() ) {
+				Planar<GrayU8> expected = type.createImage(width, height);
+				Planar<GrayU8> rendered = type.createImage(width, height);
+				GImageMiscOps.fillUniform(expected, rand, 0, 200);
+				GImageMiscOps.fillUniform(rendered, rand, 0, 200);
+				Planar<GrayU8> found = expected.clone();
+
+				StitchingCompositor<Planar<GrayU8>> alg = new StitchingCompositor<>(blend, 4);
+				alg.initialize(width, height);
+				ImageMiscOps.fill(alg.getCoverage().subimage(0,0,width/2,height), 1);
+				alg.composite(rendered, expected, worldToCurr, frameWidth, frameHeight, 0, 0, width, height);
+
+				alg = new StitchingCompositor<>(blend, 4);
+				alg.setConcurrent(true);
+				alg.initialize(width, height);
+				ImageMiscOps.fill(alg.getCoverage().subimage(0,0,width/2,height), 1);
+				alg.composite(rendered, found, worldToCurr, frameWidth, frameHeight, 0, 0, width, height);
+
+				BoofTesting.assertEquals(expected, found, 0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private boolean inside( int x , int y ) {
+		return x >= offX && y >= offY && x < offX+frameWidth && y < offY+frameHeight;
+	}
+}
@@ -216,6 +216,46 @@ public class TestStitchingFromMotion2D {
 		assertEquals(-2+4,found.ty,1e-5);
 	}
 
+	/**
+	 * Images are blended together with a compositor.  Moving the frame should leave the old image where the
+	 * new image doesn't overlap
+	 */
+	@Test
+	public void compositor() {
+		HelperMotion motion = new HelperMotion();
+		InterpolatePixelS interp = FactoryInterpolation.createPixelS(0, 255,
+				InterpolationType.BILINEAR, BorderType.EXTENDED, GrayF32.class);
+		ImageDistort distorter = FactoryDistort.distortSB(false, interp, GrayF32.class);
+		distorter.setRenderAll(false);
+
+		StitchingTransform trans = FactoryStitchingTransform.createAffine_F64();
+
+		StitchingFromMotion2D<GrayF32,Affine2D_F64> alg =
+				new StitchingFromMotion2D<>(motion, distorter, trans, 0.3);
+		StitchingCompositor<GrayF32> compositor = new StitchingCompositor<>(StitchingCompositor.Blend.FEATHER,4);
+		alg.setCompositor(compositor);
+
+		alg.configure(200,300,null);
+		ImageMiscOps.fill(image,50);
+		assertTrue(alg.process(image));
+		GrayF32 stitched = alg.getStitchedImage();
+		// translation moves the image by (-1,2)
+		assertEquals(50, stitched.get(10,10), 1e-4f);
+		assertEquals(0, stitched.get(120,10), 1e-4f);
+		assertEquals(1, compositor.getCoverage().get(10,10));
+
+		motion.found = new Affine2D_F64(1,0,0,1,-5,-2);
+		ImageMiscOps.fill(image,150);
+		assertTrue(alg.process(image));
+		// new image is in the middle and the old image is where they don't overlap
+		assertEquals(150, stitched.get(50,50), 1e-4f);
+		assertEquals(50, stitched.get(1,50), 1e-4f);
+		assertEquals(0, stitched.get(120,10), 1e-4f);
+
+		alg.reset();
+		assertEquals(0, compositor.getCoverage().get(10,10));
+	}
+
 	private void checkBlock( int x0 , int y0 , int x1 , int y1 , GrayF32 image ) {
 
 		for( int y = 0; y < image.height; y++ ) {
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSlidingWindowStereoBundle {
+
+	Random rand = new Random(234);
+
+	Se3_F64 leftToRight = new Se3_F64();
+	List<Point3D_F64> worldPoints = new ArrayList<>();
+	List<Se3_F64> leftToWorld = new ArrayList<>();
+
+	public TestSlidingWindowStereoBundle() {
+		leftToRight.T.set(-0.2,0,0);
+
+		for (int i = 0; i < 60; i++) {
+			worldPoints.add(new Point3D_F64(rand.nextGaussian(),rand.nextGaussian()*0.5,4+rand.nextGaussian()*0.2));
+		}
+		for (int i = 0; i < 8; i++) {
+			Se3_F64 pose = new Se3_F64();
+			ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,0,0.01*i,0,pose.R);
+			pose.T.set(0.05*i,0,0.1*i);
+			leftToWorld.add(pose);
+		}
+	}
+
+	/**
+	 * Perfect observations with noisy initial estimates.  All but the oldest key frame should be refined
+	 * back to the true values.
+	 */
+	@Test
+	public void optimize_perfect() {
+		SlidingWindowStereoBundle alg = new SlidingWindowStereoBundle(5,100,0);
+		alg.setCalibration(leftToRight);
+
+		for (int frame = 0; frame < 5; frame++) {
+			Se3_F64 noisy = leftToWorld.get(frame).copy();
+			if( frame > 0 )
+				noisy.T.x += 0.01;
+			alg.addKeyFrame(noisy);
+			addObservations(alg,frame,0,worldPoints.size(),0.05);
+		}
+
+		assertTrue(alg.optimize());
+		assertTrue(alg.isConverged());
+		assertEquals(0,alg.getFunctionValue(),1e-12);
+
+		for (int frame = 0; frame < 5; frame++) {
+			Se3_F64 expected = leftToWorld.get(frame);
+			Se3_F64 found = alg.getKeyFrameToWorld(frame);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R,found.R,1e-6));
+			assertEquals(0,expected.T.distance(found.T),1e-6);
+		}
+		for (int i = 0; i < worldPoints.size(); i++) {
+			assertEquals(0,worldPoints.get(i).distance(alg.lookupPoint(i)),1e-5);
+		}
+	}
+
+	/**
+	 * The oldest key frame should be removed when the window is full, along with points only it observed
+	 */
+	@Test
+	public void slidingWindow() {
+		SlidingWindowStereoBundle alg = new SlidingWindowStereoBundle(3,10,0);
+		alg.setCalibration(leftToRight);
+
+		// each frame observes 20 points and shares 10 of them with the next frame
+		for (int frame = 0; frame < 5; frame++) {
+			alg.addKeyFrame(leftToWorld.get(frame));
+			addObservations(alg,frame,frame*10,frame*10+20,0);
+
+			int totalFrames = Math.min(frame+1,3);
+			assertEquals(totalFrames,alg.getTotalKeyFrames());
+			assertEquals(totalFrames*10+10,alg.getTotalPoints());
+			alg.optimize();
+		}
+
+		// points from removed frames should be gone
+		for (int i = 0; i < 20; i++) {
+			assertNull(alg.lookupPoint(i));
+		}
+		for (int i = 20; i < 60; i++) {
+			assertNotNull(alg.lookupPoint(i));
+		}
+		assertEquals(0,leftToWorld.get(2).T.distance(alg.getKeyFrameToWorld(0).T),1e-8);
+
+		alg.reset();
+		assertEquals(0,alg.getTotalKeyFrames());
+		assertEquals(0,alg.getTotalPoints());
+		assertNull(alg.lookupPoint(30));
+	}
+
+	/**
+	 * Nothing can be optimized with a single key frame
+	 */
+	@Test
+	public void optimize_oneKeyFrame() {
+		SlidingWindowStereoBundle alg = new SlidingWindowStereoBundle(3,10,0);
+		alg.setCalibration(leftToRight);
+		alg.addKeyFrame(leftToWorld.get(0));
+		addObservations(alg,0,0,10,0);
+		assertFalse(alg.optimize());
+	}
+
+	/**
+	 * A tiny time budget should stop the optimization after the first iteration
+	 */
+	@Test
+	public void timeBudget() {
+		SlidingWindowStereoBundle alg = new SlidingWindowStereoBundle(5,100,1e-6);
+		alg.setCalibration(leftToRight);
+
+		for (int frame = 0; frame < 5; frame++) {
+			Se3_F64 noisy = leftToWorld.get(frame).copy();
+			if( frame > 0 )
+				noisy.T.x += 0.01;
+			alg.addKeyFrame(noisy);
+			addObservations(alg,frame,0,worldPoints.size(),0.05);
+		}
+
+		assertTrue(alg.optimize());
+		assertFalse(alg.isConverged());
+		assertEquals(1,alg.getIterations());
+		assertTrue(alg.getTimeOptimize() > 0);
+	}
+
+	/**
+	 * Adds perfect observations of points in the range [start,end)
+	 *
+	 * @param pointNoise Noise added to the initial estimate of the point's location
+	 */
+	private void addObservations( SlidingWindowStereoBundle alg , int frame , int start , int end ,
+								  double pointNoise ) {
+		Se3_F64 worldToLeft = leftToWorld.get(frame).invert(null);
+		Point3D_F64 l = new Point3D_F64();
+		Point3D_F64 r = new Point3D_F64();
+		for (int i = start; i < end; i++) {
+			Point3D_F64 X = worldPoints.get(i);
+			SePointOps_F64.transform(worldToLeft,X,l);
+			SePointOps_F64.transform(leftToRight,l,r);
+
+			Point3D_F64 guess = X.copy();
+			guess.x += rand.nextGaussian()*pointNoise;
+			guess.z += rand.nextGaussian()*pointNoise;
+
+			alg.addObservation(i,new Point2D_F64(l.x/l.z,l.y/l.z),new Point2D_F64(r.x/r.z,r.y/r.z),guess);
+		}
+	}
+}
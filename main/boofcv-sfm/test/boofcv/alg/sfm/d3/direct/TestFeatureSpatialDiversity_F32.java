@@ -18,10 +18,13 @@
 
 package boofcv.alg.sfm.d3.direct;
 
+import boofcv.concurrency.BoofConcurrency;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import static org.junit.Assert.fail;
+import java.util.Random;
+
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -32,4 +35,45 @@ public class TestFeatureSpatialDiversity_F32 {
 	public void checkKeyFrameLogic() {
 		fail("implement");
 	}
+
+	/**
+	 * Filling in points by index using multiple threads should produce the same spread
+	 */
+	@Test
+	public void concurrent_compareToSequential() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			Random rand = new Random(234);
+
+			FeatureSpatialDiversity_F32 sequential = new FeatureSpatialDiversity_F32();
+			FeatureSpatialDiversity_F32 concurrent = new FeatureSpatialDiversity_F32();
+			concurrent.setConcurrent(true);
+			assertTrue(concurrent.isConcurrent());
+
+			int N = 1000;
+			float[] points = new float[N*3];
+			for (int i = 0; i < N; i++) {
+				points[i*3  ] = (float)rand.nextGaussian();
+				points[i*3+1] = (float)rand.nextGaussian()*0.2f;
+				points[i*3+2] = 3+rand.nextFloat();
+
+				sequential.addPoint(points[i*3],points[i*3+1],points[i*3+2]);
+				concurrent.addIndex(N-1-i);
+			}
+			assertEquals(N,concurrent.getTotalPoints());
+			for (int i = 0; i < N; i++) {
+				int index = concurrent.getIndex(i);
+				concurrent.setPoint(i,points[index*3],points[index*3+1],points[index*3+2]);
+			}
+
+			sequential.process();
+			concurrent.process();
+
+			assertTrue(sequential.getSpread() > 0);
+			assertEquals(sequential.getSpread(),concurrent.getSpread(),1e-5);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
 }
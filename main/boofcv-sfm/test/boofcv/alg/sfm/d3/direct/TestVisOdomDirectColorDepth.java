@@ -19,12 +19,15 @@
 package boofcv.alg.sfm.d3.direct;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.testing.BoofTesting;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.Planar;
 import georegression.geometry.ConvertRotation3D_F32;
 import georegression.misc.GrlConstants;
 import georegression.struct.se.Se3_F32;
 import georegression.struct.so.Rodrigues_F32;
+import org.ejml.dense.row.MatrixFeatures_FDRM;
 import org.junit.Test;
 
 import java.util.Random;
@@ -85,8 +88,72 @@ public class TestVisOdomDirectColorDepth {
 		assertTrue( 1.5f*Math.abs(a.T.x) < Math.abs(d.T.x) );
 	}
 
+	/**
+	 * The concurrent implementation solves the normal equations instead.  The solution should be the same up to
+	 * numerical precision
+	 */
+	@Test
+	public void concurrent_compareToSequential() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			for (int trial = 0; trial < 4; trial++) {
+				float dx = trial%2 == 0 ? 6 : 0;
+				float dy = trial%2 == 0 ? 0 : 6;
+				long seed = rand.nextLong();
+
+				rand = new Random(seed);
+				Se3_F32 expected = computeMotion(10, 20, dx, dy, false).copy();
+				rand = new Random(seed);
+				Se3_F32 found = computeMotion(10, 20, dx, dy, true);
+
+				assertTrue(MatrixFeatures_FDRM.isIdentical(expected.R, found.R, 1e-4f));
+				assertEquals(0, expected.T.distance(found.T), 1e-4f);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * The gradient computed one band per thread must be identical
+	 */
+	@Test
+	public void concurrent_gradient() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(4);
+			Planar<GrayF32> input = new Planar<>(GrayF32.class,width,height,numBands);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+			VisOdomDirectColorDepth<GrayF32,GrayF32> sequential =
+					new VisOdomDirectColorDepth<>(numBands,imageType,imageType);
+			VisOdomDirectColorDepth<GrayF32,GrayF32> concurrent =
+					new VisOdomDirectColorDepth<>(numBands,imageType,imageType);
+			concurrent.setConcurrent(true);
+			assertTrue(concurrent.isConcurrent());
+			sequential.setCameraParameters(fx,fy,cx,cy,width,height);
+			concurrent.setCameraParameters(fx,fy,cx,cy,width,height);
+
+			sequential.initMotion(input);
+			concurrent.initMotion(input);
+
+			for (int band = 0; band < numBands; band++) {
+				BoofTesting.assertEquals(sequential.derivX.getBand(band), concurrent.derivX.getBand(band), 0);
+				BoofTesting.assertEquals(sequential.derivY.getBand(band), concurrent.derivY.getBand(band), 0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
 	public Se3_F32 computeMotion( float colorBefore , float colorAfter , float dx , float dy ) {
+		return computeMotion(colorBefore, colorAfter, dx, dy, false);
+	}
+
+	public Se3_F32 computeMotion( float colorBefore , float colorAfter , float dx , float dy , boolean concurrent ) {
 		VisOdomDirectColorDepth<GrayF32,GrayF32> alg = new VisOdomDirectColorDepth<>(numBands,imageType,imageType);
+		alg.setConcurrent(concurrent);
 		alg.setCameraParameters(fx,fy,cx,cy,width,height);
 
 		Planar<GrayF32> input = new Planar<>(GrayF32.class,width,height,numBands);